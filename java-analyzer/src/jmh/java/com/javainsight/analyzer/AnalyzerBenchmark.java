@@ -0,0 +1,151 @@
+package com.javainsight.analyzer;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.javainsight.analyzer.clone.CloneDetector;
+import com.javainsight.analyzer.clone.CloneGroup;
+import com.javainsight.analyzer.clone.MethodFingerprint;
+import com.javainsight.analyzer.graph.CallGraph;
+import com.javainsight.analyzer.model.ClassAnalysisResult;
+import com.javainsight.analyzer.source.InMemoryJavaSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analyzer hot paths over synthetic corpora of 100, 10k and 100k methods.
+ * Each benchmark processes the whole corpus once per invocation, so scores are comparable across sizes
+ * only after dividing by the method count.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class AnalyzerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Corpus {
+        @Param({"100", "10000", "100000"})
+        public int methods;
+
+        List<InMemoryJavaSource> sources;
+        JavaFileAnalyzer analyzer;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            sources = SyntheticCorpus.generate(methods);
+            analyzer = new JavaFileAnalyzer();
+        }
+    }
+
+    /** Corpus that has already been parsed, for the AST visitors. */
+    @State(Scope.Benchmark)
+    public static class ParsedCorpus extends Corpus {
+        final List<CompilationUnit> compilationUnits = new ArrayList<>();
+        final List<ClassAnalysisResult> classResults = new ArrayList<>();
+
+        @Setup(Level.Trial)
+        public void parse() {
+            JavaParser parser = new JavaParser(new ParserConfiguration());
+            for (InMemoryJavaSource source : sources) {
+                CompilationUnit cu = parser.parse(new String(source.readContent(), StandardCharsets.UTF_8)).getResult().orElseThrow();
+                compilationUnits.add(cu);
+                classResults.addAll(MetricsVisitor.collect(cu, new CallGraph()));
+            }
+        }
+    }
+
+    /** The clone detection fingerprints of every file; the syntax trees are not kept. */
+    @State(Scope.Benchmark)
+    public static class FingerprintedCorpus extends Corpus {
+        final List<FileAnalysisResult> files = new ArrayList<>();
+
+        @Setup(Level.Trial)
+        public void fingerprint() {
+            JavaParser parser = new JavaParser(new ParserConfiguration());
+            for (InMemoryJavaSource source : sources) {
+                CompilationUnit cu = parser.parse(new String(source.readContent(), StandardCharsets.UTF_8)).getResult().orElseThrow();
+                List<MethodFingerprint> fingerprints = new ArrayList<>();
+                MetricsVisitor.collect(cu, new CallGraph(), null, fingerprints);
+                FileAnalysisResult fileResult = new FileAnalysisResult(source.getName());
+                fileResult.setMethodFingerprints(fingerprints);
+                files.add(fileResult);
+            }
+        }
+    }
+
+    @Benchmark
+    public void javaParserParse(Corpus corpus, Blackhole blackhole) {
+        JavaParser parser = new JavaParser(new ParserConfiguration());
+        for (InMemoryJavaSource source : corpus.sources) {
+            blackhole.consume(parser.parse(new ByteArrayInputStream(source.readContent()), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Benchmark
+    public CallGraph metricsVisitorSinglePass(ParsedCorpus corpus, Blackhole blackhole) {
+        CallGraph callGraph = new CallGraph();
+        for (CompilationUnit cu : corpus.compilationUnits) {
+            blackhole.consume(MetricsVisitor.collect(cu, callGraph));
+        }
+        return callGraph;
+    }
+
+    /** The single pass plus the clone detection fingerprint of every method body. */
+    @Benchmark
+    public CallGraph metricsVisitorWithFingerprints(ParsedCorpus corpus, Blackhole blackhole) {
+        CallGraph callGraph = new CallGraph();
+        for (CompilationUnit cu : corpus.compilationUnits) {
+            List<MethodFingerprint> fingerprints = new ArrayList<>();
+            blackhole.consume(MetricsVisitor.collect(cu, callGraph, null, fingerprints));
+            blackhole.consume(fingerprints);
+        }
+        return callGraph;
+    }
+
+    /** Grouping the fingerprinted methods of the whole corpus, which is generated from a few templates. */
+    @Benchmark
+    public List<CloneGroup> detectClones(FingerprintedCorpus corpus) {
+        CloneDetector detector = new CloneDetector();
+        corpus.files.forEach(detector::add);
+        return detector.detect();
+    }
+
+    /** Declarations only (modifiers, field and parameter types), where per-declaration strings dominate allocation. */
+    @Benchmark
+    public void metricsVisitorOutline(ParsedCorpus corpus, Blackhole blackhole) {
+        for (CompilationUnit cu : corpus.compilationUnits) {
+            blackhole.consume(MetricsVisitor.collectOutline(cu));
+        }
+    }
+
+    @Benchmark
+    public void findStandardStructureMatch(ParsedCorpus corpus, Blackhole blackhole) {
+        for (ClassAnalysisResult classResult : corpus.classResults) {
+            blackhole.consume(corpus.analyzer.findStandardStructureMatch(classResult));
+        }
+    }
+
+    @Benchmark
+    public OverallAnalysisResult analyzeProjectEndToEnd(Corpus corpus) {
+        return corpus.analyzer.analyzeSources(corpus.sources);
+    }
+}
@@ -0,0 +1,75 @@
+package com.javainsight.analyzer;
+
+import com.javainsight.analyzer.source.JavaSource;
+import com.javainsight.analyzer.source.ZipArchiveSources;
+import com.javainsight.analyzer.utils.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ZIP ingestion: extraction to a temp directory (plus the cleanup Main used to do) versus reading
+ * the entries straight out of the archive.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArchiveBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int methods;
+
+    private Path workDir;
+    private Path zipFile;
+
+    @Setup(Level.Trial)
+    public void createArchive() throws IOException {
+        workDir = Files.createTempDirectory("java-analyzer-bench");
+        zipFile = SyntheticCorpus.writeZip(SyntheticCorpus.generate(methods), workDir.resolve("corpus.zip"));
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteArchive() throws IOException {
+        FileUtils.deleteDirectory(workDir);
+    }
+
+    @Benchmark
+    public int extractJavaFilesFromZip() throws IOException {
+        Path extractDir = workDir.resolve("extract");
+        try {
+            return FileUtils.extractJavaFilesFromZip(zipFile.toString(), extractDir.toString()).size();
+        } finally {
+            FileUtils.deleteDirectory(extractDir);
+        }
+    }
+
+    @Benchmark
+    public void readEntriesInMemory(Blackhole blackhole) throws IOException {
+        try (ZipArchiveSources archive = new ZipArchiveSources(zipFile.toString())) {
+            List<JavaSource> sources = archive.getSources();
+            for (JavaSource source : sources) {
+                blackhole.consume(source.readContent());
+            }
+        }
+    }
+}
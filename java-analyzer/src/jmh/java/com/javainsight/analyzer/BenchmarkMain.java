@@ -0,0 +1,42 @@
+package com.javainsight.analyzer;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Entry point of {@code java-analyzer-benchmarks.jar}. Accepts the usual JMH options, but unless told
+ * otherwise enables the GC profiler (allocation rate, {@code gc.alloc.rate.norm}) and writes JSON results
+ * to {@code jmh-results/<timestamp>.json} so runs from different builds can be compared.
+ *
+ * <pre>
+ * java -jar target/java-analyzer-benchmarks.jar                          # everything, all corpus sizes
+ * java -jar target/java-analyzer-benchmarks.jar AnalyzerBenchmark -p methods=10000
+ * </pre>
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (commandLine.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            File resultsDir = new File("jmh-results");
+            resultsDir.mkdirs();
+            String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+            options.result(new File(resultsDir, timestamp + ".json").getPath());
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,113 @@
+package com.javainsight.analyzer;
+
+import com.javainsight.analyzer.graph.CallGraph;
+import com.javainsight.analyzer.model.ClassAnalysisResult;
+import com.javainsight.analyzer.model.MethodAnalysisResult;
+import com.javainsight.analyzer.query.CallerHit;
+import com.javainsight.analyzer.query.Metric;
+import com.javainsight.analyzer.query.QueryHit;
+import com.javainsight.analyzer.query.ResultIndex;
+import com.javainsight.analyzer.query.ResultQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typical {@link ResultIndex} queries over a synthetic result (built directly, nothing is parsed), plus
+ * building the index itself. Complexities and LOC are skewed like real code: most methods are small.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class QueryBenchmark {
+    private static final String[] WARNINGS = {"Long method (LOC > 40)", "High complexity (CC > 7)"};
+
+    @Param({"10000", "100000"})
+    public int methods;
+
+    private List<ClassAnalysisResult> classes;
+    private CallGraph callGraph;
+    private ResultIndex index;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(42);
+        classes = new ArrayList<>();
+        callGraph = new CallGraph();
+        int classCount = (methods + SyntheticCorpus.METHODS_PER_CLASS - 1) / SyntheticCorpus.METHODS_PER_CLASS;
+        for (int c = 0; c < classCount; c++) {
+            String packageName = "bench.pkg" + (c % 50) + ".sub" + (c % 7);
+            String className = packageName + ".Worker" + c;
+            ClassAnalysisResult classResult = new ClassAnalysisResult(packageName, className, "Worker" + c, false, 0);
+            int classLoc = 0;
+            for (int m = 0; m < SyntheticCorpus.METHODS_PER_CLASS && c * SyntheticCorpus.METHODS_PER_CLASS + m < methods; m++) {
+                MethodAnalysisResult method = new MethodAnalysisResult("method" + m, "void", List.of(), 0);
+                method.setCyclomaticComplexity(1 + (int) Math.abs(random.nextGaussian() * 5));
+                method.setLoc(3 + (int) Math.abs(random.nextGaussian() * 20));
+                if (method.getLoc() > 40) method.addWarning(WARNINGS[0]);
+                if (method.getCyclomaticComplexity() > 7) method.addWarning(WARNINGS[1]);
+                classResult.addMethod(method);
+                classLoc += method.getLoc();
+                for (int call = 0; call < 3; call++) {
+                    callGraph.addCall(className + ".method" + m, "bench.pkg" + random.nextInt(50) + ".Service.call" + random.nextInt(200));
+                }
+            }
+            classResult.setLoc(classLoc);
+            classes.add(classResult);
+        }
+        index = ResultIndex.build(classes, callGraph);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ResultIndex buildIndex() {
+        return ResultIndex.build(classes, callGraph);
+    }
+
+    @Benchmark
+    public List<QueryHit> complexMethodsInPackage() {
+        return index.find(new ResultQuery().setPackagePrefix("bench.pkg7").setMinimum(Metric.COMPLEXITY, 15));
+    }
+
+    @Benchmark
+    public List<QueryHit> top20Complexity() {
+        return index.find(new ResultQuery().setLimit(20));
+    }
+
+    @Benchmark
+    public List<QueryHit> top20LongMethodsWithWarning() {
+        return index.find(new ResultQuery().setWarning("High complexity").setOrderBy(Metric.LOC).setLimit(20));
+    }
+
+    @Benchmark
+    public List<QueryHit> largestClassesInSubpackage() {
+        return index.find(new ResultQuery().setClasses(true).setPackagePrefix("bench.pkg3.sub3").setOrderBy(Metric.LOC).setLimit(10));
+    }
+
+    @Benchmark
+    public List<CallerHit> callersOfMethod() {
+        return index.callersOf("bench.pkg7.Service.call17", 50);
+    }
+
+    @Benchmark
+    public List<CallerHit> callersOfShortName() { // matches the method in all 50 packages
+        return index.callersOf("Service.call17", 50);
+    }
+}
@@ -0,0 +1,102 @@
+package com.javainsight.analyzer;
+
+import com.javainsight.analyzer.source.InMemoryJavaSource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Deterministic generator of benchmark input: compilable-looking classes whose methods mix branches,
+ * loops, switches, ternaries, try/catch and calls, so every analyzer hot path has work to do.
+ */
+final class SyntheticCorpus {
+    static final int METHODS_PER_CLASS = 20;
+
+    private static final String[] SUPERTYPES = {
+            "", " extends java.util.AbstractList<String>", " implements Comparable<Worker>",
+            " implements Runnable, java.io.Serializable", " extends Thread", ""
+    };
+    private static final String[] SIMPLE_NAMES = {"Worker", "ArrayList", "Service", "HashMap", "Handler", "Repository"};
+
+    private SyntheticCorpus() {}
+
+    static List<InMemoryJavaSource> generate(int methodCount) {
+        Random random = new Random(42);
+        List<InMemoryJavaSource> sources = new ArrayList<>();
+        int classCount = (methodCount + METHODS_PER_CLASS - 1) / METHODS_PER_CLASS;
+        for (int c = 0; c < classCount; c++) {
+            int methodsInClass = Math.min(METHODS_PER_CLASS, methodCount - c * METHODS_PER_CLASS);
+            String packageName = "bench.pkg" + (c % 50);
+            String className = SIMPLE_NAMES[c % SIMPLE_NAMES.length] + c;
+            String code = generateClass(random, packageName, className, SUPERTYPES[c % SUPERTYPES.length], methodsInClass);
+            sources.add(new InMemoryJavaSource(packageName.replace('.', '/') + "/" + className + ".java",
+                    code.getBytes(StandardCharsets.UTF_8)));
+        }
+        return sources;
+    }
+
+    static Path writeZip(List<InMemoryJavaSource> sources, Path zipFile) throws IOException {
+        try (OutputStream out = Files.newOutputStream(zipFile); ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (InMemoryJavaSource source : sources) {
+                zip.putNextEntry(new ZipEntry(source.getName()));
+                zip.write(source.readContent());
+                zip.closeEntry();
+            }
+        }
+        return zipFile;
+    }
+
+    private static String generateClass(Random random, String packageName, String className, String supertypes, int methods) {
+        StringBuilder sb = new StringBuilder(methods * 600);
+        sb.append("package ").append(packageName).append(";\n\n")
+          .append("import java.util.List;\nimport java.util.Map;\nimport org.example.lib.Helper;\n\n")
+          .append("/** Generated benchmark class. */\n")
+          .append("public class ").append(className).append(supertypes).append(" {\n")
+          .append("    private final List<String> items = new java.util.ArrayList<>();\n")
+          .append("    private Map<String, Integer> counts;\n")
+          .append("    protected static int shared;\n\n");
+        for (int m = 0; m < methods; m++) {
+            sb.append("    /**\n     * Method ").append(m).append(" of ").append(className).append(".\n     */\n")
+              .append("    public int method").append(m).append("(int a, String b, List<String> c) {\n")
+              .append("        int total = 0;\n");
+            int blocks = 1 + random.nextInt(4);
+            for (int b = 0; b < blocks; b++) {
+                switch (random.nextInt(5)) {
+                    case 0:
+                        sb.append("        if (a > ").append(b).append(" && b != null || c.isEmpty()) {\n")
+                          .append("            total += Helper.compute(a, b.length());\n")
+                          .append("        } else {\n            items.add(b);\n        }\n");
+                        break;
+                    case 1:
+                        sb.append("        for (int i = 0; i < a; i++) {\n")
+                          .append("            total += this.method").append((m + 1) % methods).append("(i, b, c);\n")
+                          .append("        }\n");
+                        break;
+                    case 2:
+                        sb.append("        switch (a % 3) {\n")
+                          .append("            case 0: total++; break;\n            case 1: total--; break;\n")
+                          .append("            default: total = counts.getOrDefault(b, 0);\n        }\n");
+                        break;
+                    case 3:
+                        sb.append("        try {\n            total += Integer.parseInt(b);\n")
+                          .append("        } catch (NumberFormatException e) {\n            total = a > 0 ? a : -a;\n        }\n");
+                        break;
+                    default:
+                        sb.append("        for (String s : c) {\n")
+                          .append("            while (total < s.length()) { total += s.trim().length(); }\n")
+                          .append("        }\n");
+                }
+            }
+            sb.append("        return total + shared;\n    }\n\n");
+        }
+        return sb.append("}\n").toString();
+    }
+}
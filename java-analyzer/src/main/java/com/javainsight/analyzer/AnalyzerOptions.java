@@ -0,0 +1,54 @@
+package com.javainsight.analyzer;
+
+import com.javainsight.analyzer.cache.AnalysisCache;
+
+/**
+ * Tuning knobs for a {@link JavaFileAnalyzer}. Defaults reproduce the original single-threaded,
+ * uncached behaviour.
+ */
+public class AnalyzerOptions {
+    public static final long DEFAULT_RESOLVE_BUDGET_MILLIS = 30_000;
+
+    private int threads = 1; // 0 or less: all available processors
+    private boolean pipelined; // files are read on an ingest thread that runs ahead of the parse workers
+    private AnalysisCache cache; // null: every file is parsed
+    private boolean resolveCalls; // call edges name resolved signatures instead of scope text
+    private boolean detectClones; // fingerprint method bodies so results can report clone groups
+    private long resolveBudgetMillis = DEFAULT_RESOLVE_BUDGET_MILLIS; // per job, summed over threads
+    private ParserProfile parserProfile = ParserProfile.FULL;
+    private long maxFileBytes; // 0: no size limit
+    private long maxParseMillis; // 0: no time limit
+    private LimitAction oversizedFileAction = LimitAction.SKIP;
+
+    public int getThreads() { return threads; }
+    public AnalyzerOptions setThreads(int threads) { this.threads = threads; return this; }
+
+    /** See {@link JavaFileAnalyzer#analyzeSources(java.util.List, FileAnalysisSink)}. */
+    public boolean isPipelined() { return pipelined; }
+    public AnalyzerOptions setPipelined(boolean pipelined) { this.pipelined = pipelined; return this; }
+
+    public AnalysisCache getCache() { return cache; }
+    public AnalyzerOptions setCache(AnalysisCache cache) { this.cache = cache; return this; }
+
+    public boolean isResolveCalls() { return resolveCalls; }
+    public AnalyzerOptions setResolveCalls(boolean resolveCalls) { this.resolveCalls = resolveCalls; return this; }
+
+    public boolean isDetectClones() { return detectClones; }
+    public AnalyzerOptions setDetectClones(boolean detectClones) { this.detectClones = detectClones; return this; }
+
+    public long getResolveBudgetMillis() { return resolveBudgetMillis; }
+    public AnalyzerOptions setResolveBudgetMillis(long resolveBudgetMillis) { this.resolveBudgetMillis = resolveBudgetMillis; return this; }
+
+    public ParserProfile getParserProfile() { return parserProfile; }
+    public AnalyzerOptions setParserProfile(ParserProfile parserProfile) { this.parserProfile = parserProfile; return this; }
+
+    public long getMaxFileBytes() { return maxFileBytes; }
+    public AnalyzerOptions setMaxFileBytes(long maxFileBytes) { this.maxFileBytes = maxFileBytes; return this; }
+
+    /** Parsing a file that takes longer is abandoned and the file skipped, whatever the {@link LimitAction}. */
+    public long getMaxParseMillis() { return maxParseMillis; }
+    public AnalyzerOptions setMaxParseMillis(long maxParseMillis) { this.maxParseMillis = maxParseMillis; return this; }
+
+    public LimitAction getOversizedFileAction() { return oversizedFileAction; }
+    public AnalyzerOptions setOversizedFileAction(LimitAction oversizedFileAction) { this.oversizedFileAction = oversizedFileAction; return this; }
+}
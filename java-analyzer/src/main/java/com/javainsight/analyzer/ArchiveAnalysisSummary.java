@@ -0,0 +1,47 @@
+package com.javainsight.analyzer;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.javainsight.analyzer.metrics.AnalysisMetrics;
+
+import java.util.List;
+
+/**
+ * Outcome of analyzing one archive into one output target; the analysis itself lives in the output.
+ */
+public class ArchiveAnalysisSummary {
+    private final String zipFilePath;
+    private final String outputTarget;
+    private final int fileCount;
+    private final int classCount;
+    private final int edgeCount;
+    private final List<String> processingErrors;
+    private final long elapsedMillis;
+    private final AnalysisMetrics metrics; // null unless requested; unlike the document's copy, includes all of WRITE
+
+    public ArchiveAnalysisSummary(String zipFilePath, String outputTarget, int fileCount, int classCount, int edgeCount,
+                                  List<String> processingErrors, long elapsedMillis) {
+        this(zipFilePath, outputTarget, fileCount, classCount, edgeCount, processingErrors, elapsedMillis, null);
+    }
+
+    public ArchiveAnalysisSummary(String zipFilePath, String outputTarget, int fileCount, int classCount, int edgeCount,
+                                  List<String> processingErrors, long elapsedMillis, AnalysisMetrics metrics) {
+        this.zipFilePath = zipFilePath;
+        this.outputTarget = outputTarget;
+        this.fileCount = fileCount;
+        this.classCount = classCount;
+        this.edgeCount = edgeCount;
+        this.processingErrors = processingErrors;
+        this.elapsedMillis = elapsedMillis;
+        this.metrics = metrics;
+    }
+
+    public String getZipFilePath() { return zipFilePath; }
+    public String getOutputTarget() { return outputTarget; }
+    public int getFileCount() { return fileCount; }
+    public int getClassCount() { return classCount; }
+    public int getEdgeCount() { return edgeCount; }
+    public List<String> getProcessingErrors() { return processingErrors; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public AnalysisMetrics getMetrics() { return metrics; }
+}
@@ -0,0 +1,169 @@
+package com.javainsight.analyzer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.javainsight.analyzer.binary.BinaryResultWriter;
+import com.javainsight.analyzer.graph.CallGraph;
+import com.javainsight.analyzer.metrics.MetricsCollector;
+import com.javainsight.analyzer.metrics.Phase;
+import com.javainsight.analyzer.output.ResultCodec;
+import com.javainsight.analyzer.output.StreamingResultWriter;
+import com.javainsight.analyzer.source.JavaSource;
+import com.javainsight.analyzer.source.ZipArchiveSources;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Runs one ZIP archive through a shared {@link JavaFileAnalyzer} and writes the result to a file or stdout.
+ * Thread-safe: one instance serves every job of a long-running process.
+ */
+public class ArchiveAnalyzer {
+    public static final String STDOUT_TARGET = "stdout";
+
+    private final JavaFileAnalyzer analyzer;
+    private final ObjectMapper prettyMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final ObjectMapper compactMapper = new ObjectMapper();
+
+    public ArchiveAnalyzer(JavaFileAnalyzer analyzer) {
+        this.analyzer = analyzer;
+    }
+
+    public JavaFileAnalyzer getAnalyzer() { return analyzer; }
+
+    public ObjectMapper objectMapper(OutputOptions outputOptions) {
+        return outputOptions.isCompact() ? compactMapper : prettyMapper;
+    }
+
+    /** Mapper for a JSON result written with {@code codec}: Smile and CBOR need their own. */
+    public ObjectMapper objectMapper(OutputOptions outputOptions, ResultCodec codec) {
+        return codec.isBinaryJson() ? codec.objectMapper(false) : objectMapper(outputOptions);
+    }
+
+    public static boolean isStdout(String outputTarget) {
+        return STDOUT_TARGET.equalsIgnoreCase(outputTarget);
+    }
+
+    public ArchiveAnalysisSummary analyze(String zipFilePath, String outputTarget, OutputOptions outputOptions) throws IOException {
+        if (outputOptions.getFormat() == OutputFormat.BINARY && isStdout(outputTarget)) {
+            throw new IllegalArgumentException("The binary format can only be written to a file.");
+        }
+        ResultCodec codec = outputOptions.codecFor(outputTarget);
+        if (codec != ResultCodec.JSON && isStdout(outputTarget)) {
+            throw new IllegalArgumentException("The " + codec.name().toLowerCase() + " codec can only be written to a file.");
+        }
+        long startNanos = System.nanoTime();
+        ObjectMapper objectMapper = objectMapper(outputOptions, codec);
+        MetricsCollector metrics = outputOptions.isMetrics() ? new MetricsCollector() : null;
+
+        // Entries are read straight out of the archive; nothing is extracted to a temporary directory
+        try (ZipArchiveSources archive = new ZipArchiveSources(zipFilePath)) {
+            List<JavaSource> javaFiles = archive.getSources();
+            if (metrics != null) metrics.lap(Phase.READ); // the central directory; entries are read per file
+            if (javaFiles.isEmpty()) {
+                System.err.println("No .java files found in the ZIP archive: " + zipFilePath);
+            }
+
+            int classCount;
+            int edgeCount;
+            List<String> processingErrors;
+            if (outputOptions.getFormat() == OutputFormat.BINARY) {
+                BinaryResultWriter writer = analyzeBinary(javaFiles, outputTarget, metrics);
+                classCount = writer.getClassCount();
+                edgeCount = writer.getEdgeCount();
+                processingErrors = writer.getProcessingErrors();
+            } else if (outputOptions.isStream()) {
+                StreamingResultWriter writer = analyzeStreaming(javaFiles, objectMapper, codec, outputTarget, metrics);
+                classCount = writer.getClassCount();
+                edgeCount = writer.getEdgeCount();
+                processingErrors = writer.getProcessingErrors();
+            } else {
+                OverallAnalysisResult analysisResult;
+                if (javaFiles.isEmpty()) {
+                    analysisResult = new OverallAnalysisResult(Collections.emptyList(), new CallGraph(), List.of("No .java files found in ZIP."));
+                    if (metrics != null) analysisResult.setMetrics(metrics.snapshot(0));
+                } else {
+                    analysisResult = analyzer.analyzeSources(javaFiles, metrics);
+                }
+                if (metrics != null) metrics.mark();
+                writeResult(analysisResult, objectMapper, codec, outputTarget);
+                if (metrics != null) metrics.lap(Phase.WRITE); // not in the document, which was written before this
+                classCount = analysisResult.getClasses().size();
+                edgeCount = analysisResult.getGraphEdges().edgeCount();
+                processingErrors = analysisResult.getProcessingErrors();
+            }
+            return new ArchiveAnalysisSummary(zipFilePath, outputTarget, javaFiles.size(), classCount, edgeCount,
+                    processingErrors, (System.nanoTime() - startNanos) / 1_000_000,
+                    metrics != null ? metrics.snapshot(edgeCount) : null);
+        }
+    }
+
+    /** Writes to stdout (as plain JSON) or to a file encoded with {@code codec}, which should match {@code objectMapper}. */
+    public void writeResult(OverallAnalysisResult analysisResult, ObjectMapper objectMapper, ResultCodec codec,
+                            String outputTarget) throws IOException {
+        if (isStdout(outputTarget)) {
+            System.out.println(objectMapper.writeValueAsString(analysisResult));
+        } else {
+            try (OutputStream out = openOutput(outputTarget, codec)) {
+                objectMapper.writeValue(out, analysisResult);
+            }
+        }
+    }
+
+    /** Opens a result file for writing through {@code codec}; closing the stream finishes any compression. */
+    public static OutputStream openOutput(String outputTarget, ResultCodec codec) throws IOException {
+        return codec.wrap(new BufferedOutputStream(new FileOutputStream(prepareOutputFile(outputTarget))));
+    }
+
+    /**
+     * Streams the result document while the files are analyzed, so the full
+     * OverallAnalysisResult is never held in memory.
+     */
+    private StreamingResultWriter analyzeStreaming(List<JavaSource> javaFiles, ObjectMapper objectMapper, ResultCodec codec,
+                                                   String outputTarget, MetricsCollector metrics) throws IOException {
+        boolean toStdout = isStdout(outputTarget);
+        OutputStream out = toStdout ? System.out : openOutput(outputTarget, codec);
+        try {
+            StreamingResultWriter writer = new StreamingResultWriter(objectMapper, out, metrics);
+            if (javaFiles.isEmpty()) {
+                writer.addError("No .java files found in ZIP.");
+            } else {
+                analyzer.analyzeSources(javaFiles, writer);
+            }
+            writer.close();
+            if (toStdout) {
+                System.out.println();
+            }
+            return writer;
+        } finally {
+            if (!toStdout) {
+                out.close();
+            }
+        }
+    }
+
+    private BinaryResultWriter analyzeBinary(List<JavaSource> javaFiles, String outputTarget,
+                                             MetricsCollector metrics) throws IOException {
+        try (BinaryResultWriter writer = new BinaryResultWriter(prepareOutputFile(outputTarget).toPath(), metrics)) {
+            if (javaFiles.isEmpty()) {
+                writer.addError("No .java files found in ZIP.");
+            } else {
+                analyzer.analyzeSources(javaFiles, writer);
+            }
+            return writer;
+        }
+    }
+
+    static File prepareOutputFile(String outputTarget) {
+        File outputFile = new File(outputTarget);
+        if (outputFile.getParentFile() != null) {
+            outputFile.getParentFile().mkdirs(); // Ensure parent directory exists
+        }
+        return outputFile;
+    }
+}
@@ -0,0 +1,55 @@
+package com.javainsight.analyzer;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Cancels parsing cooperatively: the parser pulls its input in small chunks while it works, and every
+ * read after the deadline throws. JavaParser turns the exception into a parse problem (or, depending on
+ * where the lexer was, into some other failure), so callers ask {@link #isExpired()} rather than
+ * looking at the problems. I/O exceptions cannot be used for this, since the lexer treats them as
+ * the end of input.
+ *
+ * <p>Time is the parsing thread's CPU time where the JVM measures it, so a file is not charged for time
+ * its thread spent waiting for a processor; the reader must be read on the thread that created it.
+ */
+class DeadlineReader extends FilterReader {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+    private final long deadlineNanos;
+    private boolean expired;
+
+    DeadlineReader(Reader in, long timeoutMillis) {
+        super(in);
+        this.deadlineNanos = now() + timeoutMillis * 1_000_000L;
+    }
+
+    /** Whether a read was refused because the deadline had passed. */
+    boolean isExpired() { return expired; }
+
+    @Override
+    public int read() throws IOException {
+        checkDeadline();
+        return super.read();
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        checkDeadline();
+        return super.read(buffer, offset, length);
+    }
+
+    private void checkDeadline() {
+        if (expired || now() - deadlineNanos > 0) {
+            expired = true;
+            throw new IllegalStateException("Parse deadline exceeded");
+        }
+    }
+
+    private static long now() {
+        return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+}
@@ -0,0 +1,84 @@
+package com.javainsight.analyzer;
+
+import com.github.javaparser.ast.Modifier;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
+import com.javainsight.analyzer.model.Modifiers;
+
+/**
+ * Modifier bits and type and parameter strings of declarations, built with as little allocation as the
+ * AST allows. Primitive and plain class types (no scope, type arguments or annotations) reuse the strings
+ * the AST already holds; other type names and parameter strings go through small shared caches, so the
+ * many equal ones of a project ({@code "List<String>"}, {@code "String name"}) are kept once, and
+ * parameter strings are only built on a cache miss.
+ *
+ * <p>The caches are direct-mapped arrays of immutable entries: a collision just replaces the entry, and
+ * unsynchronized access from several threads at worst builds a string twice.
+ */
+final class DeclarationStrings {
+    private static final int CACHE_SLOTS = 4096; // a power of two
+    private static final int[] KEYWORD_BITS = keywordBits();
+    private static final String[] typeNames = new String[CACHE_SLOTS];
+    private static final ParameterEntry[] parameters = new ParameterEntry[CACHE_SLOTS];
+
+    private DeclarationStrings() {}
+
+    static int modifierBits(NodeList<Modifier> modifiers) {
+        int bits = 0;
+        for (int i = 0; i < modifiers.size(); i++) {
+            bits |= KEYWORD_BITS[modifiers.get(i).getKeyword().ordinal()];
+        }
+        return bits;
+    }
+
+    /** Same as {@link Type#asString()}. */
+    static String typeName(Type type) {
+        if (type.isPrimitiveType() && type.getAnnotations().isEmpty()) {
+            return type.asPrimitiveType().getType().asString();
+        }
+        if (type.isClassOrInterfaceType()) {
+            ClassOrInterfaceType classType = type.asClassOrInterfaceType();
+            if (classType.getScope().isEmpty() && classType.getTypeArguments().isEmpty() && classType.getAnnotations().isEmpty()) {
+                return classType.getName().getIdentifier();
+            }
+        }
+        String name = type.asString();
+        int slot = name.hashCode() & (CACHE_SLOTS - 1);
+        String cached = typeNames[slot];
+        if (name.equals(cached)) return cached;
+        typeNames[slot] = name;
+        return name;
+    }
+
+    /** {@code type + " " + name}, built only when the cache does not have it. */
+    static String parameter(String type, String name) {
+        int slot = (31 * type.hashCode() + name.hashCode()) & (CACHE_SLOTS - 1);
+        ParameterEntry entry = parameters[slot];
+        if (entry != null && entry.type.equals(type) && entry.name.equals(name)) return entry.text;
+        entry = new ParameterEntry(type, name, type + " " + name);
+        parameters[slot] = entry;
+        return entry.text;
+    }
+
+    private static int[] keywordBits() {
+        Modifier.Keyword[] keywords = Modifier.Keyword.values();
+        int[] bits = new int[keywords.length];
+        for (Modifier.Keyword keyword : keywords) {
+            bits[keyword.ordinal()] = Modifiers.bit(keyword.asString());
+        }
+        return bits;
+    }
+
+    private static final class ParameterEntry {
+        final String type;
+        final String name;
+        final String text;
+
+        ParameterEntry(String type, String name, String text) {
+            this.type = type;
+            this.name = name;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.javainsight.analyzer;
+
+import com.javainsight.analyzer.clone.MethodFingerprint;
+import com.javainsight.analyzer.graph.CallGraph;
+import com.javainsight.analyzer.metrics.PhaseTimings;
+import com.javainsight.analyzer.model.ClassAnalysisResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-file buffer for the results of analyzing a single compilation unit.
+ * Each analysis task fills its own instance, so no collection is shared between threads;
+ * the buffers are merged into an {@link OverallAnalysisResult} in input order afterwards.
+ */
+public class FileAnalysisResult {
+    private final String sourceName;
+    private final List<ClassAnalysisResult> classes = new ArrayList<>();
+    private final CallGraph callGraph;
+    private final List<String> processingErrors = new ArrayList<>();
+    private List<MethodFingerprint> methodFingerprints; // null unless clone detection is on
+    private PhaseTimings timings; // how long each phase took for this file; not cached
+    private boolean fromCache;
+
+    public FileAnalysisResult(String sourceName) {
+        this(sourceName, new CallGraph());
+    }
+
+    public FileAnalysisResult(String sourceName, CallGraph callGraph) {
+        this.sourceName = sourceName;
+        this.callGraph = callGraph;
+    }
+
+    public String getSourceName() { return sourceName; }
+    public List<ClassAnalysisResult> getClasses() { return classes; }
+    public CallGraph getCallGraph() { return callGraph; }
+    public List<String> getProcessingErrors() { return processingErrors; }
+    public List<MethodFingerprint> getMethodFingerprints() { return methodFingerprints; }
+    public void setMethodFingerprints(List<MethodFingerprint> methodFingerprints) { this.methodFingerprints = methodFingerprints; }
+    public PhaseTimings getTimings() { return timings; }
+    public void setTimings(PhaseTimings timings) { this.timings = timings; }
+    public boolean isFromCache() { return fromCache; }
+    public void setFromCache(boolean fromCache) { this.fromCache = fromCache; }
+
+    public void addClass(ClassAnalysisResult classResult) { classes.add(classResult); }
+    public void addError(String error) { processingErrors.add(error); }
+}
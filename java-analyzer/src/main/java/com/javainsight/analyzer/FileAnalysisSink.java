@@ -0,0 +1,12 @@
+package com.javainsight.analyzer;
+
+import java.io.IOException;
+
+/**
+ * Receives per-file analysis results in input order as soon as they are available.
+ * Implementations may write the result out and drop it, so the analyzer never needs the whole project in memory.
+ */
+@FunctionalInterface
+public interface FileAnalysisSink {
+    void accept(FileAnalysisResult fileResult) throws IOException;
+}
@@ -7,182 +7,555 @@ import com.github.javaparser.ParseProblemException;
 import com.github.javaparser.ParseResult;
 import com.github.javaparser.ParserConfiguration;
 import com.github.javaparser.ast.CompilationUnit;
-import com.github.javaparser.ast.Modifier; // Modifier 클래스 자체를 import
-import com.github.javaparser.ast.Node;
-import com.github.javaparser.ast.body.*;
-import com.github.javaparser.ast.comments.JavadocComment;
-import com.github.javaparser.ast.expr.MethodCallExpr;
-import com.github.javaparser.ast.expr.ConditionalExpr; // <<< [수정] ConditionalExpr 임포트 추가
-import com.github.javaparser.ast.stmt.*;
-import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
-import com.github.javaparser.javadoc.Javadoc;
 
+import com.javainsight.analyzer.cache.AnalysisCache;
+import com.javainsight.analyzer.clone.CloneDetector;
+import com.javainsight.analyzer.clone.MethodFingerprint;
+import com.javainsight.analyzer.graph.CallGraph;
+import com.javainsight.analyzer.graph.DependencyGraph;
+import com.javainsight.analyzer.metrics.MetricsCollector;
+import com.javainsight.analyzer.metrics.Phase;
+import com.javainsight.analyzer.metrics.PhaseTimings;
 import com.javainsight.analyzer.model.*;
+import com.javainsight.analyzer.resolve.CallResolver;
+import com.javainsight.analyzer.source.JavaSource;
+import com.javainsight.analyzer.source.PathJavaSource;
+import com.javainsight.analyzer.summary.SummaryAggregator;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
-public class JavaFileAnalyzer {
-
-    private final JavaParser javaParserInstance;
-    private static List<StandardStructure> standardStructuresCache;
+public class JavaFileAnalyzer implements AutoCloseable {
+
+    /**
+     * Identifies the shape of per-file results. Bump whenever a change alters what is emitted
+     * for the same source file, so stale {@link AnalysisCache} entries stop matching.
+     */
+    public static final String ANALYZER_VERSION = "4";
+
+    private final ParserConfiguration parserConfig;
+    // JavaParser is not thread-safe, so every worker thread gets its own instance
+    private final ThreadLocal<JavaParser> javaParserInstance;
+    // Oversized files are parsed with the lean profile when they are degraded rather than skipped
+    private final ThreadLocal<JavaParser> leanParserInstance;
+    private final boolean leanProfile;
+    private final long maxFileBytes;
+    private final long maxParseMillis;
+    private final LimitAction oversizedFileAction;
+    private final int threads;
+    private final AnalysisCache cache;
+    private final boolean resolveCalls;
+    private final long resolveBudgetMillis;
+    private final boolean pipelined;
+    private final boolean detectClones;
+    private final String cacheVariant; // null for the default configuration
+    private ExecutorService workerPool;
+    // How far the worker pool may run ahead of the (ordered) consumer of file results
+    private static final int IN_FLIGHT_FILES_PER_THREAD = 4;
+    // Starts the ingest thread of a pipelined run: virtual on JDK 21+, a platform daemon thread before
+    private static final ThreadFactory INGEST_THREADS = ingestThreadFactory();
+    private static StandardStructureIndex standardStructureIndex;
 
     public JavaFileAnalyzer() {
-        ParserConfiguration parserConfig = new ParserConfiguration();
-        // Symbol Solver (optional, for more accurate type resolution - requires careful setup)
-        // ... (심볼 해석기 설정 코드는 이전과 동일하게 주석 처리) ...
-        this.javaParserInstance = new JavaParser(parserConfig);
+        this(1);
+    }
+
+    /**
+     * @param threads number of files analyzed concurrently; values below 1 use all available processors
+     */
+    public JavaFileAnalyzer(int threads) {
+        this(new AnalyzerOptions().setThreads(threads));
+    }
+
+    public JavaFileAnalyzer(AnalyzerOptions options) {
+        this.leanProfile = options.getParserProfile() == ParserProfile.LEAN;
+        this.parserConfig = leanProfile ? leanParserConfiguration() : fullParserConfiguration();
+        // Symbol resolution is per job (see CallResolver), not part of the parser configuration
+        this.javaParserInstance = ThreadLocal.withInitial(() -> new JavaParser(parserConfig));
+        ParserConfiguration leanConfig = leanProfile ? parserConfig : leanParserConfiguration();
+        this.leanParserInstance = leanProfile ? javaParserInstance : ThreadLocal.withInitial(() -> new JavaParser(leanConfig));
+        this.maxFileBytes = options.getMaxFileBytes();
+        this.maxParseMillis = options.getMaxParseMillis();
+        this.oversizedFileAction = options.getOversizedFileAction();
+        this.threads = options.getThreads() > 0 ? options.getThreads() : Runtime.getRuntime().availableProcessors();
+        this.cache = options.getCache();
+        this.resolveCalls = options.isResolveCalls();
+        this.resolveBudgetMillis = options.getResolveBudgetMillis();
+        this.pipelined = options.isPipelined();
+        this.detectClones = options.isDetectClones();
+        this.cacheVariant = leanProfile ? (detectClones ? "lean+clones" : "lean") : (detectClones ? "clones" : null);
         loadStandardStructures();
     }
 
+    public int getThreads() { return threads; }
+
+    public boolean isResolveCalls() { return resolveCalls; }
+
+    /** Java 16 rather than the parser's default of 11, so switch expressions, yield and records parse. */
+    private static ParserConfiguration fullParserConfiguration() {
+        return new ParserConfiguration().setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_16);
+    }
+
+    /**
+     * Tokens stay on (node ranges, and thus LOC, come from them); comment attribution, validation and
+     * the language-level post-processors, which the analysis does not need, are off. The language level
+     * still matters to the grammar, which only reads {@code yield} as a statement from Java 14 on (RAW
+     * would reject switch expressions that use it), so it is set to Java 17 and its validator is dropped
+     * instead.
+     */
+    private static ParserConfiguration leanParserConfiguration() {
+        ParserConfiguration configuration = new ParserConfiguration()
+                .setAttributeComments(false) // JavadocAttacher attaches the only comments read
+                .setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_17)
+                .setDetectOriginalLineSeparator(false);
+        // One processor runs the language level's post-processors and validator; the others (comments, line
+        // endings, unicode escapes, symbol resolution, lexical preservation) do nothing with these settings
+        configuration.getProcessors().clear();
+        return configuration;
+    }
+
     private synchronized void loadStandardStructures() {
-        if (standardStructuresCache == null) {
+        if (standardStructureIndex == null) {
             ObjectMapper mapper = new ObjectMapper();
             TypeReference<List<StandardStructure>> typeReference = new TypeReference<>() {};
             try (InputStream inputStream = JavaFileAnalyzer.class.getResourceAsStream("/standard-structures.json")) {
                 if (inputStream == null) {
                     System.err.println("Warning: standard-structures.json not found in classpath. Standard mapping will be limited.");
-                    standardStructuresCache = Collections.emptyList();
+                    standardStructureIndex = StandardStructureIndex.build(Collections.emptyList());
                     return;
                 }
-                standardStructuresCache = mapper.readValue(inputStream, typeReference);
+                standardStructureIndex = StandardStructureIndex.build(mapper.readValue(inputStream, typeReference));
             } catch (IOException e) {
                 System.err.println("Error loading standard-structures.json: " + e.getMessage());
-                standardStructuresCache = Collections.emptyList();
+                standardStructureIndex = StandardStructureIndex.build(Collections.emptyList());
             }
         }
     }
 
     public OverallAnalysisResult analyzeProject(List<Path> javaFilePaths) {
+        return analyzeSources(javaFilePaths.stream().map(PathJavaSource::new).collect(Collectors.toList()));
+    }
+
+    public OverallAnalysisResult analyzeSources(List<? extends JavaSource> javaSources) {
+        return analyzeSources(javaSources, (MetricsCollector) null);
+    }
+
+    /**
+     * Like {@link #analyzeSources(List)}; when {@code metrics} is not null every file is recorded in it
+     * and the result carries a {@code metrics} section.
+     */
+    public OverallAnalysisResult analyzeSources(List<? extends JavaSource> javaSources, MetricsCollector metrics) {
         List<ClassAnalysisResult> allClassAnalyses = new ArrayList<>();
-        List<Map<String, String>> allGraphEdges = new ArrayList<>();
+        CallGraph allGraphEdges = new CallGraph();
         List<String> processingErrors = new ArrayList<>();
+        SummaryAggregator summary = new SummaryAggregator();
+        DependencyGraph dependencies = new DependencyGraph();
+        CloneDetector clones = detectClones ? new CloneDetector() : null;
+
+        try {
+            analyzeSources(javaSources, fileResult -> {
+                if (metrics != null) metrics.recordFile(fileResult);
+                if (clones != null) clones.add(fileResult);
+                allClassAnalyses.addAll(fileResult.getClasses());
+                for (ClassAnalysisResult classResult : fileResult.getClasses()) {
+                    summary.add(classResult);
+                    dependencies.add(classResult);
+                }
+                allGraphEdges.merge(fileResult.getCallGraph());
+                processingErrors.addAll(fileResult.getProcessingErrors());
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // the in-memory sink never throws
+        }
+        OverallAnalysisResult result = new OverallAnalysisResult(allClassAnalyses, allGraphEdges, processingErrors);
+        result.setSummary(summary.toSummary());
+        result.setDependencies(dependencies.analyze());
+        if (clones != null) result.setClones(clones.detect());
+        if (metrics != null) {
+            result.setMetrics(metrics.snapshot(allGraphEdges.edgeCount()));
+        }
+        return result;
+    }
 
-        for (Path javaFilePath : javaFilePaths) {
-            try {
-                ParseResult<CompilationUnit> parseResult = javaParserInstance.parse(javaFilePath);
+    /**
+     * Analyzes every file, in parallel when more than one thread is configured, and hands each file's
+     * result to {@code sink} in the order of {@code javaSources}, whatever order the tasks finish in.
+     * Only a bounded number of files is in flight at once, so results that the sink releases
+     * never pile up in memory. Several callers may analyze concurrently; they share one worker pool.
+     * With call resolution enabled, {@code javaSources} are also the sources types are resolved against.
+     *
+     * <p>When {@link AnalyzerOptions#setPipelined pipelined}, reading (for archive entries, inflating) is a
+     * stage of its own: one ingest thread per run reads the files in order and hands each one to the worker
+     * pool as soon as its bytes are in, so the workers only parse and visit and never wait on I/O. Otherwise
+     * each worker reads the file it is about to parse.
+     */
+    public void analyzeSources(List<? extends JavaSource> javaSources, FileAnalysisSink sink) throws IOException {
+        if (!resolveCalls) {
+            analyzeSources(javaSources, sink, null);
+            return;
+        }
+        try (CallResolver resolver = new CallResolver(javaSources, javaParserInstance::get, resolveBudgetMillis)) {
+            analyzeSources(javaSources, sink, resolver);
+            System.err.println("Call resolution: resolved " + resolver.getResolvedCalls() + " of "
+                    + (resolver.getResolvedCalls() + resolver.getUnresolvedCalls()) + " calls in " + resolver.getSpentMillis() + " ms.");
+            if (resolver.isBudgetExhausted()) {
+                System.err.println("Warning: call resolution budget of " + resolveBudgetMillis
+                        + " ms exhausted; remaining calls keep their unresolved names.");
+            }
+        }
+    }
 
-                if (parseResult.isSuccessful() && parseResult.getResult().isPresent()) {
-                    CompilationUnit cu = parseResult.getResult().get();
-                    String packageName = cu.getPackageDeclaration().map(pd -> pd.getName().asString()).orElse("");
+    private void analyzeSources(List<? extends JavaSource> javaSources, FileAnalysisSink sink, CallResolver resolver) throws IOException {
+        if (pipelined && javaSources.size() > 1) {
+            analyzePipelined(javaSources, sink, resolver);
+            return;
+        }
+        if (threads == 1 || javaSources.size() < 2) {
+            for (JavaSource javaSource : javaSources) {
+                sink.accept(analyzeFile(javaSource, resolver));
+            }
+            return;
+        }
+
+        ExecutorService executor = workerPool();
+        int maxInFlight = threads * IN_FLIGHT_FILES_PER_THREAD;
+        Deque<Future<FileAnalysisResult>> inFlight = new ArrayDeque<>(maxInFlight);
+        try {
+            int submitted = 0;
+            for (int completed = 0; completed < javaSources.size(); completed++) {
+                while (submitted < javaSources.size() && inFlight.size() < maxInFlight) {
+                    JavaSource javaSource = javaSources.get(submitted++);
+                    inFlight.add(executor.submit(() -> analyzeFile(javaSource, resolver)));
+                }
+                sink.accept(awaitFileResult(inFlight.poll(), javaSources.get(completed).getName()));
+            }
+        } finally {
+            // Only non-empty if the sink failed; don't leave work for an abandoned run in the shared pool
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
 
-                    for (TypeDeclaration<?> typeDeclaration : cu.getTypes()) {
-                        if (typeDeclaration instanceof ClassOrInterfaceDeclaration) {
-                            ClassOrInterfaceDeclaration cd = (ClassOrInterfaceDeclaration) typeDeclaration;
-                            ClassAnalysisResult classResult = parseClassOrInterface(cd, cu, packageName, allGraphEdges);
-                            allClassAnalyses.add(classResult);
+    /**
+     * Ingest, parse and sink stages. The ingest thread queues a future per file in input order and then
+     * submits the read file to the worker pool, which completes the future; the caller is the sink and
+     * takes the futures in the same order. The queue is bounded, so the ingest thread blocks once it is
+     * that many files ahead of the sink, which also bounds the files waiting in the worker pool.
+     */
+    private void analyzePipelined(List<? extends JavaSource> javaSources, FileAnalysisSink sink, CallResolver resolver) throws IOException {
+        ExecutorService executor = workerPool();
+        BlockingQueue<CompletableFuture<FileAnalysisResult>> results = new ArrayBlockingQueue<>(threads * IN_FLIGHT_FILES_PER_THREAD);
+        Thread ingestThread = INGEST_THREADS.newThread(() -> {
+            try {
+                for (JavaSource javaSource : javaSources) {
+                    CompletableFuture<FileAnalysisResult> result = new CompletableFuture<>();
+                    results.put(result);
+                    try {
+                        PhaseTimings timings = new PhaseTimings().mark();
+                        ReadFile readFile = read(javaSource, timings);
+                        if (readFile.failed != null) {
+                            readFile.failed.setTimings(timings);
+                            result.complete(readFile.failed);
+                            continue;
                         }
+                        executor.execute(() -> {
+                            if (result.isDone()) return; // cancelled: the sink gave up
+                            try {
+                                timings.mark(); // the time spent queued is nobody's phase
+                                FileAnalysisResult fileResult = analyzeRead(javaSource.getName(), readFile.content, timings, resolver);
+                                fileResult.setTimings(timings);
+                                result.complete(fileResult);
+                            } catch (Throwable t) {
+                                result.completeExceptionally(t);
+                            }
+                        });
+                    } catch (RuntimeException | Error e) {
+                        // an unchecked read failure, or a submission rejected because the analyzer was closed
+                        result.completeExceptionally(e);
                     }
+                }
+            } catch (InterruptedException e) {
+                // the sink gave up, or was interrupted and reports the files never queued
+            }
+        });
+        ingestThread.start();
+
+        CompletableFuture<FileAnalysisResult> pending = null;
+        try {
+            for (JavaSource javaSource : javaSources) {
+                pending = takeResult(results, ingestThread);
+                FileAnalysisResult fileResult;
+                if (pending != null) {
+                    fileResult = awaitFileResult(pending, javaSource.getName());
                 } else {
-                    String errorMsg = "Failed to parse " + javaFilePath + ": " +
-                                      parseResult.getProblems().stream()
-                                                 .map(p -> p.getVerboseMessage()) // 더 자세한 오류 메시지
-                                                 .collect(Collectors.joining("; "));
-                    System.err.println(errorMsg);
-                    processingErrors.add(errorMsg);
+                    fileResult = new FileAnalysisResult(javaSource.getName());
+                    fileResult.addError("Analysis interrupted before " + javaSource.getName() + " was processed.");
                 }
-            } catch (ParseProblemException e) {
-                String errorMsg = "Severe parsing error in " + javaFilePath + ": " + e.getMessage();
-                System.err.println(errorMsg);
-                processingErrors.add(errorMsg);
-            } catch (Exception e) {
-                String errorMsg = "Unexpected error analyzing file " + javaFilePath + ": " + e.getMessage();
-                System.err.println(errorMsg);
-                // e.printStackTrace(); // 개발 시 스택 트레이스 확인용
-                processingErrors.add(errorMsg);
+                pending = null;
+                sink.accept(fileResult);
             }
+        } finally {
+            // Only has work left if the sink failed or the run was interrupted
+            ingestThread.interrupt();
+            if (pending != null) pending.cancel(false);
+            results.forEach(result -> result.cancel(false));
         }
-        return new OverallAnalysisResult(allClassAnalyses, allGraphEdges, processingErrors);
     }
 
-    private ClassAnalysisResult parseClassOrInterface(ClassOrInterfaceDeclaration cd, CompilationUnit cu, String packageName, List<Map<String, String>> allGraphEdges) {
-        String simpleName = cd.getNameAsString();
-        String fqcn = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
-        // [수정] Modifier 처리 방식 변경
-        List<String> modifiers = cd.getModifiers().stream()
-                                   .map(modifier -> modifier.getKeyword().asString())
-                                   .collect(Collectors.toList());
-
-        ClassAnalysisResult classResult = new ClassAnalysisResult(packageName, fqcn, simpleName, cd.isInterface(), modifiers);
-
-        classResult.setLoc(calculateSLOC(cd));
-        classResult.setImports(cu.getImports().stream()
-                                .map(imp -> imp.getName().asString() + (imp.isAsterisk() ? ".*" : ""))
-                                .collect(Collectors.toSet()));
-
-        for (FieldDeclaration fieldDecl : cd.getFields()) {
-            for (VariableDeclarator var : fieldDecl.getVariables()) {
-                // [수정] Modifier 처리 방식 변경
-                List<String> fieldModifiers = fieldDecl.getModifiers().stream()
-                                                .map(modifier -> modifier.getKeyword().asString())
-                                                .collect(Collectors.toList());
-                classResult.addField(new FieldInfo(var.getNameAsString(), var.getType().asString(), fieldModifiers));
+    /** The next queued result, or {@code null} once the ingest thread has stopped without queueing one. */
+    private static CompletableFuture<FileAnalysisResult> takeResult(BlockingQueue<CompletableFuture<FileAnalysisResult>> results,
+                                                                    Thread ingestThread) {
+        try {
+            while (true) {
+                CompletableFuture<FileAnalysisResult> result = results.poll(100, TimeUnit.MILLISECONDS);
+                if (result != null) return result;
+                if (!ingestThread.isAlive()) return results.poll();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
         }
+    }
 
-        for (MethodDeclaration methodDecl : cd.getMethods()) {
-            MethodAnalysisResult methodResult = parseMethod(methodDecl, fqcn, allGraphEdges);
-            classResult.addMethod(methodResult);
+    /**
+     * Virtual threads are created through reflection, since the build targets Java 11: a parked virtual
+     * thread costs no platform thread, so concurrent runs (the server's jobs) add no threads of their own.
+     */
+    private static ThreadFactory ingestThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "java-analyzer-ingest-", 1L);
+            Method factory = builderType.getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Before JDK 21 (or with preview features off on JDK 19 and 20)
+            AtomicInteger threadCounter = new AtomicInteger();
+            return runnable -> {
+                Thread thread = new Thread(runnable, "java-analyzer-ingest-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
         }
-        
-        if (classResult.getLoc() > 500) classResult.addWarning("Large class (LOC > 500)");
-        if (classResult.getMethods().size() > 25) classResult.addWarning("Class with many methods (>25)");
+    }
 
-        classResult.setExtendedTypes(cd.getExtendedTypes().stream().map(ct -> ct.getNameWithScope()).collect(Collectors.toList()));
-        classResult.setImplementedTypes(cd.getImplementedTypes().stream().map(ct -> ct.getNameWithScope()).collect(Collectors.toList()));
-        classResult.setUsesExternalLibraries(determineExternalLibraries(classResult.getImports(), packageName));
-        classResult.setClassSummary(findStandardStructureMatch(classResult));
+    /** The worker pool is created on first parallel use and shared by all concurrent callers. */
+    private synchronized ExecutorService workerPool() {
+        if (workerPool == null) {
+            workerPool = newWorkerPool(threads);
+        }
+        return workerPool;
+    }
 
-        return classResult;
+    /** Stops the worker threads. Only needed for long-lived processes; the threads are daemons. */
+    @Override
+    public synchronized void close() {
+        if (workerPool != null) {
+            workerPool.shutdownNow();
+            workerPool = null;
+        }
+    }
+
+    private FileAnalysisResult awaitFileResult(Future<FileAnalysisResult> future, String sourceName) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            FileAnalysisResult interrupted = new FileAnalysisResult(sourceName);
+            interrupted.addError("Analysis interrupted before " + sourceName + " was processed.");
+            return interrupted;
+        } catch (ExecutionException e) {
+            // analyzeFile already catches everything it can; this only covers Errors escaping the task
+            String errorMsg = "Unexpected error analyzing file " + sourceName + ": " + e.getCause();
+            System.err.println(errorMsg);
+            FileAnalysisResult failed = new FileAnalysisResult(sourceName);
+            failed.addError(errorMsg);
+            return failed;
+        }
     }
 
-    private MethodAnalysisResult parseMethod(MethodDeclaration md, String classFqcn, List<Map<String, String>> allGraphEdges) {
-        // [수정] Modifier 처리 방식 변경
-        List<String> methodModifiers = md.getModifiers().stream()
-                                         .map(modifier -> modifier.getKeyword().asString())
-                                         .collect(Collectors.toList());
-        List<String> paramTypes = md.getParameters().stream()
-                                    .map(p -> p.getType().asString() + " " + p.getNameAsString())
-                                    .collect(Collectors.toList());
-        MethodAnalysisResult methodResult = new MethodAnalysisResult(md.getNameAsString(), md.getType().asString(), paramTypes, methodModifiers);
-
-        methodResult.setLoc(calculateSLOC(md));
-        md.getJavadocComment().map(JavadocComment::parse).map(Javadoc::getDescription)
-          .ifPresent(desc -> methodResult.setJavadocSummary(desc.toText().lines().findFirst().orElse("").trim()));
-
-        CyclomaticComplexityVisitor ccVisitor = new CyclomaticComplexityVisitor();
-        md.getBody().ifPresent(body -> body.accept(ccVisitor, null));
-        methodResult.setCyclomaticComplexity(ccVisitor.getComplexity());
-        methodResult.setControlStatements(ccVisitor.getControlStatements());
-
-        Set<String> invoked = new HashSet<>();
-        md.findAll(MethodCallExpr.class).forEach(mce -> {
-            String calledMethodName = mce.getNameAsString();
-            String scope = mce.getScope().map(Node::toString).orElse("this");
-            invoked.add(scope + "." + calledMethodName);
-
-            Map<String, String> edge = new HashMap<>();
-            edge.put("source", classFqcn + "." + md.getNameAsString());
-            edge.put("target", scope + "." + calledMethodName);
-            allGraphEdges.add(edge);
+    private static ExecutorService newWorkerPool(int poolSize) {
+        AtomicInteger threadCounter = new AtomicInteger();
+        return Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "java-analyzer-worker-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
         });
-        methodResult.setInvokedMethods(invoked);
+    }
+
+    FileAnalysisResult analyzeFile(JavaSource javaSource, CallResolver resolver) {
+        PhaseTimings timings = new PhaseTimings().mark();
+        FileAnalysisResult fileResult = readAndAnalyze(javaSource, timings, resolver);
+        fileResult.setTimings(timings);
+        return fileResult;
+    }
+
+    private FileAnalysisResult readAndAnalyze(JavaSource javaSource, PhaseTimings timings, CallResolver resolver) {
+        ReadFile readFile = read(javaSource, timings);
+        return readFile.failed != null ? readFile.failed : analyzeRead(javaSource.getName(), readFile.content, timings, resolver);
+    }
+
+    /** The content of a file, or the result to report instead if it is too big or cannot be read. */
+    private static final class ReadFile {
+        final byte[] content;
+        final FileAnalysisResult failed;
 
-        if (methodResult.getLoc() > 40) methodResult.addWarning("Long method (LOC > 40)");
-        if (methodResult.getCyclomaticComplexity() > 7) methodResult.addWarning("High complexity (CC > 7)");
-        if (md.getParameters().size() > 5) methodResult.addWarning("Method with many parameters (>5)");
+        ReadFile(byte[] content, FileAnalysisResult failed) {
+            this.content = content;
+            this.failed = failed;
+        }
+    }
 
-        return methodResult;
+    private ReadFile read(JavaSource javaSource, PhaseTimings timings) {
+        String javaFilePath = javaSource.getName();
+        long knownSize = javaSource.size();
+        if (isOversized(knownSize) && oversizedFileAction == LimitAction.SKIP) {
+            return new ReadFile(null, skipOversized(javaFilePath, knownSize)); // not even read
+        }
+        try {
+            byte[] content = javaSource.readContent();
+            timings.lap(Phase.READ);
+            return new ReadFile(content, null);
+        } catch (IOException e) {
+            String errorMsg = "Unexpected error analyzing file " + javaFilePath + ": " + e.getMessage();
+            System.err.println(errorMsg);
+            FileAnalysisResult unreadable = new FileAnalysisResult(javaFilePath);
+            unreadable.addError(errorMsg);
+            return new ReadFile(null, unreadable);
+        }
     }
 
-    private int calculateSLOC(Node node) {
-        if (node.getBegin().isPresent() && node.getEnd().isPresent()) {
-            return node.getEnd().get().line - node.getBegin().get().line + 1;
+    private FileAnalysisResult analyzeRead(String javaFilePath, byte[] content, PhaseTimings timings, CallResolver resolver) {
+        if (isOversized(content.length)) {
+            if (oversizedFileAction == LimitAction.SKIP) {
+                return skipOversized(javaFilePath, content.length);
+            }
+            return analyzeContent(javaFilePath, content, timings, null, true); // never cached: it has an error
+        }
+        // Resolved edges depend on the other files of the job, so they are never cached
+        if (cache == null || resolver != null) {
+            return analyzeContent(javaFilePath, content, timings, resolver, false);
+        }
+
+        String cacheKey = cache.keyFor(content, cacheVariant);
+        FileAnalysisResult cached = cache.load(cacheKey, javaFilePath);
+        timings.lap(Phase.CACHE);
+        if (cached != null) {
+            cached.setFromCache(true);
+            return cached;
+        }
+        FileAnalysisResult fileResult = analyzeContent(javaFilePath, content, timings, null, false);
+        // Error messages name the file and failures may be transient, so only clean results are cached
+        if (fileResult.getProcessingErrors().isEmpty()) {
+            cache.store(cacheKey, fileResult);
+            timings.lap(Phase.CACHE);
         }
-        return 0;
+        return fileResult;
+    }
+
+    private boolean isOversized(long size) {
+        return maxFileBytes > 0 && size > maxFileBytes;
+    }
+
+    private FileAnalysisResult skipOversized(String javaFilePath, long size) {
+        String errorMsg = "Skipped " + javaFilePath + ": " + size + " bytes exceeds the per-file limit of " + maxFileBytes + " bytes.";
+        System.err.println(errorMsg);
+        FileAnalysisResult skipped = new FileAnalysisResult(javaFilePath);
+        skipped.addError(errorMsg);
+        return skipped;
+    }
+
+    /**
+     * @param outline parse with the lean profile and report declarations only (an oversized file being degraded)
+     */
+    private FileAnalysisResult analyzeContent(String javaFilePath, byte[] content, PhaseTimings timings, CallResolver resolver, boolean outline) {
+        FileAnalysisResult fileResult = new FileAnalysisResult(javaFilePath);
+        try {
+            ThreadLocal<JavaParser> parserInstance = outline ? leanParserInstance : javaParserInstance;
+            DeadlineReader deadlineReader = null;
+            ParseResult<CompilationUnit> parseResult;
+            if (maxParseMillis > 0) {
+                deadlineReader = new DeadlineReader(
+                        new InputStreamReader(new ByteArrayInputStream(content), parserConfig.getCharacterEncoding()), maxParseMillis);
+                parseResult = parserInstance.get().parse(deadlineReader);
+            } else {
+                parseResult = parserInstance.get().parse(new ByteArrayInputStream(content), parserConfig.getCharacterEncoding());
+            }
+            timings.lap(Phase.PARSE);
+
+            if (deadlineReader != null && deadlineReader.isExpired()) {
+                // The parser was abandoned mid-input; don't trust its internal state for the next file
+                parserInstance.remove();
+                fileResult.addError(parseTimeoutError(javaFilePath));
+            } else if (parseResult.isSuccessful() && parseResult.getResult().isPresent()) {
+                CompilationUnit cu = parseResult.getResult().get();
+                String packageName = cu.getPackageDeclaration().map(pd -> pd.getName().asString()).orElse("");
+
+                if (outline || leanProfile) {
+                    JavadocAttacher.attach(cu);
+                }
+                List<MethodFingerprint> fingerprints = detectClones && !outline ? new ArrayList<>() : null;
+                List<ClassAnalysisResult> classResults = outline ? MetricsVisitor.collectOutline(cu)
+                                                                 : MetricsVisitor.collect(cu, fileResult.getCallGraph(), resolver, fingerprints);
+                fileResult.setMethodFingerprints(fingerprints);
+                timings.lap(Phase.VISIT);
+                if (!classResults.isEmpty()) {
+                    // All classes of a unit share its imports, so their external libraries are the same too
+                    Set<String> externalLibraries = determineExternalLibraries(classResults.get(0).getImports(), packageName);
+                    for (ClassAnalysisResult classResult : classResults) {
+                        classResult.setUsesExternalLibraries(externalLibraries);
+                        classResult.setClassSummary(findStandardStructureMatch(classResult));
+                        fileResult.addClass(classResult);
+                    }
+                    timings.lap(Phase.STRUCTURE_MATCH);
+                }
+                if (outline) {
+                    String errorMsg = "Analyzed " + javaFilePath + " as an outline only (no complexity or calls): "
+                                      + content.length + " bytes exceeds the per-file limit of " + maxFileBytes + " bytes.";
+                    System.err.println(errorMsg);
+                    fileResult.addError(errorMsg);
+                }
+            } else {
+                String errorMsg = "Failed to parse " + javaFilePath + ": " +
+                                  parseResult.getProblems().stream()
+                                             .map(p -> p.getVerboseMessage()) // 더 자세한 오류 메시지
+                                             .collect(Collectors.joining("; "));
+                System.err.println(errorMsg);
+                fileResult.addError(errorMsg);
+            }
+        } catch (ParseProblemException e) {
+            String errorMsg = "Severe parsing error in " + javaFilePath + ": " + e.getMessage();
+            System.err.println(errorMsg);
+            fileResult.addError(errorMsg);
+        } catch (Exception e) {
+            String errorMsg = "Unexpected error analyzing file " + javaFilePath + ": " + e.getMessage();
+            System.err.println(errorMsg);
+            // e.printStackTrace(); // 개발 시 스택 트레이스 확인용
+            fileResult.addError(errorMsg);
+        }
+        return fileResult;
+    }
+
+    private String parseTimeoutError(String javaFilePath) {
+        String errorMsg = "Skipped " + javaFilePath + ": parsing took longer than the per-file limit of " + maxParseMillis + " ms.";
+        System.err.println(errorMsg);
+        return errorMsg;
     }
 
     private Set<String> determineExternalLibraries(Set<String> imports, String currentPackageName) {
@@ -198,70 +571,15 @@ public class JavaFileAnalyzer {
             .collect(Collectors.toSet());
     }
 
-    private String findStandardStructureMatch(ClassAnalysisResult classResult) {
-        if (standardStructuresCache == null || standardStructuresCache.isEmpty()) {
+    // Package-private for the JMH benchmarks
+    String findStandardStructureMatch(ClassAnalysisResult classResult) {
+        if (standardStructureIndex == null || standardStructureIndex.isEmpty()) {
             return "Standard structure data not available.";
         }
-        StandardStructure bestMatch = null;
-        int maxScore = -1;
-
-        for (StandardStructure standard : standardStructuresCache) {
-            int currentScore = 0;
-            String standardSimpleName = standard.getClassName().substring(standard.getClassName().lastIndexOf('.') + 1);
-
-            if (classResult.getSimpleName().equalsIgnoreCase(standardSimpleName)) currentScore += 3;
-            if (classResult.isInterface() == (standard.getType() != null && standard.getType().toLowerCase().contains("interface"))) currentScore +=1;
-
-            String standardExtendsSimpleName = standard.getExtendsName() != null ?
-                standard.getExtendsName().substring(standard.getExtendsName().lastIndexOf('.') + 1) : null;
-            if (standardExtendsSimpleName != null && classResult.getExtendedTypes().stream()
-                .anyMatch(ext -> ext.endsWith(standardExtendsSimpleName))) {
-                 currentScore += 2;
-            }
-
-            if (standard.getImplementsList() != null && !standard.getImplementsList().isEmpty()) {
-                long implementedMatchCount = classResult.getImplementedTypes().stream()
-                    .filter(impl -> standard.getImplementsList().stream()
-                                    .anyMatch(stdImpl -> impl.endsWith(stdImpl.substring(stdImpl.lastIndexOf('.')+1))))
-                    .count();
-                if (implementedMatchCount > 0) currentScore += implementedMatchCount;
-            }
-
-            if (currentScore > maxScore) {
-                maxScore = currentScore;
-                bestMatch = standard;
-            }
-        }
-
-        if (bestMatch != null && maxScore >= 3) {
+        StandardStructure bestMatch = standardStructureIndex.bestMatch(classResult);
+        if (bestMatch != null) {
             return "Resembles JDK's " + bestMatch.getClassName() + ". " + bestMatch.getDescription();
         }
         return "No strong structural match found with common JDK classes.";
     }
-
-    // Inner class for Cyclomatic Complexity calculation
-    private static class CyclomaticComplexityVisitor extends VoidVisitorAdapter<Void> {
-        private int complexity = 1;
-        private final List<String> controlStatements = new ArrayList<>();
-
-        // [수정] 각 visit 메소드에서 super.visit(n, arg) 호출 추가 (자식 노드 방문을 위해)
-        @Override public void visit(IfStmt n, Void arg) { complexity++; controlStatements.add("if"); super.visit(n, arg); }
-        @Override public void visit(ForStmt n, Void arg) { complexity++; controlStatements.add("for"); super.visit(n, arg); }
-        @Override public void visit(ForEachStmt n, Void arg) { complexity++; controlStatements.add("foreach"); super.visit(n, arg); }
-        @Override public void visit(WhileStmt n, Void arg) { complexity++; controlStatements.add("while"); super.visit(n, arg); }
-        @Override public void visit(DoStmt n, Void arg) { complexity++; controlStatements.add("do-while"); super.visit(n, arg); }
-        @Override public void visit(SwitchEntry n, Void arg) {
-            // default 케이스는 CC에 추가하지 않는 경우가 많음 (JavaParser에서 SwitchEntry는 case 하나를 의미)
-            if (n.getLabels().isNonEmpty() && !n.getLabels().getFirst().map(l -> "default".equalsIgnoreCase(l.toString())).orElse(false)) {
-                 complexity++; controlStatements.add("case");
-            }
-            super.visit(n, arg);
-        }
-        @Override public void visit(ConditionalExpr n, Void arg) { complexity++; controlStatements.add("conditional"); super.visit(n, arg); } // 삼항 연산자
-        @Override public void visit(CatchClause n, Void arg) { complexity++; controlStatements.add("catch"); super.visit(n, arg); }
-        // TODO: Consider logical operators (&&, ||) for more precise CC.
-
-        public int getComplexity() { return complexity; }
-        public List<String> getControlStatements() { return Collections.unmodifiableList(controlStatements); }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package com.javainsight.analyzer;
+
+import com.github.javaparser.JavaToken;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.comments.JavadocComment;
+
+/**
+ * Attaches Javadoc comments to method declarations when the parser's own comment attribution is off
+ * ({@link ParserProfile#LEAN}). A method gets the Javadoc comment that directly precedes it, separated
+ * by whitespace only and without a blank line in between, which is what JavaParser's attribution
+ * yields for well-formed code. Works on the token list, so no other comment is ever looked at.
+ */
+final class JavadocAttacher {
+
+    private JavadocAttacher() {}
+
+    static void attach(CompilationUnit cu) {
+        for (MethodDeclaration method : cu.findAll(MethodDeclaration.class)) {
+            method.getTokenRange().ifPresent(tokens -> {
+                JavaToken javadoc = precedingJavadoc(tokens.getBegin());
+                if (javadoc != null) {
+                    String text = javadoc.getText();
+                    method.setComment(new JavadocComment(text.substring(3, text.length() - 2))); // strip /** and */
+                }
+            });
+        }
+    }
+
+    private static JavaToken precedingJavadoc(JavaToken first) {
+        int lineBreaks = 0;
+        for (JavaToken token = first.getPreviousToken().orElse(null); token != null; token = token.getPreviousToken().orElse(null)) {
+            JavaToken.Category category = token.getCategory();
+            if (category.isEndOfLine()) {
+                if (++lineBreaks > 1) return null; // a blank line detaches the comment
+            } else if (!category.isWhitespace()) {
+                return token.getKind() == JavaToken.Kind.JAVADOC_COMMENT.getKind() ? token : null;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.javainsight.analyzer;
+
+/**
+ * What happens to a file larger than {@link AnalyzerOptions#getMaxFileBytes()}.
+ */
+public enum LimitAction {
+    /** The file is not analyzed; a processing error names it. */
+    SKIP,
+    /**
+     * The file is parsed with the {@link ParserProfile#LEAN} profile and reported as an outline: classes,
+     * fields and method signatures, without complexity, control statements or calls. A processing error
+     * still names it.
+     */
+    DEGRADE;
+
+    /** Parses a command-line value such as {@code "degrade"}; returns null if unknown. */
+    public static LimitAction fromName(String name) {
+        for (LimitAction action : values()) {
+            if (action.name().equalsIgnoreCase(name)) return action;
+        }
+        return null;
+    }
+}
@@ -2,61 +2,368 @@ package com.javainsight.analyzer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
-import com.javainsight.analyzer.utils.FileUtils;
+import com.javainsight.analyzer.batch.BatchManifest;
+import com.javainsight.analyzer.batch.BatchReport;
+import com.javainsight.analyzer.batch.BatchRunner;
+import com.javainsight.analyzer.binary.BinaryResultReader;
+import com.javainsight.analyzer.binary.BinaryResultWriter;
+import com.javainsight.analyzer.cache.AnalysisCache;
+import com.javainsight.analyzer.diff.DiffSummary;
+import com.javainsight.analyzer.diff.SnapshotDiff;
+import com.javainsight.analyzer.graph.CallGraph;
+import com.javainsight.analyzer.metrics.AnalysisMetrics;
+import com.javainsight.analyzer.output.ResultCodec;
+import com.javainsight.analyzer.output.StreamingResultWriter;
+import com.javainsight.analyzer.query.Metric;
+import com.javainsight.analyzer.query.ResultIndex;
+import com.javainsight.analyzer.query.ResultQuery;
+import com.javainsight.analyzer.server.AnalysisServer;
+import com.javainsight.analyzer.server.SchedulerServer;
+import com.javainsight.analyzer.shard.ShardCoordinator;
+import com.javainsight.analyzer.shard.ShardReport;
+import com.javainsight.analyzer.shard.ShardStrategy;
+import com.javainsight.analyzer.shard.ShardWorker;
 
-import java.io.File;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
+import java.util.Set;
 
 public class Main {
+    private static final String LIMIT_OPTIONS =
+            " [--parser-profile full|lean] [--max-file-kb N [--on-oversized skip|degrade]] [--max-parse-ms N]";
+    private static final String CODEC_OPTION = " [--codec json|gzip|zstd|smile|cbor]"; // default: by the output file's extension
+    private static final String USAGE =
+            "Usage: java -jar java-analyzer.jar [--threads N] [--pipeline] [--stream] [--compact] [--metrics] [--clones] [--cache DIR [--cache-max-mb N]]"
+                    + " [--resolve-calls [--resolve-budget-ms N]] [--format json|binary]" + CODEC_OPTION + LIMIT_OPTIONS
+                    + " <zipFilePath> [outputTarget|stdout]\n"
+                    + "       java -jar java-analyzer.jar --from-binary [--compact]" + CODEC_OPTION + " <binaryResultFile> [outputTarget|stdout]\n"
+                    + "           (binary results do not store clone groups or metrics, so the converted JSON has none)\n"
+                    + "       java -jar java-analyzer.jar --serve [--jobs N] [--threads N] [--pipeline] [--clones] [--cache DIR [--cache-max-mb N]]"
+                    + " [--resolve-calls [--resolve-budget-ms N]]" + LIMIT_OPTIONS + "\n"
+                    + "       java -jar java-analyzer.jar --batch [--jobs N] [--heap-limit-pct N] [--threads N] [--pipeline] [--stream] [--compact]"
+                    + " [--metrics] [--clones] [--format json|binary]" + CODEC_OPTION + " [--cache DIR [--cache-max-mb N]]"
+                    + " [--resolve-calls [--resolve-budget-ms N]]" + LIMIT_OPTIONS + " <manifestFile|directory|glob> <outputDirectory>\n"
+                    + "       java -jar java-analyzer.jar --schedule [--job-log FILE] [--jobs N] [--large-archive-mb N] [--threads N] [--pipeline]"
+                    + " [--clones] [--cache DIR [--cache-max-mb N]] [--resolve-calls [--resolve-budget-ms N]]" + LIMIT_OPTIONS + "\n"
+                    + "       java -jar java-analyzer.jar --query [--classes] [--package P] [--warning TYPE] [--min-cc N] [--max-cc N]"
+                    + " [--min-loc N] [--max-loc N] [--sort cc|loc] [--top N] [--compact] <resultFile>\n"
+                    + "       java -jar java-analyzer.jar --query --callers-of METHOD [--top N] [--compact] <resultFile>\n"
+                    + "       java -jar java-analyzer.jar --diff [--threads N] [--pipeline] [--compact] [--cache DIR [--cache-max-mb N]]"
+                    + " [--resolve-calls [--resolve-budget-ms N]]" + LIMIT_OPTIONS
+                    + " <oldZipOrResult> <newZipOrResult> [outputTarget|stdout]\n"
+                    + "       java -jar java-analyzer.jar --shards N [--shard-by package|size] [--shard-retries N] [--shard-heap-mb N] [--jobs N]"
+                    + " [--threads N] [--pipeline] [--compact] [--clones] [--format json|binary]" + CODEC_OPTION + " [--cache DIR [--cache-max-mb N]]"
+                    + " [--resolve-calls [--resolve-budget-ms N]]" + LIMIT_OPTIONS + " <zipFilePath> [outputTarget|stdout]";
+    // Analyzer options a --shards coordinator passes on to its workers, without and with a value
+    private static final Set<String> WORKER_FLAGS = Set.of("--pipeline", "--clones", "--resolve-calls");
+    private static final Set<String> WORKER_VALUE_OPTIONS = Set.of("--threads", "--cache", "--cache-max-mb", "--resolve-budget-ms",
+            "--parser-profile", "--max-file-kb", "--on-oversized", "--max-parse-ms");
+    private static final int DEFAULT_CACHE_MAX_MB = 512;
+    private static final int DEFAULT_HEAP_LIMIT_PCT = 75;
+    private static final String DEFAULT_JOB_LOG = "java-analyzer-jobs.log";
+    private static final int DEFAULT_LARGE_ARCHIVE_MB = 8;
+
     public static void main(String[] args) {
-        if (args.length < 1) { // Argument 1: zipFilePath, Argument 2 (optional): outputTarget ("stdout" or filePath)
-            System.err.println("Usage: java -jar java-analyzer.jar <zipFilePath> [outputTarget|stdout]");
+        // Argument 1: zipFilePath, Argument 2 (optional): outputTarget ("stdout" or filePath)
+        List<String> positionalArgs = new ArrayList<>();
+        AnalyzerOptions analyzerOptions = new AnalyzerOptions();
+        OutputOptions outputOptions = new OutputOptions();
+        String cacheDirectory = null; // reuse per-file results across runs, keyed by content hash
+        int cacheMaxMb = DEFAULT_CACHE_MAX_MB;
+        boolean serve = false; // keep a warm analyzer and take jobs from stdin
+        boolean fromBinary = false; // convert a binary result file to JSON instead of analyzing
+        boolean batch = false; // analyze every archive of a manifest into an output directory
+        int concurrentJobs = 2;
+        int heapLimitPct = DEFAULT_HEAP_LIMIT_PCT; // --batch starts no archive while more of the heap is in use
+        boolean schedule = false; // queue jobs from stdin, reporting every status change
+        String jobLog = DEFAULT_JOB_LOG;
+        int largeArchiveMb = DEFAULT_LARGE_ARCHIVE_MB; // --schedule runs archives this big in the large-job lane
+        boolean query = false; // answer a query over a result file instead of analyzing
+        ResultQuery resultQuery = new ResultQuery();
+        String callersOf = null; // --query: list the callers of this method instead
+        boolean diff = false; // compare two snapshots (archives or result files)
+        int shards = 0; // analyze the archive in this many worker processes and merge their results
+        ShardStrategy shardStrategy = ShardStrategy.PACKAGE;
+        int shardRetries = ShardCoordinator.DEFAULT_RETRIES;
+        int shardHeapMb = 0;
+        String shardEntries = null; // run as a --shards worker: analyze only the entries listed in this file
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads":
+                    analyzerOptions.setThreads(parseIntOption(args, ++i, "--threads")); // 0 or less: use all available processors
+                    break;
+                case "--pipeline":
+                    analyzerOptions.setPipelined(true);
+                    break;
+                case "--stream":
+                    outputOptions.setStream(true);
+                    break;
+                case "--compact":
+                    outputOptions.setCompact(true);
+                    break;
+                case "--metrics":
+                    outputOptions.setMetrics(true);
+                    break;
+                case "--cache":
+                    cacheDirectory = requireValue(args, ++i, "--cache");
+                    break;
+                case "--cache-max-mb":
+                    cacheMaxMb = parseIntOption(args, ++i, "--cache-max-mb");
+                    break;
+                case "--resolve-calls":
+                    analyzerOptions.setResolveCalls(true);
+                    break;
+                case "--resolve-budget-ms":
+                    analyzerOptions.setResolveBudgetMillis(parseIntOption(args, ++i, "--resolve-budget-ms"));
+                    break;
+                case "--parser-profile":
+                    String profileName = requireValue(args, ++i, "--parser-profile");
+                    ParserProfile profile = ParserProfile.fromName(profileName);
+                    if (profile == null) {
+                        System.err.println("Invalid value for --parser-profile: " + profileName);
+                        System.exit(1);
+                    }
+                    analyzerOptions.setParserProfile(profile);
+                    break;
+                case "--max-file-kb":
+                    analyzerOptions.setMaxFileBytes(parseIntOption(args, ++i, "--max-file-kb") * 1024L);
+                    break;
+                case "--on-oversized":
+                    String actionName = requireValue(args, ++i, "--on-oversized");
+                    LimitAction action = LimitAction.fromName(actionName);
+                    if (action == null) {
+                        System.err.println("Invalid value for --on-oversized: " + actionName);
+                        System.exit(1);
+                    }
+                    analyzerOptions.setOversizedFileAction(action);
+                    break;
+                case "--max-parse-ms":
+                    analyzerOptions.setMaxParseMillis(parseIntOption(args, ++i, "--max-parse-ms"));
+                    break;
+                case "--format":
+                    String formatName = requireValue(args, ++i, "--format");
+                    OutputFormat format = OutputFormat.fromName(formatName);
+                    if (format == null) {
+                        System.err.println("Invalid value for --format: " + formatName);
+                        System.exit(1);
+                    }
+                    outputOptions.setFormat(format);
+                    break;
+                case "--codec":
+                    String codecName = requireValue(args, ++i, "--codec");
+                    ResultCodec codec = ResultCodec.fromName(codecName);
+                    if (codec == null) {
+                        System.err.println("Invalid value for --codec: " + codecName);
+                        System.exit(1);
+                    }
+                    outputOptions.setCodec(codec);
+                    break;
+                case "--from-binary":
+                    fromBinary = true;
+                    break;
+                case "--serve":
+                    serve = true;
+                    break;
+                case "--jobs":
+                    concurrentJobs = parseIntOption(args, ++i, "--jobs");
+                    break;
+                case "--batch":
+                    batch = true;
+                    break;
+                case "--schedule":
+                    schedule = true;
+                    break;
+                case "--job-log":
+                    jobLog = requireValue(args, ++i, "--job-log");
+                    break;
+                case "--large-archive-mb":
+                    largeArchiveMb = parseIntOption(args, ++i, "--large-archive-mb");
+                    break;
+                case "--query":
+                    query = true;
+                    break;
+                case "--classes":
+                    resultQuery.setClasses(true);
+                    break;
+                case "--package":
+                    resultQuery.setPackagePrefix(requireValue(args, ++i, "--package"));
+                    break;
+                case "--warning":
+                    resultQuery.setWarning(requireValue(args, ++i, "--warning"));
+                    break;
+                case "--min-cc":
+                    resultQuery.setMinimum(Metric.COMPLEXITY, parseIntOption(args, ++i, "--min-cc"));
+                    break;
+                case "--max-cc":
+                    resultQuery.setMaximum(Metric.COMPLEXITY, parseIntOption(args, ++i, "--max-cc"));
+                    break;
+                case "--min-loc":
+                    resultQuery.setMinimum(Metric.LOC, parseIntOption(args, ++i, "--min-loc"));
+                    break;
+                case "--max-loc":
+                    resultQuery.setMaximum(Metric.LOC, parseIntOption(args, ++i, "--max-loc"));
+                    break;
+                case "--sort":
+                    String metricName = requireValue(args, ++i, "--sort");
+                    Metric metric = Metric.fromName(metricName);
+                    if (metric == null) {
+                        System.err.println("Invalid value for --sort: " + metricName);
+                        System.exit(1);
+                    }
+                    resultQuery.setOrderBy(metric);
+                    break;
+                case "--top":
+                    resultQuery.setLimit(parseIntOption(args, ++i, "--top"));
+                    break;
+                case "--callers-of":
+                    callersOf = requireValue(args, ++i, "--callers-of");
+                    break;
+                case "--diff":
+                    diff = true;
+                    break;
+                case "--clones":
+                    analyzerOptions.setDetectClones(true);
+                    break;
+                case "--shards":
+                    shards = parseIntOption(args, ++i, "--shards");
+                    if (shards < 1) {
+                        System.err.println("Invalid value for --shards: " + shards);
+                        System.exit(1);
+                    }
+                    break;
+                case "--shard-by":
+                    String strategyName = requireValue(args, ++i, "--shard-by");
+                    shardStrategy = ShardStrategy.fromName(strategyName);
+                    if (shardStrategy == null) {
+                        System.err.println("Invalid value for --shard-by: " + strategyName);
+                        System.exit(1);
+                    }
+                    break;
+                case "--shard-retries":
+                    shardRetries = parseIntOption(args, ++i, "--shard-retries");
+                    break;
+                case "--shard-heap-mb":
+                    shardHeapMb = parseIntOption(args, ++i, "--shard-heap-mb");
+                    break;
+                case "--shard-worker": // started by a --shards coordinator, not by hand
+                    shardEntries = requireValue(args, ++i, "--shard-worker");
+                    break;
+                case "--heap-limit-pct":
+                    heapLimitPct = parseIntOption(args, ++i, "--heap-limit-pct");
+                    if (heapLimitPct < 1 || heapLimitPct > 100) {
+                        System.err.println("Invalid value for --heap-limit-pct: " + heapLimitPct);
+                        System.exit(1);
+                    }
+                    break;
+                default:
+                    positionalArgs.add(args[i]);
+            }
+        }
+
+        if ((positionalArgs.isEmpty() && !serve && !schedule) || (batch && positionalArgs.size() != 2)
+                || (query && positionalArgs.size() != 1) || (diff && positionalArgs.size() != 2 && positionalArgs.size() != 3)) {
+            System.err.println(USAGE);
             System.exit(1);
         }
+        if (outputOptions.getCodec() != null && outputOptions.getFormat() == OutputFormat.BINARY) {
+            System.err.println("--codec only applies to JSON results, not to --format binary.");
+            System.exit(1);
+        }
+        if ((analyzerOptions.isDetectClones() || outputOptions.isMetrics()) && outputOptions.getFormat() == OutputFormat.BINARY) {
+            System.err.println("Warning: binary results do not store clone groups or metrics; use JSON output to get them.");
+        }
+        if (query) {
+            runQuery(positionalArgs.get(0), resultQuery, callersOf, outputOptions);
+            return;
+        }
 
-        String zipFilePath = args[0];
-        String outputTarget = (args.length > 1) ? args[1] : "stdout"; // Default to stdout
+        AnalysisCache cache = null;
+        if (cacheDirectory != null) {
+            try {
+                cache = new AnalysisCache(Paths.get(cacheDirectory), cacheMaxMb * 1024L * 1024L);
+                analyzerOptions.setCache(cache);
+            } catch (IOException e) {
+                System.err.println("Warning: analysis cache disabled, cannot use " + cacheDirectory + ": " + e.getMessage());
+            }
+        }
 
-        // Create a unique temporary directory for extraction
-        String tempExtractDirName = "java-analyzer-temp-" + UUID.randomUUID().toString();
-        Path tempExtractPath = Paths.get(System.getProperty("java.io.tmpdir"), tempExtractDirName);
+        if (shardEntries != null) {
+            runShardWorker(analyzerOptions, positionalArgs, shardEntries);
+            return;
+        }
+        if (diff) {
+            runDiff(positionalArgs.get(0), positionalArgs.get(1),
+                    positionalArgs.size() > 2 ? positionalArgs.get(2) : ArchiveAnalyzer.STDOUT_TARGET, analyzerOptions, outputOptions, cache);
+            return;
+        }
+        if (serve) {
+            runServer(analyzerOptions, cache, concurrentJobs);
+            return;
+        }
+        if (schedule) {
+            if (concurrentJobs < 2) {
+                System.err.println("Warning: with --jobs 1 a large archive holds the only slot; small jobs wait behind it.");
+            }
+            runScheduler(analyzerOptions, cache, concurrentJobs, largeArchiveMb * 1024L * 1024L, Paths.get(jobLog));
+            return;
+        }
+        if (batch) {
+            runBatch(positionalArgs.get(0), positionalArgs.get(1), analyzerOptions, outputOptions, cache,
+                     concurrentJobs, heapLimitPct / 100.0);
+            return;
+        }
 
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+        String zipFilePath = positionalArgs.get(0);
+        String outputTarget = (positionalArgs.size() > 1) ? positionalArgs.get(1) : ArchiveAnalyzer.STDOUT_TARGET; // Default to stdout
+        if (outputOptions.getFormat() == OutputFormat.BINARY && ArchiveAnalyzer.isStdout(outputTarget)) {
+            System.err.println("--format binary needs an output file.");
+            System.exit(1);
+        }
+        ResultCodec codec = outputOptions.codecFor(outputTarget);
+        if (codec != ResultCodec.JSON && ArchiveAnalyzer.isStdout(outputTarget)) {
+            System.err.println("--codec " + codec.name().toLowerCase() + " needs an output file.");
+            System.exit(1);
+        }
+        if (fromBinary) {
+            convertBinary(zipFilePath, outputTarget, outputOptions, codec);
+            return;
+        }
+        if (shards > 0) {
+            ShardCoordinator coordinator = new ShardCoordinator(workerOptions(args), shards, concurrentJobs)
+                    .setStrategy(shardStrategy)
+                    .setRetries(shardRetries)
+                    .setWorkerHeapMb(shardHeapMb);
+            runSharded(zipFilePath, outputTarget, coordinator, outputOptions, codec, cache);
+            return;
+        }
 
-        OverallAnalysisResult analysisResult;
+        ArchiveAnalyzer archiveAnalyzer = new ArchiveAnalyzer(new JavaFileAnalyzer(analyzerOptions));
+        ObjectMapper objectMapper = archiveAnalyzer.objectMapper(outputOptions, codec);
 
         try {
-            List<Path> javaFiles = FileUtils.extractJavaFilesFromZip(zipFilePath, tempExtractPath.toString());
+            ArchiveAnalysisSummary summary = archiveAnalyzer.analyze(zipFilePath, outputTarget, outputOptions);
 
-            if (javaFiles.isEmpty()) {
-                System.err.println("No .java files found in the ZIP archive: " + zipFilePath);
-                analysisResult = new OverallAnalysisResult(Collections.emptyList(), Collections.emptyList(), List.of("No .java files found in ZIP."));
-            } else {
-                JavaFileAnalyzer analyzer = new JavaFileAnalyzer();
-                analysisResult = analyzer.analyzeProject(javaFiles);
-                 if (!analysisResult.getProcessingErrors().isEmpty()){
-                    System.err.println("Analysis completed with some errors:");
-                    analysisResult.getProcessingErrors().forEach(System.err::println);
-                }
+            if (cache != null) {
+                cache.trim();
             }
-
-            // Output results
-            if ("stdout".equalsIgnoreCase(outputTarget)) {
-                System.out.println(objectMapper.writeValueAsString(analysisResult));
-            } else {
-                File outputFile = new File(outputTarget);
-                if (outputFile.getParentFile() != null) {
-                    outputFile.getParentFile().mkdirs(); // Ensure parent directory exists
-                }
-                objectMapper.writeValue(outputFile, analysisResult);
+            if (summary.getFileCount() > 0 && !summary.getProcessingErrors().isEmpty()) {
+                System.err.println("Analysis completed with some errors:");
+                summary.getProcessingErrors().forEach(System.err::println);
+            }
+            if (!ArchiveAnalyzer.isStdout(outputTarget)) {
                 System.err.println("Analysis results written to: " + outputTarget); // Use stderr for logs
             }
+            if (summary.getMetrics() != null) {
+                printPhaseTimings(summary.getMetrics());
+            }
 
         } catch (IOException e) {
             System.err.println("An I/O error occurred: " + e.getMessage());
@@ -65,14 +372,10 @@ public class Main {
             try {
                 OverallAnalysisResult errorResult = new OverallAnalysisResult(
                         Collections.emptyList(),
-                        Collections.emptyList(),
+                        new CallGraph(),
                         List.of("Fatal I/O error during analysis: " + e.getMessage())
                 );
-                if ("stdout".equalsIgnoreCase(outputTarget)) {
-                     System.out.println(objectMapper.writeValueAsString(errorResult));
-                } else {
-                    objectMapper.writeValue(new File(outputTarget), errorResult);
-                }
+                archiveAnalyzer.writeResult(errorResult, objectMapper, codec, outputTarget);
             } catch (IOException ex) {
                 // Ignore if cannot write error JSON
             }
@@ -83,25 +386,233 @@ public class Main {
              try {
                 OverallAnalysisResult errorResult = new OverallAnalysisResult(
                         Collections.emptyList(),
-                        Collections.emptyList(),
+                        new CallGraph(),
                         List.of("Fatal error during analysis: " + e.getMessage())
                 );
-                if ("stdout".equalsIgnoreCase(outputTarget)) {
-                     System.out.println(objectMapper.writeValueAsString(errorResult));
-                } else {
-                    objectMapper.writeValue(new File(outputTarget), errorResult);
-                }
+                archiveAnalyzer.writeResult(errorResult, objectMapper, codec, outputTarget);
             } catch (IOException ex) {
                 // Ignore
             }
             System.exit(3); // Exit with a different code for other critical errors
-        } finally {
-            try {
-                FileUtils.deleteDirectory(tempExtractPath);
-                // System.err.println("Cleaned up temporary directory: " + tempExtractPath);
-            } catch (IOException e) {
-                System.err.println("Warning: Failed to delete temporary directory " + tempExtractPath + ": " + e.getMessage());
+        }
+    }
+
+    private static void runServer(AnalyzerOptions analyzerOptions, AnalysisCache cache, int concurrentJobs) {
+        // stdout carries the protocol; anything else that prints to it goes to stderr instead
+        PrintStream protocolOut = System.out;
+        System.setOut(System.err);
+        try (JavaFileAnalyzer analyzer = new JavaFileAnalyzer(analyzerOptions)) {
+            new AnalysisServer(new ArchiveAnalyzer(analyzer), cache, concurrentJobs).serve(System.in, protocolOut);
+        } catch (IOException e) {
+            System.err.println("Analyzer server stopped on I/O error: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    private static void runScheduler(AnalyzerOptions analyzerOptions, AnalysisCache cache, int concurrentJobs,
+                                     long largeArchiveBytes, Path jobLog) {
+        // stdout carries the protocol; anything else that prints to it goes to stderr instead
+        PrintStream protocolOut = System.out;
+        System.setOut(System.err);
+        try (JavaFileAnalyzer analyzer = new JavaFileAnalyzer(analyzerOptions)) {
+            new SchedulerServer(new ArchiveAnalyzer(analyzer), cache, concurrentJobs, largeArchiveBytes, jobLog)
+                    .serve(System.in, protocolOut);
+        } catch (IOException e) {
+            System.err.println("Job scheduler stopped on I/O error: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    private static void runBatch(String manifest, String outputDirectory, AnalyzerOptions analyzerOptions,
+                                 OutputOptions outputOptions, AnalysisCache cache, int concurrentArchives, double heapFraction) {
+        List<Path> archives;
+        try {
+            archives = BatchManifest.read(manifest);
+        } catch (IOException e) {
+            System.err.println("Cannot read batch manifest " + manifest + ": " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        if (archives.isEmpty()) {
+            System.err.println("No archives found for batch manifest: " + manifest);
+        }
+        BatchReport report;
+        Path reportPath = Paths.get(outputDirectory, BatchRunner.REPORT_FILE_NAME);
+        try (JavaFileAnalyzer analyzer = new JavaFileAnalyzer(analyzerOptions)) {
+            ArchiveAnalyzer archiveAnalyzer = new ArchiveAnalyzer(analyzer);
+            report = new BatchRunner(archiveAnalyzer, cache, concurrentArchives, heapFraction)
+                    .run(archives, Paths.get(outputDirectory), outputOptions);
+            archiveAnalyzer.objectMapper(outputOptions).writeValue(reportPath.toFile(), report);
+        } catch (IOException e) {
+            System.err.println("Batch stopped on I/O error: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        System.err.println("Batch finished: " + report.getCompleted() + " of " + report.getArchives() + " archives analyzed in "
+                           + report.getWallMillis() + " ms; report written to: " + reportPath);
+        if (report.getFailed() > 0) {
+            System.exit(4); // some archives failed; their errors are in the report
+        }
+    }
+
+    private static void runQuery(String resultFile, ResultQuery resultQuery, String callersOf, OutputOptions outputOptions) {
+        ObjectMapper objectMapper = outputOptions.isCompact() ? new ObjectMapper()
+                                                              : new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        try {
+            long loadStart = System.nanoTime();
+            ResultIndex index = ResultIndex.load(Paths.get(resultFile));
+            long queryStart = System.nanoTime();
+            Object hits = callersOf != null ? index.callersOf(callersOf, resultQuery.getLimit()) : index.find(resultQuery);
+            long queryEnd = System.nanoTime();
+            System.out.println(objectMapper.writeValueAsString(hits));
+            System.err.printf("Indexed %d classes and %d methods in %d ms; query took %d us%n", index.getClassCount(),
+                              index.getMethodCount(), (queryStart - loadStart) / 1_000_000, (queryEnd - queryStart) / 1_000);
+        } catch (IOException e) {
+            System.err.println("Cannot query " + resultFile + ": " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    private static void runDiff(String oldSnapshot, String newSnapshot, String outputTarget, AnalyzerOptions analyzerOptions,
+                                OutputOptions outputOptions, AnalysisCache cache) {
+        ObjectMapper objectMapper = outputOptions.isCompact() ? new ObjectMapper()
+                                                              : new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        DiffSummary summary;
+        try (JavaFileAnalyzer analyzer = new JavaFileAnalyzer(analyzerOptions)) {
+            SnapshotDiff snapshotDiff = new SnapshotDiff(analyzer, objectMapper);
+            if (ArchiveAnalyzer.isStdout(outputTarget)) {
+                summary = snapshotDiff.diff(Paths.get(oldSnapshot), Paths.get(newSnapshot), System.out);
+                System.out.println();
+            } else {
+                try (OutputStream out = new BufferedOutputStream(new FileOutputStream(ArchiveAnalyzer.prepareOutputFile(outputTarget)))) {
+                    summary = snapshotDiff.diff(Paths.get(oldSnapshot), Paths.get(newSnapshot), out);
+                }
+                System.err.println("Diff written to: " + outputTarget);
             }
+        } catch (IOException e) {
+            System.err.println("Cannot diff " + oldSnapshot + " and " + newSnapshot + ": " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        if (cache != null) {
+            cache.trim();
+        }
+        System.err.println("Diff: " + summary.changeCount() + " changes; " + summary.getFilesAnalyzed() + " files analyzed, "
+                           + summary.getFilesUnchanged() + " unchanged files skipped, " + summary.getWallMillis() + " ms");
+    }
+
+    private static void runSharded(String zipFilePath, String outputTarget, ShardCoordinator coordinator,
+                                   OutputOptions outputOptions, ResultCodec codec, AnalysisCache cache) {
+        ObjectMapper objectMapper = codec.objectMapper(!outputOptions.isCompact());
+        ShardReport report;
+        try {
+            if (outputOptions.getFormat() == OutputFormat.BINARY) {
+                try (BinaryResultWriter writer = new BinaryResultWriter(ArchiveAnalyzer.prepareOutputFile(outputTarget).toPath())) {
+                    report = coordinator.run(zipFilePath, writer);
+                }
+            } else if (ArchiveAnalyzer.isStdout(outputTarget)) {
+                // The writer only flushes System.out on close, so the document is terminated even if a merge fails
+                try (StreamingResultWriter writer = new StreamingResultWriter(objectMapper, System.out)) {
+                    report = coordinator.run(zipFilePath, writer);
+                } finally {
+                    System.out.println();
+                }
+            } else {
+                try (OutputStream out = ArchiveAnalyzer.openOutput(outputTarget, codec);
+                     StreamingResultWriter writer = new StreamingResultWriter(objectMapper, out)) {
+                    report = coordinator.run(zipFilePath, writer);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Sharded analysis of " + zipFilePath + " stopped on I/O error: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        if (cache != null) {
+            cache.trim();
+        }
+        if (!ArchiveAnalyzer.isStdout(outputTarget)) {
+            System.err.println("Analysis results written to: " + outputTarget);
+        }
+        System.err.println("Sharded analysis: " + report.getFiles() + " files in " + report.getShards() + " shards, "
+                           + report.getWorkerRuns() + " worker runs, " + report.getClasses() + " classes ("
+                           + report.getDuplicateClasses() + " duplicates skipped), " + report.getWallMillis() + " ms");
+        if (report.getFailedShards() > 0) {
+            System.err.println(report.getFailedShards() + " shards failed; their " + report.getFailedFiles()
+                               + " files are missing from the result");
+            System.exit(4);
+        }
+    }
+
+    private static void runShardWorker(AnalyzerOptions analyzerOptions, List<String> positionalArgs, String entryList) {
+        if (positionalArgs.size() != 2) {
+            System.err.println("A shard worker needs <zipFilePath> <resultFile>.");
+            System.exit(1);
+        }
+        try (JavaFileAnalyzer analyzer = new JavaFileAnalyzer(analyzerOptions)) {
+            ShardWorker.run(analyzer, positionalArgs.get(0), Paths.get(entryList), Paths.get(positionalArgs.get(1)));
+        } catch (IOException e) {
+            System.err.println("Shard worker stopped on I/O error: " + e.getMessage());
+            System.exit(2);
+        } // the coordinator trims the cache once all workers are done
+    }
+
+    /** The analyzer options among {@code args}, to start {@code --shards} workers with. */
+    private static List<String> workerOptions(String[] args) {
+        List<String> options = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (WORKER_FLAGS.contains(args[i])) {
+                options.add(args[i]);
+            } else if (WORKER_VALUE_OPTIONS.contains(args[i]) && i + 1 < args.length) {
+                options.add(args[i]);
+                options.add(args[++i]);
+            }
+        }
+        return options;
+    }
+
+    private static void convertBinary(String binaryFilePath, String outputTarget, OutputOptions outputOptions, ResultCodec codec) {
+        ObjectMapper objectMapper = codec.objectMapper(!outputOptions.isCompact());
+        try (BinaryResultReader reader = BinaryResultReader.open(Paths.get(binaryFilePath))) {
+            if (ArchiveAnalyzer.isStdout(outputTarget)) {
+                reader.writeJson(objectMapper, System.out);
+                System.out.println();
+            } else {
+                try (OutputStream out = ArchiveAnalyzer.openOutput(outputTarget, codec)) {
+                    reader.writeJson(objectMapper, out);
+                }
+                System.err.println("JSON results written to: " + outputTarget);
+            }
+        } catch (IOException e) {
+            System.err.println("Cannot convert " + binaryFilePath + ": " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    private static void printPhaseTimings(AnalysisMetrics metrics) {
+        StringBuilder line = new StringBuilder("Phase timings (ms, summed over threads):");
+        metrics.getPhases().forEach((phase, phaseMetrics) -> line.append(' ').append(phase).append('=').append(phaseMetrics.getMillis()));
+        line.append("; firstResult=").append(metrics.getFirstResultMillis()).append("; wall=").append(metrics.getWallMillis());
+        System.err.println(line);
+    }
+
+    private static String requireValue(String[] args, int valueIndex, String optionName) {
+        if (valueIndex >= args.length) {
+            System.err.println("Missing value for " + optionName);
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        return args[valueIndex];
+    }
+
+    private static int parseIntOption(String[] args, int valueIndex, String optionName) {
+        String value = requireValue(args, valueIndex, optionName);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + optionName + ": " + value);
+            System.exit(1);
+            return -1; // unreachable
         }
     }
-}
\ No newline at end of file
+}
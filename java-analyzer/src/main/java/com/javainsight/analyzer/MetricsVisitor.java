@@ -0,0 +1,413 @@
+package com.javainsight.analyzer;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.*;
+import com.github.javaparser.ast.comments.JavadocComment;
+import com.github.javaparser.ast.expr.BinaryExpr;
+import com.github.javaparser.ast.expr.ConditionalExpr;
+import com.github.javaparser.ast.expr.EnclosedExpr;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.FieldAccessExpr;
+import com.github.javaparser.ast.expr.LambdaExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.SwitchExpr;
+import com.github.javaparser.ast.stmt.*;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+import com.github.javaparser.javadoc.Javadoc;
+import com.javainsight.analyzer.clone.CloneFingerprinter;
+import com.javainsight.analyzer.clone.MethodFingerprint;
+import com.javainsight.analyzer.graph.CallGraph;
+import com.javainsight.analyzer.model.ClassAnalysisResult;
+import com.javainsight.analyzer.model.ControlStatements;
+import com.javainsight.analyzer.model.FieldInfo;
+import com.javainsight.analyzer.model.MethodAnalysisResult;
+import com.javainsight.analyzer.resolve.CallResolver;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Collects every per-class and per-method metric of a compilation unit in one traversal:
+ * classes (top-level and nested, at any depth), fields, methods, cyclomatic and cognitive complexity,
+ * nesting depth, control statements, call sites and size warnings.
+ *
+ * <p>Cyclomatic complexity is 1 plus one per branch point: {@code if}, loop, case label, ternary,
+ * {@code catch}, and every {@code &&} and {@code ||}. Cognitive complexity follows SonarSource's definition:
+ * {@code if}, loops, {@code switch}, ternaries and {@code catch} add one plus their nesting level;
+ * {@code else if}, {@code else}, labeled jumps and each sequence of like boolean operators add one flat;
+ * lambdas and methods of local classes nest without adding. {@code yield}, like {@code return}, adds nothing.
+ *
+ * <p>Local and anonymous classes are not reported on their own; like lambdas, their code
+ * counts towards the method that declares them. Constructors, initializer blocks and field
+ * initializers are not measured.
+ */
+class MetricsVisitor extends VoidVisitorAdapter<Void> {
+    private final String packageName;
+    private final Set<String> imports;
+    private final CallGraph callGraph;
+    private final CallResolver resolver; // null: edges use the call's scope text
+    private final boolean visitBodies;
+    private final List<MethodFingerprint> fingerprints; // null: clone detection is off
+    private final List<ClassAnalysisResult> classes = new ArrayList<>();
+    private final Deque<ClassAnalysisResult> typeStack = new ArrayDeque<>();
+    private MethodMetrics method; // the member method whose body is being visited, if any
+
+    private MetricsVisitor(String packageName, Set<String> imports, CallGraph callGraph, CallResolver resolver, boolean visitBodies,
+                           List<MethodFingerprint> fingerprints) {
+        this.packageName = packageName;
+        this.imports = imports;
+        this.callGraph = callGraph;
+        this.resolver = resolver;
+        this.visitBodies = visitBodies;
+        this.fingerprints = fingerprints;
+    }
+
+    /**
+     * Returns one result per class, interface, enum and record of {@code cu}, outer types before the
+     * types nested in them. Call edges are added to {@code callGraph}.
+     */
+    static List<ClassAnalysisResult> collect(CompilationUnit cu, CallGraph callGraph) {
+        return collect(cu, callGraph, null);
+    }
+
+    /**
+     * Like {@link #collect(CompilationUnit, CallGraph)}, but call edges name the resolved signatures of
+     * caller and callee where {@code resolver} can resolve them.
+     */
+    static List<ClassAnalysisResult> collect(CompilationUnit cu, CallGraph callGraph, CallResolver resolver) {
+        return collect(cu, callGraph, resolver, null);
+    }
+
+    /**
+     * Like {@link #collect(CompilationUnit, CallGraph, CallResolver)}; when {@code fingerprints} is not null,
+     * the clone detection fingerprint of every member method large enough to have one is added to it.
+     */
+    static List<ClassAnalysisResult> collect(CompilationUnit cu, CallGraph callGraph, CallResolver resolver,
+                                             List<MethodFingerprint> fingerprints) {
+        return collect(cu, callGraph, resolver, true, fingerprints);
+    }
+
+    /**
+     * Collects classes, fields and method signatures only: method bodies are not visited, so methods keep
+     * the base complexity of 1, list no control statements or calls, and no call edges are added.
+     */
+    static List<ClassAnalysisResult> collectOutline(CompilationUnit cu) {
+        return collect(cu, new CallGraph(), null, false, null);
+    }
+
+    private static List<ClassAnalysisResult> collect(CompilationUnit cu, CallGraph callGraph, CallResolver resolver, boolean visitBodies,
+                                                     List<MethodFingerprint> fingerprints) {
+        String packageName = cu.getPackageDeclaration().map(pd -> pd.getName().asString()).orElse("");
+        // One set per compilation unit, shared by all its classes
+        Set<String> imports = cu.getImports().stream()
+                                .map(imp -> imp.getName().asString() + (imp.isAsterisk() ? ".*" : ""))
+                                .collect(Collectors.toSet());
+        MetricsVisitor visitor = new MetricsVisitor(packageName, imports, callGraph, resolver, visitBodies, fingerprints);
+        for (TypeDeclaration<?> type : cu.getTypes()) {
+            type.accept(visitor, null);
+        }
+        return visitor.classes;
+    }
+
+    // --- Types ---
+
+    @Override
+    public void visit(ClassOrInterfaceDeclaration n, Void arg) {
+        if (method != null) { super.visit(n, arg); return; } // local class: part of the enclosing method
+        ClassAnalysisResult classResult = startType(n, n.isInterface());
+        classResult.setExtendedTypes(typeNames(n.getExtendedTypes()));
+        classResult.setImplementedTypes(typeNames(n.getImplementedTypes()));
+        visitMembers(n, classResult);
+    }
+
+    @Override
+    public void visit(EnumDeclaration n, Void arg) {
+        if (method != null) { super.visit(n, arg); return; }
+        visitImplementingType(n, n.getImplementedTypes());
+    }
+
+    @Override
+    public void visit(RecordDeclaration n, Void arg) {
+        if (method != null) { super.visit(n, arg); return; }
+        visitImplementingType(n, n.getImplementedTypes());
+    }
+
+    private void visitImplementingType(TypeDeclaration<?> n, List<ClassOrInterfaceType> implementedTypes) {
+        ClassAnalysisResult classResult = startType(n, false);
+        classResult.setImplementedTypes(typeNames(implementedTypes));
+        visitMembers(n, classResult);
+    }
+
+    private ClassAnalysisResult startType(TypeDeclaration<?> n, boolean isInterface) {
+        String simpleName = n.getNameAsString();
+        String fqcn;
+        if (!typeStack.isEmpty()) {
+            fqcn = typeStack.peek().getClassName() + "." + simpleName;
+        } else {
+            fqcn = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        }
+        ClassAnalysisResult classResult = new ClassAnalysisResult(packageName, fqcn, simpleName, isInterface,
+                                                                  DeclarationStrings.modifierBits(n.getModifiers()));
+        classResult.setLoc(calculateSLOC(n));
+        classResult.setImports(imports);
+        classes.add(classResult); // added before its nested types so outer classes come first
+        return classResult;
+    }
+
+    private void visitMembers(TypeDeclaration<?> n, ClassAnalysisResult classResult) {
+        typeStack.push(classResult);
+        for (BodyDeclaration<?> member : n.getMembers()) {
+            member.accept(this, null);
+        }
+        typeStack.pop();
+
+        if (classResult.getLoc() > 500) classResult.addWarning("Large class (LOC > 500)");
+        if (classResult.getMethods().size() > 25) classResult.addWarning("Class with many methods (>25)");
+    }
+
+    @Override
+    public void visit(AnnotationDeclaration n, Void arg) {
+        // Annotation types are not reported as classes
+    }
+
+    @Override
+    public void visit(ConstructorDeclaration n, Void arg) {
+        if (method != null) super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(InitializerDeclaration n, Void arg) {
+        if (method != null) super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(FieldDeclaration n, Void arg) {
+        if (method != null) { super.visit(n, arg); return; }
+        int fieldModifiers = DeclarationStrings.modifierBits(n.getModifiers());
+        for (VariableDeclarator var : n.getVariables()) {
+            typeStack.peek().addField(new FieldInfo(var.getNameAsString(), DeclarationStrings.typeName(var.getType()), fieldModifiers));
+        }
+    }
+
+    // --- Methods ---
+
+    @Override
+    public void visit(MethodDeclaration md, Void arg) {
+        if (method != null) { enter(); super.visit(md, arg); exit(); return; } // method of a local/anonymous class: part of this one
+        ClassAnalysisResult owner = typeStack.peek();
+
+        NodeList<Parameter> parameters = md.getParameters();
+        List<String> paramTypes = parameters.isEmpty() ? Collections.emptyList() : new ArrayList<>(parameters.size());
+        for (Parameter parameter : parameters) {
+            paramTypes.add(DeclarationStrings.parameter(DeclarationStrings.typeName(parameter.getType()), parameter.getNameAsString()));
+        }
+        MethodAnalysisResult methodResult = new MethodAnalysisResult(md.getNameAsString(), DeclarationStrings.typeName(md.getType()),
+                                                                     paramTypes, DeclarationStrings.modifierBits(md.getModifiers()));
+
+        methodResult.setLoc(calculateSLOC(md));
+        md.getJavadocComment().map(JavadocComment::parse).map(Javadoc::getDescription)
+          .ifPresent(desc -> methodResult.setJavadocSummary(desc.toText().lines().findFirst().orElse("").trim()));
+
+        String sourceName = resolver != null ? resolver.resolveDeclaration(md) : null;
+        method = new MethodMetrics(sourceName != null ? sourceName : owner.getClassName() + "." + md.getNameAsString());
+        try {
+            if (visitBodies) md.getBody().ifPresent(body -> body.accept(this, null));
+            methodResult.setCyclomaticComplexity(1 + ControlStatements.total(method.controlCounts));
+            methodResult.setCognitiveComplexity(method.cognitive);
+            methodResult.setMaxNestingDepth(method.maxNesting);
+            methodResult.setControlCounts(method.controlCounts);
+            methodResult.setInvokedMethods(method.invoked);
+        } finally {
+            method = null;
+        }
+
+        if (methodResult.getLoc() > 40) methodResult.addWarning("Long method (LOC > 40)");
+        if (methodResult.getCyclomaticComplexity() > 7) methodResult.addWarning("High complexity (CC > 7)");
+        if (methodResult.getCognitiveComplexity() > 15) methodResult.addWarning("High cognitive complexity (> 15)");
+        if (md.getParameters().size() > 5) methodResult.addWarning("Method with many parameters (>5)");
+
+        owner.addMethod(methodResult);
+        if (fingerprints != null && md.getBody().isPresent()) fingerprint(md, owner);
+    }
+
+    private void fingerprint(MethodDeclaration md, ClassAnalysisResult owner) {
+        MethodFingerprint fingerprint = CloneFingerprinter.fingerprint(md.getBody().get());
+        if (fingerprint == null) return;
+        StringBuilder signature = new StringBuilder(md.getNameAsString()).append('(');
+        for (int i = 0; i < md.getParameters().size(); i++) {
+            if (i > 0) signature.append(',');
+            signature.append(DeclarationStrings.typeName(md.getParameter(i).getType()));
+        }
+        fingerprint.setClassName(owner.getClassName());
+        fingerprint.setMethod(signature.append(')').toString());
+        md.getBegin().ifPresent(begin -> fingerprint.setLine(begin.line));
+        md.getEnd().ifPresent(end -> fingerprint.setEndLine(end.line));
+        fingerprints.add(fingerprint);
+    }
+
+    @Override
+    public void visit(MethodCallExpr mce, Void arg) {
+        if (method != null) {
+            String target = resolver != null ? resolver.resolveCall(mce) : null;
+            if (target == null) {
+                target = mce.getScope().map(MetricsVisitor::scopeText).orElse("this") + "." + mce.getNameAsString();
+            }
+            int targetId = callGraph.intern(target);
+            method.invoked.add(callGraph.symbol(targetId));
+            if (method.sourceId < 0) method.sourceId = callGraph.intern(method.sourceName); // once per method, not per call
+            callGraph.addCalls(method.sourceId, targetId, 1);
+        }
+        super.visit(mce, arg);
+    }
+
+    // --- Complexity ---
+
+    @Override
+    public void visit(IfStmt n, Void arg) {
+        visitIf(n, false, arg);
+    }
+
+    /** An {@code else if} is visited at the nesting of its chain's first {@code if}. */
+    private void visitIf(IfStmt n, boolean elseIf, Void arg) {
+        branch(ControlStatements.IF, 1);
+        increment(!elseIf);
+        n.getCondition().accept(this, arg);
+        nest(n.getThenStmt(), arg);
+        if (n.getElseStmt().isPresent()) {
+            Statement elseStmt = n.getElseStmt().get();
+            if (elseStmt.isIfStmt()) {
+                visitIf(elseStmt.asIfStmt(), true, arg);
+            } else {
+                increment(false);
+                nest(elseStmt, arg);
+            }
+        }
+    }
+
+    @Override public void visit(ForStmt n, Void arg) { structure(ControlStatements.FOR); enter(); super.visit(n, arg); exit(); }
+    @Override public void visit(ForEachStmt n, Void arg) { structure(ControlStatements.FOREACH); enter(); super.visit(n, arg); exit(); }
+    @Override public void visit(WhileStmt n, Void arg) { structure(ControlStatements.WHILE); enter(); super.visit(n, arg); exit(); }
+    @Override public void visit(DoStmt n, Void arg) { structure(ControlStatements.DO_WHILE); enter(); super.visit(n, arg); exit(); }
+    @Override public void visit(ConditionalExpr n, Void arg) { structure(ControlStatements.CONDITIONAL); enter(); super.visit(n, arg); exit(); }
+    @Override public void visit(CatchClause n, Void arg) { structure(ControlStatements.CATCH); enter(); super.visit(n, arg); exit(); }
+    @Override public void visit(SwitchStmt n, Void arg) { increment(true); enter(); super.visit(n, arg); exit(); }
+    @Override public void visit(SwitchExpr n, Void arg) { increment(true); enter(); super.visit(n, arg); exit(); }
+    @Override public void visit(LambdaExpr n, Void arg) { enter(); super.visit(n, arg); exit(); }
+
+    @Override
+    public void visit(SwitchEntry n, Void arg) {
+        branch(ControlStatements.CASE, n.getLabels().size()); // one path per label; default has none
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(BinaryExpr n, Void arg) {
+        BinaryExpr.Operator operator = n.getOperator();
+        if (operator == BinaryExpr.Operator.AND || operator == BinaryExpr.Operator.OR) {
+            branch(operator == BinaryExpr.Operator.AND ? ControlStatements.AND : ControlStatements.OR, 1);
+            if (!continuesSequence(n)) increment(false);
+        }
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(BreakStmt n, Void arg) {
+        if (n.getLabel().isPresent()) increment(false);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(ContinueStmt n, Void arg) {
+        if (n.getLabel().isPresent()) increment(false);
+        super.visit(n, arg);
+    }
+
+    /** Whether {@code n} is an operand of the same boolean operator, as the inner {@code &&} of {@code a && b && c}. */
+    private static boolean continuesSequence(BinaryExpr n) {
+        Node parent = n.getParentNode().orElse(null);
+        while (parent instanceof EnclosedExpr) {
+            parent = parent.getParentNode().orElse(null);
+        }
+        return parent instanceof BinaryExpr && ((BinaryExpr) parent).getOperator() == n.getOperator();
+    }
+
+    /** A branch point that also nests: counted, and weighted by its nesting for cognitive complexity. */
+    private void structure(int kind) {
+        branch(kind, 1);
+        increment(true);
+    }
+
+    private void branch(int kind, int paths) {
+        if (method != null) method.controlCounts[kind] += paths;
+    }
+
+    private void increment(boolean nestingWeighted) {
+        if (method != null) method.cognitive += nestingWeighted ? 1 + method.nesting : 1;
+    }
+
+    private void nest(Node n, Void arg) {
+        enter();
+        n.accept(this, arg);
+        exit();
+    }
+
+    private void enter() {
+        if (method != null && ++method.nesting > method.maxNesting) method.maxNesting = method.nesting;
+    }
+
+    private void exit() {
+        if (method != null) method.nesting--;
+    }
+
+    // --- Helpers ---
+
+    /**
+     * Renders a call scope the way {@code Node.toString()} would, without running the pretty printer
+     * for the common simple shapes ({@code foo}, {@code this}, {@code a.b.c}).
+     */
+    static String scopeText(Expression scope) {
+        if (scope.isNameExpr()) {
+            return scope.asNameExpr().getNameAsString();
+        }
+        if (scope.isThisExpr() && scope.asThisExpr().getTypeName().isEmpty()) {
+            return "this";
+        }
+        if (scope.isSuperExpr() && scope.asSuperExpr().getTypeName().isEmpty()) {
+            return "super";
+        }
+        if (scope.isFieldAccessExpr() && scope.asFieldAccessExpr().getTypeArguments().isEmpty()) {
+            FieldAccessExpr fieldAccess = scope.asFieldAccessExpr();
+            return scopeText(fieldAccess.getScope()) + "." + fieldAccess.getNameAsString();
+        }
+        return scope.toString();
+    }
+
+    private static List<String> typeNames(List<ClassOrInterfaceType> types) {
+        return types.stream().map(ClassOrInterfaceType::getNameWithScope).collect(Collectors.toList());
+    }
+
+    static int calculateSLOC(Node node) {
+        if (node.getBegin().isPresent() && node.getEnd().isPresent()) {
+            return node.getEnd().get().line - node.getBegin().get().line + 1;
+        }
+        return 0;
+    }
+
+    /** Accumulators for the member method currently being visited. */
+    private static class MethodMetrics {
+        final String sourceName;
+        int sourceId = -1;
+        final int[] controlCounts = new int[ControlStatements.KINDS];
+        int cognitive;
+        int nesting;
+        int maxNesting;
+        final Set<String> invoked = new HashSet<>();
+
+        MethodMetrics(String sourceName) {
+            this.sourceName = sourceName;
+        }
+    }
+}
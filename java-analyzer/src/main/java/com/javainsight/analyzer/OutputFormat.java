@@ -0,0 +1,19 @@
+package com.javainsight.analyzer;
+
+/**
+ * File format of an analysis result.
+ */
+public enum OutputFormat {
+    /** The {@link OverallAnalysisResult} JSON document. */
+    JSON,
+    /** Indexed, memory-mappable layout read by {@link com.javainsight.analyzer.binary.BinaryResultReader}; files only. */
+    BINARY;
+
+    /** Parses a command-line or protocol value such as {@code "binary"}; returns null if unknown. */
+    public static OutputFormat fromName(String name) {
+        for (OutputFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) return format;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.javainsight.analyzer;
+
+import com.javainsight.analyzer.output.ResultCodec;
+
+/**
+ * How an analysis result is written. Defaults reproduce the original indented, one-shot JSON output.
+ */
+public class OutputOptions {
+    private boolean stream; // write each class as soon as its file is analyzed
+    private boolean compact; // no INDENT_OUTPUT
+    private boolean metrics; // add per-phase timings and counts to the result
+    private OutputFormat format = OutputFormat.JSON; // stream/compact only apply to JSON
+    private ResultCodec codec; // JSON only; null: by the output file's extension
+
+    public boolean isStream() { return stream; }
+    public OutputOptions setStream(boolean stream) { this.stream = stream; return this; }
+
+    public boolean isCompact() { return compact; }
+    public OutputOptions setCompact(boolean compact) { this.compact = compact; return this; }
+
+    public boolean isMetrics() { return metrics; }
+    public OutputOptions setMetrics(boolean metrics) { this.metrics = metrics; return this; }
+
+    public OutputFormat getFormat() { return format; }
+    public OutputOptions setFormat(OutputFormat format) { this.format = format; return this; }
+
+    public ResultCodec getCodec() { return codec; }
+    public OutputOptions setCodec(ResultCodec codec) { this.codec = codec; return this; }
+
+    /** The codec a JSON result written to {@code outputTarget} gets: the chosen one, else the one its extension names. */
+    public ResultCodec codecFor(String outputTarget) {
+        if (codec != null) return codec;
+        return ArchiveAnalyzer.isStdout(outputTarget) ? ResultCodec.JSON : ResultCodec.fromFileName(outputTarget);
+    }
+}
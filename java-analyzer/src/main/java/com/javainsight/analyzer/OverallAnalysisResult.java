@@ -1,16 +1,29 @@
 package com.javainsight.analyzer;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.javainsight.analyzer.clone.CloneGroup;
+import com.javainsight.analyzer.graph.CallGraph;
+import com.javainsight.analyzer.graph.DependencyReport;
+import com.javainsight.analyzer.metrics.AnalysisMetrics;
 import com.javainsight.analyzer.model.ClassAnalysisResult;
+import com.javainsight.analyzer.summary.ProjectSummary;
 import java.util.List;
-import java.util.Map;
 
 public class OverallAnalysisResult {
     private List<ClassAnalysisResult> classes;
-    private List<Map<String, String>> graphEdges; // e.g., { "source": "fqcn.method", "target": "fqcn.method" }
+    private CallGraph graphEdges; // serialized as [{ "source": "fqcn.method", "target": "fqcn.method", "count": n }]
     private List<String> processingErrors; // Errors encountered during analysis of specific files
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ProjectSummary summary; // totals and distributions for overview screens
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private DependencyReport dependencies; // package coupling, layers and cycles
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<CloneGroup> clones; // only when requested (--clones)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private AnalysisMetrics metrics; // only when requested (--metrics)
 
     // Constructors, Getters, and Setters
-    public OverallAnalysisResult(List<ClassAnalysisResult> classes, List<Map<String, String>> graphEdges, List<String> processingErrors) {
+    public OverallAnalysisResult(List<ClassAnalysisResult> classes, CallGraph graphEdges, List<String> processingErrors) {
         this.classes = classes;
         this.graphEdges = graphEdges;
         this.processingErrors = processingErrors;
@@ -18,8 +31,16 @@ public class OverallAnalysisResult {
 
     public List<ClassAnalysisResult> getClasses() { return classes; }
     public void setClasses(List<ClassAnalysisResult> classes) { this.classes = classes; }
-    public List<Map<String, String>> getGraphEdges() { return graphEdges; }
-    public void setGraphEdges(List<Map<String, String>> graphEdges) { this.graphEdges = graphEdges; }
+    public CallGraph getGraphEdges() { return graphEdges; }
+    public void setGraphEdges(CallGraph graphEdges) { this.graphEdges = graphEdges; }
     public List<String> getProcessingErrors() { return processingErrors; }
     public void setProcessingErrors(List<String> processingErrors) { this.processingErrors = processingErrors; }
+    public ProjectSummary getSummary() { return summary; }
+    public void setSummary(ProjectSummary summary) { this.summary = summary; }
+    public DependencyReport getDependencies() { return dependencies; }
+    public void setDependencies(DependencyReport dependencies) { this.dependencies = dependencies; }
+    public List<CloneGroup> getClones() { return clones; }
+    public void setClones(List<CloneGroup> clones) { this.clones = clones; }
+    public AnalysisMetrics getMetrics() { return metrics; }
+    public void setMetrics(AnalysisMetrics metrics) { this.metrics = metrics; }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.javainsight.analyzer;
+
+/**
+ * How much work the parser does beyond building the AST the analysis needs.
+ */
+public enum ParserProfile {
+    /**
+     * Every comment attributed to a node, and Java 16 validation: switch expressions, text blocks and
+     * records parse, later syntax such as sealed classes is rejected.
+     */
+    FULL,
+    /**
+     * Only Javadoc comments of methods are attached, and the Java 17 grammar runs without validation or
+     * post-processing. It parses everything {@link #FULL} does, switch expressions with {@code yield}
+     * included, and also sealed classes and interfaces, which FULL rejects. For code both parse, results
+     * match FULL's except that comments inside a call's scope are left out of the call's name.
+     */
+    LEAN;
+
+    /** Parses a command-line value such as {@code "lean"}; returns null if unknown. */
+    public static ParserProfile fromName(String name) {
+        for (ParserProfile profile : values()) {
+            if (profile.name().equalsIgnoreCase(name)) return profile;
+        }
+        return null;
+    }
+}
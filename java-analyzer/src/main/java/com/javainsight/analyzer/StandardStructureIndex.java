@@ -0,0 +1,175 @@
+package com.javainsight.analyzer;
+
+import com.javainsight.analyzer.model.ClassAnalysisResult;
+import com.javainsight.analyzer.model.StandardStructure;
+
+import java.util.*;
+
+/**
+ * Lookup structures over the standard-structure catalogue, built once when it is loaded.
+ *
+ * <p>A class is only scored against the structures it can actually resemble: those sharing its simple
+ * name (ignoring case), those whose supertype simple name ends one of its extended types, and those
+ * implementing an interface whose simple name ends one of its implemented types. The result is the
+ * same as scoring every structure in catalogue order.
+ */
+final class StandardStructureIndex {
+    /** Minimum score for a structure to be reported as a match. */
+    static final int MIN_MATCH_SCORE = 3;
+
+    private final List<StandardStructure> structures;
+    private final boolean[] isInterface;
+    private final String[] simpleNames;
+    private final String[] extendsSimpleNames;
+    private final String[][] implementsSimpleNames;
+
+    private final Map<String, int[]> bySimpleName;      // lower-cased simple name -> structures
+    private final Map<String, int[]> byExtendsName;     // supertype simple name -> structures
+    private final Map<String, int[]> byImplementsName;  // interface simple name -> structures (postings)
+
+    private StandardStructureIndex(List<StandardStructure> structures) {
+        this.structures = structures;
+        int count = structures.size();
+        isInterface = new boolean[count];
+        simpleNames = new String[count];
+        extendsSimpleNames = new String[count];
+        implementsSimpleNames = new String[count][];
+
+        Map<String, List<Integer>> names = new HashMap<>();
+        Map<String, List<Integer>> extendsNames = new HashMap<>();
+        Map<String, List<Integer>> implementsNames = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            StandardStructure standard = structures.get(i);
+            isInterface[i] = standard.getType() != null && standard.getType().toLowerCase().contains("interface");
+            simpleNames[i] = simpleName(standard.getClassName());
+            names.computeIfAbsent(simpleNames[i].toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(i);
+
+            if (standard.getExtendsName() != null) {
+                extendsSimpleNames[i] = simpleName(standard.getExtendsName());
+                extendsNames.computeIfAbsent(extendsSimpleNames[i], k -> new ArrayList<>()).add(i);
+            }
+
+            List<String> implementsList = standard.getImplementsList() != null ? standard.getImplementsList() : Collections.emptyList();
+            implementsSimpleNames[i] = new String[implementsList.size()];
+            for (int j = 0; j < implementsList.size(); j++) {
+                implementsSimpleNames[i][j] = simpleName(implementsList.get(j));
+                List<Integer> postings = implementsNames.computeIfAbsent(implementsSimpleNames[i][j], k -> new ArrayList<>());
+                if (postings.isEmpty() || postings.get(postings.size() - 1) != i) postings.add(i);
+            }
+        }
+        bySimpleName = toPostings(names);
+        byExtendsName = toPostings(extendsNames);
+        byImplementsName = toPostings(implementsNames);
+    }
+
+    static StandardStructureIndex build(List<StandardStructure> structures) {
+        return new StandardStructureIndex(List.copyOf(structures));
+    }
+
+    boolean isEmpty() {
+        return structures.isEmpty();
+    }
+
+    /**
+     * Returns the highest-scoring structure for {@code classResult}, the earliest one in the catalogue on
+     * ties, or {@code null} when none reaches {@link #MIN_MATCH_SCORE}.
+     */
+    StandardStructure bestMatch(ClassAnalysisResult classResult) {
+        // The interface/class agreement alone is worth 1 point, so a structure can only reach the
+        // threshold through one of the indexed features.
+        Candidates candidates = new Candidates();
+        candidates.add(bySimpleName.get(classResult.getSimpleName().toLowerCase(Locale.ROOT)));
+        for (String extendedType : classResult.getExtendedTypes()) {
+            addBySuffix(byExtendsName, extendedType, candidates);
+        }
+        for (String implementedType : classResult.getImplementedTypes()) {
+            addBySuffix(byImplementsName, implementedType, candidates);
+        }
+        if (candidates.size == 0) return null;
+
+        int[] sorted = candidates.sorted();
+        StandardStructure bestMatch = null;
+        int maxScore = MIN_MATCH_SCORE - 1;
+        int previous = -1;
+        for (int i : sorted) {
+            if (i == previous) continue;
+            previous = i;
+            int score = score(i, classResult);
+            if (score > maxScore) {
+                maxScore = score;
+                bestMatch = structures.get(i);
+            }
+        }
+        return bestMatch;
+    }
+
+    private int score(int i, ClassAnalysisResult classResult) {
+        int score = 0;
+        if (classResult.getSimpleName().equalsIgnoreCase(simpleNames[i])) score += 3;
+        if (classResult.isInterface() == isInterface[i]) score += 1;
+
+        String extendsSimpleName = extendsSimpleNames[i];
+        if (extendsSimpleName != null) {
+            for (String ext : classResult.getExtendedTypes()) {
+                if (ext.endsWith(extendsSimpleName)) {
+                    score += 2;
+                    break;
+                }
+            }
+        }
+
+        String[] implementsNames = implementsSimpleNames[i];
+        if (implementsNames.length > 0) {
+            for (String impl : classResult.getImplementedTypes()) {
+                for (String stdImpl : implementsNames) {
+                    if (impl.endsWith(stdImpl)) {
+                        score++;
+                        break;
+                    }
+                }
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Adds the postings of every key that is a suffix of {@code type}, matching the {@code endsWith}
+     * comparison used when scoring.
+     */
+    private static void addBySuffix(Map<String, int[]> index, String type, Candidates candidates) {
+        for (int start = 0; start <= type.length(); start++) {
+            candidates.add(index.get(start == 0 ? type : type.substring(start)));
+        }
+    }
+
+    private static Map<String, int[]> toPostings(Map<String, List<Integer>> lists) {
+        Map<String, int[]> postings = new HashMap<>(lists.size() * 2);
+        lists.forEach((key, indexes) -> postings.put(key, indexes.stream().mapToInt(Integer::intValue).toArray()));
+        return postings;
+    }
+
+    private static String simpleName(String name) {
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    /** Structure indexes gathered for one class; may contain duplicates until sorted. */
+    private static final class Candidates {
+        int[] values = new int[8];
+        int size;
+
+        void add(int[] postings) {
+            if (postings == null) return;
+            if (size + postings.length > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + postings.length));
+            }
+            System.arraycopy(postings, 0, values, size, postings.length);
+            size += postings.length;
+        }
+
+        int[] sorted() {
+            int[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
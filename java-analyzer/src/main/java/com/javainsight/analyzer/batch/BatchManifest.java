@@ -0,0 +1,81 @@
+package com.javainsight.analyzer.batch;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The archives of a batch run, from one of:
+ * <ul>
+ *   <li>a directory: every {@code .zip} directly inside it;</li>
+ *   <li>a glob such as {@code /snapshots/*.zip} or {@code /snapshots/**.zip}: matched below the
+ *       longest leading directory without wildcards;</li>
+ *   <li>a text file: one archive path per line, blank lines and {@code #} comments ignored; relative
+ *       paths are relative to the manifest's directory.</li>
+ * </ul>
+ * Archives found by directory or glob are sorted by path so runs are repeatable.
+ */
+public final class BatchManifest {
+    private BatchManifest() {}
+
+    public static List<Path> read(String manifest) throws IOException {
+        if (isGlob(manifest)) {
+            return matchGlob(manifest);
+        }
+        Path path = Paths.get(manifest);
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> entries = Files.list(path)) {
+                return entries.filter(entry -> Files.isRegularFile(entry) && isZip(entry))
+                              .sorted()
+                              .collect(Collectors.toList());
+            }
+        }
+        Path base = path.toAbsolutePath().getParent();
+        List<Path> archives = new ArrayList<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            String entry = line.strip();
+            if (entry.isEmpty() || entry.startsWith("#")) continue;
+            archives.add(base.resolve(entry).normalize());
+        }
+        return archives;
+    }
+
+    private static List<Path> matchGlob(String glob) throws IOException {
+        String pattern = glob.replace('\\', '/');
+        int firstWildcard = indexOfWildcard(pattern);
+        int rootEnd = pattern.lastIndexOf('/', firstWildcard);
+        Path root = rootEnd < 0 ? Paths.get(".") : Paths.get(rootEnd == 0 ? "/" : pattern.substring(0, rootEnd));
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern.substring(rootEnd + 1));
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile)
+                        .filter(file -> matcher.matches(root.relativize(file)))
+                        .map(Path::normalize)
+                        .sorted()
+                        .collect(Collectors.toList());
+        }
+    }
+
+    private static boolean isGlob(String manifest) {
+        return indexOfWildcard(manifest) >= 0;
+    }
+
+    private static int indexOfWildcard(String manifest) {
+        for (int i = 0; i < manifest.length(); i++) {
+            char c = manifest.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '{') return i;
+        }
+        return -1;
+    }
+
+    private static boolean isZip(Path path) {
+        return path.getFileName().toString().toLowerCase().endsWith(".zip");
+    }
+}
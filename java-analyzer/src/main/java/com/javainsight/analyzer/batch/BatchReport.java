@@ -0,0 +1,95 @@
+package com.javainsight.analyzer.batch;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.javainsight.analyzer.ArchiveAnalysisSummary;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a batch run: one entry per archive in manifest order, plus totals. The analyses themselves
+ * are in the per-archive output files.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BatchReport {
+    private int archives;
+    private int completed;
+    private int failed;
+    private long files;
+    private long classes;
+    private long wallMillis;
+    private long heapLimitBytes; // admission stops above this much used heap
+    private long peakHeapBytes; // sampled whenever an archive starts or finishes
+    private List<ArchiveEntry> entries = new ArrayList<>();
+
+    public BatchReport() {}
+
+    public int getArchives() { return archives; }
+    public void setArchives(int archives) { this.archives = archives; }
+
+    public int getCompleted() { return completed; }
+    public void setCompleted(int completed) { this.completed = completed; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public long getFiles() { return files; }
+    public void setFiles(long files) { this.files = files; }
+
+    public long getClasses() { return classes; }
+    public void setClasses(long classes) { this.classes = classes; }
+
+    public long getWallMillis() { return wallMillis; }
+    public void setWallMillis(long wallMillis) { this.wallMillis = wallMillis; }
+
+    public long getHeapLimitBytes() { return heapLimitBytes; }
+    public void setHeapLimitBytes(long heapLimitBytes) { this.heapLimitBytes = heapLimitBytes; }
+
+    public long getPeakHeapBytes() { return peakHeapBytes; }
+    public void setPeakHeapBytes(long peakHeapBytes) { this.peakHeapBytes = peakHeapBytes; }
+
+    public List<ArchiveEntry> getEntries() { return entries; }
+    public void setEntries(List<ArchiveEntry> entries) { this.entries = entries; }
+
+    /**
+     * One archive: {@code status} is {@code completed} (with the analysis {@code summary}, whose
+     * {@code elapsedMillis} is the analysis time) or {@code failed} (with {@code error}).
+     * {@code waitMillis} is how long the archive was held back for heap or a free slot.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class ArchiveEntry {
+        private String zipFilePath;
+        private String outputPath;
+        private String status;
+        private String error;
+        private long waitMillis;
+        private ArchiveAnalysisSummary summary;
+
+        public ArchiveEntry() {}
+
+        ArchiveEntry(String zipFilePath, String outputPath) {
+            this.zipFilePath = zipFilePath;
+            this.outputPath = outputPath;
+        }
+
+        public String getZipFilePath() { return zipFilePath; }
+        public void setZipFilePath(String zipFilePath) { this.zipFilePath = zipFilePath; }
+
+        public String getOutputPath() { return outputPath; }
+        public void setOutputPath(String outputPath) { this.outputPath = outputPath; }
+
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+
+        public long getWaitMillis() { return waitMillis; }
+        public void setWaitMillis(long waitMillis) { this.waitMillis = waitMillis; }
+
+        public ArchiveAnalysisSummary getSummary() { return summary; }
+        public void setSummary(ArchiveAnalysisSummary summary) { this.summary = summary; }
+    }
+}
@@ -0,0 +1,158 @@
+package com.javainsight.analyzer.batch;
+
+import com.javainsight.analyzer.ArchiveAnalysisSummary;
+import com.javainsight.analyzer.ArchiveAnalyzer;
+import com.javainsight.analyzer.OutputFormat;
+import com.javainsight.analyzer.OutputOptions;
+import com.javainsight.analyzer.batch.BatchReport.ArchiveEntry;
+import com.javainsight.analyzer.cache.AnalysisCache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs many archives through one shared {@link ArchiveAnalyzer}, so the whole batch pays JVM startup,
+ * parser warm-up and standard-structure loading once. Up to {@code concurrentArchives} archives run at a
+ * time, each writing its own output file into the output directory; a {@link HeapGate} holds archives
+ * back while the heap is too full for another one. A failed archive is recorded in the report and the
+ * batch goes on.
+ */
+public class BatchRunner {
+    public static final String REPORT_FILE_NAME = "batch-report.json";
+    // Rough heap held per byte of (compressed) archive while it runs: the in-memory document keeps every
+    // class result, streamed and binary output only the call graph and per-file working sets
+    private static final int HEAP_PER_ARCHIVE_BYTE_IN_MEMORY = 24;
+    private static final int HEAP_PER_ARCHIVE_BYTE_STREAMED = 6;
+    private static final int CACHE_TRIM_INTERVAL_ARCHIVES = 16;
+
+    private final ArchiveAnalyzer archiveAnalyzer;
+    private final AnalysisCache cache;
+    private final int concurrentArchives;
+    private final double heapFraction;
+
+    public BatchRunner(ArchiveAnalyzer archiveAnalyzer, AnalysisCache cache, int concurrentArchives, double heapFraction) {
+        this.archiveAnalyzer = archiveAnalyzer;
+        this.cache = cache;
+        this.concurrentArchives = Math.max(1, concurrentArchives);
+        this.heapFraction = heapFraction;
+    }
+
+    public BatchReport run(List<Path> archives, Path outputDirectory, OutputOptions outputOptions) throws IOException {
+        long startNanos = System.nanoTime();
+        Files.createDirectories(outputDirectory);
+        HeapGate gate = new HeapGate(concurrentArchives, heapFraction);
+        int heapPerByte = outputOptions.getFormat() == OutputFormat.BINARY || outputOptions.isStream()
+                          ? HEAP_PER_ARCHIVE_BYTE_STREAMED : HEAP_PER_ARCHIVE_BYTE_IN_MEMORY;
+        List<ArchiveEntry> entries = new ArrayList<>(archives.size());
+        Set<String> outputNames = new HashSet<>(Set.of(REPORT_FILE_NAME));
+        for (Path archive : archives) {
+            Path outputPath = outputDirectory.resolve(outputName(archive, outputOptions, outputNames));
+            entries.add(new ArchiveEntry(archive.toString(), outputPath.toString()));
+        }
+
+        ExecutorService archivePool = Executors.newFixedThreadPool(concurrentArchives, runnable -> {
+            Thread thread = new Thread(runnable, "java-analyzer-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger finished = new AtomicInteger();
+        try {
+            for (ArchiveEntry entry : entries) {
+                long estimatedBytes = estimateHeap(entry.getZipFilePath(), heapPerByte);
+                entry.setWaitMillis(gate.acquire(estimatedBytes));
+                archivePool.execute(() -> {
+                    try {
+                        runArchive(entry, outputOptions);
+                    } finally {
+                        gate.release(estimatedBytes);
+                        int done = finished.incrementAndGet();
+                        System.err.println("[" + done + "/" + entries.size() + "] " + entry.getStatus() + ": " + entry.getZipFilePath());
+                        if (cache != null && done % CACHE_TRIM_INTERVAL_ARCHIVES == 0) {
+                            cache.trim();
+                        }
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch interrupted", e);
+        } finally {
+            archivePool.shutdown();
+            try {
+                archivePool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (cache != null) {
+                cache.trim();
+            }
+        }
+
+        BatchReport report = new BatchReport();
+        report.setArchives(entries.size());
+        for (ArchiveEntry entry : entries) {
+            ArchiveAnalysisSummary summary = entry.getSummary();
+            if (summary == null) {
+                report.setFailed(report.getFailed() + 1);
+                continue;
+            }
+            report.setCompleted(report.getCompleted() + 1);
+            report.setFiles(report.getFiles() + summary.getFileCount());
+            report.setClasses(report.getClasses() + summary.getClassCount());
+        }
+        report.setEntries(entries);
+        report.setHeapLimitBytes(gate.getHeapLimitBytes());
+        report.setPeakHeapBytes(gate.getPeakUsedBytes());
+        report.setWallMillis((System.nanoTime() - startNanos) / 1_000_000);
+        return report;
+    }
+
+    private void runArchive(ArchiveEntry entry, OutputOptions outputOptions) {
+        try {
+            entry.setSummary(archiveAnalyzer.analyze(entry.getZipFilePath(), entry.getOutputPath(), outputOptions));
+            entry.setStatus("completed");
+        } catch (Exception e) {
+            System.err.println("Archive " + entry.getZipFilePath() + " failed: " + e);
+            entry.setStatus("failed");
+            entry.setError(e.getClass().getSimpleName() + ": " + e.getMessage());
+        } catch (OutOfMemoryError e) {
+            // The archive's results are unreachable now; let the batch go on with the ones after it
+            entry.setStatus("failed");
+            entry.setError("OutOfMemoryError: " + e.getMessage());
+        }
+    }
+
+    private static long estimateHeap(String zipFilePath, int heapPerByte) {
+        try {
+            return Files.size(Path.of(zipFilePath)) * heapPerByte;
+        } catch (IOException e) {
+            return 0; // the analysis will report the problem
+        }
+    }
+
+    /**
+     * {@code name.zip} becomes {@code name.json} (or {@code .bin}, or the extension of the chosen codec, such as
+     * {@code .json.gz}); repeated names get {@code -2}, {@code -3}, ...
+     */
+    private static String outputName(Path archive, OutputOptions outputOptions, Set<String> taken) {
+        String fileName = archive.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        String base = dot > 0 ? fileName.substring(0, dot) : fileName;
+        String extension = outputOptions.getFormat() == OutputFormat.BINARY ? ".bin"
+                           : outputOptions.getCodec() != null ? outputOptions.getCodec().getExtension() : ".json";
+        String name = base + extension;
+        for (int n = 2; !taken.add(name); n++) {
+            name = base + "-" + n + extension;
+        }
+        return name;
+    }
+}
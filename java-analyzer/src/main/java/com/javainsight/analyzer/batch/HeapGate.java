@@ -0,0 +1,100 @@
+package com.javainsight.analyzer.batch;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admits archives into a batch run while there is room for them: at most {@code maxConcurrent} at a time,
+ * and only while the heap in use plus the estimated footprints of the running archives and the new one
+ * stays under a share of the maximum heap. Running archives count in full even once part of their
+ * footprint shows in the used heap: archives started back to back have not allocated anything yet, and
+ * erring high only costs concurrency. An archive is always admitted when none is running, so one archive
+ * too large for the limit still runs, alone.
+ *
+ * <p>Used heap includes garbage not yet collected, so a blocked admission asks for one collection before
+ * waiting; afterwards it is rechecked whenever a running archive finishes and every
+ * {@link #RECHECK_MILLIS} in between.
+ */
+final class HeapGate {
+    private static final long RECHECK_MILLIS = 200;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final int maxConcurrent;
+    private final long heapLimitBytes;
+    private int running;
+    private long reservedBytes; // estimates of the running archives
+    private long peakUsedBytes;
+
+    HeapGate(int maxConcurrent, double heapFraction) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        long maxHeap = memory.getHeapMemoryUsage().getMax();
+        if (maxHeap < 0) maxHeap = Runtime.getRuntime().maxMemory();
+        this.heapLimitBytes = (long) (maxHeap * heapFraction);
+    }
+
+    long getHeapLimitBytes() { return heapLimitBytes; }
+
+    long getPeakUsedBytes() {
+        lock.lock();
+        try {
+            return Math.max(peakUsedBytes, usedHeap());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Blocks until the archive may start; returns how long it waited, in milliseconds. */
+    long acquire(long estimatedBytes) throws InterruptedException {
+        long startNanos = System.nanoTime();
+        boolean collected = false;
+        lock.lock();
+        try {
+            while (true) {
+                if (running == 0) break;
+                if (running < maxConcurrent) {
+                    long used = usedHeap();
+                    if (used + reservedBytes + estimatedBytes <= heapLimitBytes) break;
+                    if (!collected) {
+                        collected = true;
+                        lock.unlock();
+                        try {
+                            System.gc();
+                        } finally {
+                            lock.lock();
+                        }
+                        continue;
+                    }
+                }
+                released.await(RECHECK_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            running++;
+            reservedBytes += estimatedBytes;
+            return (System.nanoTime() - startNanos) / 1_000_000;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release(long estimatedBytes) {
+        lock.lock();
+        try {
+            running--;
+            reservedBytes -= estimatedBytes;
+            usedHeap(); // sample the peak at the end of each archive too
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long usedHeap() {
+        long used = memory.getHeapMemoryUsage().getUsed();
+        peakUsedBytes = Math.max(peakUsedBytes, used);
+        return used;
+    }
+}
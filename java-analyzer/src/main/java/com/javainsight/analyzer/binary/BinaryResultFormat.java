@@ -0,0 +1,46 @@
+package com.javainsight.analyzer.binary;
+
+/**
+ * Layout of the binary result file, written by {@link BinaryResultWriter} and memory-mapped by
+ * {@link BinaryResultReader}. All numbers are big-endian; every string is an {@code int} id into the
+ * string table ({@link #NONE} for null), and a string list is an {@code int} length ({@link #NONE}
+ * for null) followed by that many ids.
+ *
+ * <pre>
+ * header (64 bytes, written last)
+ *   int magic, int formatVersion, int analyzerVersion, int classCount,
+ *   long classIndexOffset, long stringTableOffset, long callGraphOffset, long errorsOffset, long fileSize
+ * class records, in input order
+ *   int packageName, int className, int simpleName, byte isInterface, int loc,
+ *   list modifiers, list imports, list extendedTypes, list implementedTypes,
+ *   list usesExternalLibraries, list warnings, int classSummary,
+ *   int fieldCount, fieldCount x (int fieldName, int fieldType, list modifiers),
+ *   int methodCount, methodCount x fixed 32-byte method record
+ *     (int methodName, int returnType, int loc, int cyclomaticComplexity, int cognitiveComplexity,
+ *      int maxNestingDepth, int javadocSummary, int listsOffset),
+ *   per method, at listsOffset from the end of the method records:
+ *     list parameters, list modifiers, list invokedMethods, list controlStatements, list warnings
+ * call graph
+ *   int edgeCount, edgeCount x (int source, int target, int count)
+ * processing errors
+ *   list
+ * class index
+ *   long[classCount] record offsets in input order, int[classCount] record numbers sorted by className
+ * string table
+ *   int count, int[count + 1] UTF-8 start offsets relative to the string data, string data
+ * </pre>
+ *
+ * <p>Only what the records above hold is stored: clone groups and per-phase metrics are not, so a result
+ * written with {@code --clones} or {@code --metrics} loses them, and {@link BinaryResultReader#writeJson}
+ * produces JSON without them. The {@code summary} and {@code dependencies} sections are not stored either,
+ * but are recomputed from the classes on conversion.
+ */
+final class BinaryResultFormat {
+    static final int MAGIC = 0x4A494152; // "JIAR"
+    static final int FORMAT_VERSION = 2;
+    static final int HEADER_SIZE = 64;
+    static final int METHOD_RECORD_SIZE = 32;
+    static final int NONE = -1;
+
+    private BinaryResultFormat() {}
+}
@@ -0,0 +1,288 @@
+package com.javainsight.analyzer.binary;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javainsight.analyzer.graph.CallGraph;
+import com.javainsight.analyzer.graph.CallGraphJson;
+import com.javainsight.analyzer.model.ClassAnalysisResult;
+import com.javainsight.analyzer.model.FieldInfo;
+import com.javainsight.analyzer.model.MethodAnalysisResult;
+import com.javainsight.analyzer.output.StreamingResultWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static com.javainsight.analyzer.binary.BinaryResultFormat.*;
+
+/**
+ * Memory-maps a file written by {@link BinaryResultWriter} and decodes single classes on demand:
+ * looking up one class reads the class index, a few strings for the binary search, and that class's
+ * record, without touching the rest of the file. Strings are decoded once and then reused.
+ * Thread-safe for reading; files are limited to 2 GB (one mapping).
+ */
+public class BinaryResultReader implements Closeable {
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int classCount;
+    private final int analyzerVersionId;
+    private final int classOffsetsPosition;
+    private final int classOrderPosition;
+    private final int callGraphPosition;
+    private final int errorsPosition;
+    private final int stringCount;
+    private final int stringOffsetsPosition;
+    private final int stringDataPosition;
+    private final String[] decodedStrings;
+
+    private BinaryResultReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            throw new IOException("Not an analysis result file: too short.");
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Binary result files over 2 GB are not supported.");
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        int magic = buffer.getInt(0);
+        if (magic == 0) {
+            throw new IOException("Incomplete analysis result file: the writer did not finish.");
+        }
+        if (magic != MAGIC) {
+            throw new IOException("Not an analysis result file.");
+        }
+        int formatVersion = buffer.getInt(4);
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported binary result format version " + formatVersion + ".");
+        }
+        if (buffer.getLong(48) != size) {
+            throw new IOException("Truncated analysis result file.");
+        }
+        this.analyzerVersionId = buffer.getInt(8);
+        this.classCount = buffer.getInt(12);
+        this.classOffsetsPosition = (int) buffer.getLong(16);
+        this.classOrderPosition = classOffsetsPosition + 8 * classCount;
+        int stringTablePosition = (int) buffer.getLong(24);
+        this.callGraphPosition = (int) buffer.getLong(32);
+        this.errorsPosition = (int) buffer.getLong(40);
+        this.stringCount = buffer.getInt(stringTablePosition);
+        this.stringOffsetsPosition = stringTablePosition + 4;
+        this.stringDataPosition = stringOffsetsPosition + 4 * (stringCount + 1);
+        this.decodedStrings = new String[stringCount];
+    }
+
+    public static BinaryResultReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new BinaryResultReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Whether {@code path} starts like a binary result file (as opposed to JSON); does not validate the rest. */
+    public static boolean isBinaryResultFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // read the first four bytes
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    public String getAnalyzerVersion() { return string(analyzerVersionId); }
+
+    public int getClassCount() { return classCount; }
+
+    /** Fully qualified name of the {@code ordinal}-th class, in the order the classes were analyzed. */
+    public String getClassName(int ordinal) {
+        return string(buffer.getInt(classOffset(ordinal) + 4)); // after packageName
+    }
+
+    /** Decodes the {@code ordinal}-th class, in the order the classes were analyzed. */
+    public ClassAnalysisResult readClass(int ordinal) {
+        return decodeClass(new Cursor(classOffset(ordinal)));
+    }
+
+    /**
+     * Decodes the class named {@code className}, or returns {@code null} if there is none. If several
+     * classes share the name (the same class in two files), the first one analyzed is returned.
+     */
+    public ClassAnalysisResult readClass(String className) {
+        int low = 0;
+        int high = classCount - 1;
+        int found = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int ordinal = buffer.getInt(classOrderPosition + 4 * middle);
+            int comparison = getClassName(ordinal).compareTo(className);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else {
+                if (comparison == 0) found = ordinal; // keep searching left for the first one
+                high = middle - 1;
+            }
+        }
+        return found >= 0 ? readClass(found) : null;
+    }
+
+    public CallGraph readCallGraph() {
+        Cursor cursor = new Cursor(callGraphPosition);
+        int edgeCount = cursor.nextInt();
+        CallGraph graph = new CallGraph(edgeCount);
+        for (int edge = 0; edge < edgeCount; edge++) {
+            int source = graph.intern(string(cursor.nextInt()));
+            int target = graph.intern(string(cursor.nextInt()));
+            graph.addCalls(source, target, cursor.nextInt());
+        }
+        return graph;
+    }
+
+    /** Hands every call graph edge to {@code visitor} in file order, without building a {@link CallGraph}. */
+    public void forEachEdge(CallGraphJson.EdgeVisitor visitor) throws IOException {
+        Cursor cursor = new Cursor(callGraphPosition);
+        int edgeCount = cursor.nextInt();
+        for (int edge = 0; edge < edgeCount; edge++) {
+            visitor.visit(string(cursor.nextInt()), string(cursor.nextInt()), cursor.nextInt());
+        }
+    }
+
+    public List<String> readProcessingErrors() {
+        List<String> errors = new Cursor(errorsPosition).nextList();
+        return errors != null ? errors : new ArrayList<>();
+    }
+
+    /**
+     * Converts the whole file to the JSON document the analyzer writes directly, one class at a time;
+     * the target stream is flushed but not closed.
+     */
+    public void writeJson(ObjectMapper objectMapper, OutputStream out) throws IOException {
+        StreamingResultWriter writer = new StreamingResultWriter(objectMapper, out);
+        for (int ordinal = 0; ordinal < classCount; ordinal++) {
+            writer.writeClass(readClass(ordinal));
+        }
+        writer.addCallGraph(readCallGraph());
+        readProcessingErrors().forEach(writer::addError);
+        writer.close();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close(); // the mapping itself is released when the buffer is garbage collected
+    }
+
+    private int classOffset(int ordinal) {
+        Objects.checkIndex(ordinal, classCount);
+        return (int) buffer.getLong(classOffsetsPosition + 8 * ordinal);
+    }
+
+    private ClassAnalysisResult decodeClass(Cursor cursor) {
+        String packageName = cursor.nextString();
+        String className = cursor.nextString();
+        String simpleName = cursor.nextString();
+        boolean isInterface = cursor.nextByte() != 0;
+        int loc = cursor.nextInt();
+        List<String> modifiers = cursor.nextList();
+        ClassAnalysisResult classResult = new ClassAnalysisResult(packageName, className, simpleName, isInterface, modifiers);
+        classResult.setLoc(loc);
+        classResult.setImports(toSet(cursor.nextList()));
+        classResult.setExtendedTypes(cursor.nextList());
+        classResult.setImplementedTypes(cursor.nextList());
+        classResult.setUsesExternalLibraries(toSet(cursor.nextList()));
+        classResult.setWarnings(cursor.nextList());
+        classResult.setClassSummary(cursor.nextString());
+
+        int fieldCount = cursor.nextInt();
+        List<FieldInfo> fields = new ArrayList<>(fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+            fields.add(new FieldInfo(cursor.nextString(), cursor.nextString(), cursor.nextList()));
+        }
+        classResult.setFields(fields);
+
+        int methodCount = cursor.nextInt();
+        int listsBase = cursor.position + methodCount * METHOD_RECORD_SIZE;
+        List<MethodAnalysisResult> methods = new ArrayList<>(methodCount);
+        for (int i = 0; i < methodCount; i++) {
+            String methodName = cursor.nextString();
+            String returnType = cursor.nextString();
+            int methodLoc = cursor.nextInt();
+            int complexity = cursor.nextInt();
+            int cognitiveComplexity = cursor.nextInt();
+            int maxNestingDepth = cursor.nextInt();
+            String javadocSummary = cursor.nextString();
+            Cursor lists = new Cursor(listsBase + cursor.nextInt());
+            List<String> parameters = lists.nextList();
+            MethodAnalysisResult method = new MethodAnalysisResult(methodName, returnType, parameters, lists.nextList());
+            method.setLoc(methodLoc);
+            method.setCyclomaticComplexity(complexity);
+            method.setCognitiveComplexity(cognitiveComplexity);
+            method.setMaxNestingDepth(maxNestingDepth);
+            method.setJavadocSummary(javadocSummary);
+            method.setInvokedMethods(toSet(lists.nextList()));
+            method.setControlStatements(lists.nextList());
+            method.setWarnings(lists.nextList());
+            methods.add(method);
+        }
+        classResult.setMethods(methods);
+        return classResult;
+    }
+
+    private static Set<String> toSet(List<String> values) {
+        return values != null ? new LinkedHashSet<>(values) : null; // keeps the order they were written in
+    }
+
+    private String string(int id) {
+        if (id == NONE) return null;
+        String value = decodedStrings[id];
+        if (value == null) {
+            int start = buffer.getInt(stringOffsetsPosition + 4 * id);
+            int end = buffer.getInt(stringOffsetsPosition + 4 * (id + 1));
+            byte[] bytes = new byte[end - start];
+            buffer.duplicate().position(stringDataPosition + start).get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            decodedStrings[id] = value; // racing threads decode the same value; either copy may win
+        }
+        return value;
+    }
+
+    /** Sequential reads from an absolute position; the shared buffer's own position is never used. */
+    private final class Cursor {
+        int position;
+
+        Cursor(int position) {
+            this.position = position;
+        }
+
+        int nextInt() {
+            int value = buffer.getInt(position);
+            position += 4;
+            return value;
+        }
+
+        byte nextByte() {
+            return buffer.get(position++);
+        }
+
+        String nextString() {
+            return string(nextInt());
+        }
+
+        List<String> nextList() {
+            int size = nextInt();
+            if (size == NONE) return null;
+            List<String> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(nextString());
+            }
+            return values;
+        }
+    }
+}
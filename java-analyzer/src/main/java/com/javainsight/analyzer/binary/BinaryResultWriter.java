@@ -0,0 +1,223 @@
+package com.javainsight.analyzer.binary;
+
+import com.javainsight.analyzer.FileAnalysisResult;
+import com.javainsight.analyzer.FileAnalysisSink;
+import com.javainsight.analyzer.JavaFileAnalyzer;
+import com.javainsight.analyzer.graph.CallGraph;
+import com.javainsight.analyzer.graph.SymbolTable;
+import com.javainsight.analyzer.metrics.MetricsCollector;
+import com.javainsight.analyzer.metrics.Phase;
+import com.javainsight.analyzer.model.ClassAnalysisResult;
+import com.javainsight.analyzer.model.FieldInfo;
+import com.javainsight.analyzer.model.MethodAnalysisResult;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static com.javainsight.analyzer.binary.BinaryResultFormat.*;
+
+/**
+ * Writes analysis results in the binary layout described by {@link BinaryResultFormat}. Class records
+ * go to disk as soon as their file has been analyzed; only the string table, the class offsets,
+ * graph edges and processing errors are kept until {@link #close()}. The header is written last, so a
+ * file whose writer did not finish is rejected by the reader.
+ */
+public class BinaryResultWriter implements FileAnalysisSink, Closeable {
+    private final FileChannel channel;
+    private final DataOutputStream out;
+    private final MetricsCollector metrics;
+    private final SymbolTable strings = new SymbolTable();
+    private final CallGraph graphEdges = new CallGraph();
+    private final List<String> processingErrors = new ArrayList<>();
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(4096);
+    private final DataOutputStream record = new DataOutputStream(recordBytes);
+    private final ByteArrayOutputStream methodListBytes = new ByteArrayOutputStream(4096);
+    private final DataOutputStream methodLists = new DataOutputStream(methodListBytes);
+    private long position = HEADER_SIZE;
+    private long[] classOffsets = new long[64];
+    private int[] classNameIds = new int[64];
+    private int classCount;
+    private boolean closed;
+
+    public BinaryResultWriter(Path path) throws IOException {
+        this(path, null);
+    }
+
+    public BinaryResultWriter(Path path, MetricsCollector metrics) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+        this.metrics = metrics;
+        out.write(new byte[HEADER_SIZE]); // placeholder; a zero magic marks the file as incomplete
+    }
+
+    @Override
+    public void accept(FileAnalysisResult fileResult) throws IOException {
+        if (metrics != null) {
+            metrics.recordFile(fileResult);
+            metrics.mark();
+        }
+        for (ClassAnalysisResult classResult : fileResult.getClasses()) {
+            writeClass(classResult);
+        }
+        graphEdges.merge(fileResult.getCallGraph());
+        processingErrors.addAll(fileResult.getProcessingErrors());
+        if (metrics != null) metrics.lap(Phase.WRITE);
+    }
+
+    public void writeClass(ClassAnalysisResult classResult) throws IOException {
+        recordBytes.reset();
+        record.writeInt(id(classResult.getPackageName()));
+        record.writeInt(id(classResult.getClassName()));
+        record.writeInt(id(classResult.getSimpleName()));
+        record.writeByte(classResult.isInterface() ? 1 : 0);
+        record.writeInt(classResult.getLoc());
+        writeList(record, classResult.getModifiers());
+        writeList(record, classResult.getImports());
+        writeList(record, classResult.getExtendedTypes());
+        writeList(record, classResult.getImplementedTypes());
+        writeList(record, classResult.getUsesExternalLibraries());
+        writeList(record, classResult.getWarnings());
+        record.writeInt(id(classResult.getClassSummary()));
+
+        List<FieldInfo> fields = classResult.getFields();
+        record.writeInt(fields.size());
+        for (FieldInfo field : fields) {
+            record.writeInt(id(field.getFieldName()));
+            record.writeInt(id(field.getFieldType()));
+            writeList(record, field.getModifiers());
+        }
+
+        List<MethodAnalysisResult> methods = classResult.getMethods();
+        record.writeInt(methods.size());
+        methodListBytes.reset();
+        for (MethodAnalysisResult method : methods) {
+            record.writeInt(id(method.getMethodName()));
+            record.writeInt(id(method.getReturnType()));
+            record.writeInt(method.getLoc());
+            record.writeInt(method.getCyclomaticComplexity());
+            record.writeInt(method.getCognitiveComplexity());
+            record.writeInt(method.getMaxNestingDepth());
+            record.writeInt(id(method.getJavadocSummary()));
+            record.writeInt(methodListBytes.size());
+            writeList(methodLists, method.getParameters());
+            writeList(methodLists, method.getModifiers());
+            writeList(methodLists, method.getInvokedMethods());
+            writeList(methodLists, method.getControlStatements());
+            writeList(methodLists, method.getWarnings());
+        }
+        methodListBytes.writeTo(record);
+
+        if (classCount == classOffsets.length) {
+            classOffsets = Arrays.copyOf(classOffsets, classCount * 2);
+            classNameIds = Arrays.copyOf(classNameIds, classCount * 2);
+        }
+        classOffsets[classCount] = position;
+        classNameIds[classCount] = id(classResult.getClassName());
+        classCount++;
+        recordBytes.writeTo(out);
+        position += recordBytes.size();
+    }
+
+    public void addError(String error) {
+        processingErrors.add(error);
+    }
+
+    public List<String> getProcessingErrors() { return Collections.unmodifiableList(processingErrors); }
+    public int getClassCount() { return classCount; }
+    public int getEdgeCount() { return graphEdges.edgeCount(); }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            if (metrics != null) metrics.mark();
+            int analyzerVersionId = id(JavaFileAnalyzer.ANALYZER_VERSION);
+
+            long callGraphOffset = position;
+            out.writeInt(graphEdges.edgeCount());
+            for (int edge = 0; edge < graphEdges.edgeCount(); edge++) {
+                out.writeInt(id(graphEdges.source(edge)));
+                out.writeInt(id(graphEdges.target(edge)));
+                out.writeInt(graphEdges.callSites(edge));
+            }
+            position += 4 + 12L * graphEdges.edgeCount();
+
+            long errorsOffset = position;
+            position += writeList(out, processingErrors);
+
+            long classIndexOffset = position;
+            for (int i = 0; i < classCount; i++) {
+                out.writeLong(classOffsets[i]);
+            }
+            Integer[] byName = new Integer[classCount];
+            for (int i = 0; i < classCount; i++) byName[i] = i;
+            Arrays.sort(byName, Comparator.comparing((Integer i) -> strings.symbol(classNameIds[i])).thenComparing(i -> i));
+            for (Integer ordinal : byName) {
+                out.writeInt(ordinal);
+            }
+            position += 12L * classCount;
+
+            long stringTableOffset = position;
+            position += writeStringTable();
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(analyzerVersionId).putInt(classCount)
+                  .putLong(classIndexOffset).putLong(stringTableOffset).putLong(callGraphOffset).putLong(errorsOffset)
+                  .putLong(position);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            if (metrics != null) metrics.lap(Phase.WRITE);
+        } finally {
+            out.close();
+        }
+    }
+
+    private long writeStringTable() throws IOException {
+        int count = strings.size();
+        byte[][] encoded = new byte[count][];
+        out.writeInt(count);
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            encoded[i] = strings.symbol(i).getBytes(StandardCharsets.UTF_8);
+            out.writeInt(offset);
+            offset += encoded[i].length;
+        }
+        out.writeInt(offset);
+        for (byte[] bytes : encoded) {
+            out.write(bytes);
+        }
+        return 4 + 4L * (count + 1) + offset;
+    }
+
+    private int id(String value) {
+        return value != null ? strings.intern(value) : NONE;
+    }
+
+    /** Writes a string list and returns the number of bytes written. */
+    private int writeList(DataOutputStream target, Collection<String> values) throws IOException {
+        if (values == null) {
+            target.writeInt(NONE);
+            return 4;
+        }
+        target.writeInt(values.size());
+        for (String value : values) {
+            target.writeInt(id(value));
+        }
+        return 4 + 4 * values.size();
+    }
+}
@@ -0,0 +1,211 @@
+package com.javainsight.analyzer.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javainsight.analyzer.FileAnalysisResult;
+import com.javainsight.analyzer.JavaFileAnalyzer;
+import com.javainsight.analyzer.graph.CallGraph;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Persistent cache of per-file analysis results, keyed by the SHA-256 of the file content
+ * plus {@link JavaFileAnalyzer#ANALYZER_VERSION}.
+ *
+ * <p>Several processes may share one directory: entries are written to a temp file and atomically
+ * renamed into place, unreadable entries are treated as misses, and {@link #trim()} evicts least
+ * recently used entries (hits refresh the modification time) under an exclusive lock file so only
+ * one process evicts at a time.
+ */
+public class AnalysisCache {
+    private static final String ENTRY_SUFFIX = ".json";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String LOCK_FILE_NAME = ".evict.lock";
+    // Temp files older than this were left behind by a crashed writer
+    private static final long STALE_TEMP_FILE_MILLIS = 60 * 60 * 1000L;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Path directory;
+    private final long maxBytes;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public AnalysisCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+    }
+
+    public Path getDirectory() { return directory; }
+    public long getMaxBytes() { return maxBytes; }
+
+    public String keyFor(byte[] content) {
+        return keyFor(content, null);
+    }
+
+    /**
+     * Key for results produced under a non-default configuration {@code variant} (such as a parser
+     * profile); {@code null} gives the same key as {@link #keyFor(byte[])}.
+     */
+    public String keyFor(byte[] content, String variant) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e); // required on every JVM
+        }
+        digest.update(JavaFileAnalyzer.ANALYZER_VERSION.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        if (variant != null) {
+            digest.update(variant.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        byte[] hash = digest.digest(content);
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    /** Returns the cached result for {@code key} under the given source name, or null on a miss. */
+    public FileAnalysisResult load(String key, String sourceName) {
+        Path entryPath = entryPath(key);
+        CacheEntry entry;
+        try {
+            entry = objectMapper.readValue(entryPath.toFile(), CacheEntry.class);
+        } catch (NoSuchFileException | FileNotFoundException e) {
+            return null;
+        } catch (IOException e) {
+            System.err.println("Warning: discarding unreadable cache entry " + entryPath + ": " + e.getMessage());
+            deleteQuietly(entryPath);
+            return null;
+        }
+        if (!JavaFileAnalyzer.ANALYZER_VERSION.equals(entry.getAnalyzerVersion()) || entry.getClasses() == null) {
+            return null;
+        }
+        try {
+            Files.setLastModifiedTime(entryPath, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Evicted concurrently or read-only cache; the loaded entry is still valid
+        }
+        FileAnalysisResult result = new FileAnalysisResult(sourceName,
+                entry.getGraphEdges() != null ? entry.getGraphEdges() : new CallGraph());
+        entry.getClasses().forEach(result::addClass);
+        result.setMethodFingerprints(entry.getMethodFingerprints());
+        return result;
+    }
+
+    /** Stores an error-free result; failures are logged and otherwise ignored. */
+    public void store(String key, FileAnalysisResult result) {
+        Path entryPath = entryPath(key);
+        Path tempFile = null;
+        try {
+            Files.createDirectories(entryPath.getParent());
+            tempFile = Files.createTempFile(entryPath.getParent(), key, TEMP_SUFFIX);
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                objectMapper.writeValue(out, new CacheEntry(JavaFileAnalyzer.ANALYZER_VERSION,
+                        result.getClasses(), result.getCallGraph(), result.getMethodFingerprints()));
+            }
+            try {
+                Files.move(tempFile, entryPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, entryPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: failed to write cache entry " + entryPath + ": " + e.getMessage());
+            if (tempFile != null) deleteQuietly(tempFile);
+        }
+    }
+
+    /**
+     * Evicts least recently used entries until the cache is back under 90% of its size limit.
+     * Skipped if another process is already evicting.
+     */
+    public void trim() {
+        Path lockPath = directory.resolve(LOCK_FILE_NAME);
+        try (FileChannel lockChannel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock lock = lockChannel.tryLock()) {
+            if (lock == null) {
+                return;
+            }
+            List<CachedFile> entries = new ArrayList<>();
+            long totalBytes = 0;
+            long now = System.currentTimeMillis();
+            try (Stream<Path> files = Files.walk(directory, 2)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    String fileName = file.getFileName().toString();
+                    if (!fileName.endsWith(ENTRY_SUFFIX) && !fileName.endsWith(TEMP_SUFFIX)) continue;
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    } catch (IOException e) {
+                        continue; // removed by another process meanwhile
+                    }
+                    long modified = attributes.lastModifiedTime().toMillis();
+                    if (fileName.endsWith(TEMP_SUFFIX)) {
+                        if (now - modified > STALE_TEMP_FILE_MILLIS) deleteQuietly(file);
+                        continue;
+                    }
+                    entries.add(new CachedFile(file, attributes.size(), modified));
+                    totalBytes += attributes.size();
+                }
+            }
+            if (totalBytes <= maxBytes) {
+                return;
+            }
+            long targetBytes = maxBytes - maxBytes / 10;
+            entries.sort(Comparator.comparingLong(entry -> entry.lastModified));
+            for (CachedFile entry : entries) {
+                if (totalBytes <= targetBytes) break;
+                deleteQuietly(entry.path);
+                totalBytes -= entry.size;
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: cache eviction in " + directory + " failed: " + e.getMessage());
+        }
+    }
+
+    private Path entryPath(String key) {
+        // Two-character fan-out keeps directories small
+        return directory.resolve(key.substring(0, 2)).resolve(key + ENTRY_SUFFIX);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Another process may hold or have removed it; eviction will retry later
+        }
+    }
+
+    private static class CachedFile {
+        final Path path;
+        final long size;
+        final long lastModified;
+
+        CachedFile(Path path, long size, long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+}
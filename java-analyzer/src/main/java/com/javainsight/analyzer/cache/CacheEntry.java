@@ -0,0 +1,44 @@
+package com.javainsight.analyzer.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.javainsight.analyzer.clone.MethodFingerprint;
+import com.javainsight.analyzer.graph.CallGraph;
+import com.javainsight.analyzer.model.ClassAnalysisResult;
+
+import java.util.List;
+
+/**
+ * On-disk form of one cached file analysis: everything the analyzer emits for the file
+ * except its name, which is supplied again when the entry is loaded.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CacheEntry {
+    private String analyzerVersion;
+    private List<ClassAnalysisResult> classes;
+    private CallGraph graphEdges;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<MethodFingerprint> methodFingerprints; // only in entries of the clone detection variant
+
+    public CacheEntry() {}
+
+    public CacheEntry(String analyzerVersion, List<ClassAnalysisResult> classes, CallGraph graphEdges,
+                      List<MethodFingerprint> methodFingerprints) {
+        this.analyzerVersion = analyzerVersion;
+        this.classes = classes;
+        this.graphEdges = graphEdges;
+        this.methodFingerprints = methodFingerprints;
+    }
+
+    public String getAnalyzerVersion() { return analyzerVersion; }
+    public void setAnalyzerVersion(String analyzerVersion) { this.analyzerVersion = analyzerVersion; }
+
+    public List<ClassAnalysisResult> getClasses() { return classes; }
+    public void setClasses(List<ClassAnalysisResult> classes) { this.classes = classes; }
+
+    public CallGraph getGraphEdges() { return graphEdges; }
+    public void setGraphEdges(CallGraph graphEdges) { this.graphEdges = graphEdges; }
+
+    public List<MethodFingerprint> getMethodFingerprints() { return methodFingerprints; }
+    public void setMethodFingerprints(List<MethodFingerprint> methodFingerprints) { this.methodFingerprints = methodFingerprints; }
+}
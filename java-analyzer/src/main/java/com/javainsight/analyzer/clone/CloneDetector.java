@@ -0,0 +1,149 @@
+package com.javainsight.analyzer.clone;
+
+import com.javainsight.analyzer.FileAnalysisResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups copy-pasted methods across a whole project from the {@link MethodFingerprint}s of its files.
+ * Methods are collected as the file results arrive (in input order) and compared once in
+ * {@link #detect()}, in time linear in the number of fingerprints:
+ * <ol>
+ *   <li>methods with the same normalized body are grouped by hash;</li>
+ *   <li>one method of each such group goes into a {@link FingerprintIndex}, and every pair that shares a
+ *       fingerprint is scored by the fingerprints they share over the fingerprints of the larger one.
+ *       Fingerprints that more than {@link #MAX_POSTINGS} methods share are boilerplate (a common loop or
+ *       builder chain) and take no part in scoring, which bounds the work per fingerprint;</li>
+ *   <li>pairs scoring at least the minimum similarity are joined with union-find.</li>
+ * </ol>
+ * Not thread-safe; use it from the thread that consumes the file results.
+ */
+public class CloneDetector {
+    public static final double DEFAULT_MIN_SIMILARITY = 0.75;
+    static final int MAX_POSTINGS = 64;
+
+    private final double minSimilarity;
+    private final List<String> files = new ArrayList<>(); // per method
+    private final List<MethodFingerprint> methods = new ArrayList<>();
+
+    public CloneDetector() {
+        this(DEFAULT_MIN_SIMILARITY);
+    }
+
+    public CloneDetector(double minSimilarity) {
+        this.minSimilarity = minSimilarity;
+    }
+
+    /** Collects the fingerprints of one file; a file analyzed without clone detection adds nothing. */
+    public void add(FileAnalysisResult fileResult) {
+        if (fileResult.getMethodFingerprints() == null) return;
+        for (MethodFingerprint method : fileResult.getMethodFingerprints()) {
+            files.add(fileResult.getSourceName());
+            methods.add(method);
+        }
+    }
+
+    /** Clone groups, the ones duplicating the most tokens first. */
+    public List<CloneGroup> detect() {
+        int methodCount = methods.size();
+        int[] parent = new int[methodCount];
+        double[] weakestLink = new double[methodCount]; // per union-find root
+        for (int i = 0; i < methodCount; i++) {
+            parent[i] = i;
+            weakestLink[i] = 1.0;
+        }
+
+        // Same normalized body: joined at similarity 1, and only the first copy is indexed
+        Map<Long, Integer> firstWithBody = new HashMap<>();
+        boolean[] indexed = new boolean[methodCount];
+        long fingerprintCount = 0;
+        for (int i = 0; i < methodCount; i++) {
+            MethodFingerprint method = methods.get(i);
+            Integer first = firstWithBody.putIfAbsent(method.getBodyHash() ^ method.getTokens(), i);
+            if (first != null && methods.get(first).getTokens() == method.getTokens()) {
+                union(parent, weakestLink, first, i, 1.0);
+            } else {
+                indexed[i] = true;
+                fingerprintCount += method.getFingerprints().length;
+            }
+        }
+
+        FingerprintIndex index = new FingerprintIndex((int) Math.min(fingerprintCount, Integer.MAX_VALUE / 4));
+        for (int i = 0; i < methodCount; i++) {
+            if (indexed[i]) {
+                for (long fingerprint : methods.get(i).getFingerprints()) index.count(fingerprint);
+            }
+        }
+        index.seal();
+        for (int i = 0; i < methodCount; i++) {
+            if (indexed[i]) {
+                for (long fingerprint : methods.get(i).getFingerprints()) index.add(fingerprint, i);
+            }
+        }
+
+        int[] shared = new int[methodCount];
+        int[] candidates = new int[methodCount];
+        int[] postings = index.postings();
+        for (int i = 0; i < methodCount; i++) {
+            if (!indexed[i]) continue;
+            long[] fingerprints = methods.get(i).getFingerprints();
+            int candidateCount = 0;
+            for (long fingerprint : fingerprints) {
+                int slot = index.find(fingerprint);
+                int count = index.postingCount(slot);
+                if (count < 2 || count > MAX_POSTINGS) continue;
+                int start = index.start(slot);
+                for (int p = start; p < start + count; p++) {
+                    int other = postings[p];
+                    if (other >= i) break; // postings are sorted; each pair is scored once, from its later method
+                    if (shared[other]++ == 0) candidates[candidateCount++] = other;
+                }
+            }
+            for (int c = 0; c < candidateCount; c++) {
+                int other = candidates[c];
+                double similarity = (double) shared[other] / Math.max(fingerprints.length, methods.get(other).getFingerprints().length);
+                if (similarity >= minSimilarity) union(parent, weakestLink, other, i, similarity);
+                shared[other] = 0;
+            }
+        }
+
+        int[] groupSize = new int[methodCount];
+        for (int i = 0; i < methodCount; i++) {
+            groupSize[find(parent, i)]++;
+        }
+        Map<Integer, CloneGroup> groupsByRoot = new HashMap<>();
+        List<CloneGroup> groups = new ArrayList<>();
+        for (int i = 0; i < methodCount; i++) {
+            int root = find(parent, i);
+            if (groupSize[root] < 2) continue;
+            CloneGroup group = groupsByRoot.get(root);
+            if (group == null) {
+                group = new CloneGroup(Math.round(weakestLink[root] * 100) / 100.0);
+                groupsByRoot.put(root, group);
+                groups.add(group);
+            }
+            group.getMethods().add(new CloneLocation(files.get(i), methods.get(i)));
+        }
+        groups.sort((a, b) -> Integer.compare(b.duplicatedTokens(), a.duplicatedTokens()));
+        return groups;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]]; // path halving
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, double[] weakestLink, int a, int b, double similarity) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA == rootB) return; // already joined through other links
+        parent[rootB] = rootA;
+        weakestLink[rootA] = Math.min(similarity, Math.min(weakestLink[rootA], weakestLink[rootB]));
+    }
+}
@@ -0,0 +1,117 @@
+package com.javainsight.analyzer.clone;
+
+import com.github.javaparser.JavaToken;
+import com.github.javaparser.TokenRange;
+import com.github.javaparser.ast.Node;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Winnowing fingerprints of a method body (Schleimer et al., "Winnowing: local algorithms for document
+ * fingerprinting"). The body's tokens are normalized to their kind, so every identifier is the same token
+ * and every literal of a type is the same token, while keywords, operators and separators stay distinct;
+ * comments and whitespace are dropped. Each run of {@link #K} normalized tokens is hashed with a rolling
+ * hash, and of every {@link #WINDOW} consecutive k-gram hashes the smallest is kept. Two bodies that share
+ * a run of at least {@code K + WINDOW - 1} normalized tokens therefore share a fingerprint.
+ */
+public final class CloneFingerprinter {
+    /** Smaller bodies (getters, delegating one-liners) are alike by nature and not fingerprinted. */
+    public static final int MIN_TOKENS = 50;
+    static final int K = 15;
+    static final int WINDOW = 10;
+    private static final long BASE = 0x100000001b3L;
+
+    private CloneFingerprinter() {}
+
+    /**
+     * Returns the fingerprint of {@code body}, without class name and signature, or {@code null} if it has
+     * fewer than {@link #MIN_TOKENS} tokens or no token range (the parser ran without tokens).
+     */
+    public static MethodFingerprint fingerprint(Node body) {
+        Optional<TokenRange> tokenRange = body.getTokenRange();
+        if (tokenRange.isEmpty()) return null;
+        int[] codes = new int[256];
+        int count = 0;
+        for (JavaToken token : tokenRange.get()) {
+            if (token.getCategory().isWhitespaceOrComment()) continue;
+            if (count == codes.length) codes = Arrays.copyOf(codes, count * 2);
+            codes[count++] = token.getKind();
+        }
+        if (count < MIN_TOKENS) return null;
+
+        MethodFingerprint fingerprint = new MethodFingerprint();
+        fingerprint.setTokens(count);
+        fingerprint.setBodyHash(bodyHash(codes, count));
+        fingerprint.setFingerprints(winnow(kGramHashes(codes, count)));
+        return fingerprint;
+    }
+
+    static long bodyHash(int[] codes, int count) {
+        long hash = count;
+        for (int i = 0; i < count; i++) {
+            hash = hash * BASE + spread(codes[i]);
+        }
+        return finish(hash);
+    }
+
+    /** Hash of every run of {@link #K} tokens, rolled forward one token at a time. */
+    static long[] kGramHashes(int[] codes, int count) {
+        long outgoingFactor = 1; // BASE^(K-1): the weight of the token leaving the window
+        for (int i = 1; i < K; i++) outgoingFactor *= BASE;
+        long[] hashes = new long[Math.max(0, count - K + 1)];
+        long hash = 0;
+        for (int i = 0; i < count; i++) {
+            if (i >= K) hash -= spread(codes[i - K]) * outgoingFactor;
+            hash = hash * BASE + spread(codes[i]);
+            if (i >= K - 1) hashes[i - K + 1] = finish(hash);
+        }
+        return hashes;
+    }
+
+    /**
+     * The minimum of every window of {@link #WINDOW} hashes, the rightmost one on ties, recorded once per
+     * position; returned sorted and distinct.
+     */
+    static long[] winnow(long[] hashes) {
+        int window = Math.min(WINDOW, hashes.length);
+        if (window == 0) return new long[0];
+        long[] selected = new long[hashes.length - window + 1];
+        int count = 0;
+        int minimum = -1;
+        for (int start = 0; start + window <= hashes.length; start++) {
+            int end = start + window - 1;
+            if (minimum < start) {
+                minimum = start;
+                for (int i = start + 1; i <= end; i++) {
+                    if (hashes[i] <= hashes[minimum]) minimum = i;
+                }
+                selected[count++] = hashes[minimum];
+            } else if (hashes[end] <= hashes[minimum]) {
+                minimum = end;
+                selected[count++] = hashes[minimum];
+            }
+        }
+        long[] fingerprints = Arrays.copyOf(selected, count);
+        Arrays.sort(fingerprints);
+        int distinct = 0;
+        for (int i = 0; i < fingerprints.length; i++) {
+            if (i == 0 || fingerprints[i] != fingerprints[distinct - 1]) fingerprints[distinct++] = fingerprints[i];
+        }
+        return Arrays.copyOf(fingerprints, distinct);
+    }
+
+    private static long spread(int code) {
+        return (code + 1) * 0x9e3779b97f4a7c15L;
+    }
+
+    /** MurmurHash3's 64-bit finalizer, so that the window minimum is not biased towards some token kinds. */
+    private static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,38 @@
+package com.javainsight.analyzer.clone;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Methods that are copies of each other, up to renamed identifiers and changed literals, or that share
+ * most of their token k-grams. {@code similarity} is the weakest link that joined the group: 1.0 when
+ * every method has the same normalized body.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CloneGroup {
+    private double similarity;
+    private List<CloneLocation> methods = new ArrayList<>(); // in analysis order
+
+    public CloneGroup() {}
+
+    CloneGroup(double similarity) {
+        this.similarity = similarity;
+    }
+
+    public double getSimilarity() { return similarity; }
+    public void setSimilarity(double similarity) { this.similarity = similarity; }
+
+    public List<CloneLocation> getMethods() { return methods; }
+    public void setMethods(List<CloneLocation> methods) { this.methods = methods; }
+
+    /** Tokens of all copies but the first: how much code the duplication costs. */
+    int duplicatedTokens() {
+        int tokens = 0;
+        for (int i = 1; i < methods.size(); i++) {
+            tokens += methods.get(i).getTokens();
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,43 @@
+package com.javainsight.analyzer.clone;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/** One method of a {@link CloneGroup}. */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CloneLocation {
+    private String file;
+    private String className;
+    private String method; // signature, e.g. "put(K,V)"
+    private int line;
+    private int endLine;
+    private int tokens;
+
+    public CloneLocation() {}
+
+    CloneLocation(String file, MethodFingerprint fingerprint) {
+        this.file = file;
+        this.className = fingerprint.getClassName();
+        this.method = fingerprint.getMethod();
+        this.line = fingerprint.getLine();
+        this.endLine = fingerprint.getEndLine();
+        this.tokens = fingerprint.getTokens();
+    }
+
+    public String getFile() { return file; }
+    public void setFile(String file) { this.file = file; }
+
+    public String getClassName() { return className; }
+    public void setClassName(String className) { this.className = className; }
+
+    public String getMethod() { return method; }
+    public void setMethod(String method) { this.method = method; }
+
+    public int getLine() { return line; }
+    public void setLine(int line) { this.line = line; }
+
+    public int getEndLine() { return endLine; }
+    public void setEndLine(int endLine) { this.endLine = endLine; }
+
+    public int getTokens() { return tokens; }
+    public void setTokens(int tokens) { this.tokens = tokens; }
+}
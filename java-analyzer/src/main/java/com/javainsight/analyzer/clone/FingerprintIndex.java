@@ -0,0 +1,88 @@
+package com.javainsight.analyzer.clone;
+
+/**
+ * Inverted index from fingerprint to the methods that have it, in open-addressed primitive arrays with
+ * the postings of all fingerprints in one array (compressed sparse rows). Built in two passes over the same
+ * methods: {@link #count} every fingerprint, then {@link #seal()}, then {@link #add} the methods in the same
+ * order, which leaves every posting list sorted by method id. Not thread-safe.
+ */
+final class FingerprintIndex {
+    private long[] keys;
+    private boolean[] used; // a fingerprint may be any long, 0 included
+    private int[] counts;
+    private int[] offsets; // after seal(): start of the slot's postings; then advanced while adding
+    private int[] postings;
+    private int size;
+
+    FingerprintIndex(int expectedFingerprints) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedFingerprints * 2 - 1)) << 1;
+        keys = new long[capacity];
+        used = new boolean[capacity];
+        counts = new int[capacity];
+    }
+
+    void count(long fingerprint) {
+        if (2 * (size + 1) > keys.length) grow();
+        int slot = slot(fingerprint);
+        if (!used[slot]) {
+            used[slot] = true;
+            keys[slot] = fingerprint;
+            size++;
+        }
+        counts[slot]++;
+    }
+
+    void seal() {
+        offsets = new int[keys.length + 1];
+        int total = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            offsets[slot] = total;
+            total += counts[slot];
+        }
+        offsets[keys.length] = total;
+        postings = new int[total];
+    }
+
+    void add(long fingerprint, int method) {
+        int slot = slot(fingerprint);
+        postings[offsets[slot]++] = method;
+    }
+
+    /** Slot of {@code fingerprint}, or -1 if no method has it. Only valid after all methods were added. */
+    int find(long fingerprint) {
+        int slot = slot(fingerprint);
+        return used[slot] ? slot : -1;
+    }
+
+    int postingCount(int slot) { return counts[slot]; }
+
+    /** Postings of {@code slot} are {@code postings()[start(slot)]} and the {@link #postingCount} after it. */
+    int start(int slot) { return offsets[slot] - counts[slot]; }
+
+    int[] postings() { return postings; }
+
+    private int slot(long fingerprint) {
+        int mask = keys.length - 1;
+        int slot = (int) (fingerprint ^ (fingerprint >>> 32)) & mask; // fingerprints are already well mixed
+        while (used[slot] && keys[slot] != fingerprint) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        boolean[] oldUsed = used;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        used = new boolean[keys.length];
+        counts = new int[keys.length];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (!oldUsed[i]) continue;
+            int slot = slot(oldKeys[i]);
+            used[slot] = true;
+            keys[slot] = oldKeys[i];
+            counts[slot] = oldCounts[i];
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.javainsight.analyzer.clone;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * What clone detection keeps of one method body: its size in tokens, a hash of the whole normalized
+ * token stream, and the winnowed k-gram hashes. Computed per file on the worker threads and cached with
+ * the file's results; the file name is supplied by whoever collects them.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class MethodFingerprint {
+    private String className;
+    private String method; // signature, e.g. "put(K,V)"
+    private int line;
+    private int endLine;
+    private int tokens;
+    private long bodyHash; // equal for bodies that differ only in identifiers and literal values
+    private long[] fingerprints; // sorted, distinct
+
+    public MethodFingerprint() {}
+
+    public String getClassName() { return className; }
+    public void setClassName(String className) { this.className = className; }
+
+    public String getMethod() { return method; }
+    public void setMethod(String method) { this.method = method; }
+
+    public int getLine() { return line; }
+    public void setLine(int line) { this.line = line; }
+
+    public int getEndLine() { return endLine; }
+    public void setEndLine(int endLine) { this.endLine = endLine; }
+
+    public int getTokens() { return tokens; }
+    public void setTokens(int tokens) { this.tokens = tokens; }
+
+    public long getBodyHash() { return bodyHash; }
+    public void setBodyHash(long bodyHash) { this.bodyHash = bodyHash; }
+
+    public long[] getFingerprints() { return fingerprints; }
+    public void setFingerprints(long[] fingerprints) { this.fingerprints = fingerprints; }
+}
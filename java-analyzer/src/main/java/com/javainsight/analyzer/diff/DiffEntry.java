@@ -0,0 +1,73 @@
+package com.javainsight.analyzer.diff;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One difference between two snapshots: a class, a method (matched by signature within its class) or a
+ * call graph edge that was added, removed or changed. Changed entries carry only the metrics that differ;
+ * added and removed ones carry all of them, with only one side set.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DiffEntry {
+    public static final String CLASS = "class";
+    public static final String METHOD = "method";
+    public static final String EDGE = "edge";
+
+    public static final String ADDED = "added";
+    public static final String REMOVED = "removed";
+    public static final String CHANGED = "changed";
+
+    private String kind;
+    private String change;
+    private String className; // classes and methods
+    private String method; // signature, e.g. "put(K,V)"
+    private String source; // edges
+    private String target;
+    private ValueChange cyclomaticComplexity; // for classes, summed over their methods
+    private ValueChange loc;
+    private ValueChange methods;
+    private ValueChange fields;
+    private ValueChange callSites;
+
+    public DiffEntry() {}
+
+    DiffEntry(String kind, String change) {
+        this.kind = kind;
+        this.change = change;
+    }
+
+    public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
+
+    public String getChange() { return change; }
+    public void setChange(String change) { this.change = change; }
+
+    public String getClassName() { return className; }
+    public void setClassName(String className) { this.className = className; }
+
+    public String getMethod() { return method; }
+    public void setMethod(String method) { this.method = method; }
+
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+
+    public String getTarget() { return target; }
+    public void setTarget(String target) { this.target = target; }
+
+    public ValueChange getCyclomaticComplexity() { return cyclomaticComplexity; }
+    public void setCyclomaticComplexity(ValueChange cyclomaticComplexity) { this.cyclomaticComplexity = cyclomaticComplexity; }
+
+    public ValueChange getLoc() { return loc; }
+    public void setLoc(ValueChange loc) { this.loc = loc; }
+
+    public ValueChange getMethods() { return methods; }
+    public void setMethods(ValueChange methods) { this.methods = methods; }
+
+    public ValueChange getFields() { return fields; }
+    public void setFields(ValueChange fields) { this.fields = fields; }
+
+    public ValueChange getCallSites() { return callSites; }
+    public void setCallSites(ValueChange callSites) { this.callSites = callSites; }
+}
@@ -0,0 +1,73 @@
+package com.javainsight.analyzer.diff;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Totals of a snapshot diff. Methods of added and removed classes count as added and removed methods.
+ * Complexity and LOC deltas are new minus old, over all methods and over top-level classes respectively.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DiffSummary {
+    private int classesAdded;
+    private int classesRemoved;
+    private int classesChanged;
+    private int methodsAdded;
+    private int methodsRemoved;
+    private int methodsChanged;
+    private int edgesAdded;
+    private int edgesRemoved;
+    private int edgesChanged;
+    private long complexityDelta;
+    private long locDelta;
+    private int filesUnchanged; // archive entries identical in both snapshots, not analyzed
+    private int filesAnalyzed;
+    private long wallMillis;
+
+    public int getClassesAdded() { return classesAdded; }
+    public void setClassesAdded(int classesAdded) { this.classesAdded = classesAdded; }
+
+    public int getClassesRemoved() { return classesRemoved; }
+    public void setClassesRemoved(int classesRemoved) { this.classesRemoved = classesRemoved; }
+
+    public int getClassesChanged() { return classesChanged; }
+    public void setClassesChanged(int classesChanged) { this.classesChanged = classesChanged; }
+
+    public int getMethodsAdded() { return methodsAdded; }
+    public void setMethodsAdded(int methodsAdded) { this.methodsAdded = methodsAdded; }
+
+    public int getMethodsRemoved() { return methodsRemoved; }
+    public void setMethodsRemoved(int methodsRemoved) { this.methodsRemoved = methodsRemoved; }
+
+    public int getMethodsChanged() { return methodsChanged; }
+    public void setMethodsChanged(int methodsChanged) { this.methodsChanged = methodsChanged; }
+
+    public int getEdgesAdded() { return edgesAdded; }
+    public void setEdgesAdded(int edgesAdded) { this.edgesAdded = edgesAdded; }
+
+    public int getEdgesRemoved() { return edgesRemoved; }
+    public void setEdgesRemoved(int edgesRemoved) { this.edgesRemoved = edgesRemoved; }
+
+    public int getEdgesChanged() { return edgesChanged; }
+    public void setEdgesChanged(int edgesChanged) { this.edgesChanged = edgesChanged; }
+
+    public long getComplexityDelta() { return complexityDelta; }
+    public void setComplexityDelta(long complexityDelta) { this.complexityDelta = complexityDelta; }
+
+    public long getLocDelta() { return locDelta; }
+    public void setLocDelta(long locDelta) { this.locDelta = locDelta; }
+
+    public int getFilesUnchanged() { return filesUnchanged; }
+    public void setFilesUnchanged(int filesUnchanged) { this.filesUnchanged = filesUnchanged; }
+
+    public int getFilesAnalyzed() { return filesAnalyzed; }
+    public void setFilesAnalyzed(int filesAnalyzed) { this.filesAnalyzed = filesAnalyzed; }
+
+    public long getWallMillis() { return wallMillis; }
+    public void setWallMillis(long wallMillis) { this.wallMillis = wallMillis; }
+
+    /** Number of entries in the report. */
+    public int changeCount() {
+        return classesAdded + classesRemoved + classesChanged + methodsAdded + methodsRemoved + methodsChanged
+               + edgesAdded + edgesRemoved + edgesChanged;
+    }
+}
@@ -0,0 +1,84 @@
+package com.javainsight.analyzer.diff;
+
+/**
+ * Build side of the edge hash join: the call sites of every old edge under a 64-bit hash of its
+ * {@code (source, target)} pair, in open-addressed primitive arrays (about 30 bytes an edge, no strings),
+ * plus a mark for edges the new snapshot also has. Not thread-safe.
+ */
+final class EdgeTable {
+    private long[] keys; // 0 marks a free slot
+    private int[] callSites;
+    private boolean[] marked;
+    private int size;
+
+    EdgeTable() {
+        keys = new long[1024];
+        callSites = new int[1024];
+        marked = new boolean[1024];
+    }
+
+    /** 64-bit FNV-1a of {@code source + '\0' + target}; never 0. */
+    static long key(String source, String target) {
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, source);
+        hash *= 0x100000001b3L; // the '\0' separator
+        hash = mix(hash, target);
+        return hash != 0 ? hash : 1;
+    }
+
+    static long mix(long hash, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /** Adds call sites to {@code key}, which is then present. */
+    void add(long key, int sites) {
+        if (2 * (size + 1) > keys.length) grow();
+        int slot = slot(key);
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            size++;
+        }
+        callSites[slot] += sites;
+    }
+
+    /** Slot of {@code key}, or -1 if absent. */
+    int find(long key) {
+        int slot = slot(key);
+        return keys[slot] != 0 ? slot : -1;
+    }
+
+    int callSites(int slot) { return callSites[slot]; }
+
+    boolean isMarked(int slot) { return marked[slot]; }
+
+    void mark(int slot) { marked[slot] = true; }
+
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCallSites = callSites;
+        boolean[] oldMarked = marked;
+        keys = new long[oldKeys.length * 2];
+        callSites = new int[keys.length];
+        marked = new boolean[keys.length];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                callSites[slot] = oldCallSites[i];
+                marked[slot] = oldMarked[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.javainsight.analyzer.diff;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.javainsight.analyzer.model.ClassAnalysisResult;
+import com.javainsight.analyzer.model.MethodAnalysisResult;
+import com.javainsight.analyzer.output.ResultFileReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compares two result files as hash joins over streams, writing a {@link DiffEntry} per difference:
+ * <ol>
+ *   <li>the old result is read once to build the join tables: a small digest per class (its metrics, and
+ *       a hash, complexity and LOC per method signature) and an {@link EdgeTable} of call edges;</li>
+ *   <li>the new result is streamed against them: unknown classes, methods and edges are added, known ones
+ *       are marked and their metrics compared;</li>
+ *   <li>the old result is streamed again for whatever was not marked, which was removed.</li>
+ * </ol>
+ * Only the digests are held, never a whole result, so two results much larger than the heap can be
+ * compared. Classes are matched by name and methods by name and parameter types; when a name occurs in
+ * several files of a snapshot, the first occurrence is compared and the others are ignored.
+ *
+ * <p>One instance compares one pair of results. Not thread-safe.
+ */
+public class ResultDiff {
+    private final Map<String, ClassDigest> oldClasses = new HashMap<>();
+    private final Set<String> newClassNames = new HashSet<>();
+    private final EdgeTable oldEdges = new EdgeTable();
+    private final DiffSummary summary;
+    private final JsonGenerator out;
+    private long oldComplexity;
+    private long newComplexity;
+    private long oldLoc;
+    private long newLoc;
+
+    /**
+     * @param out receives each entry as a JSON object, for the caller to place in its document (usually
+     *            inside an array); needs a codec, as generators from an {@code ObjectMapper} have
+     */
+    public ResultDiff(JsonGenerator out, DiffSummary summary) {
+        this.out = out;
+        this.summary = summary;
+    }
+
+    public DiffSummary diff(Path oldResult, Path newResult) throws IOException {
+        ResultFileReader.read(oldResult, this::buildClass, (source, target, callSites) ->
+                oldEdges.add(EdgeTable.key(source, target), callSites));
+        ResultFileReader.read(newResult, this::probeClass, this::probeEdge);
+        ResultFileReader.read(oldResult, this::findRemovedClass, this::findRemovedEdge);
+        summary.setComplexityDelta(summary.getComplexityDelta() + newComplexity - oldComplexity);
+        summary.setLocDelta(summary.getLocDelta() + newLoc - oldLoc);
+        return summary;
+    }
+
+    private void buildClass(ClassAnalysisResult classResult) {
+        if (oldClasses.containsKey(classResult.getClassName())) return; // a duplicate name: compare the first only
+        ClassDigest digest = new ClassDigest(classResult);
+        oldClasses.put(classResult.getClassName(), digest);
+        oldComplexity += digest.complexity;
+        if (isTopLevel(classResult)) oldLoc += classResult.getLoc();
+    }
+
+    private void probeClass(ClassAnalysisResult classResult) throws IOException {
+        if (!newClassNames.add(classResult.getClassName())) return;
+        int complexity = totalComplexity(classResult);
+        newComplexity += complexity;
+        if (isTopLevel(classResult)) newLoc += classResult.getLoc();
+
+        ClassDigest digest = oldClasses.get(classResult.getClassName());
+        if (digest == null) {
+            DiffEntry entry = classEntry(DiffEntry.ADDED, classResult.getClassName());
+            entry.setCyclomaticComplexity(new ValueChange(null, complexity));
+            entry.setLoc(new ValueChange(null, classResult.getLoc()));
+            entry.setMethods(new ValueChange(null, classResult.getMethods().size()));
+            entry.setFields(new ValueChange(null, fieldCount(classResult)));
+            write(entry);
+            summary.setClassesAdded(summary.getClassesAdded() + 1);
+            summary.setMethodsAdded(summary.getMethodsAdded() + classResult.getMethods().size());
+            return;
+        }
+        digest.matched = true;
+        DiffEntry entry = classEntry(DiffEntry.CHANGED, classResult.getClassName());
+        entry.setCyclomaticComplexity(changed(digest.complexity, complexity));
+        entry.setLoc(changed(digest.loc, classResult.getLoc()));
+        entry.setMethods(changed(digest.methods, classResult.getMethods().size()));
+        entry.setFields(changed(digest.fields, fieldCount(classResult)));
+        if (entry.getCyclomaticComplexity() != null || entry.getLoc() != null || entry.getMethods() != null || entry.getFields() != null) {
+            write(entry);
+            summary.setClassesChanged(summary.getClassesChanged() + 1);
+        }
+
+        for (MethodAnalysisResult method : classResult.getMethods()) {
+            int index = digest.indexOf(methodKey(method));
+            if (index < 0) {
+                DiffEntry added = methodEntry(DiffEntry.ADDED, classResult.getClassName(), method);
+                added.setCyclomaticComplexity(new ValueChange(null, method.getCyclomaticComplexity()));
+                added.setLoc(new ValueChange(null, method.getLoc()));
+                write(added);
+                summary.setMethodsAdded(summary.getMethodsAdded() + 1);
+                continue;
+            }
+            if (digest.matchedMethods.get(index)) continue; // same signature twice (duplicate class file)
+            digest.matchedMethods.set(index);
+            ValueChange complexityChange = changed(digest.methodComplexity[index], method.getCyclomaticComplexity());
+            ValueChange locChange = changed(digest.methodLoc[index], method.getLoc());
+            if (complexityChange != null || locChange != null) {
+                DiffEntry methodChange = methodEntry(DiffEntry.CHANGED, classResult.getClassName(), method);
+                methodChange.setCyclomaticComplexity(complexityChange);
+                methodChange.setLoc(locChange);
+                write(methodChange);
+                summary.setMethodsChanged(summary.getMethodsChanged() + 1);
+            }
+        }
+    }
+
+    private void probeEdge(String source, String target, int callSites) throws IOException {
+        int slot = oldEdges.find(EdgeTable.key(source, target));
+        if (slot < 0) {
+            DiffEntry entry = edgeEntry(DiffEntry.ADDED, source, target);
+            entry.setCallSites(new ValueChange(null, callSites));
+            write(entry);
+            summary.setEdgesAdded(summary.getEdgesAdded() + 1);
+            return;
+        }
+        oldEdges.mark(slot);
+        if (oldEdges.callSites(slot) != callSites) {
+            DiffEntry entry = edgeEntry(DiffEntry.CHANGED, source, target);
+            entry.setCallSites(new ValueChange(oldEdges.callSites(slot), callSites));
+            write(entry);
+            summary.setEdgesChanged(summary.getEdgesChanged() + 1);
+        }
+    }
+
+    private void findRemovedClass(ClassAnalysisResult classResult) throws IOException {
+        ClassDigest digest = oldClasses.get(classResult.getClassName());
+        if (digest.visited) return; // a later duplicate, never compared
+        digest.visited = true;
+        if (!digest.matched) {
+            DiffEntry entry = classEntry(DiffEntry.REMOVED, classResult.getClassName());
+            entry.setCyclomaticComplexity(new ValueChange(digest.complexity, null));
+            entry.setLoc(new ValueChange(digest.loc, null));
+            entry.setMethods(new ValueChange(digest.methods, null));
+            entry.setFields(new ValueChange(digest.fields, null));
+            write(entry);
+            summary.setClassesRemoved(summary.getClassesRemoved() + 1);
+            summary.setMethodsRemoved(summary.getMethodsRemoved() + digest.methods);
+            return;
+        }
+        for (MethodAnalysisResult method : classResult.getMethods()) {
+            int index = digest.indexOf(methodKey(method));
+            if (digest.matchedMethods.get(index)) continue;
+            digest.matchedMethods.set(index); // reported once
+            DiffEntry entry = methodEntry(DiffEntry.REMOVED, classResult.getClassName(), method);
+            entry.setCyclomaticComplexity(new ValueChange(method.getCyclomaticComplexity(), null));
+            entry.setLoc(new ValueChange(method.getLoc(), null));
+            write(entry);
+            summary.setMethodsRemoved(summary.getMethodsRemoved() + 1);
+        }
+    }
+
+    private void findRemovedEdge(String source, String target, int callSites) throws IOException {
+        int slot = oldEdges.find(EdgeTable.key(source, target));
+        if (oldEdges.isMarked(slot)) return;
+        oldEdges.mark(slot); // reported once
+        DiffEntry entry = edgeEntry(DiffEntry.REMOVED, source, target);
+        entry.setCallSites(new ValueChange(callSites, null));
+        write(entry);
+        summary.setEdgesRemoved(summary.getEdgesRemoved() + 1);
+    }
+
+    private void write(DiffEntry entry) throws IOException {
+        out.writeObject(entry);
+    }
+
+    private static DiffEntry classEntry(String change, String className) {
+        DiffEntry entry = new DiffEntry(DiffEntry.CLASS, change);
+        entry.setClassName(className);
+        return entry;
+    }
+
+    private static DiffEntry methodEntry(String change, String className, MethodAnalysisResult method) {
+        DiffEntry entry = new DiffEntry(DiffEntry.METHOD, change);
+        entry.setClassName(className);
+        entry.setMethod(signature(method));
+        return entry;
+    }
+
+    private static DiffEntry edgeEntry(String change, String source, String target) {
+        DiffEntry entry = new DiffEntry(DiffEntry.EDGE, change);
+        entry.setSource(source);
+        entry.setTarget(target);
+        return entry;
+    }
+
+    private static ValueChange changed(int before, int after) {
+        return before != after ? new ValueChange(before, after) : null;
+    }
+
+    /** {@code "put(K,V)"}: the name and parameter types, without parameter names. */
+    static String signature(MethodAnalysisResult method) {
+        StringBuilder signature = new StringBuilder(method.getMethodName()).append('(');
+        List<String> parameters = method.getParameters();
+        if (parameters != null) {
+            for (int i = 0; i < parameters.size(); i++) {
+                if (i > 0) signature.append(',');
+                String parameter = parameters.get(i);
+                signature.append(parameter, 0, typeEnd(parameter));
+            }
+        }
+        return signature.append(')').toString();
+    }
+
+    /** Hash of {@link #signature}, computed without building it. */
+    static long methodKey(MethodAnalysisResult method) {
+        long hash = EdgeTable.mix(0xcbf29ce484222325L, method.getMethodName());
+        List<String> parameters = method.getParameters();
+        if (parameters != null) {
+            for (String parameter : parameters) {
+                hash = (hash ^ ',') * 0x100000001b3L;
+                int end = typeEnd(parameter);
+                for (int i = 0; i < end; i++) {
+                    hash = (hash ^ parameter.charAt(i)) * 0x100000001b3L;
+                }
+            }
+        }
+        return hash;
+    }
+
+    // Parameters are recorded as "Type name"
+    private static int typeEnd(String parameter) {
+        int space = parameter.lastIndexOf(' ');
+        return space > 0 ? space : parameter.length();
+    }
+
+    private static int totalComplexity(ClassAnalysisResult classResult) {
+        int complexity = 0;
+        for (MethodAnalysisResult method : classResult.getMethods()) complexity += method.getCyclomaticComplexity();
+        return complexity;
+    }
+
+    private static int fieldCount(ClassAnalysisResult classResult) {
+        return classResult.getFields() != null ? classResult.getFields().size() : 0;
+    }
+
+    // Nested classes are part of their top-level class's LOC
+    private static boolean isTopLevel(ClassAnalysisResult classResult) {
+        String packageName = classResult.getPackageName() != null ? classResult.getPackageName() : "";
+        String className = classResult.getClassName();
+        int prefix = packageName.isEmpty() ? 0 : packageName.length() + 1;
+        return className == null || className.indexOf('.', prefix) < 0;
+    }
+
+    /** What the join keeps of an old class: its metrics, and per method signature hash its metrics. */
+    private static final class ClassDigest {
+        final int complexity;
+        final int loc;
+        final int methods;
+        final int fields;
+        final long[] methodKeys; // sorted
+        final int[] methodComplexity; // in methodKeys order
+        final int[] methodLoc;
+        final BitSet matchedMethods = new BitSet();
+        boolean matched;
+        boolean visited;
+
+        ClassDigest(ClassAnalysisResult classResult) {
+            List<MethodAnalysisResult> classMethods = classResult.getMethods();
+            long[] keys = new long[classMethods.size()];
+            Integer[] order = new Integer[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = methodKey(classMethods.get(i));
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+            this.methodKeys = new long[keys.length];
+            this.methodComplexity = new int[keys.length];
+            this.methodLoc = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                MethodAnalysisResult method = classMethods.get(order[i]);
+                methodKeys[i] = keys[order[i]];
+                methodComplexity[i] = method.getCyclomaticComplexity();
+                methodLoc[i] = method.getLoc();
+            }
+            this.complexity = totalComplexity(classResult);
+            this.loc = classResult.getLoc();
+            this.methods = classMethods.size();
+            this.fields = fieldCount(classResult);
+        }
+
+        /** Index of a method with this signature hash, or a negative number. */
+        int indexOf(long methodKey) {
+            return Arrays.binarySearch(methodKeys, methodKey);
+        }
+    }
+}
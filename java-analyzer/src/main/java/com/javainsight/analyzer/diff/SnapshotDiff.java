@@ -0,0 +1,165 @@
+package com.javainsight.analyzer.diff;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javainsight.analyzer.JavaFileAnalyzer;
+import com.javainsight.analyzer.binary.BinaryResultWriter;
+import com.javainsight.analyzer.source.JavaSource;
+import com.javainsight.analyzer.source.ZipArchiveSources;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Diffs two snapshots, each a ZIP archive or a result file the analyzer wrote (JSON or binary), with
+ * {@link ResultDiff}. Archives are first analyzed into temporary binary results.
+ *
+ * <p>When both snapshots are archives, files whose content is in both are not analyzed at all: entries are
+ * joined on the CRC-32 and size the ZIP central directory already records, and a candidate pair counts as
+ * unchanged only if the bytes are equal. Such files produce the same classes and edges on both sides, so
+ * leaving them out changes nothing in the diff. With call resolution on, a file's edges depend on the other
+ * files, so every file is analyzed.
+ *
+ * <p>Report document:
+ * <pre>
+ * {"old": "a.zip", "new": "b.zip",
+ *  "changes": [{"kind": "method", "change": "changed", "className": "...", "method": "put(K,V)",
+ *               "cyclomaticComplexity": {"before": 4, "after": 6}}, ...],
+ *  "summary": {...DiffSummary...}}
+ * </pre>
+ */
+public class SnapshotDiff {
+    private final JavaFileAnalyzer analyzer;
+    private final ObjectMapper objectMapper;
+
+    public SnapshotDiff(JavaFileAnalyzer analyzer, ObjectMapper objectMapper) {
+        this.analyzer = analyzer;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Writes the report to {@code out}, which is flushed but not closed. */
+    public DiffSummary diff(Path oldSnapshot, Path newSnapshot, OutputStream out) throws IOException {
+        long startNanos = System.nanoTime();
+        DiffSummary summary = new DiffSummary();
+        List<Path> temporaryResults = new ArrayList<>();
+        try {
+            Path oldResult = oldSnapshot;
+            Path newResult = newSnapshot;
+            boolean oldArchive = isArchive(oldSnapshot);
+            boolean newArchive = isArchive(newSnapshot);
+            if (oldArchive && newArchive) {
+                try (ZipArchiveSources oldSources = new ZipArchiveSources(oldSnapshot.toString());
+                     ZipArchiveSources newSources = new ZipArchiveSources(newSnapshot.toString())) {
+                    List<JavaSource> changedOld = new ArrayList<>(oldSources.getSources());
+                    List<JavaSource> changedNew = new ArrayList<>(newSources.getSources());
+                    if (!analyzer.isResolveCalls()) {
+                        summary.setFilesUnchanged(removeUnchanged(changedOld, changedNew));
+                    }
+                    oldResult = analyzeToTemporaryResult(changedOld, temporaryResults, summary);
+                    newResult = analyzeToTemporaryResult(changedNew, temporaryResults, summary);
+                }
+            } else {
+                if (oldArchive) oldResult = analyzeArchive(oldSnapshot, temporaryResults, summary);
+                if (newArchive) newResult = analyzeArchive(newSnapshot, temporaryResults, summary);
+            }
+
+            JsonGenerator generator = objectMapper.createGenerator(out);
+            generator.writeStartObject();
+            generator.writeStringField("old", oldSnapshot.toString());
+            generator.writeStringField("new", newSnapshot.toString());
+            generator.writeArrayFieldStart("changes");
+            new ResultDiff(generator, summary).diff(oldResult, newResult);
+            generator.writeEndArray();
+            summary.setWallMillis((System.nanoTime() - startNanos) / 1_000_000);
+            generator.writeObjectField("summary", summary);
+            generator.writeEndObject();
+            generator.flush();
+            return summary;
+        } finally {
+            for (Path temporaryResult : temporaryResults) {
+                Files.deleteIfExists(temporaryResult);
+            }
+        }
+    }
+
+    /**
+     * Removes every file whose content is in both lists (once per copy) and returns how many pairs there were.
+     * Files without a recorded CRC or size are kept.
+     */
+    static int removeUnchanged(List<JavaSource> oldSources, List<JavaSource> newSources) throws IOException {
+        Map<Long, Deque<JavaSource>> oldByChecksum = new HashMap<>();
+        for (JavaSource source : oldSources) {
+            if (source.checksum() >= 0 && source.size() >= 0) {
+                oldByChecksum.computeIfAbsent(joinKey(source), k -> new ArrayDeque<>()).add(source);
+            }
+        }
+        if (oldByChecksum.isEmpty()) return 0;
+        Set<JavaSource> unchangedOld = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<JavaSource> keptNew = new ArrayList<>(newSources.size());
+        for (JavaSource source : newSources) {
+            Deque<JavaSource> candidates = source.checksum() >= 0 && source.size() >= 0 ? oldByChecksum.get(joinKey(source)) : null;
+            JavaSource twin = candidates != null ? takeEqual(candidates, source.readContent()) : null;
+            if (twin != null) {
+                unchangedOld.add(twin);
+            } else {
+                keptNew.add(source);
+            }
+        }
+        newSources.clear();
+        newSources.addAll(keptNew);
+        oldSources.removeIf(unchangedOld::contains);
+        return unchangedOld.size();
+    }
+
+    private static JavaSource takeEqual(Deque<JavaSource> candidates, byte[] content) throws IOException {
+        for (JavaSource candidate : candidates) {
+            if (Arrays.equals(candidate.readContent(), content)) {
+                candidates.remove(candidate);
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static Long joinKey(JavaSource source) {
+        return (source.checksum() << 32) ^ source.size();
+    }
+
+    private Path analyzeArchive(Path archive, List<Path> temporaryResults, DiffSummary summary) throws IOException {
+        try (ZipArchiveSources sources = new ZipArchiveSources(archive.toString())) {
+            return analyzeToTemporaryResult(sources.getSources(), temporaryResults, summary);
+        }
+    }
+
+    private Path analyzeToTemporaryResult(List<JavaSource> sources, List<Path> temporaryResults, DiffSummary summary) throws IOException {
+        Path result = Files.createTempFile("java-analyzer-diff", ".bin");
+        temporaryResults.add(result);
+        try (BinaryResultWriter writer = new BinaryResultWriter(result)) {
+            analyzer.analyzeSources(sources, writer);
+        }
+        summary.setFilesAnalyzed(summary.getFilesAnalyzed() + sources.size());
+        return result;
+    }
+
+    /** ZIP archives start with a local file header ("PK\3\4"), or "PK\5\6" when empty. */
+    static boolean isArchive(Path snapshot) throws IOException {
+        try (InputStream in = Files.newInputStream(snapshot)) {
+            byte[] magic = in.readNBytes(4);
+            return magic.length == 4 && magic[0] == 'P' && magic[1] == 'K'
+                   && ((magic[2] == 3 && magic[3] == 4) || (magic[2] == 5 && magic[3] == 6));
+        }
+    }
+}
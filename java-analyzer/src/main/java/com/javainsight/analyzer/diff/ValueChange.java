@@ -0,0 +1,25 @@
+package com.javainsight.analyzer.diff;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/** A metric in the old and the new snapshot; one side is null for added and removed entries. */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ValueChange {
+    private Integer before;
+    private Integer after;
+
+    public ValueChange() {}
+
+    ValueChange(Integer before, Integer after) {
+        this.before = before;
+        this.after = after;
+    }
+
+    public Integer getBefore() { return before; }
+    public void setBefore(Integer before) { this.before = before; }
+
+    public Integer getAfter() { return after; }
+    public void setAfter(Integer after) { this.after = after; }
+}
@@ -0,0 +1,93 @@
+package com.javainsight.analyzer.graph;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.Arrays;
+
+/**
+ * Compact call graph: method ids are interned in a {@link SymbolTable} and every distinct
+ * (source, target) pair is stored once in parallel int arrays together with its number of call sites.
+ * Edges keep the order in which they were first seen.
+ *
+ * <p>JSON form (see {@link CallGraphJson}): the former {@code graphEdges} array of
+ * {@code {"source": ..., "target": ...}} objects, where duplicate pairs are collapsed into one entry
+ * carrying an extra {@code "count"} field.
+ */
+@JsonSerialize(using = CallGraphJson.Serializer.class)
+@JsonDeserialize(using = CallGraphJson.Deserializer.class)
+public class CallGraph {
+    private final SymbolTable symbols = new SymbolTable();
+    private final EdgeIndex edgeIndex;
+    private int[] sources;
+    private int[] targets;
+    private int[] counts;
+    private int edgeCount;
+
+    public CallGraph() {
+        this(16);
+    }
+
+    public CallGraph(int expectedEdges) {
+        int capacity = Math.max(4, expectedEdges);
+        this.edgeIndex = new EdgeIndex(capacity);
+        this.sources = new int[capacity];
+        this.targets = new int[capacity];
+        this.counts = new int[capacity];
+    }
+
+    public int intern(String methodId) { return symbols.intern(methodId); }
+
+    public String symbol(int id) { return symbols.symbol(id); }
+
+    public int symbolCount() { return symbols.size(); }
+
+    public void addCall(String source, String target) {
+        addCalls(symbols.intern(source), symbols.intern(target), 1);
+    }
+
+    /** Records {@code callSites} calls between two already interned ids. */
+    public void addCalls(int sourceId, int targetId, int callSites) {
+        long key = EdgeIndex.key(sourceId, targetId);
+        int edge = edgeIndex.get(key);
+        if (edge >= 0) {
+            counts[edge] += callSites;
+            return;
+        }
+        if (edgeCount == sources.length) {
+            int newCapacity = edgeCount + (edgeCount >> 1) + 1;
+            sources = Arrays.copyOf(sources, newCapacity);
+            targets = Arrays.copyOf(targets, newCapacity);
+            counts = Arrays.copyOf(counts, newCapacity);
+        }
+        sources[edgeCount] = sourceId;
+        targets[edgeCount] = targetId;
+        counts[edgeCount] = callSites;
+        edgeIndex.put(key, edgeCount);
+        edgeCount++;
+    }
+
+    /** Adds all edges of {@code other}, re-interning its ids into this graph's symbol table. */
+    public void merge(CallGraph other) {
+        int[] remap = new int[other.symbols.size()];
+        Arrays.fill(remap, -1);
+        for (int i = 0; i < other.edgeCount; i++) {
+            int source = other.sources[i];
+            int target = other.targets[i];
+            if (remap[source] < 0) remap[source] = symbols.intern(other.symbols.symbol(source));
+            if (remap[target] < 0) remap[target] = symbols.intern(other.symbols.symbol(target));
+            addCalls(remap[source], remap[target], other.counts[i]);
+        }
+    }
+
+    public int edgeCount() { return edgeCount; }
+
+    public int sourceId(int edge) { return sources[edge]; }
+    public int targetId(int edge) { return targets[edge]; }
+    public int callSites(int edge) { return counts[edge]; }
+
+    public String source(int edge) { return symbols.symbol(sources[edge]); }
+    public String target(int edge) { return symbols.symbol(targets[edge]); }
+
+    public boolean isEmpty() { return edgeCount == 0; }
+}
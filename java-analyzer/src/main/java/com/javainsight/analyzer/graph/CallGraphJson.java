@@ -0,0 +1,90 @@
+package com.javainsight.analyzer.graph;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Jackson mapping for {@link CallGraph}:
+ * {@code [{"source": "a.B.m", "target": "list.add", "count": 2}, ...]}.
+ * When reading, a missing {@code count} means a single call site, so results written before
+ * edges were de-duplicated can still be loaded.
+ */
+public final class CallGraphJson {
+    @FunctionalInterface
+    public interface EdgeVisitor {
+        void visit(String source, String target, int callSites) throws IOException;
+    }
+
+    private CallGraphJson() {}
+
+    /**
+     * Reads the edge objects of an array whose {@code START_ARRAY} is the current token, up to and including
+     * its {@code END_ARRAY}, handing each to {@code visitor} without building a {@link CallGraph}.
+     */
+    public static void readEdges(JsonParser p, EdgeVisitor visitor) throws IOException {
+        while (p.nextToken() == JsonToken.START_OBJECT) {
+            String source = null;
+            String target = null;
+            int count = 1;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                p.nextToken();
+                switch (field) {
+                    case "source": source = p.getValueAsString(); break;
+                    case "target": target = p.getValueAsString(); break;
+                    case "count": count = p.getValueAsInt(1); break;
+                    default: p.skipChildren();
+                }
+            }
+            if (source != null && target != null) {
+                visitor.visit(source, target, count);
+            }
+        }
+    }
+
+    public static class Serializer extends StdSerializer<CallGraph> {
+        private static final long serialVersionUID = 1L;
+
+        public Serializer() {
+            super(CallGraph.class);
+        }
+
+        @Override
+        public void serialize(CallGraph graph, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartArray();
+            for (int edge = 0; edge < graph.edgeCount(); edge++) {
+                gen.writeStartObject();
+                gen.writeStringField("source", graph.source(edge));
+                gen.writeStringField("target", graph.target(edge));
+                gen.writeNumberField("count", graph.callSites(edge));
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    public static class Deserializer extends StdDeserializer<CallGraph> {
+        private static final long serialVersionUID = 1L;
+
+        public Deserializer() {
+            super(CallGraph.class);
+        }
+
+        @Override
+        public CallGraph deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() != JsonToken.START_ARRAY) {
+                return (CallGraph) ctxt.handleUnexpectedToken(CallGraph.class, p);
+            }
+            CallGraph graph = new CallGraph();
+            readEdges(p, (source, target, count) -> graph.addCalls(graph.intern(source), graph.intern(target), count));
+            return graph;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.javainsight.analyzer.graph;
+
+import com.javainsight.analyzer.graph.DependencyReport.PackageDependencies;
+import com.javainsight.analyzer.model.ClassAnalysisResult;
+import com.javainsight.analyzer.model.Modifiers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds the class and package dependency graph of an analysis from each class's imports and its
+ * extended and implemented types, then finds cycles (Tarjan) and computes coupling metrics and layers.
+ *
+ * <p>Classes are {@link #add added} as they are produced and only their names and raw dependency lists are
+ * kept; names are resolved once every class is known, since a class may depend on one analyzed later.
+ * Class and package names are interned to dense ids and the graphs are held in compressed adjacency
+ * arrays, so {@link #analyze()} runs in time linear in classes plus dependencies. Not thread-safe.
+ *
+ * <p>Type names are resolved the way the compiler would look for them, as far as the results allow:
+ * enclosing classes, single-type imports, the class's own package, on-demand imports (including the
+ * implicit {@code java.lang.*}), then the name as written. Import edges come from top-level classes
+ * only, since nested classes share their file's imports.
+ */
+public class DependencyGraph {
+    private final SymbolTable classNames = new SymbolTable();
+    private final List<DeclaredClass> declared = new ArrayList<>();
+
+    public void add(ClassAnalysisResult classResult) {
+        String packageName = classResult.getPackageName() != null ? classResult.getPackageName() : "";
+        List<String> supertypes = new ArrayList<>();
+        if (classResult.getExtendedTypes() != null) supertypes.addAll(classResult.getExtendedTypes());
+        if (classResult.getImplementedTypes() != null) supertypes.addAll(classResult.getImplementedTypes());
+        boolean isAbstract = classResult.isInterface() || (classResult.getModifierBits() & Modifiers.ABSTRACT) != 0;
+        Set<String> imports = classResult.getImports() != null ? classResult.getImports() : Collections.emptySet();
+        declared.add(new DeclaredClass(classNames.intern(classResult.getClassName()), packageName, isAbstract,
+                                       imports, supertypes));
+    }
+
+    public DependencyReport analyze() {
+        int classCount = classNames.size();
+        SymbolTable packageNames = new SymbolTable();
+        int[] classPackage = new int[classCount];
+        boolean[] classAbstract = new boolean[classCount];
+        Arrays.fill(classPackage, -1);
+        for (DeclaredClass declaredClass : declared) {
+            if (classPackage[declaredClass.id] < 0) { // a class seen in several files counts once
+                classPackage[declaredClass.id] = packageNames.intern(declaredClass.packageName);
+                classAbstract[declaredClass.id] = declaredClass.isAbstract;
+            }
+        }
+
+        EdgeList classEdges = new EdgeList(declared.size() * 4);
+        for (DeclaredClass declaredClass : declared) {
+            if (isTopLevel(declaredClass)) {
+                for (String imported : declaredClass.imports) {
+                    classEdges.add(declaredClass.id, resolveImport(imported));
+                }
+            }
+            for (String supertype : declaredClass.supertypes) {
+                classEdges.add(declaredClass.id, resolveType(declaredClass, supertype));
+            }
+        }
+        Adjacency classGraph = classEdges.toAdjacency(classCount);
+        StronglyConnectedComponents classComponents = StronglyConnectedComponents.of(classCount, classGraph.offsets, classGraph.targets);
+
+        int packageCount = packageNames.size();
+        EdgeList packageEdges = new EdgeList(packageCount * 4);
+        EdgeIndex efferentSeen = new EdgeIndex(classEdges.size); // (package, class it depends on)
+        EdgeIndex afferentSeen = new EdgeIndex(classEdges.size); // (package, class depending on it)
+        int[] efferent = new int[packageCount];
+        int[] afferent = new int[packageCount];
+        for (int edge = 0; edge < classEdges.size; edge++) {
+            int source = classEdges.sources[edge];
+            int target = classEdges.targets[edge];
+            int sourcePackage = classPackage[source];
+            int targetPackage = classPackage[target];
+            if (sourcePackage == targetPackage) continue;
+            packageEdges.add(sourcePackage, targetPackage);
+            if (markNew(efferentSeen, sourcePackage, target)) efferent[sourcePackage]++;
+            if (markNew(afferentSeen, targetPackage, source)) afferent[targetPackage]++;
+        }
+        Adjacency packageGraph = packageEdges.toAdjacency(packageCount);
+        StronglyConnectedComponents packageComponents =
+                StronglyConnectedComponents.of(packageCount, packageGraph.offsets, packageGraph.targets);
+        int[] packageLayers = packageComponents.layers(packageGraph.offsets, packageGraph.targets);
+
+        int[] packageClasses = new int[packageCount];
+        int[] packageAbstractClasses = new int[packageCount];
+        for (int classId = 0; classId < classCount; classId++) {
+            packageClasses[classPackage[classId]]++;
+            if (classAbstract[classId]) packageAbstractClasses[classPackage[classId]]++;
+        }
+
+        List<PackageDependencies> packages = new ArrayList<>(packageCount);
+        for (int packageId = 0; packageId < packageCount; packageId++) {
+            PackageDependencies dependencies = new PackageDependencies();
+            dependencies.setPackageName(packageNames.symbol(packageId));
+            dependencies.setClasses(packageClasses[packageId]);
+            dependencies.setAfferentCoupling(afferent[packageId]);
+            dependencies.setEfferentCoupling(efferent[packageId]);
+            int coupling = afferent[packageId] + efferent[packageId];
+            double instability = coupling == 0 ? 0 : (double) efferent[packageId] / coupling;
+            double abstractness = (double) packageAbstractClasses[packageId] / packageClasses[packageId];
+            dependencies.setInstability(round(instability));
+            dependencies.setAbstractness(round(abstractness));
+            dependencies.setDistance(round(Math.abs(abstractness + instability - 1)));
+            dependencies.setLayer(packageLayers[packageComponents.componentOf(packageId)]);
+            List<String> dependsOn = new ArrayList<>(packageGraph.degree(packageId));
+            for (int edge = packageGraph.offsets[packageId]; edge < packageGraph.offsets[packageId + 1]; edge++) {
+                dependsOn.add(packageNames.symbol(packageGraph.targets[edge]));
+            }
+            Collections.sort(dependsOn);
+            dependencies.setDependsOn(dependsOn);
+            packages.add(dependencies);
+        }
+        packages.sort(Comparator.comparing(PackageDependencies::getPackageName));
+
+        DependencyReport report = new DependencyReport();
+        report.setClasses(classCount);
+        report.setClassDependencies(classEdges.size);
+        report.setPackages(packages);
+        report.setPackageCycles(cycles(packageComponents, packageNames));
+        report.setClassCycles(cycles(classComponents, classNames));
+        return report;
+    }
+
+    /** An import names a class, a static member of one (single or on demand), or a package (on demand). */
+    private int resolveImport(String imported) {
+        if (imported.endsWith(".*")) {
+            return classNames.idOf(imported.substring(0, imported.length() - 2));
+        }
+        int id = classNames.idOf(imported);
+        int lastDot = imported.lastIndexOf('.');
+        if (id < 0 && lastDot > 0) {
+            id = classNames.idOf(imported.substring(0, lastDot));
+        }
+        return id;
+    }
+
+    private int resolveType(DeclaredClass declaredClass, String name) {
+        String className = classNames.symbol(declaredClass.id);
+        String packageName = declaredClass.packageName;
+        int packagePrefix = packageName.isEmpty() ? 0 : packageName.length() + 1;
+
+        // Members of the class itself and of its enclosing classes
+        for (String scope = className; ; ) {
+            int id = classNames.idOf(scope + "." + name);
+            if (id >= 0) return id;
+            int lastDot = scope.lastIndexOf('.');
+            if (lastDot < packagePrefix) break;
+            scope = scope.substring(0, lastDot);
+        }
+
+        int firstDot = name.indexOf('.');
+        String head = firstDot < 0 ? name : name.substring(0, firstDot);
+        String rest = firstDot < 0 ? "" : name.substring(firstDot);
+        for (String imported : declaredClass.imports) {
+            if (!imported.endsWith(".*") && (imported.equals(head) || imported.endsWith("." + head))) {
+                int id = classNames.idOf(imported + rest);
+                if (id >= 0) return id;
+            }
+        }
+
+        int id = classNames.idOf(packagePrefix == 0 ? name : packageName + "." + name);
+        if (id >= 0) return id;
+        for (String imported : declaredClass.imports) {
+            if (imported.endsWith(".*")) {
+                id = classNames.idOf(imported.substring(0, imported.length() - 1) + name);
+                if (id >= 0) return id;
+            }
+        }
+        id = classNames.idOf("java.lang." + name); // imported implicitly; only found when java.lang is analyzed
+        return id >= 0 ? id : classNames.idOf(name);
+    }
+
+    /** Nested classes are named after their outer class, so their name has a dot after the package prefix. */
+    private boolean isTopLevel(DeclaredClass declaredClass) {
+        String packageName = declaredClass.packageName;
+        int prefix = packageName.isEmpty() ? 0 : packageName.length() + 1;
+        return classNames.symbol(declaredClass.id).indexOf('.', prefix) < 0;
+    }
+
+    private static boolean markNew(EdgeIndex seen, int first, int second) {
+        long key = EdgeIndex.key(first, second);
+        if (seen.get(key) >= 0) return false;
+        seen.put(key, 0);
+        return true;
+    }
+
+    /** Components of more than one node, largest first, each sorted by name. */
+    private static List<List<String>> cycles(StronglyConnectedComponents components, SymbolTable names) {
+        List<List<String>> cycles = new ArrayList<>();
+        for (int component = 0; component < components.count(); component++) {
+            int size = components.size(component);
+            if (size < 2) continue;
+            List<String> cycle = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                cycle.add(names.symbol(components.member(component, i)));
+            }
+            Collections.sort(cycle);
+            cycles.add(cycle);
+        }
+        cycles.sort(Comparator.<List<String>>comparingInt(List::size).reversed().thenComparing(cycle -> cycle.get(0)));
+        return cycles;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private static final class DeclaredClass {
+        final int id;
+        final String packageName;
+        final boolean isAbstract;
+        final Set<String> imports; // shared by all classes of a file
+        final List<String> supertypes;
+
+        DeclaredClass(int id, String packageName, boolean isAbstract, Set<String> imports, List<String> supertypes) {
+            this.id = id;
+            this.packageName = packageName;
+            this.isAbstract = isAbstract;
+            this.imports = imports;
+            this.supertypes = supertypes;
+        }
+    }
+
+    /** Distinct directed edges in insertion order; self edges and unresolved (negative) targets are dropped. */
+    private static final class EdgeList {
+        private final EdgeIndex index;
+        int[] sources;
+        int[] targets;
+        int size;
+
+        EdgeList(int expectedEdges) {
+            int capacity = Math.max(16, expectedEdges);
+            this.index = new EdgeIndex(capacity);
+            this.sources = new int[capacity];
+            this.targets = new int[capacity];
+        }
+
+        void add(int source, int target) {
+            if (target < 0 || source == target) return;
+            long key = EdgeIndex.key(source, target);
+            if (index.get(key) >= 0) return;
+            if (size == sources.length) {
+                sources = Arrays.copyOf(sources, size * 2);
+                targets = Arrays.copyOf(targets, size * 2);
+            }
+            sources[size] = source;
+            targets[size] = target;
+            index.put(key, size++);
+        }
+
+        /** Groups the edges by source with a counting sort. */
+        Adjacency toAdjacency(int nodeCount) {
+            int[] offsets = new int[nodeCount + 1];
+            for (int edge = 0; edge < size; edge++) offsets[sources[edge] + 1]++;
+            for (int node = 0; node < nodeCount; node++) offsets[node + 1] += offsets[node];
+            int[] next = Arrays.copyOf(offsets, nodeCount);
+            int[] adjacent = new int[size];
+            for (int edge = 0; edge < size; edge++) adjacent[next[sources[edge]]++] = targets[edge];
+            return new Adjacency(offsets, adjacent);
+        }
+    }
+
+    private static final class Adjacency {
+        final int[] offsets;
+        final int[] targets;
+
+        Adjacency(int[] offsets, int[] targets) {
+            this.offsets = offsets;
+            this.targets = targets;
+        }
+
+        int degree(int node) { return offsets[node + 1] - offsets[node]; }
+    }
+}
@@ -0,0 +1,85 @@
+package com.javainsight.analyzer.graph;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Type dependencies between the analyzed classes, rolled up per package, as built by
+ * {@link DependencyGraph}. Only dependencies on analyzed classes count; the JDK and other libraries
+ * are outside the graph.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DependencyReport {
+    private int classes;
+    private int classDependencies; // distinct (class, class) edges
+    private List<PackageDependencies> packages = new ArrayList<>(); // by package name
+    private List<List<String>> packageCycles = new ArrayList<>(); // largest first; each sorted by name
+    private List<List<String>> classCycles = new ArrayList<>(); // largest first; each sorted by name
+
+    public DependencyReport() {}
+
+    public int getClasses() { return classes; }
+    public void setClasses(int classes) { this.classes = classes; }
+
+    public int getClassDependencies() { return classDependencies; }
+    public void setClassDependencies(int classDependencies) { this.classDependencies = classDependencies; }
+
+    public List<PackageDependencies> getPackages() { return packages; }
+    public void setPackages(List<PackageDependencies> packages) { this.packages = packages; }
+
+    public List<List<String>> getPackageCycles() { return packageCycles; }
+    public void setPackageCycles(List<List<String>> packageCycles) { this.packageCycles = packageCycles; }
+
+    public List<List<String>> getClassCycles() { return classCycles; }
+    public void setClassCycles(List<List<String>> classCycles) { this.classCycles = classCycles; }
+
+    /**
+     * Coupling metrics after R. C. Martin: {@code afferentCoupling} counts classes in other packages that
+     * depend on this package's classes, {@code efferentCoupling} the classes in other packages this
+     * package's classes depend on; instability is Ce / (Ca + Ce) and distance |A + I - 1|.
+     * Layer 0 packages depend on no other analyzed package; packages in one cycle share a layer.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class PackageDependencies {
+        private String packageName;
+        private int classes;
+        private int afferentCoupling;
+        private int efferentCoupling;
+        private double instability;
+        private double abstractness; // share of interfaces and abstract classes
+        private double distance;
+        private int layer;
+        private List<String> dependsOn = new ArrayList<>(); // by package name
+
+        public PackageDependencies() {}
+
+        public String getPackageName() { return packageName; }
+        public void setPackageName(String packageName) { this.packageName = packageName; }
+
+        public int getClasses() { return classes; }
+        public void setClasses(int classes) { this.classes = classes; }
+
+        public int getAfferentCoupling() { return afferentCoupling; }
+        public void setAfferentCoupling(int afferentCoupling) { this.afferentCoupling = afferentCoupling; }
+
+        public int getEfferentCoupling() { return efferentCoupling; }
+        public void setEfferentCoupling(int efferentCoupling) { this.efferentCoupling = efferentCoupling; }
+
+        public double getInstability() { return instability; }
+        public void setInstability(double instability) { this.instability = instability; }
+
+        public double getAbstractness() { return abstractness; }
+        public void setAbstractness(double abstractness) { this.abstractness = abstractness; }
+
+        public double getDistance() { return distance; }
+        public void setDistance(double distance) { this.distance = distance; }
+
+        public int getLayer() { return layer; }
+        public void setLayer(int layer) { this.layer = layer; }
+
+        public List<String> getDependsOn() { return dependsOn; }
+        public void setDependsOn(List<String> dependsOn) { this.dependsOn = dependsOn; }
+    }
+}
@@ -0,0 +1,70 @@
+package com.javainsight.analyzer.graph;
+
+/**
+ * Open-addressing hash map from a (source, target) id pair to an edge index, without boxing.
+ */
+class EdgeIndex {
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] values; // edge index + 1; 0 marks a free slot
+    private int size;
+    private int resizeThreshold;
+
+    EdgeIndex(int expectedEdges) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedEdges / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    static long key(int sourceId, int targetId) {
+        return ((long) sourceId << 32) | (targetId & 0xFFFFFFFFL);
+    }
+
+    /** Returns the edge index stored for the pair, or -1. */
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; values[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return values[slot] - 1;
+        }
+        return -1;
+    }
+
+    /** Stores {@code edgeIndex} for a pair that is not yet present. */
+    void put(long key, int edgeIndex) {
+        if (size >= resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+        insert(key, edgeIndex + 1);
+        size++;
+    }
+
+    private void insert(long key, int storedValue) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (values[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = storedValue;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0) insert(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
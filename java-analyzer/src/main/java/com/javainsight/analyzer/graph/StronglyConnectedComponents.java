@@ -0,0 +1,110 @@
+package com.javainsight.analyzer.graph;
+
+import java.util.Arrays;
+
+/**
+ * Tarjan's strongly connected components over a graph in compressed adjacency form (the targets of
+ * node {@code v} are {@code targets[offsets[v] .. offsets[v + 1])}). Iterative, so deep graphs cannot
+ * overflow the stack; O(nodes + edges) time and a few int arrays of memory.
+ *
+ * <p>Components are numbered in the order Tarjan completes them, which is a reverse topological order
+ * of the condensation: every edge leaving a component points to a component with a smaller number.
+ */
+final class StronglyConnectedComponents {
+    private final int[] component; // node -> component
+    private final int[] members; // nodes grouped by component, in component order
+    private final int[] memberStart; // component -> first index in members; memberStart[count] == node count
+    private final int count;
+
+    private StronglyConnectedComponents(int[] component, int[] members, int[] memberStart, int count) {
+        this.component = component;
+        this.members = members;
+        this.memberStart = memberStart;
+        this.count = count;
+    }
+
+    static StronglyConnectedComponents of(int nodeCount, int[] offsets, int[] targets) {
+        int[] index = new int[nodeCount];
+        int[] low = new int[nodeCount];
+        int[] nextEdge = new int[nodeCount];
+        boolean[] onStack = new boolean[nodeCount];
+        int[] stack = new int[nodeCount]; // Tarjan's stack
+        int stackSize = 0;
+        int[] path = new int[nodeCount]; // the depth-first path, replacing recursion
+        int[] component = new int[nodeCount];
+        int[] members = new int[nodeCount];
+        int[] memberStart = new int[nodeCount + 1];
+        int memberCount = 0;
+        int componentCount = 0;
+        int nextIndex = 0;
+        Arrays.fill(index, -1);
+
+        for (int root = 0; root < nodeCount; root++) {
+            if (index[root] >= 0) continue;
+            int depth = 0;
+            path[depth++] = root;
+            index[root] = low[root] = nextIndex++;
+            nextEdge[root] = offsets[root];
+            stack[stackSize++] = root;
+            onStack[root] = true;
+
+            while (depth > 0) {
+                int node = path[depth - 1];
+                if (nextEdge[node] < offsets[node + 1]) {
+                    int target = targets[nextEdge[node]++];
+                    if (index[target] < 0) {
+                        index[target] = low[target] = nextIndex++;
+                        nextEdge[target] = offsets[target];
+                        stack[stackSize++] = target;
+                        onStack[target] = true;
+                        path[depth++] = target;
+                    } else if (onStack[target]) {
+                        low[node] = Math.min(low[node], index[target]);
+                    }
+                    continue;
+                }
+                depth--;
+                if (depth > 0) {
+                    int parent = path[depth - 1];
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+                if (low[node] == index[node]) {
+                    memberStart[componentCount] = memberCount;
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        onStack[member] = false;
+                        component[member] = componentCount;
+                        members[memberCount++] = member;
+                    } while (member != node);
+                    componentCount++;
+                }
+            }
+        }
+        memberStart[componentCount] = memberCount;
+        return new StronglyConnectedComponents(component, members, memberStart, componentCount);
+    }
+
+    int count() { return count; }
+    int componentOf(int node) { return component[node]; }
+    int size(int component) { return memberStart[component + 1] - memberStart[component]; }
+    int member(int component, int i) { return members[memberStart[component] + i]; }
+
+    /**
+     * Layer of each component in the condensation: 0 for components without outgoing edges, otherwise
+     * one more than the highest layer they point to.
+     */
+    int[] layers(int[] offsets, int[] targets) {
+        int[] layers = new int[count];
+        for (int c = 0; c < count; c++) { // successors always have smaller numbers, so they are done
+            for (int i = memberStart[c]; i < memberStart[c + 1]; i++) {
+                int node = members[i];
+                for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                    int target = component[targets[edge]];
+                    if (target != c) layers[c] = Math.max(layers[c], layers[target] + 1);
+                }
+            }
+        }
+        return layers;
+    }
+}
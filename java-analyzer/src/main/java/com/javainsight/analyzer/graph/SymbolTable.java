@@ -0,0 +1,36 @@
+package com.javainsight.analyzer.graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns strings (method ids, type names, ...) to dense int ids in order of first appearance.
+ * Not thread-safe; each analysis task uses its own table and tables are merged afterwards.
+ */
+public class SymbolTable {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> symbols = new ArrayList<>();
+
+    /** Returns the id of {@code symbol}, assigning the next free id if it has not been seen yet. */
+    public int intern(String symbol) {
+        Integer id = ids.get(symbol);
+        if (id == null) {
+            id = symbols.size();
+            ids.put(symbol, id);
+            symbols.add(symbol);
+        }
+        return id;
+    }
+
+    /** Returns the id of {@code symbol}, or -1 if it was never interned. */
+    public int idOf(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : -1;
+    }
+
+    public String symbol(int id) { return symbols.get(id); }
+
+    public int size() { return symbols.size(); }
+}
@@ -0,0 +1,102 @@
+package com.javainsight.analyzer.metrics;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where the time of one analysis went. Per-file phases are summed over all worker threads, so with
+ * several threads they can add up to more than {@code wallMillis}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AnalysisMetrics {
+    private double wallMillis;
+    private double firstResultMillis; // until the first file result reached the consumer
+    private int files;
+    private int cachedFiles; // served from the AnalysisCache without parsing
+    private int classes;
+    private int methods;
+    private int edges;
+    private Map<String, PhaseMetrics> phases = new LinkedHashMap<>(); // keyed by Phase.getJsonName(), measured phases only
+    private List<FileTiming> slowestFiles; // slowest first
+
+    public AnalysisMetrics() {}
+
+    public double getWallMillis() { return wallMillis; }
+    public void setWallMillis(double wallMillis) { this.wallMillis = wallMillis; }
+
+    public double getFirstResultMillis() { return firstResultMillis; }
+    public void setFirstResultMillis(double firstResultMillis) { this.firstResultMillis = firstResultMillis; }
+
+    public int getFiles() { return files; }
+    public void setFiles(int files) { this.files = files; }
+
+    public int getCachedFiles() { return cachedFiles; }
+    public void setCachedFiles(int cachedFiles) { this.cachedFiles = cachedFiles; }
+
+    public int getClasses() { return classes; }
+    public void setClasses(int classes) { this.classes = classes; }
+
+    public int getMethods() { return methods; }
+    public void setMethods(int methods) { this.methods = methods; }
+
+    public int getEdges() { return edges; }
+    public void setEdges(int edges) { this.edges = edges; }
+
+    public Map<String, PhaseMetrics> getPhases() { return phases; }
+    public void setPhases(Map<String, PhaseMetrics> phases) { this.phases = phases; }
+
+    public List<FileTiming> getSlowestFiles() { return slowestFiles; }
+    public void setSlowestFiles(List<FileTiming> slowestFiles) { this.slowestFiles = slowestFiles; }
+
+    static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class PhaseMetrics {
+        private double millis;
+        private Long allocatedBytes; // null when the JVM cannot count per-thread allocations
+
+        public PhaseMetrics() {}
+
+        public PhaseMetrics(double millis, Long allocatedBytes) {
+            this.millis = millis;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public double getMillis() { return millis; }
+        public void setMillis(double millis) { this.millis = millis; }
+
+        public Long getAllocatedBytes() { return allocatedBytes; }
+        public void setAllocatedBytes(Long allocatedBytes) { this.allocatedBytes = allocatedBytes; }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class FileTiming {
+        private String file;
+        private double parseMillis;
+        private double totalMillis; // all per-file phases
+
+        public FileTiming() {}
+
+        public FileTiming(String file, double parseMillis, double totalMillis) {
+            this.file = file;
+            this.parseMillis = parseMillis;
+            this.totalMillis = totalMillis;
+        }
+
+        public String getFile() { return file; }
+        public void setFile(String file) { this.file = file; }
+
+        public double getParseMillis() { return parseMillis; }
+        public void setParseMillis(double parseMillis) { this.parseMillis = parseMillis; }
+
+        public double getTotalMillis() { return totalMillis; }
+        public void setTotalMillis(double totalMillis) { this.totalMillis = totalMillis; }
+    }
+}
@@ -0,0 +1,115 @@
+package com.javainsight.analyzer.metrics;
+
+import com.javainsight.analyzer.FileAnalysisResult;
+import com.javainsight.analyzer.model.ClassAnalysisResult;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Aggregates the {@link PhaseTimings} of every analyzed file plus the phases timed on the consuming
+ * thread itself. Not thread-safe: use it from the thread that receives the file results in order,
+ * which is also the thread that marks and laps {@link Phase#READ} and {@link Phase#WRITE}.
+ */
+public class MetricsCollector {
+    public static final int DEFAULT_SLOWEST_FILES = 10;
+
+    private final long startNanos = System.nanoTime();
+    private long firstResultNanos;
+    private final PhaseTimings timings = new PhaseTimings().mark();
+    private final boolean[] measured = new boolean[Phase.values().length];
+    private final int slowestFileLimit;
+    private final PriorityQueue<SlowFile> slowestFiles = new PriorityQueue<>(Comparator.comparingLong(f -> f.totalNanos));
+    private int files;
+    private int cachedFiles;
+    private int classes;
+    private int methods;
+
+    public MetricsCollector() {
+        this(DEFAULT_SLOWEST_FILES);
+    }
+
+    public MetricsCollector(int slowestFileLimit) {
+        this.slowestFileLimit = slowestFileLimit;
+    }
+
+    /** Starts timing a phase that runs on the calling thread. */
+    public void mark() {
+        timings.mark();
+    }
+
+    /** Charges the calling thread's time and allocations since {@link #mark()} to {@code phase}. */
+    public void lap(Phase phase) {
+        timings.lap(phase);
+        measured[phase.ordinal()] = true;
+    }
+
+    public void recordFile(FileAnalysisResult fileResult) {
+        if (files == 0) firstResultNanos = System.nanoTime() - startNanos;
+        files++;
+        if (fileResult.isFromCache()) cachedFiles++;
+        for (ClassAnalysisResult classResult : fileResult.getClasses()) {
+            classes++;
+            methods += classResult.getMethods().size();
+        }
+
+        PhaseTimings fileTimings = fileResult.getTimings();
+        if (fileTimings == null) return;
+        timings.addAll(fileTimings);
+        for (Phase phase : Phase.values()) {
+            if (phase != Phase.WRITE && fileTimings.getNanos(phase) > 0) measured[phase.ordinal()] = true;
+        }
+        long totalNanos = fileTimings.getTotalNanos();
+        if (slowestFiles.size() < slowestFileLimit) {
+            slowestFiles.add(new SlowFile(fileResult.getSourceName(), fileTimings.getNanos(Phase.PARSE), totalNanos));
+        } else if (slowestFileLimit > 0 && totalNanos > slowestFiles.peek().totalNanos) {
+            slowestFiles.poll();
+            slowestFiles.add(new SlowFile(fileResult.getSourceName(), fileTimings.getNanos(Phase.PARSE), totalNanos));
+        }
+    }
+
+    /**
+     * Returns the metrics gathered so far. {@code edges} is the size of the merged call graph, which
+     * only the caller knows since edges repeat across files.
+     */
+    public AnalysisMetrics snapshot(int edges) {
+        AnalysisMetrics metrics = new AnalysisMetrics();
+        metrics.setWallMillis(AnalysisMetrics.toMillis(System.nanoTime() - startNanos));
+        metrics.setFirstResultMillis(AnalysisMetrics.toMillis(firstResultNanos));
+        metrics.setFiles(files);
+        metrics.setCachedFiles(cachedFiles);
+        metrics.setClasses(classes);
+        metrics.setMethods(methods);
+        metrics.setEdges(edges);
+        for (Phase phase : Phase.values()) {
+            if (!measured[phase.ordinal()]) continue;
+            Long allocatedBytes = PhaseTimings.isAllocationTracked() ? timings.getAllocatedBytes(phase) : null;
+            metrics.getPhases().put(phase.getJsonName(),
+                    new AnalysisMetrics.PhaseMetrics(AnalysisMetrics.toMillis(timings.getNanos(phase)), allocatedBytes));
+        }
+
+        List<SlowFile> slowest = new ArrayList<>(slowestFiles);
+        slowest.sort(Comparator.comparingLong((SlowFile f) -> f.totalNanos).reversed());
+        List<AnalysisMetrics.FileTiming> fileTimings = new ArrayList<>(slowest.size());
+        for (SlowFile file : slowest) {
+            fileTimings.add(new AnalysisMetrics.FileTiming(file.name,
+                    AnalysisMetrics.toMillis(file.parseNanos), AnalysisMetrics.toMillis(file.totalNanos)));
+        }
+        metrics.setSlowestFiles(fileTimings);
+        return metrics;
+    }
+
+    private static class SlowFile {
+        final String name;
+        final long parseNanos;
+        final long totalNanos;
+
+        SlowFile(String name, long parseNanos, long totalNanos) {
+            this.name = name;
+            this.parseNanos = parseNanos;
+            this.totalNanos = totalNanos;
+        }
+    }
+}
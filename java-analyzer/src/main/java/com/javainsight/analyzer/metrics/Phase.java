@@ -0,0 +1,26 @@
+package com.javainsight.analyzer.metrics;
+
+/**
+ * Stages of an analysis that are timed separately. The first five run per file on the worker threads;
+ * {@link #WRITE} runs on the thread that consumes the results.
+ */
+public enum Phase {
+    /** Reading source bytes, including opening the archive and inflating its entries. */
+    READ("read"),
+    /** Hashing content and loading or storing {@code AnalysisCache} entries. */
+    CACHE("cache"),
+    PARSE("parse"),
+    /** Collecting class and method metrics and call edges from the AST. */
+    VISIT("visit"),
+    STRUCTURE_MATCH("structureMatch"),
+    /** Serializing the result document. */
+    WRITE("write");
+
+    private final String jsonName;
+
+    Phase(String jsonName) {
+        this.jsonName = jsonName;
+    }
+
+    public String getJsonName() { return jsonName; }
+}
@@ -0,0 +1,75 @@
+package com.javainsight.analyzer.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Wall time and allocated bytes per {@link Phase}, measured as laps on one thread: {@link #mark()}
+ * starts a lap and {@link #lap(Phase)} charges everything since the last mark to a phase.
+ * Not thread-safe; each file analysis has its own instance.
+ */
+public class PhaseTimings {
+    private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN = allocationBean();
+
+    private final long[] nanos = new long[Phase.values().length];
+    private final long[] allocatedBytes = new long[Phase.values().length];
+    private long markNanos;
+    private long markBytes;
+
+    /** Per-thread allocation counters are a HotSpot extension; without them only time is recorded. */
+    public static boolean isAllocationTracked() {
+        return ALLOCATION_BEAN != null;
+    }
+
+    public PhaseTimings mark() {
+        markNanos = System.nanoTime();
+        markBytes = currentThreadAllocatedBytes();
+        return this;
+    }
+
+    /** Charges the time and allocations since the last mark (or lap) to {@code phase}, and marks again. */
+    public void lap(Phase phase) {
+        long now = System.nanoTime();
+        long bytes = currentThreadAllocatedBytes();
+        nanos[phase.ordinal()] += now - markNanos;
+        allocatedBytes[phase.ordinal()] += bytes - markBytes;
+        markNanos = now;
+        markBytes = bytes;
+    }
+
+    public void addAll(PhaseTimings other) {
+        for (int i = 0; i < nanos.length; i++) {
+            nanos[i] += other.nanos[i];
+            allocatedBytes[i] += other.allocatedBytes[i];
+        }
+    }
+
+    public long getNanos(Phase phase) { return nanos[phase.ordinal()]; }
+    public long getAllocatedBytes(Phase phase) { return allocatedBytes[phase.ordinal()]; }
+
+    public long getTotalNanos() {
+        long total = 0;
+        for (long phaseNanos : nanos) total += phaseNanos;
+        return total;
+    }
+
+    private static long currentThreadAllocatedBytes() {
+        return ALLOCATION_BEAN != null ? ALLOCATION_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotspotBean = (com.sun.management.ThreadMXBean) bean;
+            try {
+                if (hotspotBean.isThreadAllocatedMemorySupported()) {
+                    hotspotBean.setThreadAllocatedMemoryEnabled(true);
+                    return hotspotBean;
+                }
+            } catch (UnsupportedOperationException | SecurityException e) {
+                System.err.println("Warning: per-thread allocation tracking unavailable: " + e.getMessage());
+            }
+        }
+        return null;
+    }
+}
@@ -1,15 +1,18 @@
 package com.javainsight.analyzer.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
+@JsonIgnoreProperties(ignoreUnknown = true) // fieldCount/methodCount are derived on read
 public class ClassAnalysisResult {
     private String packageName;
     private String className; // Fully Qualified Class Name
     private String simpleName;
     private boolean isInterface;
-    private List<String> modifiers;
+    private int modifiers; // Modifiers bits; serialized as the keyword list
     private Set<String> imports;
     private List<FieldInfo> fields = new ArrayList<>();
     private List<MethodAnalysisResult> methods = new ArrayList<>();
@@ -22,7 +25,13 @@ public class ClassAnalysisResult {
     private String classSummary; // Description from standard library mapping
     private List<String> warnings = new ArrayList<>();
 
+    public ClassAnalysisResult() {} // For Jackson (cached and previously written results)
+
     public ClassAnalysisResult(String packageName, String className, String simpleName, boolean isInterface, List<String> modifiers) {
+        this(packageName, className, simpleName, isInterface, Modifiers.of(modifiers));
+    }
+
+    public ClassAnalysisResult(String packageName, String className, String simpleName, boolean isInterface, int modifiers) {
         this.packageName = packageName;
         this.className = className;
         this.simpleName = simpleName;
@@ -43,8 +52,11 @@ public class ClassAnalysisResult {
     public boolean isInterface() { return isInterface; }
     public void setInterface(boolean anInterface) { isInterface = anInterface; }
 
-    public List<String> getModifiers() { return modifiers; }
-    public void setModifiers(List<String> modifiers) { this.modifiers = modifiers; }
+    public List<String> getModifiers() { return Modifiers.keywords(modifiers); }
+    public void setModifiers(List<String> modifiers) { this.modifiers = Modifiers.of(modifiers); }
+
+    @JsonIgnore
+    public int getModifierBits() { return modifiers; }
 
     public Set<String> getImports() { return imports; }
     public void setImports(Set<String> imports) { this.imports = imports; }
@@ -0,0 +1,63 @@
+package com.javainsight.analyzer.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The branch points counted by cyclomatic complexity, tallied per kind in an {@code int[]} indexed by the
+ * constants below, so visiting a method costs no list and no strings. Results still serialize them as a
+ * list of names ({@code "if"}, {@code "&&"}, ...), grouped by kind in the order of {@link #NAMES}.
+ */
+public final class ControlStatements {
+    public static final int IF = 0;
+    public static final int FOR = 1;
+    public static final int FOREACH = 2;
+    public static final int WHILE = 3;
+    public static final int DO_WHILE = 4;
+    public static final int CASE = 5;
+    public static final int CONDITIONAL = 6;
+    public static final int CATCH = 7;
+    public static final int AND = 8;
+    public static final int OR = 9;
+
+    private static final String[] NAMES = {
+            "if", "for", "foreach", "while", "do-while", "case", "conditional", "catch", "&&", "||"
+    };
+
+    public static final int KINDS = NAMES.length;
+
+    private ControlStatements() {}
+
+    /** The names of {@code counts}, each repeated as often as it was counted; empty for {@code null}. */
+    public static List<String> names(int[] counts) {
+        if (counts == null) return Collections.emptyList();
+        int total = total(counts);
+        if (total == 0) return Collections.emptyList();
+        List<String> names = new ArrayList<>(total);
+        for (int kind = 0; kind < counts.length; kind++) {
+            for (int i = 0; i < counts[kind]; i++) names.add(NAMES[kind]);
+        }
+        return names;
+    }
+
+    /** Tallies a list of names; names of no kind are ignored. */
+    public static int[] counts(List<String> names) {
+        int[] counts = new int[KINDS];
+        for (String name : names) {
+            for (int kind = 0; kind < KINDS; kind++) {
+                if (NAMES[kind].equals(name)) {
+                    counts[kind]++;
+                    break;
+                }
+            }
+        }
+        return counts;
+    }
+
+    public static int total(int[] counts) {
+        int total = 0;
+        for (int count : counts) total += count;
+        return total;
+    }
+}
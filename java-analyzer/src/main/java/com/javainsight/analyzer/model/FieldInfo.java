@@ -1,13 +1,22 @@
 package com.javainsight.analyzer.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.util.List;
 
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class FieldInfo {
     private String fieldName;
     private String fieldType;
-    private List<String> modifiers;
+    private int modifiers; // Modifiers bits; serialized as the keyword list
+
+    public FieldInfo() {} // For Jackson
 
     public FieldInfo(String fieldName, String fieldType, List<String> modifiers) {
+        this(fieldName, fieldType, Modifiers.of(modifiers));
+    }
+
+    public FieldInfo(String fieldName, String fieldType, int modifiers) {
         this.fieldName = fieldName;
         this.fieldType = fieldType;
         this.modifiers = modifiers;
@@ -19,6 +28,9 @@ public class FieldInfo {
     public String getFieldType() { return fieldType; }
     public void setFieldType(String fieldType) { this.fieldType = fieldType; }
 
-    public List<String> getModifiers() { return modifiers; }
-    public void setModifiers(List<String> modifiers) { this.modifiers = modifiers; }
+    public List<String> getModifiers() { return Modifiers.keywords(modifiers); }
+    public void setModifiers(List<String> modifiers) { this.modifiers = Modifiers.of(modifiers); }
+
+    @JsonIgnore
+    public int getModifierBits() { return modifiers; }
 }
\ No newline at end of file
@@ -1,23 +1,34 @@
 package com.javainsight.analyzer.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class MethodAnalysisResult {
     private String methodName;
     private String returnType;
     private List<String> parameters; // e.g., "String arg0", "int count"
-    private List<String> modifiers;
+    private int modifiers; // Modifiers bits; serialized as the keyword list
     private int loc;
     private int cyclomaticComplexity;
+    private int cognitiveComplexity; // branch points weighted by how deeply they are nested
+    private int maxNestingDepth; // of control structures and lambdas; 0 for straight-line code
     private String javadocSummary;
     private Set<String> invokedMethods; // Stores "ClassName.methodName" or "this.methodName" or "external.methodName"
-    private List<String> controlStatements; // e.g., "if", "for"
+    private int[] controlCounts; // ControlStatements tallies, serialized as their names; null if never set
     private List<String> warnings = new ArrayList<>();
 
     // Constructors
+    public MethodAnalysisResult() {} // For Jackson
+
     public MethodAnalysisResult(String methodName, String returnType, List<String> parameters, List<String> modifiers) {
+        this(methodName, returnType, parameters, Modifiers.of(modifiers));
+    }
+
+    public MethodAnalysisResult(String methodName, String returnType, List<String> parameters, int modifiers) {
         this.methodName = methodName;
         this.returnType = returnType;
         this.parameters = parameters;
@@ -34,8 +45,11 @@ public class MethodAnalysisResult {
     public List<String> getParameters() { return parameters; }
     public void setParameters(List<String> parameters) { this.parameters = parameters; }
 
-    public List<String> getModifiers() { return modifiers; }
-    public void setModifiers(List<String> modifiers) { this.modifiers = modifiers; }
+    public List<String> getModifiers() { return Modifiers.keywords(modifiers); }
+    public void setModifiers(List<String> modifiers) { this.modifiers = Modifiers.of(modifiers); }
+
+    @JsonIgnore
+    public int getModifierBits() { return modifiers; }
 
     public int getLoc() { return loc; }
     public void setLoc(int loc) { this.loc = loc; }
@@ -43,14 +57,26 @@ public class MethodAnalysisResult {
     public int getCyclomaticComplexity() { return cyclomaticComplexity; }
     public void setCyclomaticComplexity(int cyclomaticComplexity) { this.cyclomaticComplexity = cyclomaticComplexity; }
 
+    public int getCognitiveComplexity() { return cognitiveComplexity; }
+    public void setCognitiveComplexity(int cognitiveComplexity) { this.cognitiveComplexity = cognitiveComplexity; }
+
+    public int getMaxNestingDepth() { return maxNestingDepth; }
+    public void setMaxNestingDepth(int maxNestingDepth) { this.maxNestingDepth = maxNestingDepth; }
+
     public String getJavadocSummary() { return javadocSummary; }
     public void setJavadocSummary(String javadocSummary) { this.javadocSummary = javadocSummary; }
 
     public Set<String> getInvokedMethods() { return invokedMethods; }
     public void setInvokedMethods(Set<String> invokedMethods) { this.invokedMethods = invokedMethods; }
 
-    public List<String> getControlStatements() { return controlStatements; }
-    public void setControlStatements(List<String> controlStatements) { this.controlStatements = controlStatements; }
+    public List<String> getControlStatements() { return controlCounts != null ? ControlStatements.names(controlCounts) : null; }
+    public void setControlStatements(List<String> controlStatements) {
+        this.controlCounts = controlStatements != null ? ControlStatements.counts(controlStatements) : null;
+    }
+
+    @JsonIgnore
+    public int[] getControlCounts() { return controlCounts; }
+    public void setControlCounts(int[] controlCounts) { this.controlCounts = controlCounts; }
 
     public List<String> getWarnings() { return warnings; }
     public void setWarnings(List<String> warnings) { this.warnings = warnings; }
@@ -0,0 +1,61 @@
+package com.javainsight.analyzer.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Modifier keywords as bits of an {@code int}, so a declaration's modifiers cost no list and no strings.
+ * Results still serialize them as a list of keywords, in the order the JLS recommends; the list for each
+ * combination is built once and shared. The source order is not kept: {@code final static} is written
+ * as {@code ["static", "final"]}, and lists read from older results, which kept it, are reordered the
+ * same way, so the lists of two results can be compared as they are.
+ */
+public final class Modifiers {
+    /** Keywords in JLS order; keyword {@code i} is bit {@code 1 << i}. */
+    private static final String[] KEYWORDS = {
+            "public", "protected", "private", "abstract", "default", "static", "final", "sealed", "non-sealed",
+            "transient", "volatile", "synchronized", "native", "strictfp", "transitive"
+    };
+
+    public static final int ABSTRACT = bit("abstract");
+
+    // A project uses a few dozen combinations at most
+    private static final ConcurrentMap<Integer, List<String>> KEYWORD_LISTS = new ConcurrentHashMap<>();
+
+    private Modifiers() {}
+
+    /** The bit of a modifier keyword such as {@code "static"}; 0 if it is not one. */
+    public static int bit(String keyword) {
+        for (int i = 0; i < KEYWORDS.length; i++) {
+            if (KEYWORDS[i].equals(keyword)) return 1 << i;
+        }
+        return 0;
+    }
+
+    /** The keywords of {@code mask} as an unmodifiable list shared by every caller. */
+    public static List<String> keywords(int mask) {
+        if (mask == 0) return Collections.emptyList();
+        List<String> keywords = KEYWORD_LISTS.get(mask);
+        return keywords != null ? keywords : KEYWORD_LISTS.computeIfAbsent(mask, Modifiers::buildKeywords);
+    }
+
+    /** Keywords that are not modifiers are ignored. */
+    public static int of(List<String> keywords) {
+        int mask = 0;
+        if (keywords != null) {
+            for (String keyword : keywords) mask |= bit(keyword);
+        }
+        return mask;
+    }
+
+    private static List<String> buildKeywords(int mask) {
+        List<String> keywords = new ArrayList<>(Integer.bitCount(mask));
+        for (int i = 0; i < KEYWORDS.length; i++) {
+            if ((mask & (1 << i)) != 0) keywords.add(KEYWORDS[i]);
+        }
+        return Collections.unmodifiableList(keywords);
+    }
+}
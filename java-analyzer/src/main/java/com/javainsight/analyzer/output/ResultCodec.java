@@ -0,0 +1,138 @@
+package com.javainsight.analyzer.output;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding of a JSON result file. Results repeat package names, class names and warnings throughout, so
+ * they compress well: the compressed codecs keep the JSON text (a web server can send the file as is with
+ * the {@link #getContentEncoding() Content-Encoding} it names), the binary JSON codecs write the same
+ * document as Smile or CBOR, which back-references repeated names (Smile) or drops the text syntax (CBOR).
+ *
+ * <p>Writers pick the codec by name ({@code --codec}) or by the output file's extension; readers recognize
+ * it by the first bytes of the file, so every result file can be queried and diffed whatever it was
+ * written with.
+ */
+public enum ResultCodec {
+    /** Plain JSON text. */
+    JSON(".json", null),
+    /** JSON text, gzip-compressed: readable everywhere, and an order of magnitude smaller. */
+    GZIP(".json.gz", "gzip"),
+    /** JSON text, Zstandard-compressed: about as small as gzip, and cheaper to compress and decompress. */
+    ZSTD(".json.zst", "zstd"),
+    /** Smile binary JSON; repeated names and short values are written once and referred back to. */
+    SMILE(".smile", null),
+    /** CBOR (RFC 8949) binary JSON, starting with the self-described CBOR tag. */
+    CBOR(".cbor", null);
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    private static final int ZSTD_LEVEL = 3; // zstd's default: most of the size win at a fraction of the higher levels' cost
+    private static final ObjectMapper COMPACT_MAPPER = new ObjectMapper();
+    private static final ObjectMapper INDENTED_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final ObjectMapper SMILE_MAPPER = new ObjectMapper( // warnings, types and package names repeat as values too
+            SmileFactory.builder().enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES).build());
+    private static final ObjectMapper CBOR_MAPPER = new ObjectMapper(
+            CBORFactory.builder().enable(CBORGenerator.Feature.WRITE_TYPE_HEADER).build()); // makes the file recognizable
+
+    private final String extension;
+    private final String contentEncoding;
+
+    ResultCodec(String extension, String contentEncoding) {
+        this.extension = extension;
+        this.contentEncoding = contentEncoding;
+    }
+
+    /** File name extension results written with this codec get, e.g. {@code ".json.gz"}. */
+    public String getExtension() { return extension; }
+
+    /** The HTTP {@code Content-Encoding} under which the file is JSON, or null if it is not JSON text. */
+    public String getContentEncoding() { return contentEncoding; }
+
+    /** Whether the file is Smile or CBOR rather than (possibly compressed) JSON text. */
+    public boolean isBinaryJson() { return this == SMILE || this == CBOR; }
+
+    /**
+     * Shared mapper that writes and reads this codec's documents; {@code indent} only applies to JSON text.
+     * Compression is not the mapper's business: write through {@link #wrap} and read through {@link #open}.
+     */
+    public ObjectMapper objectMapper(boolean indent) {
+        if (this == SMILE) return SMILE_MAPPER;
+        if (this == CBOR) return CBOR_MAPPER;
+        return indent ? INDENTED_MAPPER : COMPACT_MAPPER;
+    }
+
+    /** Compresses what is written to {@code out}; closing the returned stream finishes the compressed data. */
+    public OutputStream wrap(OutputStream out) throws IOException {
+        if (this == GZIP) return new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+        if (this == ZSTD) return new ZstdCompressorOutputStream(out, ZSTD_LEVEL);
+        return out;
+    }
+
+    /** Opens {@code file}, decompressing it if this codec compresses. */
+    public InputStream open(Path file) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(file));
+        try {
+            if (this == GZIP) return new GZIPInputStream(in, GZIP_BUFFER_SIZE);
+            if (this == ZSTD) return new ZstdCompressorInputStream(in);
+            return in;
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /** Parses a command-line value such as {@code "gzip"}; returns null if unknown. */
+    public static ResultCodec fromName(String name) {
+        for (ResultCodec codec : values()) {
+            if (codec.name().equalsIgnoreCase(name)) return codec;
+        }
+        return null;
+    }
+
+    /** The codec a file name asks for by its extension ({@code .gz}, {@code .zst}, {@code .smile}, {@code .cbor}); JSON otherwise. */
+    public static ResultCodec fromFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".gz")) return GZIP;
+        if (name.endsWith(".zst")) return ZSTD;
+        if (name.endsWith(".smile")) return SMILE;
+        if (name.endsWith(".cbor")) return CBOR;
+        return JSON;
+    }
+
+    /** Recognizes the codec of an existing file by its magic number; files without one are taken as JSON. */
+    public static ResultCodec detect(Path file) throws IOException {
+        byte[] magic;
+        try (InputStream in = Files.newInputStream(file)) {
+            magic = in.readNBytes(4);
+        }
+        if (startsWith(magic, 0x1f, 0x8b)) return GZIP;
+        if (startsWith(magic, 0x28, 0xb5, 0x2f, 0xfd)) return ZSTD;
+        if (startsWith(magic, ':', ')', '\n')) return SMILE;
+        if (startsWith(magic, 0xd9, 0xd9, 0xf7)) return CBOR;
+        return JSON;
+    }
+
+    private static boolean startsWith(byte[] bytes, int... prefix) {
+        if (bytes.length < prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if ((bytes[i] & 0xff) != prefix[i]) return false;
+        }
+        return true;
+    }
+}
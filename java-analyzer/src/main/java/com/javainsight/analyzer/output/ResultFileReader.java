@@ -0,0 +1,60 @@
+package com.javainsight.analyzer.output;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.javainsight.analyzer.binary.BinaryResultReader;
+import com.javainsight.analyzer.graph.CallGraphJson;
+import com.javainsight.analyzer.model.ClassAnalysisResult;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Reads a result file written by the analyzer, JSON (indented, compact or streamed, in any {@link ResultCodec})
+ * or binary, one class and one call graph edge at a time: no tree of the document and no {@code CallGraph} is
+ * built, so results larger than the heap can be processed as long as the visitors do not keep everything.
+ */
+public final class ResultFileReader {
+    @FunctionalInterface
+    public interface ClassVisitor {
+        void visit(ClassAnalysisResult classResult) throws IOException;
+    }
+
+    private ResultFileReader() {}
+
+    /** Hands every class, then every call graph edge, to the visitors; a null visitor skips that part. */
+    public static void read(Path resultFile, ClassVisitor classVisitor, CallGraphJson.EdgeVisitor edgeVisitor) throws IOException {
+        if (BinaryResultReader.isBinaryResultFile(resultFile)) {
+            try (BinaryResultReader reader = BinaryResultReader.open(resultFile)) {
+                if (classVisitor != null) {
+                    for (int ordinal = 0; ordinal < reader.getClassCount(); ordinal++) {
+                        classVisitor.visit(reader.readClass(ordinal));
+                    }
+                }
+                if (edgeVisitor != null) {
+                    reader.forEachEdge(edgeVisitor);
+                }
+            }
+            return;
+        }
+        ResultCodec codec = ResultCodec.detect(resultFile);
+        try (JsonParser parser = codec.objectMapper(false).createParser(codec.open(resultFile))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Not an analysis result: expected a JSON object.");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("classes".equals(field) && value == JsonToken.START_ARRAY && classVisitor != null) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        classVisitor.visit(parser.readValueAs(ClassAnalysisResult.class));
+                    }
+                } else if ("graphEdges".equals(field) && value == JsonToken.START_ARRAY && edgeVisitor != null) {
+                    CallGraphJson.readEdges(parser, edgeVisitor);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.javainsight.analyzer.output;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.javainsight.analyzer.FileAnalysisResult;
+import com.javainsight.analyzer.FileAnalysisSink;
+import com.javainsight.analyzer.clone.CloneDetector;
+import com.javainsight.analyzer.graph.CallGraph;
+import com.javainsight.analyzer.graph.DependencyGraph;
+import com.javainsight.analyzer.metrics.MetricsCollector;
+import com.javainsight.analyzer.metrics.Phase;
+import com.javainsight.analyzer.model.ClassAnalysisResult;
+import com.javainsight.analyzer.summary.SummaryAggregator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Writes an {@code OverallAnalysisResult}-shaped JSON document incrementally.
+ * Class results are serialized as soon as their file has been analyzed and are not retained;
+ * graph edges and processing errors are kept until {@link #close()} and emitted as trailing arrays,
+ * followed by the {@code summary} and {@code dependencies} that classes are folded into as they are written,
+ * and the {@code clones} found among their methods if the files were analyzed with clone detection.
+ * Pretty printing follows the mapper's {@link SerializationFeature#INDENT_OUTPUT} setting; a Smile or CBOR
+ * mapper writes the document in that format, and a compressing target (see {@link ResultCodec#wrap}) compresses
+ * it as it is written.
+ * With a {@link MetricsCollector}, every file is recorded in it, serialization is timed as
+ * {@link Phase#WRITE}, and a trailing {@code metrics} object is written.
+ * The target stream is flushed but not closed.
+ */
+public class StreamingResultWriter implements FileAnalysisSink, Closeable {
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter classWriter;
+    private final JsonGenerator generator;
+    private final MetricsCollector metrics;
+    private final CallGraph graphEdges = new CallGraph();
+    private final List<String> processingErrors = new ArrayList<>();
+    private final SummaryAggregator summary = new SummaryAggregator();
+    private final DependencyGraph dependencies = new DependencyGraph();
+    private CloneDetector clones; // created by the first file analyzed with clone detection
+    private int classCount;
+    private boolean closed;
+
+    public StreamingResultWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+        this(objectMapper, out, null);
+    }
+
+    public StreamingResultWriter(ObjectMapper objectMapper, OutputStream out, MetricsCollector metrics) throws IOException {
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.classWriter = objectMapper.writerFor(ClassAnalysisResult.class)
+                                       .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (objectMapper.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
+            this.generator.setPrettyPrinter(objectMapper.getSerializationConfig().constructDefaultPrettyPrinter());
+        }
+        generator.writeStartObject();
+        generator.writeFieldName("classes");
+        generator.writeStartArray();
+    }
+
+    @Override
+    public void accept(FileAnalysisResult fileResult) throws IOException {
+        if (metrics != null) {
+            metrics.recordFile(fileResult);
+            metrics.mark();
+        }
+        for (ClassAnalysisResult classResult : fileResult.getClasses()) {
+            writeClass(classResult);
+        }
+        graphEdges.merge(fileResult.getCallGraph());
+        processingErrors.addAll(fileResult.getProcessingErrors());
+        if (fileResult.getMethodFingerprints() != null) {
+            if (clones == null) clones = new CloneDetector();
+            clones.add(fileResult);
+        }
+        if (metrics != null) metrics.lap(Phase.WRITE);
+    }
+
+    public void writeClass(ClassAnalysisResult classResult) throws IOException {
+        classWriter.writeValue(generator, classResult);
+        summary.add(classResult);
+        dependencies.add(classResult);
+        classCount++;
+    }
+
+    public void addError(String error) {
+        processingErrors.add(error);
+    }
+
+    public void addCallGraph(CallGraph callGraph) {
+        graphEdges.merge(callGraph);
+    }
+
+    public List<String> getProcessingErrors() { return Collections.unmodifiableList(processingErrors); }
+    public int getClassCount() { return classCount; }
+    public int getEdgeCount() { return graphEdges.edgeCount(); }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        if (metrics != null) metrics.mark();
+        generator.writeEndArray();
+        generator.writeFieldName("graphEdges");
+        objectMapper.writeValue(generator, graphEdges);
+        generator.writeFieldName("processingErrors");
+        objectMapper.writeValue(generator, processingErrors);
+        generator.writeFieldName("summary");
+        objectMapper.writeValue(generator, summary.toSummary());
+        generator.writeFieldName("dependencies");
+        objectMapper.writeValue(generator, dependencies.analyze());
+        if (clones != null) {
+            generator.writeFieldName("clones");
+            objectMapper.writeValue(generator, clones.detect());
+        }
+        if (metrics != null) {
+            metrics.lap(Phase.WRITE);
+            generator.writeFieldName("metrics");
+            objectMapper.writeValue(generator, metrics.snapshot(graphEdges.edgeCount()));
+        }
+        generator.writeEndObject();
+        generator.close(); // flushes; the target itself stays open (AUTO_CLOSE_TARGET disabled)
+    }
+}
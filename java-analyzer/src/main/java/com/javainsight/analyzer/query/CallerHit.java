@@ -0,0 +1,28 @@
+package com.javainsight.analyzer.query;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/** One call graph edge into a method looked up with {@link ResultIndex#callersOf}. */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CallerHit {
+    private String source;
+    private String target; // as recorded (with "this." resolved to the caller's class)
+    private int count; // call sites
+
+    public CallerHit() {}
+
+    CallerHit(String source, String target, int count) {
+        this.source = source;
+        this.target = target;
+        this.count = count;
+    }
+
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+
+    public String getTarget() { return target; }
+    public void setTarget(String target) { this.target = target; }
+
+    public int getCount() { return count; }
+    public void setCount(int count) { this.count = count; }
+}
@@ -0,0 +1,24 @@
+package com.javainsight.analyzer.query;
+
+/**
+ * Numbers a {@link ResultQuery} can filter and rank by. For a class, complexity is the sum of its methods'
+ * cyclomatic complexities (weighted methods per class).
+ */
+public enum Metric {
+    COMPLEXITY("cc"),
+    LOC("loc");
+
+    private final String shortName;
+
+    Metric(String shortName) {
+        this.shortName = shortName;
+    }
+
+    /** Parses a command-line value such as {@code "cc"} or {@code "complexity"}; returns null if unknown. */
+    public static Metric fromName(String name) {
+        for (Metric metric : values()) {
+            if (metric.name().equalsIgnoreCase(name) || metric.shortName.equalsIgnoreCase(name)) return metric;
+        }
+        return null;
+    }
+}
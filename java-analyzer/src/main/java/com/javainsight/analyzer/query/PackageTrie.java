@@ -0,0 +1,78 @@
+package com.javainsight.analyzer.query;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Package names split at the dots. Classes are added in {@link #comparePackages package order}, so the
+ * classes and methods under any node are contiguous id ranges, and a package subtree query is one lookup.
+ */
+final class PackageTrie {
+    private final Node root = new Node(0, 0);
+
+    /** Adds class {@code classId}, whose methods are {@code [methodStart, methodEnd)}. */
+    void add(String packageName, int classId, int methodStart, int methodEnd) {
+        Node node = root;
+        node.extend(classId, methodEnd);
+        int segmentStart = 0;
+        while (segmentStart < packageName.length()) {
+            int dot = packageName.indexOf('.', segmentStart);
+            int segmentEnd = dot >= 0 ? dot : packageName.length();
+            String segment = packageName.substring(segmentStart, segmentEnd);
+            Node child = node.children.get(segment);
+            if (child == null) {
+                child = new Node(classId, methodStart);
+                node.children.put(segment, child);
+            }
+            child.extend(classId, methodEnd);
+            node = child;
+            segmentStart = segmentEnd + 1;
+        }
+    }
+
+    /** The node of {@code packagePrefix} (whole segments, e.g. {@code "java.util"}), or null if no class is under it. */
+    Node find(String packagePrefix) {
+        Node node = root;
+        int segmentStart = 0;
+        while (node != null && segmentStart < packagePrefix.length()) {
+            int dot = packagePrefix.indexOf('.', segmentStart);
+            int segmentEnd = dot >= 0 ? dot : packagePrefix.length();
+            node = node.children.get(packagePrefix.substring(segmentStart, segmentEnd));
+            segmentStart = segmentEnd + 1;
+        }
+        return node;
+    }
+
+    /** Orders packages segment by segment, so each package is directly followed by its subpackages. */
+    static int comparePackages(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            char x = a.charAt(i);
+            char y = b.charAt(i);
+            if (x != y) {
+                if (x == '.') return -1;
+                if (y == '.') return 1;
+                return x - y;
+            }
+        }
+        return a.length() - b.length();
+    }
+
+    static final class Node {
+        private final Map<String, Node> children = new HashMap<>(4);
+        final int classStart;
+        final int methodStart;
+        int classEnd;
+        int methodEnd;
+
+        Node(int classStart, int methodStart) {
+            this.classStart = classStart;
+            this.methodStart = methodStart;
+        }
+
+        private void extend(int classId, int methodEnd) {
+            this.classEnd = classId + 1;
+            this.methodEnd = methodEnd;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.javainsight.analyzer.query;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/** A method (or, for class queries, a class) matched by a {@link ResultQuery}. */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QueryHit {
+    private String className;
+    private String methodName; // null for classes
+    private List<String> parameters; // null for classes
+    private int cyclomaticComplexity; // for classes, summed over their methods
+    private int loc;
+    private List<String> warnings;
+
+    public QueryHit() {}
+
+    QueryHit(String className, String methodName, List<String> parameters, int cyclomaticComplexity, int loc,
+             List<String> warnings) {
+        this.className = className;
+        this.methodName = methodName;
+        this.parameters = parameters;
+        this.cyclomaticComplexity = cyclomaticComplexity;
+        this.loc = loc;
+        this.warnings = warnings;
+    }
+
+    public String getClassName() { return className; }
+    public void setClassName(String className) { this.className = className; }
+
+    public String getMethodName() { return methodName; }
+    public void setMethodName(String methodName) { this.methodName = methodName; }
+
+    public List<String> getParameters() { return parameters; }
+    public void setParameters(List<String> parameters) { this.parameters = parameters; }
+
+    public int getCyclomaticComplexity() { return cyclomaticComplexity; }
+    public void setCyclomaticComplexity(int cyclomaticComplexity) { this.cyclomaticComplexity = cyclomaticComplexity; }
+
+    public int getLoc() { return loc; }
+    public void setLoc(int loc) { this.loc = loc; }
+
+    public List<String> getWarnings() { return warnings; }
+    public void setWarnings(List<String> warnings) { this.warnings = warnings; }
+}
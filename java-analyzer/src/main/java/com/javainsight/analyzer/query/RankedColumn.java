@@ -0,0 +1,61 @@
+package com.javainsight.analyzer.query;
+
+import java.util.Arrays;
+
+/**
+ * One metric of every method (or class) together with the entity ids sorted by it, largest first and then
+ * by id. The entities with the metric in a range are a contiguous run of that order, found by binary
+ * search, so a range is both a candidate set whose size is known up front and, when the query ranks by the
+ * same metric, already in result order.
+ */
+final class RankedColumn {
+    private final int[] values; // by entity id
+    private final int[] order; // entity ids, largest value first
+    private final int[] ranked; // values in that order, non-increasing
+
+    RankedColumn(int[] values) {
+        this.values = values;
+        long[] keys = new long[values.length];
+        for (int id = 0; id < values.length; id++) {
+            keys[id] = sortKey(values[id], id);
+        }
+        Arrays.sort(keys);
+        this.order = new int[values.length];
+        this.ranked = new int[values.length];
+        for (int position = 0; position < keys.length; position++) {
+            order[position] = (int) keys[position];
+            ranked[position] = values[order[position]];
+        }
+    }
+
+    /** Sorting these ascending orders entities the way this column does; metrics are never negative. */
+    static long sortKey(int value, int id) {
+        return ((long) (Integer.MAX_VALUE - Math.max(0, value)) << 32) | id;
+    }
+
+    int value(int id) { return values[id]; }
+
+    int entity(int position) { return order[position]; }
+
+    /** First position whose value is at most {@code maximum}. */
+    int firstAtMost(int maximum) {
+        int low = 0;
+        int high = ranked.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ranked[middle] > maximum) low = middle + 1; else high = middle;
+        }
+        return low;
+    }
+
+    /** First position whose value is below {@code minimum}. */
+    int firstBelow(int minimum) {
+        int low = 0;
+        int high = ranked.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ranked[middle] >= minimum) low = middle + 1; else high = middle;
+        }
+        return low;
+    }
+}
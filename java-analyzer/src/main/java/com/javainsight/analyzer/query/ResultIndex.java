@@ -0,0 +1,375 @@
+package com.javainsight.analyzer.query;
+
+import com.javainsight.analyzer.OverallAnalysisResult;
+import com.javainsight.analyzer.graph.CallGraph;
+import com.javainsight.analyzer.graph.SymbolTable;
+import com.javainsight.analyzer.model.ClassAnalysisResult;
+import com.javainsight.analyzer.model.MethodAnalysisResult;
+import com.javainsight.analyzer.output.ResultFileReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Secondary indexes over one analysis result, built once so that filter and top-K questions ("methods with
+ * CC &gt; 15 under {@code com.acme.billing}", "callers of {@code Foo.bar}") do not scan every class:
+ * <ul>
+ *   <li>methods and classes numbered in package order, with a {@link PackageTrie} mapping a package subtree
+ *       to an id range;</li>
+ *   <li>a {@link RankedColumn} per {@link Metric}, so a metric range is a contiguous run of a sorted order;</li>
+ *   <li>an inverted index from warning type ("Long method") to the ids carrying it;</li>
+ *   <li>a reverse call index from call target to the call graph edges into it, most call sites first.</li>
+ * </ul>
+ * A query starts from the smallest of its candidate sets (package range, warning list or metric range) and
+ * checks the other conditions per candidate. When that set is the range of the metric it ranks by, results
+ * come out in order and the scan stops after {@code limit} matches, which is also chosen for a top-K query
+ * whenever about {@code limit} / selectivity entries of that range are fewer than the smallest set; otherwise
+ * the matches are sorted.
+ *
+ * <p>Immutable once built and safe to query from several threads.
+ */
+public class ResultIndex {
+    private static final int[] NONE = new int[0];
+    private static final Metric[] METRICS = Metric.values();
+
+    private final ClassAnalysisResult[] classes; // in package order
+    private final int[] classMethodStart; // methods of class c are [classMethodStart[c], classMethodStart[c + 1])
+    private final MethodAnalysisResult[] methods;
+    private final int[] methodClass;
+    private final PackageTrie packages = new PackageTrie();
+    private final RankedColumn[] classColumns = new RankedColumn[METRICS.length];
+    private final RankedColumn[] methodColumns = new RankedColumn[METRICS.length];
+    private final Map<String, WarningPostings> classWarnings;
+    private final Map<String, WarningPostings> methodWarnings;
+
+    private final CallGraph callGraph;
+    private final SymbolTable callTargets = new SymbolTable(); // "this." calls resolved to the caller's class
+    private final int[] targetEdgeStart; // edges into target t are targetEdges[targetEdgeStart[t] .. targetEdgeStart[t + 1])
+    private final int[] targetEdges;
+    private final Map<String, int[]> targetsByShortName; // "Class.method" -> target ids
+
+    private ResultIndex(Collection<ClassAnalysisResult> classResults, CallGraph callGraph) {
+        this.classes = classResults.toArray(new ClassAnalysisResult[0]);
+        Arrays.sort(classes, Comparator.comparing((ClassAnalysisResult c) -> packageOf(c), PackageTrie::comparePackages)
+                                       .thenComparing(c -> c.getClassName() != null ? c.getClassName() : ""));
+        this.classMethodStart = new int[classes.length + 1];
+        for (int c = 0; c < classes.length; c++) {
+            classMethodStart[c + 1] = classMethodStart[c] + classes[c].getMethods().size();
+        }
+        int methodCount = classMethodStart[classes.length];
+        this.methods = new MethodAnalysisResult[methodCount];
+        this.methodClass = new int[methodCount];
+
+        int[] classComplexity = new int[classes.length];
+        int[] classLoc = new int[classes.length];
+        int[] methodComplexity = new int[methodCount];
+        int[] methodLoc = new int[methodCount];
+        Map<String, IntList> classWarningLists = new HashMap<>();
+        Map<String, IntList> methodWarningLists = new HashMap<>();
+        for (int c = 0; c < classes.length; c++) {
+            ClassAnalysisResult classResult = classes[c];
+            packages.add(packageOf(classResult), c, classMethodStart[c], classMethodStart[c + 1]);
+            classLoc[c] = classResult.getLoc();
+            addWarnings(classWarningLists, classResult.getWarnings(), c);
+            int m = classMethodStart[c];
+            for (MethodAnalysisResult method : classResult.getMethods()) {
+                methods[m] = method;
+                methodClass[m] = c;
+                methodComplexity[m] = method.getCyclomaticComplexity();
+                methodLoc[m] = method.getLoc();
+                classComplexity[c] += method.getCyclomaticComplexity();
+                addWarnings(methodWarningLists, method.getWarnings(), m);
+                m++;
+            }
+        }
+        classColumns[Metric.COMPLEXITY.ordinal()] = new RankedColumn(classComplexity);
+        classColumns[Metric.LOC.ordinal()] = new RankedColumn(classLoc);
+        methodColumns[Metric.COMPLEXITY.ordinal()] = new RankedColumn(methodComplexity);
+        methodColumns[Metric.LOC.ordinal()] = new RankedColumn(methodLoc);
+        this.classWarnings = toPostings(classWarningLists);
+        this.methodWarnings = toPostings(methodWarningLists);
+
+        // Reverse call index: edges bucketed by target (counting sort), targets also findable by "Class.method"
+        this.callGraph = callGraph != null ? callGraph : new CallGraph();
+        int edgeCount = this.callGraph.edgeCount();
+        int[] edgeTarget = new int[edgeCount];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            edgeTarget[edge] = callTargets.intern(resolveTarget(this.callGraph.source(edge), this.callGraph.target(edge)));
+        }
+        this.targetEdgeStart = new int[callTargets.size() + 1];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            targetEdgeStart[edgeTarget[edge] + 1]++;
+        }
+        for (int t = 0; t < callTargets.size(); t++) {
+            targetEdgeStart[t + 1] += targetEdgeStart[t];
+        }
+        this.targetEdges = new int[edgeCount];
+        int[] fill = Arrays.copyOf(targetEdgeStart, callTargets.size());
+        for (int edge = 0; edge < edgeCount; edge++) {
+            targetEdges[fill[edgeTarget[edge]]++] = edge;
+        }
+        // Each target's edges in answer order, so a single target's top callers are a prefix
+        CallGraph graph = this.callGraph;
+        Comparator<Integer> mostCallSitesFirst = Comparator.comparingInt((Integer edge) -> -graph.callSites(edge))
+                                                           .thenComparing(graph::source);
+        Integer[] bucket = new Integer[0];
+        for (int t = 0; t < callTargets.size(); t++) {
+            int start = targetEdgeStart[t];
+            int size = targetEdgeStart[t + 1] - start;
+            if (size < 2) continue;
+            bucket = size <= bucket.length ? bucket : new Integer[size];
+            for (int i = 0; i < size; i++) bucket[i] = targetEdges[start + i];
+            Arrays.sort(bucket, 0, size, mostCallSitesFirst);
+            for (int i = 0; i < size; i++) targetEdges[start + i] = bucket[i];
+        }
+        Map<String, IntList> shortNames = new HashMap<>();
+        for (int t = 0; t < callTargets.size(); t++) {
+            shortNames.computeIfAbsent(shortName(callTargets.symbol(t)), k -> new IntList()).add(t);
+        }
+        this.targetsByShortName = toArrays(shortNames);
+    }
+
+    public static ResultIndex build(Collection<ClassAnalysisResult> classes, CallGraph callGraph) {
+        return new ResultIndex(classes, callGraph);
+    }
+
+    public static ResultIndex build(OverallAnalysisResult result) {
+        return new ResultIndex(result.getClasses(), result.getGraphEdges());
+    }
+
+    /** Reads a result file written by the analyzer, JSON or binary, and indexes it. */
+    public static ResultIndex load(Path resultFile) throws IOException {
+        List<ClassAnalysisResult> classes = new ArrayList<>();
+        CallGraph callGraph = new CallGraph();
+        ResultFileReader.read(resultFile, classes::add,
+                              (source, target, callSites) -> callGraph.addCalls(callGraph.intern(source), callGraph.intern(target), callSites));
+        return new ResultIndex(classes, callGraph);
+    }
+
+    public int getClassCount() { return classes.length; }
+
+    public int getMethodCount() { return methods.length; }
+
+    /** Matches of {@code query}, best first by its metric (ties in package and class order), at most its limit. */
+    public List<QueryHit> find(ResultQuery query) {
+        boolean classQuery = query.isClasses();
+        RankedColumn[] columns = classQuery ? classColumns : methodColumns;
+        int entityCount = classQuery ? classes.length : methods.length;
+        int limit = query.getLimit() > 0 ? query.getLimit() : Integer.MAX_VALUE;
+
+        int packageStart = 0;
+        int packageEnd = entityCount;
+        if (query.getPackagePrefix() != null && !query.getPackagePrefix().isEmpty()) {
+            PackageTrie.Node node = packages.find(query.getPackagePrefix());
+            if (node == null) return new ArrayList<>();
+            packageStart = classQuery ? node.classStart : node.methodStart;
+            packageEnd = classQuery ? node.classEnd : node.methodEnd;
+        }
+        int[] withWarning = null;
+        BitSet warned = null;
+        if (query.getWarning() != null) {
+            WarningPostings postings = (classQuery ? classWarnings : methodWarnings).get(warningType(query.getWarning()));
+            withWarning = postings != null ? postings.ids : NONE;
+            warned = postings != null ? postings.members : new BitSet();
+        }
+        int[] rangeStart = new int[METRICS.length];
+        int[] rangeEnd = new int[METRICS.length];
+        for (Metric metric : METRICS) {
+            RankedColumn column = columns[metric.ordinal()];
+            rangeStart[metric.ordinal()] = column.firstAtMost(query.getMaximum(metric));
+            rangeEnd[metric.ordinal()] = Math.max(rangeStart[metric.ordinal()], column.firstBelow(query.getMinimum(metric)));
+        }
+
+        // Smallest candidate set; the ranking metric's range wins ties since it needs no sort
+        Metric order = query.getOrderBy();
+        Metric scanned = order;
+        int candidates = rangeEnd[order.ordinal()] - rangeStart[order.ordinal()];
+        for (Metric metric : METRICS) {
+            int size = rangeEnd[metric.ordinal()] - rangeStart[metric.ordinal()];
+            if (size < candidates) {
+                scanned = metric;
+                candidates = size;
+            }
+        }
+        boolean scanPackage = packageEnd - packageStart < candidates;
+        if (scanPackage) candidates = packageEnd - packageStart;
+        boolean scanWarning = withWarning != null && withWarning.length < candidates;
+        if (scanWarning) candidates = withWarning.length;
+        int orderRange = rangeEnd[order.ordinal()] - rangeStart[order.ordinal()];
+        if (scanned != order || scanPackage || scanWarning) {
+            // Walking the ranked range still wins for top-K if about limit / selectivity entries need checking
+            long expectedWalk = limit == Integer.MAX_VALUE ? Long.MAX_VALUE : (long) limit * orderRange / Math.max(1, candidates);
+            if (expectedWalk < candidates) {
+                scanned = order;
+                scanPackage = false;
+                scanWarning = false;
+            }
+        }
+
+        List<QueryHit> hits = new ArrayList<>(Math.min(limit, 64));
+        if (!scanPackage && !scanWarning && scanned == order) {
+            RankedColumn column = columns[order.ordinal()];
+            for (int position = rangeStart[order.ordinal()]; position < rangeEnd[order.ordinal()] && hits.size() < limit; position++) {
+                int id = column.entity(position);
+                if (matches(id, query, columns, packageStart, packageEnd, warned)) {
+                    hits.add(hit(id, classQuery));
+                }
+            }
+            return hits;
+        }
+
+        long[] matched = new long[16];
+        int matchCount = 0;
+        RankedColumn orderColumn = columns[order.ordinal()];
+        int end = scanWarning ? withWarning.length : scanPackage ? packageEnd : rangeEnd[scanned.ordinal()];
+        for (int i = scanWarning ? 0 : scanPackage ? packageStart : rangeStart[scanned.ordinal()]; i < end; i++) {
+            int id = scanWarning ? withWarning[i] : scanPackage ? i : columns[scanned.ordinal()].entity(i);
+            if (matches(id, query, columns, packageStart, packageEnd, warned)) {
+                if (matchCount == matched.length) matched = Arrays.copyOf(matched, matchCount * 2);
+                matched[matchCount++] = RankedColumn.sortKey(orderColumn.value(id), id);
+            }
+        }
+        Arrays.sort(matched, 0, matchCount);
+        for (int i = 0; i < matchCount && hits.size() < limit; i++) {
+            hits.add(hit((int) matched[i], classQuery));
+        }
+        return hits;
+    }
+
+    /**
+     * Call graph edges into {@code method}, most call sites first. Targets match when they are equal, or
+     * when either side is written as {@code Class.method} (as unresolved calls are) and the last two parts
+     * agree; calls through {@code this.} count as calls into the caller's own class.
+     */
+    public List<CallerHit> callersOf(String method, int limit) {
+        int wanted = limit > 0 ? limit : Integer.MAX_VALUE;
+        boolean shortQuery = isShortName(method);
+        // Each target's edges are sorted already: merge them, taking the best head each time
+        PriorityQueue<int[]> heads = new PriorityQueue<>(this::compareHeads); // {target, position in targetEdges}
+        for (int target : targetsByShortName.getOrDefault(shortName(method), NONE)) {
+            String targetName = callTargets.symbol(target);
+            if (!targetName.equals(method) && !shortQuery && !isShortName(targetName)) continue;
+            if (targetEdgeStart[target] < targetEdgeStart[target + 1]) heads.add(new int[] {target, targetEdgeStart[target]});
+        }
+        List<CallerHit> callers = new ArrayList<>();
+        while (!heads.isEmpty() && callers.size() < wanted) {
+            int[] head = heads.poll();
+            int edge = targetEdges[head[1]];
+            callers.add(new CallerHit(callGraph.source(edge), callTargets.symbol(head[0]), callGraph.callSites(edge)));
+            if (++head[1] < targetEdgeStart[head[0] + 1]) heads.add(head);
+        }
+        return callers;
+    }
+
+    private int compareHeads(int[] a, int[] b) {
+        int edgeA = targetEdges[a[1]];
+        int edgeB = targetEdges[b[1]];
+        int comparison = Integer.compare(callGraph.callSites(edgeB), callGraph.callSites(edgeA));
+        if (comparison == 0) comparison = callGraph.source(edgeA).compareTo(callGraph.source(edgeB));
+        return comparison != 0 ? comparison : callTargets.symbol(a[0]).compareTo(callTargets.symbol(b[0]));
+    }
+
+    private boolean matches(int id, ResultQuery query, RankedColumn[] columns, int packageStart, int packageEnd,
+                            BitSet warned) {
+        if (id < packageStart || id >= packageEnd) return false;
+        for (Metric metric : METRICS) {
+            if (query.isBounded(metric)) {
+                int value = columns[metric.ordinal()].value(id);
+                if (value < query.getMinimum(metric) || value > query.getMaximum(metric)) return false;
+            }
+        }
+        return warned == null || warned.get(id);
+    }
+
+    private QueryHit hit(int id, boolean classQuery) {
+        if (classQuery) {
+            ClassAnalysisResult classResult = classes[id];
+            return new QueryHit(classResult.getClassName(), null, null,
+                                classColumns[Metric.COMPLEXITY.ordinal()].value(id), classResult.getLoc(), classResult.getWarnings());
+        }
+        MethodAnalysisResult method = methods[id];
+        return new QueryHit(classes[methodClass[id]].getClassName(), method.getMethodName(), method.getParameters(),
+                            method.getCyclomaticComplexity(), method.getLoc(), method.getWarnings());
+    }
+
+    private static String packageOf(ClassAnalysisResult classResult) {
+        return classResult.getPackageName() != null ? classResult.getPackageName() : "";
+    }
+
+    private static void addWarnings(Map<String, IntList> index, List<String> warnings, int id) {
+        if (warnings == null) return;
+        for (String warning : warnings) {
+            IntList ids = index.computeIfAbsent(warningType(warning), k -> new IntList());
+            if (ids.size == 0 || ids.values[ids.size - 1] != id) ids.add(id); // ids arrive in order
+        }
+    }
+
+    /** {@code "Long method (LOC > 40)"} and {@code "long method"} are both of type {@code "long method"}. */
+    static String warningType(String warning) {
+        int detail = warning.indexOf(" (");
+        return (detail >= 0 ? warning.substring(0, detail) : warning).trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String resolveTarget(String source, String target) {
+        if (target.startsWith("this.")) {
+            int lastDot = source.lastIndexOf('.');
+            if (lastDot > 0) return source.substring(0, lastDot) + target.substring(4);
+        }
+        return target;
+    }
+
+    /** The last two dot-separated parts of a method id, e.g. {@code "Objects.requireNonNull"}. */
+    private static String shortName(String methodId) {
+        int lastDot = methodId.lastIndexOf('.');
+        int previousDot = lastDot > 0 ? methodId.lastIndexOf('.', lastDot - 1) : -1;
+        return previousDot >= 0 ? methodId.substring(previousDot + 1) : methodId;
+    }
+
+    private static boolean isShortName(String methodId) {
+        int lastDot = methodId.lastIndexOf('.');
+        return lastDot <= 0 || methodId.lastIndexOf('.', lastDot - 1) < 0;
+    }
+
+    private static Map<String, WarningPostings> toPostings(Map<String, IntList> lists) {
+        Map<String, WarningPostings> postings = new HashMap<>(lists.size() * 2);
+        lists.forEach((key, list) -> postings.put(key, new WarningPostings(Arrays.copyOf(list.values, list.size))));
+        return postings;
+    }
+
+    private static Map<String, int[]> toArrays(Map<String, IntList> lists) {
+        Map<String, int[]> arrays = new HashMap<>(lists.size() * 2);
+        lists.forEach((key, list) -> arrays.put(key, Arrays.copyOf(list.values, list.size)));
+        return arrays;
+    }
+
+    /** Ids with one warning type, as a sorted list to scan and a set to test. */
+    private static final class WarningPostings {
+        final int[] ids;
+        final BitSet members = new BitSet();
+
+        WarningPostings(int[] ids) {
+            this.ids = ids;
+            for (int id : ids) members.set(id);
+        }
+    }
+
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.javainsight.analyzer.query;
+
+/**
+ * Filter and ranking of a {@link ResultIndex#find} query: methods (or classes) in a package subtree, with
+ * a warning, and with complexity and LOC in given ranges, most complex (or longest) first. Defaults match
+ * every method, most complex first, with no limit.
+ */
+public class ResultQuery {
+    private boolean classes; // rank classes instead of methods
+    private String packagePrefix; // package and its subpackages; null or "" for all
+    private String warning; // warning type such as "Long method", or a full warning text
+    private final int[] minimum = {Integer.MIN_VALUE, Integer.MIN_VALUE}; // by Metric ordinal
+    private final int[] maximum = {Integer.MAX_VALUE, Integer.MAX_VALUE};
+    private Metric orderBy = Metric.COMPLEXITY;
+    private int limit; // 0 or less: all matches
+
+    public boolean isClasses() { return classes; }
+    public ResultQuery setClasses(boolean classes) { this.classes = classes; return this; }
+
+    public String getPackagePrefix() { return packagePrefix; }
+    public ResultQuery setPackagePrefix(String packagePrefix) { this.packagePrefix = packagePrefix; return this; }
+
+    public String getWarning() { return warning; }
+    public ResultQuery setWarning(String warning) { this.warning = warning; return this; }
+
+    public int getMinimum(Metric metric) { return minimum[metric.ordinal()]; }
+    public ResultQuery setMinimum(Metric metric, int value) { minimum[metric.ordinal()] = value; return this; }
+
+    public int getMaximum(Metric metric) { return maximum[metric.ordinal()]; }
+    public ResultQuery setMaximum(Metric metric, int value) { maximum[metric.ordinal()] = value; return this; }
+
+    public Metric getOrderBy() { return orderBy; }
+    public ResultQuery setOrderBy(Metric orderBy) { this.orderBy = orderBy; return this; }
+
+    public int getLimit() { return limit; }
+    public ResultQuery setLimit(int limit) { this.limit = limit; return this; }
+
+    boolean isBounded(Metric metric) {
+        return minimum[metric.ordinal()] != Integer.MIN_VALUE || maximum[metric.ordinal()] != Integer.MAX_VALUE;
+    }
+}
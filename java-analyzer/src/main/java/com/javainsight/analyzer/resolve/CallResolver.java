@@ -0,0 +1,94 @@
+package com.javainsight.analyzer.resolve;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+import com.github.javaparser.symbolsolver.cache.NoCache;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
+import com.github.javaparser.symbolsolver.javaparsermodel.declarations.JavaParserMethodDeclaration;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+import com.javainsight.analyzer.source.JavaSource;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Resolves method calls and declarations of one job to qualified signatures such as
+ * {@code java.util.List.add(E)} or {@code com.acme.Order.total(int)}.
+ *
+ * <p>Types are solved against the job's own sources plus the JDK (by reflection), and every type lookup
+ * is shared by all files and threads of the job. Resolution stops once {@code budgetMillis} of resolving
+ * time (summed over threads) has been spent; from then on, and for anything that cannot be resolved,
+ * the methods return {@code null} and callers keep the unresolved name.
+ */
+public class CallResolver implements AutoCloseable {
+    private final TypeSolver typeSolver;
+    private final long budgetNanos;
+    private final AtomicLong spentNanos = new AtomicLong();
+    private final AtomicInteger resolvedCalls = new AtomicInteger();
+    private final AtomicInteger unresolvedCalls = new AtomicInteger();
+
+    /**
+     * @param parsers supplies a parser for the calling thread; parsers are not thread-safe
+     */
+    public CallResolver(List<? extends JavaSource> sources, Supplier<JavaParser> parsers, long budgetMillis) {
+        CombinedTypeSolver combined = new CombinedTypeSolver(
+                exception -> true, // a failing solver just means "not found here"
+                List.of(new ReflectionTypeSolver(true), new SourceTypeSolver(sources, parsers)),
+                NoCache.create()); // MemoizingTypeSolver caches, thread-safely
+        this.typeSolver = new MemoizingTypeSolver(combined);
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+
+    /** Returns the qualified signature of the method {@code call} invokes, or {@code null}. */
+    public String resolveCall(MethodCallExpr call) {
+        String signature = withinBudget(() -> {
+            SymbolReference<ResolvedMethodDeclaration> method = JavaParserFacade.get(typeSolver).solve(call);
+            return method.isSolved() ? method.getCorrespondingDeclaration().getQualifiedSignature() : null;
+        });
+        (signature != null ? resolvedCalls : unresolvedCalls).incrementAndGet();
+        return signature;
+    }
+
+    /** Returns the qualified signature of {@code method}, or {@code null}. */
+    public String resolveDeclaration(MethodDeclaration method) {
+        return withinBudget(() -> new JavaParserMethodDeclaration(method, typeSolver).getQualifiedSignature());
+    }
+
+    private String withinBudget(Supplier<String> resolution) {
+        if (isBudgetExhausted()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            return resolution.get();
+        } catch (RuntimeException | StackOverflowError e) {
+            return null; // unsolvable symbol or a symbol-solver limitation
+        } finally {
+            spentNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    public boolean isBudgetExhausted() { return spentNanos.get() >= budgetNanos; }
+    public int getResolvedCalls() { return resolvedCalls.get(); }
+    public int getUnresolvedCalls() { return unresolvedCalls.get(); }
+    public long getSpentMillis() { return TimeUnit.NANOSECONDS.toMillis(spentNanos.get()); }
+
+    /**
+     * Drops the symbol solver's per-type-solver facades, which otherwise keep every job's types reachable.
+     * Facades are stateless, so jobs still running simply create new ones.
+     */
+    @Override
+    public void close() {
+        synchronized (JavaParserFacade.class) { // the lock JavaParserFacade.get takes
+            JavaParserFacade.clearInstances();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.javainsight.analyzer.resolve;
+
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Root type solver of a job: remembers every lookup, solved or not, so each type name is solved once
+ * per job however many files and threads ask for it.
+ */
+class MemoizingTypeSolver implements TypeSolver {
+    private final TypeSolver delegate;
+    private final Map<String, SymbolReference<ResolvedReferenceTypeDeclaration>> lookups = new ConcurrentHashMap<>();
+
+    MemoizingTypeSolver(TypeSolver delegate) {
+        this.delegate = delegate;
+        delegate.setParent(this);
+    }
+
+    @Override
+    public TypeSolver getParent() { return null; }
+
+    @Override
+    public void setParent(TypeSolver parent) {
+        throw new UnsupportedOperationException("MemoizingTypeSolver is always the root solver.");
+    }
+
+    @Override
+    public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name) {
+        SymbolReference<ResolvedReferenceTypeDeclaration> known = lookups.get(name);
+        if (known != null) {
+            return known;
+        }
+        // Not computeIfAbsent: solving one type can look up others, which would recursively update the map
+        SymbolReference<ResolvedReferenceTypeDeclaration> solved = delegate.tryToSolveType(name);
+        known = lookups.putIfAbsent(name, solved);
+        return known != null ? known : solved;
+    }
+}
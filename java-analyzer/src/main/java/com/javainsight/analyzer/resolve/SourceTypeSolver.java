@@ -0,0 +1,96 @@
+package com.javainsight.analyzer.resolve;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.resolution.TypeSolver;
+import com.github.javaparser.resolution.declarations.ResolvedReferenceTypeDeclaration;
+import com.github.javaparser.resolution.model.SymbolReference;
+import com.github.javaparser.symbolsolver.javaparsermodel.JavaParserFacade;
+import com.javainsight.analyzer.source.JavaSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Solves types declared in the sources of one job, wherever they live (archive entries, files).
+ * Like {@code JavaParserTypeSolver}, a top-level type is looked up in the file named after it; files
+ * are parsed on first use, once per job, and may be shared by all analysis threads.
+ */
+class SourceTypeSolver implements TypeSolver {
+    private final Map<String, List<JavaSource>> sourcesByFileName = new HashMap<>(); // "Foo" -> .../Foo.java
+    private final Map<String, Optional<CompilationUnit>> parsedSources = new ConcurrentHashMap<>();
+    private final Supplier<JavaParser> parsers;
+    private TypeSolver parent;
+
+    SourceTypeSolver(List<? extends JavaSource> sources, Supplier<JavaParser> parsers) {
+        this.parsers = parsers;
+        for (JavaSource source : sources) {
+            String name = source.getName();
+            String fileName = name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')) + 1);
+            if (fileName.endsWith(".java")) {
+                fileName = fileName.substring(0, fileName.length() - ".java".length());
+            }
+            sourcesByFileName.computeIfAbsent(fileName, k -> new ArrayList<>(1)).add(source);
+        }
+    }
+
+    @Override
+    public TypeSolver getParent() { return parent; }
+
+    @Override
+    public void setParent(TypeSolver parent) {
+        if (this.parent != null) throw new IllegalStateException("This TypeSolver already has a parent.");
+        this.parent = parent;
+    }
+
+    @Override
+    public SymbolReference<ResolvedReferenceTypeDeclaration> tryToSolveType(String name) {
+        String[] parts = name.split("\\.");
+        // "a.b.C.D" is either top-level D in package a.b.C, or D nested in top-level C of package a.b, ...
+        for (int topLevel = parts.length - 1; topLevel >= 0; topLevel--) {
+            List<JavaSource> candidates = sourcesByFileName.get(parts[topLevel]);
+            if (candidates == null) continue;
+            String packageName = String.join(".", Arrays.asList(parts).subList(0, topLevel));
+            for (JavaSource candidate : candidates) {
+                CompilationUnit cu = parse(candidate);
+                if (cu == null || !packageName.equals(cu.getPackageDeclaration().map(pd -> pd.getNameAsString()).orElse(""))) {
+                    continue;
+                }
+                TypeDeclaration<?> type = findType(cu.getTypes(), parts, topLevel);
+                if (type != null) {
+                    return SymbolReference.solved(JavaParserFacade.get(getRoot()).getTypeDeclaration(type));
+                }
+            }
+        }
+        return SymbolReference.unsolved();
+    }
+
+    private static TypeDeclaration<?> findType(List<? extends BodyDeclaration<?>> members, String[] parts, int index) {
+        for (BodyDeclaration<?> member : members) {
+            if (member.isTypeDeclaration() && member.asTypeDeclaration().getNameAsString().equals(parts[index])) {
+                TypeDeclaration<?> type = member.asTypeDeclaration();
+                return index == parts.length - 1 ? type : findType(type.getMembers(), parts, index + 1);
+            }
+        }
+        return null;
+    }
+
+    private CompilationUnit parse(JavaSource source) {
+        return parsedSources.computeIfAbsent(source.getName(), name -> {
+            try {
+                ParseResult<CompilationUnit> result = parsers.get()
+                        .parse(new ByteArrayInputStream(source.readContent()), StandardCharsets.UTF_8);
+                return result.getResult();
+            } catch (IOException e) {
+                return Optional.empty(); // reported when the file itself is analyzed
+            }
+        }).orElse(null);
+    }
+}
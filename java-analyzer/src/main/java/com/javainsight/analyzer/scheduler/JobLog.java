@@ -0,0 +1,105 @@
+package com.javainsight.analyzer.scheduler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only record of job changes: one {@link JobRecord} JSON line per change, so a status update
+ * costs one short write however many jobs exist. The latest line of a job wins on replay.
+ *
+ * <p>The log is only rewritten when it is opened: superseded lines and jobs finished more than
+ * {@code retentionMillis} ago are dropped into a temp file that atomically replaces the log. A torn
+ * last line, left by a crash mid-write, is skipped.
+ */
+final class JobLog implements Closeable {
+    private final Path path;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, JobRecord> recovered;
+    private final Writer writer;
+
+    JobLog(Path path, long retentionMillis) throws IOException {
+        this.path = path;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.recovered = replay(retentionMillis);
+        compact();
+        this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /** The jobs of earlier runs, in submission order. */
+    List<JobRecord> recovered() {
+        return new ArrayList<>(recovered.values());
+    }
+
+    synchronized void append(JobRecord record) {
+        try {
+            writer.write(objectMapper.writeValueAsString(record));
+            writer.write('\n');
+            writer.flush();
+        } catch (IOException e) {
+            // The job goes on; only its recovery after a restart is at risk
+            System.err.println("Warning: cannot append job " + record.getId() + " to " + path + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    private Map<String, JobRecord> replay(long retentionMillis) throws IOException {
+        Map<String, JobRecord> records = new LinkedHashMap<>();
+        if (!Files.exists(path)) return records;
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                try {
+                    JobRecord record = objectMapper.readValue(line, JobRecord.class);
+                    if (record.getId() != null) records.put(record.getId(), record);
+                } catch (JsonProcessingException e) {
+                    skipped++;
+                }
+            }
+        }
+        if (skipped > 0) {
+            System.err.println("Warning: skipped " + skipped + " unreadable line(s) of job log " + path);
+        }
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        records.values().removeIf(record -> record.isFinished() && record.getFinishedAt() != null && record.getFinishedAt() < cutoff);
+        return records;
+    }
+
+    private void compact() throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (JobRecord record : recovered.values()) {
+                out.write(objectMapper.writeValueAsString(record));
+                out.write('\n');
+            }
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.javainsight.analyzer.scheduler;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * One job of the {@link JobScheduler}, as kept in memory, appended to the {@link JobLog} on every change
+ * and sent to clients. {@code status} moves from {@code queued} to {@code processing} to
+ * {@code completed} or {@code failed}; times are epoch milliseconds.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobRecord {
+    public static final String QUEUED = "queued";
+    public static final String PROCESSING = "processing";
+    public static final String COMPLETED = "completed";
+    public static final String FAILED = "failed";
+
+    private String id;
+    private String status;
+    private String zipFilePath;
+    private String outputPath;
+    private boolean stream;
+    private boolean compact;
+    private boolean metrics;
+    private String format; // null for JSON
+    private long archiveBytes;
+    private boolean large; // in the large-archive lane
+    private long submittedAt;
+    private Long startedAt;
+    private Long finishedAt;
+    private String error;
+    private JsonNode summary; // the ArchiveAnalysisSummary of a completed job
+
+    public JobRecord() {}
+
+    JobRecord copy() {
+        JobRecord copy = new JobRecord();
+        copy.id = id;
+        copy.status = status;
+        copy.zipFilePath = zipFilePath;
+        copy.outputPath = outputPath;
+        copy.stream = stream;
+        copy.compact = compact;
+        copy.metrics = metrics;
+        copy.format = format;
+        copy.archiveBytes = archiveBytes;
+        copy.large = large;
+        copy.submittedAt = submittedAt;
+        copy.startedAt = startedAt;
+        copy.finishedAt = finishedAt;
+        copy.error = error;
+        copy.summary = summary;
+        return copy;
+    }
+
+    boolean isFinished() {
+        return COMPLETED.equals(status) || FAILED.equals(status);
+    }
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getZipFilePath() { return zipFilePath; }
+    public void setZipFilePath(String zipFilePath) { this.zipFilePath = zipFilePath; }
+
+    public String getOutputPath() { return outputPath; }
+    public void setOutputPath(String outputPath) { this.outputPath = outputPath; }
+
+    public boolean isStream() { return stream; }
+    public void setStream(boolean stream) { this.stream = stream; }
+
+    public boolean isCompact() { return compact; }
+    public void setCompact(boolean compact) { this.compact = compact; }
+
+    public boolean isMetrics() { return metrics; }
+    public void setMetrics(boolean metrics) { this.metrics = metrics; }
+
+    public String getFormat() { return format; }
+    public void setFormat(String format) { this.format = format; }
+
+    public long getArchiveBytes() { return archiveBytes; }
+    public void setArchiveBytes(long archiveBytes) { this.archiveBytes = archiveBytes; }
+
+    public boolean isLarge() { return large; }
+    public void setLarge(boolean large) { this.large = large; }
+
+    public long getSubmittedAt() { return submittedAt; }
+    public void setSubmittedAt(long submittedAt) { this.submittedAt = submittedAt; }
+
+    public Long getStartedAt() { return startedAt; }
+    public void setStartedAt(Long startedAt) { this.startedAt = startedAt; }
+
+    public Long getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(Long finishedAt) { this.finishedAt = finishedAt; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public JsonNode getSummary() { return summary; }
+    public void setSummary(JsonNode summary) { this.summary = summary; }
+}
@@ -0,0 +1,249 @@
+package com.javainsight.analyzer.scheduler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javainsight.analyzer.ArchiveAnalysisSummary;
+import com.javainsight.analyzer.ArchiveAnalyzer;
+import com.javainsight.analyzer.OutputFormat;
+import com.javainsight.analyzer.OutputOptions;
+import com.javainsight.analyzer.cache.AnalysisCache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Queues analysis jobs and runs up to {@code concurrentJobs} of them at a time on a work-stealing pool
+ * through one shared {@link ArchiveAnalyzer}. Job state lives in memory; every change is appended to a
+ * {@link JobLog} and handed to the listener, so clients are told rather than having to poll.
+ *
+ * <p>Archives of {@code largeArchiveBytes} or more wait in a lane of their own. Small jobs go first, and
+ * large ones never hold every slot, so an upload of a few files is not stuck behind big ones; a large job
+ * that has waited {@link #LARGE_JOB_MAX_WAIT_MILLIS} goes ahead of the small ones, so it is not starved.
+ * With a single slot there is nothing to keep free: large jobs need it too, so small ones only go first.
+ *
+ * <p>Jobs left queued or processing by an earlier run are queued again by {@link #recover()}.
+ * {@link #close()} lets running jobs finish and leaves queued ones in the log for the next start.
+ */
+public class JobScheduler implements Closeable {
+    static final long LARGE_JOB_MAX_WAIT_MILLIS = 60_000;
+    private static final long FINISHED_JOB_RETENTION_MILLIS = 7 * 24 * 60 * 60 * 1000L;
+    private static final int CACHE_TRIM_INTERVAL_JOBS = 16;
+
+    private final ArchiveAnalyzer archiveAnalyzer;
+    private final AnalysisCache cache;
+    private final int concurrentJobs;
+    private final int largeJobSlots;
+    private final long largeArchiveBytes;
+    private final JobLog log;
+    private final Consumer<JobRecord> listener;
+    private final ForkJoinPool jobPool;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Guarded by this
+    private final Map<String, JobRecord> jobs = new HashMap<>();
+    private final Deque<JobRecord> smallJobs = new ArrayDeque<>();
+    private final Deque<JobRecord> largeJobs = new ArrayDeque<>();
+    private int running;
+    private int runningLarge;
+    private int finishedJobs;
+    private boolean started;
+    private boolean closing;
+
+    /**
+     * @param listener receives a copy of a job after every change, in the order of the changes; called
+     *                 with the scheduler locked, so it must not block for long
+     */
+    public JobScheduler(ArchiveAnalyzer archiveAnalyzer, AnalysisCache cache, int concurrentJobs, long largeArchiveBytes,
+                        Path logPath, Consumer<JobRecord> listener) throws IOException {
+        this.archiveAnalyzer = archiveAnalyzer;
+        this.cache = cache;
+        this.concurrentJobs = Math.max(1, concurrentJobs);
+        this.largeJobSlots = Math.max(1, this.concurrentJobs - 1); // with one slot, large jobs share it
+        this.largeArchiveBytes = largeArchiveBytes;
+        this.log = new JobLog(logPath, FINISHED_JOB_RETENTION_MILLIS);
+        this.listener = listener;
+        this.jobPool = new ForkJoinPool(this.concurrentJobs, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    }
+
+    /** Takes back the jobs of earlier runs, queueing the unfinished ones again; returns every known job. */
+    public synchronized List<JobRecord> recover() {
+        List<JobRecord> known = new ArrayList<>();
+        for (JobRecord record : log.recovered()) {
+            jobs.put(record.getId(), record);
+            if (!record.isFinished()) {
+                record.setStatus(JobRecord.QUEUED);
+                record.setStartedAt(null);
+                log.append(record);
+                (record.isLarge() ? largeJobs : smallJobs).add(record);
+            }
+            known.add(record.copy());
+        }
+        return known;
+    }
+
+    /** Starts running queued jobs; until then jobs are only queued. */
+    public synchronized void start() {
+        started = true;
+        dispatch();
+    }
+
+    /**
+     * Queues a job; the record must carry an id, zip and output path. A job that cannot run is recorded
+     * as failed right away. Returns the job as queued (or failed).
+     */
+    public synchronized JobRecord submit(JobRecord request) {
+        JobRecord record = request.copy();
+        record.setSubmittedAt(System.currentTimeMillis());
+        record.setStartedAt(null);
+        record.setFinishedAt(null);
+        record.setSummary(null);
+        record.setError(null);
+        JobRecord existing = record.getId() != null ? jobs.get(record.getId()) : null;
+        if (existing != null && !existing.isFinished()) {
+            // A resubmitted job keeps its place; finished ones may be run again
+            listener.accept(existing.copy());
+            return existing.copy();
+        }
+        String problem = validate(record);
+        if (problem != null) {
+            record.setStatus(JobRecord.FAILED);
+            record.setError(problem);
+            record.setFinishedAt(record.getSubmittedAt());
+        } else {
+            record.setStatus(JobRecord.QUEUED);
+            record.setArchiveBytes(archiveSize(record.getZipFilePath()));
+            record.setLarge(record.getArchiveBytes() >= largeArchiveBytes);
+            (record.isLarge() ? largeJobs : smallJobs).add(record);
+        }
+        if (record.getId() != null) {
+            jobs.put(record.getId(), record);
+            changed(record);
+        }
+        dispatch();
+        return record.copy();
+    }
+
+    public synchronized JobRecord status(String id) {
+        JobRecord record = jobs.get(id);
+        return record != null ? record.copy() : null;
+    }
+
+    /** Starts no more jobs, waits for the running ones and closes the log. */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closing = true;
+        }
+        jobPool.shutdown();
+        try {
+            jobPool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.close();
+        if (cache != null) {
+            cache.trim();
+        }
+    }
+
+    private String validate(JobRecord record) {
+        if (record.getId() == null) return "A job id is required.";
+        if (record.getZipFilePath() == null || record.getOutputPath() == null) return "Both zipFilePath and outputPath are required.";
+        if (ArchiveAnalyzer.isStdout(record.getOutputPath())) return "outputPath must be a file.";
+        if (record.getFormat() != null && OutputFormat.fromName(record.getFormat()) == null) return "Unknown format: " + record.getFormat();
+        return null;
+    }
+
+    private void dispatch() {
+        while (started && !closing && running < concurrentJobs) {
+            JobRecord next = nextJob();
+            if (next == null) return;
+            running++;
+            if (next.isLarge()) runningLarge++;
+            next.setStatus(JobRecord.PROCESSING);
+            next.setStartedAt(System.currentTimeMillis());
+            changed(next);
+            jobPool.execute(() -> runJob(next));
+        }
+    }
+
+    private JobRecord nextJob() {
+        boolean largeMayStart = !largeJobs.isEmpty() && runningLarge < largeJobSlots;
+        if (largeMayStart && System.currentTimeMillis() - largeJobs.peek().getSubmittedAt() >= LARGE_JOB_MAX_WAIT_MILLIS) {
+            return largeJobs.poll();
+        }
+        if (!smallJobs.isEmpty()) return smallJobs.poll();
+        return largeMayStart ? largeJobs.poll() : null;
+    }
+
+    private void runJob(JobRecord record) {
+        OutputOptions outputOptions = new OutputOptions()
+                .setStream(record.isStream())
+                .setCompact(record.isCompact())
+                .setMetrics(record.isMetrics());
+        if (record.getFormat() != null) {
+            outputOptions.setFormat(OutputFormat.fromName(record.getFormat()));
+        }
+        ArchiveAnalysisSummary summary = null;
+        String error = "Analysis did not complete.";
+        try {
+            summary = archiveAnalyzer.analyze(record.getZipFilePath(), record.getOutputPath(), outputOptions);
+        } catch (Exception e) {
+            System.err.println("Job " + record.getId() + " failed: " + e);
+            error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        } catch (OutOfMemoryError e) {
+            // The job's results are unreachable now; let the jobs queued behind it run
+            System.err.println("Job " + record.getId() + " failed: " + e);
+            error = "OutOfMemoryError: " + e.getMessage();
+        } finally {
+            // Any other Error still has to give back the job's slot, or the queue stalls for good
+            finish(record, summary, error);
+        }
+    }
+
+    private void finish(JobRecord record, ArchiveAnalysisSummary summary, String error) {
+        boolean trimCache;
+        synchronized (this) {
+            running--;
+            if (record.isLarge()) runningLarge--;
+            record.setFinishedAt(System.currentTimeMillis());
+            if (summary != null) {
+                record.setStatus(JobRecord.COMPLETED);
+                record.setSummary(objectMapper.valueToTree(summary));
+            } else {
+                record.setStatus(JobRecord.FAILED);
+                record.setError(error);
+            }
+            changed(record);
+            trimCache = ++finishedJobs % CACHE_TRIM_INTERVAL_JOBS == 0;
+            dispatch();
+        }
+        if (cache != null && trimCache) {
+            cache.trim();
+        }
+    }
+
+    private void changed(JobRecord record) {
+        log.append(record);
+        listener.accept(record.copy());
+    }
+
+    private static long archiveSize(String zipFilePath) {
+        try {
+            return Files.size(Paths.get(zipFilePath));
+        } catch (IOException | RuntimeException e) {
+            return 0; // the analysis reports the problem
+        }
+    }
+}
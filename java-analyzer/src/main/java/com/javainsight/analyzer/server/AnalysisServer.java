@@ -0,0 +1,176 @@
+package com.javainsight.analyzer.server;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.javainsight.analyzer.ArchiveAnalysisSummary;
+import com.javainsight.analyzer.ArchiveAnalyzer;
+import com.javainsight.analyzer.JavaFileAnalyzer;
+import com.javainsight.analyzer.OutputFormat;
+import com.javainsight.analyzer.OutputOptions;
+import com.javainsight.analyzer.cache.AnalysisCache;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.javainsight.analyzer.server.ProtocolRequests.text;
+
+/**
+ * Long-running analyzer that keeps one warm {@link JavaFileAnalyzer} (parsers, loaded standard structures,
+ * JIT-compiled code) and serves many jobs over a line-delimited JSON protocol, up to
+ * {@code concurrentJobs} at a time.
+ *
+ * <p>Every request and response is one JSON object on one line. Requests:
+ * <pre>
+ * {"id": "42", "zipFilePath": "/uploads/a.zip", "outputPath": "/results/42.json", "stream": true, "compact": false, "metrics": true,
+ *  "format": "json"}
+ * {"id": "p1", "op": "ping"}
+ * {"op": "shutdown"}
+ * </pre>
+ * A JSON result is encoded by its {@code outputPath}'s extension ({@code .json.gz}, {@code .json.zst}, {@code .smile},
+ * {@code .cbor}; see {@link com.javainsight.analyzer.output.ResultCodec}).
+ * Responses (in completion order, matched by {@code id}):
+ * <pre>
+ * {"status": "ready", "analyzerVersion": "1"}                      (once, at startup)
+ * {"id": "42", "status": "completed", "summary": {...ArchiveAnalysisSummary...}}
+ * {"id": "42", "status": "failed", "error": "..."}
+ * {"id": "p1", "status": "pong"}
+ * </pre>
+ * End of input behaves like {@code shutdown}: running jobs are finished before the server returns.
+ */
+public class AnalysisServer {
+    // Walking the cache directory for eviction is not free; do it every few jobs rather than after each
+    private static final int CACHE_TRIM_INTERVAL_JOBS = 16;
+
+    private final ArchiveAnalyzer archiveAnalyzer;
+    private final AnalysisCache cache;
+    private final int concurrentJobs;
+    private final ObjectMapper protocolMapper = new ObjectMapper();
+    private final AtomicInteger finishedJobs = new AtomicInteger();
+
+    public AnalysisServer(ArchiveAnalyzer archiveAnalyzer, AnalysisCache cache, int concurrentJobs) {
+        this.archiveAnalyzer = archiveAnalyzer;
+        this.cache = cache;
+        this.concurrentJobs = Math.max(1, concurrentJobs);
+    }
+
+    public void serve(InputStream in, PrintStream out) throws IOException {
+        ExecutorService jobPool = Executors.newFixedThreadPool(concurrentJobs, runnable -> {
+            Thread thread = new Thread(runnable, "java-analyzer-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ObjectNode ready = protocolMapper.createObjectNode();
+        ready.put("status", "ready");
+        ready.put("analyzerVersion", JavaFileAnalyzer.ANALYZER_VERSION);
+        respond(out, ready);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                JsonNode request;
+                try {
+                    request = protocolMapper.readTree(line);
+                } catch (JsonProcessingException e) {
+                    respond(out, failure(null, "Malformed request: " + e.getOriginalMessage()));
+                    continue;
+                }
+                String id = text(request, "id", null);
+                String op = text(request, "op", "analyze");
+                if ("shutdown".equals(op)) {
+                    break;
+                } else if ("ping".equals(op)) {
+                    ObjectNode pong = protocolMapper.createObjectNode();
+                    pong.put("id", id);
+                    pong.put("status", "pong");
+                    respond(out, pong);
+                } else if ("analyze".equals(op)) {
+                    jobPool.execute(() -> respond(out, runJob(id, request)));
+                } else {
+                    respond(out, failure(id, "Unknown op: " + op));
+                }
+            }
+        } finally {
+            jobPool.shutdown();
+            try {
+                jobPool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (cache != null) {
+                cache.trim();
+            }
+        }
+    }
+
+    private ObjectNode runJob(String id, JsonNode request) {
+        String zipFilePath = text(request, "zipFilePath", null);
+        String outputPath = text(request, "outputPath", null);
+        if (zipFilePath == null || outputPath == null) {
+            return failure(id, "Both zipFilePath and outputPath are required.");
+        }
+        if (ArchiveAnalyzer.isStdout(outputPath)) {
+            return failure(id, "stdout is reserved for the protocol; outputPath must be a file.");
+        }
+        OutputOptions outputOptions = new OutputOptions()
+                .setStream(request.path("stream").asBoolean(false))
+                .setCompact(request.path("compact").asBoolean(false))
+                .setMetrics(request.path("metrics").asBoolean(false));
+        OutputFormat format = OutputFormat.fromName(text(request, "format", "json"));
+        if (format == null) {
+            return failure(id, "Unknown format: " + request.path("format").asText());
+        }
+        outputOptions.setFormat(format);
+        try {
+            ArchiveAnalysisSummary summary = archiveAnalyzer.analyze(zipFilePath, outputPath, outputOptions);
+            ObjectNode response = protocolMapper.createObjectNode();
+            response.put("id", id);
+            response.put("status", "completed");
+            response.set("summary", protocolMapper.valueToTree(summary));
+            return response;
+        } catch (Exception e) {
+            System.err.println("Job " + id + " failed: " + e);
+            return failure(id, e.getClass().getSimpleName() + ": " + e.getMessage());
+        } catch (Error e) {
+            // OutOfMemoryError, or a StackOverflowError on a deeply nested file: the job's results are gone, but
+            // its client still waits for an answer, and the server can go on with the other jobs
+            System.err.println("Job " + id + " failed: " + e);
+            return failure(id, e.getClass().getSimpleName() + ": " + e.getMessage());
+        } finally {
+            if (cache != null && finishedJobs.incrementAndGet() % CACHE_TRIM_INTERVAL_JOBS == 0) {
+                cache.trim();
+            }
+        }
+    }
+
+    private ObjectNode failure(String id, String error) {
+        ObjectNode response = protocolMapper.createObjectNode();
+        response.put("id", id);
+        response.put("status", "failed");
+        response.put("error", error);
+        return response;
+    }
+
+    private void respond(PrintStream out, ObjectNode message) {
+        String line;
+        try {
+            line = protocolMapper.writeValueAsString(message);
+        } catch (IOException e) {
+            line = "{\"status\":\"failed\",\"error\":\"Could not encode response\"}";
+        }
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+}
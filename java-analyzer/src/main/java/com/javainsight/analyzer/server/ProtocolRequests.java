@@ -0,0 +1,16 @@
+package com.javainsight.analyzer.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Field access shared by the line-delimited JSON servers' request handling.
+ */
+final class ProtocolRequests {
+    private ProtocolRequests() {}
+
+    /** The field as text ({@code 42} reads as {@code "42"}), or {@code defaultValue} if it is missing or null. */
+    static String text(JsonNode request, String field, String defaultValue) {
+        JsonNode value = request.get(field);
+        return value != null && !value.isNull() ? value.asText() : defaultValue;
+    }
+}
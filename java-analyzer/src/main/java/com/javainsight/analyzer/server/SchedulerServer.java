@@ -0,0 +1,147 @@
+package com.javainsight.analyzer.server;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.javainsight.analyzer.ArchiveAnalyzer;
+import com.javainsight.analyzer.JavaFileAnalyzer;
+import com.javainsight.analyzer.cache.AnalysisCache;
+import com.javainsight.analyzer.scheduler.JobRecord;
+import com.javainsight.analyzer.scheduler.JobScheduler;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static com.javainsight.analyzer.server.ProtocolRequests.text;
+
+/**
+ * Line-delimited JSON front end of a {@link JobScheduler}: clients submit jobs and are sent every status
+ * change, instead of queueing jobs in files and polling for them.
+ *
+ * <p>Requests:
+ * <pre>
+ * {"op": "submit", "id": "42", "zipFilePath": "/uploads/a.zip", "outputPath": "/results/42.json", "stream": true,
+ *  "compact": false, "metrics": true, "format": "json"}
+ * {"op": "status", "id": "42"}
+ * {"id": "p1", "op": "ping"}
+ * {"op": "shutdown"}
+ * </pre>
+ * A JSON result is encoded by its {@code outputPath}'s extension ({@code .json.gz}, {@code .json.zst}, {@code .smile},
+ * {@code .cbor}; see {@link com.javainsight.analyzer.output.ResultCodec}).
+ * Messages (job messages are {@link JobRecord}s, sent on every change and in answer to {@code status}):
+ * <pre>
+ * {"status": "ready", "analyzerVersion": "1", "jobs": [...]}      (once, with the jobs of earlier runs)
+ * {"id": "42", "status": "queued", "large": false, "submittedAt": ..., ...}
+ * {"id": "42", "status": "processing", "startedAt": ..., ...}
+ * {"id": "42", "status": "completed", "finishedAt": ..., "summary": {...ArchiveAnalysisSummary...}, ...}
+ * {"id": "42", "status": "failed", "error": "...", ...}
+ * {"id": "43", "status": "unknown"}                                   (status of a job never submitted)
+ * {"id": "p1", "status": "pong"}
+ * </pre>
+ * End of input behaves like {@code shutdown}: running jobs are finished, queued ones stay in the job log
+ * and start again with the next server.
+ */
+public class SchedulerServer {
+    private final ArchiveAnalyzer archiveAnalyzer;
+    private final AnalysisCache cache;
+    private final int concurrentJobs;
+    private final long largeArchiveBytes;
+    private final Path jobLogPath;
+    private final ObjectMapper protocolMapper = new ObjectMapper();
+
+    public SchedulerServer(ArchiveAnalyzer archiveAnalyzer, AnalysisCache cache, int concurrentJobs, long largeArchiveBytes,
+                           Path jobLogPath) {
+        this.archiveAnalyzer = archiveAnalyzer;
+        this.cache = cache;
+        this.concurrentJobs = concurrentJobs;
+        this.largeArchiveBytes = largeArchiveBytes;
+        this.jobLogPath = jobLogPath;
+    }
+
+    public void serve(InputStream in, PrintStream out) throws IOException {
+        try (JobScheduler scheduler = new JobScheduler(archiveAnalyzer, cache, concurrentJobs, largeArchiveBytes, jobLogPath,
+                                                       record -> respond(out, protocolMapper.valueToTree(record)));
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            ObjectNode ready = protocolMapper.createObjectNode();
+            ready.put("status", "ready");
+            ready.put("analyzerVersion", JavaFileAnalyzer.ANALYZER_VERSION);
+            ready.set("jobs", protocolMapper.valueToTree(scheduler.recover()));
+            respond(out, ready);
+            scheduler.start();
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                JsonNode request;
+                try {
+                    request = protocolMapper.readTree(line);
+                } catch (JsonProcessingException e) {
+                    respond(out, failure(null, "Malformed request: " + e.getOriginalMessage()));
+                    continue;
+                }
+                String id = text(request, "id", null);
+                String op = text(request, "op", "submit");
+                if ("shutdown".equals(op)) {
+                    break;
+                } else if ("ping".equals(op)) {
+                    ObjectNode pong = protocolMapper.createObjectNode();
+                    pong.put("id", id);
+                    pong.put("status", "pong");
+                    respond(out, pong);
+                } else if ("status".equals(op)) {
+                    JobRecord record = scheduler.status(id);
+                    if (record != null) {
+                        respond(out, protocolMapper.valueToTree(record));
+                    } else {
+                        ObjectNode unknown = protocolMapper.createObjectNode();
+                        unknown.put("id", id);
+                        unknown.put("status", "unknown");
+                        respond(out, unknown);
+                    }
+                } else if ("submit".equals(op)) {
+                    JobRecord job;
+                    try {
+                        job = protocolMapper.treeToValue(request, JobRecord.class);
+                    } catch (JsonProcessingException e) {
+                        respond(out, failure(id, "Malformed job: " + e.getOriginalMessage()));
+                        continue;
+                    }
+                    if (id == null) {
+                        respond(out, failure(null, "A job id is required."));
+                        continue;
+                    }
+                    scheduler.submit(job); // answered by the job's status messages
+                } else {
+                    respond(out, failure(id, "Unknown op: " + op));
+                }
+            }
+        }
+    }
+
+    private ObjectNode failure(String id, String error) {
+        ObjectNode response = protocolMapper.createObjectNode();
+        response.put("id", id);
+        response.put("status", "failed");
+        response.put("error", error);
+        return response;
+    }
+
+    private void respond(PrintStream out, JsonNode message) {
+        String line;
+        try {
+            line = protocolMapper.writeValueAsString(message);
+        } catch (IOException e) {
+            line = "{\"status\":\"failed\",\"error\":\"Could not encode response\"}";
+        }
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+}
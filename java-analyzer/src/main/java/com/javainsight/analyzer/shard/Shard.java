@@ -0,0 +1,42 @@
+package com.javainsight.analyzer.shard;
+
+import com.javainsight.analyzer.source.JavaSource;
+
+import java.util.List;
+
+/**
+ * Entries of an archive that one worker process analyzes, in archive order. A shard that failed is
+ * retried as its two halves, named after it: shard {@code 3} becomes {@code 3.1} and {@code 3.2}.
+ */
+final class Shard {
+    private final String id;
+    private final List<JavaSource> sources;
+    private final long bytes;
+
+    Shard(String id, List<JavaSource> sources) {
+        this.id = id;
+        this.sources = sources;
+        long total = 0;
+        for (JavaSource source : sources) total += ShardPlanner.weight(source);
+        this.bytes = total;
+    }
+
+    String getId() { return id; }
+    List<JavaSource> getSources() { return sources; }
+    long getBytes() { return bytes; }
+
+    boolean canSplit() { return sources.size() > 1; }
+
+    Shard[] split() {
+        int middle = sources.size() / 2;
+        return new Shard[] {
+                new Shard(id + ".1", sources.subList(0, middle)),
+                new Shard(id + ".2", sources.subList(middle, sources.size()))
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "shard " + id + " (" + sources.size() + " files, " + bytes / 1024 + " KB)";
+    }
+}
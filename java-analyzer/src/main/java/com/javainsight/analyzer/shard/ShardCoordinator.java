@@ -0,0 +1,321 @@
+package com.javainsight.analyzer.shard;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javainsight.analyzer.FileAnalysisResult;
+import com.javainsight.analyzer.FileAnalysisSink;
+import com.javainsight.analyzer.Main;
+import com.javainsight.analyzer.binary.BinaryResultReader;
+import com.javainsight.analyzer.clone.MethodFingerprint;
+import com.javainsight.analyzer.graph.CallGraph;
+import com.javainsight.analyzer.model.ClassAnalysisResult;
+import com.javainsight.analyzer.source.JavaSource;
+import com.javainsight.analyzer.source.ZipArchiveSources;
+import com.javainsight.analyzer.utils.FileUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Analyzes one archive in several local worker processes, for archives whose analysis does not fit one
+ * JVM's heap. The archive's .java entries are divided into shards ({@link ShardPlanner}); up to
+ * {@code concurrentWorkers} shards run at a time, each as {@code java -cp <this class path> Main
+ * --shard-worker ...} ({@link ShardWorker}) writing a binary result into a temporary directory.
+ *
+ * <p>A worker that exits with an error, runs out of heap (workers exit on {@code OutOfMemoryError}) or
+ * leaves an unreadable result is retried as the two halves of its shard, up to {@code retries} times
+ * over, so a file too big for the worker heap only costs the smallest piece it ends up in. A shard
+ * that still fails is reported as a processing error and its files are missing from the result.
+ *
+ * <p>Results are merged into the caller's sink in shard order as the shards finish, one class at a time,
+ * so the coordinator holds no more than a streamed analysis does: classes are deduplicated by fully
+ * qualified name (the first one merged is kept), call graph edges are merged with their call sites
+ * summed, and processing errors are concatenated. The summary, dependency report and clone groups are
+ * computed by the sink from the merged classes and fingerprints, exactly as for a single process.
+ * Each worker only sees its own shard, so with {@code --resolve-calls} calls into other shards stay
+ * unresolved; {@link ShardStrategy#PACKAGE} keeps at least calls within a package resolvable.
+ */
+public class ShardCoordinator {
+    public static final int DEFAULT_RETRIES = 2;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final CallGraph NO_EDGES = new CallGraph(); // never written to
+
+    private final List<String> workerOptions;
+    private final int shardCount;
+    private final int concurrentWorkers;
+    private ShardStrategy strategy = ShardStrategy.PACKAGE;
+    private int retries = DEFAULT_RETRIES;
+    private int workerHeapMb; // 0: the JVM's default maximum heap
+
+    /** {@code workerOptions} are the analyzer options every worker is started with, e.g. {@code --threads 2}. */
+    public ShardCoordinator(List<String> workerOptions, int shardCount, int concurrentWorkers) {
+        this.workerOptions = List.copyOf(workerOptions);
+        this.shardCount = Math.max(1, shardCount);
+        this.concurrentWorkers = Math.max(1, concurrentWorkers);
+    }
+
+    public ShardCoordinator setStrategy(ShardStrategy strategy) { this.strategy = strategy; return this; }
+    public ShardCoordinator setRetries(int retries) { this.retries = Math.max(0, retries); return this; }
+    public ShardCoordinator setWorkerHeapMb(int workerHeapMb) { this.workerHeapMb = workerHeapMb; return this; }
+
+    /** Analyzes the archive and merges the shard results into {@code out}, which is not closed. */
+    public ShardReport run(String zipFilePath, FileAnalysisSink out) throws IOException {
+        long startNanos = System.nanoTime();
+        ShardReport report = new ShardReport();
+        AtomicInteger workerRuns = new AtomicInteger();
+        Path workDirectory = Files.createTempDirectory("java-analyzer-shards");
+        ExecutorService workerPool = Executors.newFixedThreadPool(concurrentWorkers, runnable -> {
+            Thread thread = new Thread(runnable, "java-analyzer-shard");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (ZipArchiveSources archive = new ZipArchiveSources(zipFilePath)) {
+            List<JavaSource> sources = archive.getSources();
+            report.setFiles(sources.size());
+            if (sources.isEmpty()) {
+                System.err.println("No .java files found in the ZIP archive: " + zipFilePath);
+                FileAnalysisResult empty = new FileAnalysisResult(zipFilePath);
+                empty.addError("No .java files found in ZIP.");
+                out.accept(empty);
+                return report;
+            }
+
+            List<Shard> shards = ShardPlanner.plan(sources, shardCount, strategy);
+            report.setShards(shards.size());
+            Context context = new Context(zipFilePath, workDirectory, workerPool, workerRuns);
+            List<CompletableFuture<List<WorkerRun>>> outcomes = new ArrayList<>(shards.size());
+            for (Shard shard : shards) {
+                outcomes.add(schedule(shard, 0, context));
+            }
+
+            Set<String> classNames = new HashSet<>();
+            for (CompletableFuture<List<WorkerRun>> outcome : outcomes) {
+                for (WorkerRun run : join(outcome)) {
+                    if (run.error != null) {
+                        report.setFailedShards(report.getFailedShards() + 1);
+                        report.setFailedFiles(report.getFailedFiles() + run.shard.getSources().size());
+                        FileAnalysisResult failure = new FileAnalysisResult("shard " + run.shard.getId());
+                        failure.addError("Shard " + run.shard.getId() + " (" + run.shard.getSources().size() + " files, first "
+                                         + run.shard.getSources().get(0).getName() + ") failed after " + (run.retry + 1)
+                                         + " attempts: " + run.error);
+                        out.accept(failure);
+                    } else {
+                        merge(run, out, classNames, report);
+                    }
+                    run.deleteFiles();
+                }
+            }
+            report.setClasses(classNames.size());
+            return report;
+        } finally {
+            workerPool.shutdownNow(); // interrupts workers still running after a failed merge; they are destroyed
+            report.setWorkerRuns(workerRuns.get());
+            report.setWallMillis((System.nanoTime() - startNanos) / 1_000_000);
+            try {
+                FileUtils.deleteDirectory(workDirectory);
+            } catch (IOException e) {
+                System.err.println("Warning: could not delete shard directory " + workDirectory + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /** Runs {@code shard}; if it fails and retries are left, runs its halves instead (or itself, for one file). */
+    private CompletableFuture<List<WorkerRun>> schedule(Shard shard, int retry, Context context) {
+        return CompletableFuture.supplyAsync(() -> runWorker(shard, retry, context), context.workerPool)
+                .thenCompose(run -> {
+                    if (run.error == null || retry >= retries) {
+                        return CompletableFuture.completedFuture(List.of(run));
+                    }
+                    run.deleteFiles();
+                    System.err.println("Retrying " + shard + (shard.canSplit() ? " as two halves" : "") + " after: " + run.error);
+                    if (!shard.canSplit()) {
+                        return schedule(shard, retry + 1, context);
+                    }
+                    Shard[] halves = shard.split();
+                    return schedule(halves[0], retry + 1, context).thenCombine(schedule(halves[1], retry + 1, context), (first, second) -> {
+                        List<WorkerRun> runs = new ArrayList<>(first);
+                        runs.addAll(second);
+                        return runs;
+                    });
+                });
+    }
+
+    private WorkerRun runWorker(Shard shard, int retry, Context context) {
+        String baseName = "shard-" + shard.getId() + "-" + retry;
+        Path entryList = context.workDirectory.resolve(baseName + ".entries");
+        Path resultFile = context.workDirectory.resolve(baseName + ".bin");
+        Path log = context.workDirectory.resolve(baseName + ".log");
+        WorkerRun run = new WorkerRun(shard, retry, entryList, resultFile, log);
+        long startNanos = System.nanoTime();
+        try {
+            List<String> names = new ArrayList<>(shard.getSources().size());
+            for (JavaSource source : shard.getSources()) names.add(source.getName());
+            Files.write(entryList, names, StandardCharsets.UTF_8);
+            Process process = new ProcessBuilder(command(entryList, context.zipFilePath, resultFile))
+                    .redirectErrorStream(true) // the JVM reports running out of heap on stdout
+                    .redirectOutput(log.toFile())
+                    .start();
+            context.workerRuns.incrementAndGet();
+            int exitCode;
+            try {
+                exitCode = process.waitFor();
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+                run.error = "interrupted";
+                return run;
+            }
+            if (exitCode != 0) {
+                run.error = "exit code " + exitCode + lastLine(log);
+            } else {
+                BinaryResultReader.open(resultFile).close(); // rejects a missing or unfinished result
+            }
+        } catch (IOException e) {
+            run.error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+        System.err.println("[" + shard.getId() + "] " + (run.error == null ? "completed" : "failed") + ": " + shard + " in "
+                           + (System.nanoTime() - startNanos) / 1_000_000 + " ms");
+        return run;
+    }
+
+    private List<String> command(Path entryList, String zipFilePath, Path resultFile) {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (workerHeapMb > 0) command.add("-Xmx" + workerHeapMb + "m");
+        command.add("-XX:+ExitOnOutOfMemoryError"); // rather than limp on with whatever survived
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(Main.class.getName());
+        command.add("--shard-worker");
+        command.add(entryList.toString());
+        command.addAll(workerOptions);
+        command.add(zipFilePath);
+        command.add(resultFile.toString());
+        return command;
+    }
+
+    private static void merge(WorkerRun run, FileAnalysisSink out, Set<String> classNames, ShardReport report) throws IOException {
+        String sourceName = "shard " + run.shard.getId();
+        try (BinaryResultReader reader = BinaryResultReader.open(run.resultFile)) {
+            for (int ordinal = 0; ordinal < reader.getClassCount(); ordinal++) {
+                ClassAnalysisResult classResult = reader.readClass(ordinal);
+                FileAnalysisResult part = new FileAnalysisResult(sourceName, NO_EDGES);
+                if (classNames.add(classResult.getClassName())) {
+                    part.addClass(classResult);
+                } else {
+                    report.setDuplicateClasses(report.getDuplicateClasses() + 1);
+                    part.addError("Duplicate class " + classResult.getClassName() + " in " + sourceName + " skipped; the first one was kept");
+                }
+                out.accept(part);
+            }
+            FileAnalysisResult rest = new FileAnalysisResult(sourceName, reader.readCallGraph());
+            rest.getProcessingErrors().addAll(reader.readProcessingErrors());
+            out.accept(rest);
+        }
+        Path fingerprints = ShardWorker.fingerprintFile(run.resultFile);
+        if (Files.exists(fingerprints)) {
+            try (JsonParser parser = OBJECT_MAPPER.createParser(fingerprints.toFile())) {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new IOException("Not a fingerprint file: " + fingerprints);
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    SourceFingerprints source = parser.readValueAs(SourceFingerprints.class);
+                    FileAnalysisResult part = new FileAnalysisResult(source.getSourceName(), NO_EDGES);
+                    part.setMethodFingerprints(source.getMethodFingerprints());
+                    out.accept(part);
+                }
+            }
+        }
+    }
+
+    private static String lastLine(Path log) {
+        try {
+            List<String> lines = Files.readAllLines(log, StandardCharsets.UTF_8);
+            for (int i = lines.size() - 1; i >= 0; i--) {
+                if (!lines.get(i).isBlank()) return ": " + lines.get(i).trim();
+            }
+        } catch (IOException e) {
+            // no log to quote
+        }
+        return "";
+    }
+
+    private static <T> T join(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw new IOException("Shard scheduling failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    private static final class Context {
+        final String zipFilePath;
+        final Path workDirectory;
+        final ExecutorService workerPool;
+        final AtomicInteger workerRuns;
+
+        Context(String zipFilePath, Path workDirectory, ExecutorService workerPool, AtomicInteger workerRuns) {
+            this.zipFilePath = zipFilePath;
+            this.workDirectory = workDirectory;
+            this.workerPool = workerPool;
+            this.workerRuns = workerRuns;
+        }
+    }
+
+    /** One worker process: its shard, which retry it was, and its files; {@code error} is null on success. */
+    private static final class WorkerRun {
+        final Shard shard;
+        final int retry;
+        final Path entryList;
+        final Path resultFile;
+        final Path log;
+        String error;
+
+        WorkerRun(Shard shard, int retry, Path entryList, Path resultFile, Path log) {
+            this.shard = shard;
+            this.retry = retry;
+            this.entryList = entryList;
+            this.resultFile = resultFile;
+            this.log = log;
+        }
+
+        void deleteFiles() {
+            for (Path file : List.of(entryList, resultFile, ShardWorker.fingerprintFile(resultFile), log)) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    // the whole directory is deleted at the end
+                }
+            }
+        }
+    }
+
+    /** One element of a worker's fingerprint file. */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class SourceFingerprints {
+        private String sourceName;
+        private List<MethodFingerprint> methodFingerprints;
+
+        public SourceFingerprints() {}
+
+        public String getSourceName() { return sourceName; }
+        public void setSourceName(String sourceName) { this.sourceName = sourceName; }
+
+        public List<MethodFingerprint> getMethodFingerprints() { return methodFingerprints; }
+        public void setMethodFingerprints(List<MethodFingerprint> methodFingerprints) { this.methodFingerprints = methodFingerprints; }
+    }
+}
@@ -0,0 +1,78 @@
+package com.javainsight.analyzer.shard;
+
+import com.javainsight.analyzer.source.JavaSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Divides the entries of an archive into shards of about the same uncompressed size: groups (directories
+ * or single entries, see {@link ShardStrategy}) are taken largest first and each goes to the lightest shard
+ * so far. Every shard then lists its entries in archive order, and the shards are ordered by their first
+ * entry, so the merged result follows the archive as closely as the split allows.
+ */
+final class ShardPlanner {
+    private ShardPlanner() {}
+
+    static List<Shard> plan(List<JavaSource> sources, int shardCount, ShardStrategy strategy) {
+        Map<String, List<JavaSource>> groups = new LinkedHashMap<>();
+        for (JavaSource source : sources) {
+            String key = strategy == ShardStrategy.PACKAGE ? directory(source.getName()) : source.getName();
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(source);
+        }
+        List<List<JavaSource>> bySize = new ArrayList<>(groups.values());
+        bySize.sort((a, b) -> Long.compare(weight(b), weight(a)));
+
+        int bins = Math.max(1, Math.min(shardCount, bySize.size()));
+        long[] binBytes = new long[bins];
+        PriorityQueue<Integer> lightest = new PriorityQueue<>(bins, (a, b) ->
+                binBytes[a] != binBytes[b] ? Long.compare(binBytes[a], binBytes[b]) : Integer.compare(a, b));
+        for (int bin = 0; bin < bins; bin++) lightest.add(bin);
+        Map<JavaSource, Integer> binOf = new IdentityHashMap<>();
+        for (List<JavaSource> group : bySize) {
+            int bin = lightest.poll();
+            for (JavaSource source : group) binOf.put(source, bin);
+            binBytes[bin] += weight(group);
+            lightest.add(bin);
+        }
+
+        // Walking the archive in order fills every shard in archive order and meets the shards by first entry
+        List<List<JavaSource>> binSources = new ArrayList<>();
+        int[] position = new int[bins];
+        Arrays.fill(position, -1);
+        for (JavaSource source : sources) {
+            int bin = binOf.get(source);
+            if (position[bin] < 0) {
+                position[bin] = binSources.size();
+                binSources.add(new ArrayList<>());
+            }
+            binSources.get(position[bin]).add(source);
+        }
+        List<Shard> shards = new ArrayList<>(binSources.size());
+        for (int i = 0; i < binSources.size(); i++) {
+            shards.add(new Shard(String.valueOf(i + 1), binSources.get(i)));
+        }
+        return shards;
+    }
+
+    /** Size used for balancing: the recorded uncompressed size, or 1 when the archive does not record it. */
+    static long weight(JavaSource source) {
+        return Math.max(1, source.size());
+    }
+
+    private static long weight(List<JavaSource> group) {
+        long total = 0;
+        for (JavaSource source : group) total += weight(source);
+        return total;
+    }
+
+    private static String directory(String entryName) {
+        int slash = entryName.lastIndexOf('/');
+        return slash >= 0 ? entryName.substring(0, slash) : "";
+    }
+}
@@ -0,0 +1,41 @@
+package com.javainsight.analyzer.shard;
+
+/**
+ * Outcome of a sharded analysis; the analysis itself is in the merged result.
+ */
+public class ShardReport {
+    private int files;
+    private int shards; // as planned, before any failed shard was split
+    private int workerRuns; // processes started, retries included
+    private int failedShards; // gave up on after the last retry; their files are missing from the result
+    private int failedFiles;
+    private int classes;
+    private int duplicateClasses; // skipped because a class with the same name was merged before
+    private long wallMillis;
+
+    public ShardReport() {}
+
+    public int getFiles() { return files; }
+    public void setFiles(int files) { this.files = files; }
+
+    public int getShards() { return shards; }
+    public void setShards(int shards) { this.shards = shards; }
+
+    public int getWorkerRuns() { return workerRuns; }
+    public void setWorkerRuns(int workerRuns) { this.workerRuns = workerRuns; }
+
+    public int getFailedShards() { return failedShards; }
+    public void setFailedShards(int failedShards) { this.failedShards = failedShards; }
+
+    public int getFailedFiles() { return failedFiles; }
+    public void setFailedFiles(int failedFiles) { this.failedFiles = failedFiles; }
+
+    public int getClasses() { return classes; }
+    public void setClasses(int classes) { this.classes = classes; }
+
+    public int getDuplicateClasses() { return duplicateClasses; }
+    public void setDuplicateClasses(int duplicateClasses) { this.duplicateClasses = duplicateClasses; }
+
+    public long getWallMillis() { return wallMillis; }
+    public void setWallMillis(long wallMillis) { this.wallMillis = wallMillis; }
+}
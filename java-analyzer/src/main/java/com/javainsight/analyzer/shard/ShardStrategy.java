@@ -0,0 +1,23 @@
+package com.javainsight.analyzer.shard;
+
+/**
+ * How {@link ShardPlanner} divides the .java entries of an archive between worker processes.
+ */
+public enum ShardStrategy {
+    /**
+     * Entries of one directory (for a source tree, one package) stay in one shard, so calls within a
+     * package resolve and package-level results come from a single worker. Directories are spread over
+     * the shards by size.
+     */
+    PACKAGE,
+    /** Single entries are spread over the shards by size; the most even split, ignoring packages. */
+    SIZE;
+
+    /** Parses a command-line value such as {@code "size"}; returns null if unknown. */
+    public static ShardStrategy fromName(String name) {
+        for (ShardStrategy strategy : values()) {
+            if (strategy.name().equalsIgnoreCase(name)) return strategy;
+        }
+        return null;
+    }
+}
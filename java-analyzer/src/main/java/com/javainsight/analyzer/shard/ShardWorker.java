@@ -0,0 +1,87 @@
+package com.javainsight.analyzer.shard;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javainsight.analyzer.FileAnalysisResult;
+import com.javainsight.analyzer.JavaFileAnalyzer;
+import com.javainsight.analyzer.binary.BinaryResultWriter;
+import com.javainsight.analyzer.source.JavaSource;
+import com.javainsight.analyzer.source.ZipArchiveSources;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The worker side of a sharded analysis, run in its own process by {@link ShardCoordinator}: analyzes the
+ * archive entries named in an entry list (one per line, UTF-8) into a binary result file. With clone
+ * detection on, the method fingerprints, which binary results do not store, go to a
+ * {@linkplain #fingerprintFile sidecar file} as {@code [{"sourceName": ..., "methodFingerprints": [...]}, ...]},
+ * so the coordinator can find clones across shards.
+ */
+public final class ShardWorker {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private ShardWorker() {}
+
+    /** Returns the number of entries analyzed; entries in the list but not in the archive are reported as errors. */
+    public static int run(JavaFileAnalyzer analyzer, String zipFilePath, Path entryList, Path resultFile) throws IOException {
+        Set<String> names = new HashSet<>(Files.readAllLines(entryList, StandardCharsets.UTF_8));
+        try (ZipArchiveSources archive = new ZipArchiveSources(zipFilePath);
+             BinaryResultWriter writer = new BinaryResultWriter(resultFile);
+             FingerprintWriter fingerprints = new FingerprintWriter(fingerprintFile(resultFile))) {
+            List<JavaSource> sources = new ArrayList<>(names.size());
+            for (JavaSource source : archive.getSources()) {
+                if (names.remove(source.getName())) sources.add(source);
+            }
+            for (String missing : names) {
+                if (!missing.isEmpty()) writer.addError("Shard entry not found in " + zipFilePath + ": " + missing);
+            }
+            analyzer.analyzeSources(sources, fileResult -> {
+                writer.accept(fileResult);
+                if (fileResult.getMethodFingerprints() != null) fingerprints.write(fileResult);
+            });
+            return sources.size();
+        }
+    }
+
+    /** Where the fingerprints of {@code resultFile} go; the file only exists if there were any. */
+    static Path fingerprintFile(Path resultFile) {
+        return resultFile.resolveSibling(resultFile.getFileName() + ".fingerprints");
+    }
+
+    /** Opens its file on the first fingerprinted source, so runs without clone detection leave none behind. */
+    private static final class FingerprintWriter implements AutoCloseable {
+        private final Path path;
+        private JsonGenerator generator;
+
+        FingerprintWriter(Path path) {
+            this.path = path;
+        }
+
+        void write(FileAnalysisResult fileResult) throws IOException {
+            if (generator == null) {
+                generator = OBJECT_MAPPER.getFactory().createGenerator(path.toFile(), JsonEncoding.UTF8);
+                generator.writeStartArray();
+            }
+            generator.writeStartObject();
+            generator.writeStringField("sourceName", fileResult.getSourceName());
+            generator.writeFieldName("methodFingerprints");
+            OBJECT_MAPPER.writeValue(generator, fileResult.getMethodFingerprints());
+            generator.writeEndObject();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (generator == null) return;
+            generator.writeEndArray();
+            generator.close();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.javainsight.analyzer.source;
+
+/**
+ * A source whose content is already in memory (generated code, request payloads, benchmarks).
+ */
+public class InMemoryJavaSource implements JavaSource {
+    private final String name;
+    private final byte[] content;
+
+    public InMemoryJavaSource(String name, byte[] content) {
+        this.name = name;
+        this.content = content;
+    }
+
+    @Override
+    public String getName() { return name; }
+
+    @Override
+    public byte[] readContent() { return content; }
+
+    @Override
+    public long size() { return content.length; }
+}
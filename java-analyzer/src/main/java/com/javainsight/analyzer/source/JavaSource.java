@@ -0,0 +1,26 @@
+package com.javainsight.analyzer.source;
+
+import java.io.IOException;
+
+/**
+ * A single .java input for the analyzer, independent of where its bytes live
+ * (a file on disk, an entry inside an uploaded archive, ...).
+ */
+public interface JavaSource {
+
+    /** Name used in results and error messages, e.g. the archive entry name or file path. */
+    String getName();
+
+    /** Reads the raw (undecoded) content of the source. May be called from any analysis thread. */
+    byte[] readContent() throws IOException;
+
+    /** Size of the raw content in bytes if it is known without reading it, otherwise -1. */
+    default long size() {
+        return -1;
+    }
+
+    /** CRC-32 of the raw content if it is known without reading it (as for archive entries), otherwise -1. */
+    default long checksum() {
+        return -1;
+    }
+}
@@ -0,0 +1,23 @@
+package com.javainsight.analyzer.source;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class PathJavaSource implements JavaSource {
+    private final Path path;
+
+    public PathJavaSource(Path path) {
+        this.path = path;
+    }
+
+    public Path getPath() { return path; }
+
+    @Override
+    public String getName() { return path.toString(); }
+
+    @Override
+    public byte[] readContent() throws IOException {
+        return Files.readAllBytes(path);
+    }
+}
@@ -0,0 +1,81 @@
+package com.javainsight.analyzer.source;
+
+import com.javainsight.analyzer.utils.FileUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Exposes the .java entries of a ZIP archive as {@link JavaSource}s that are read straight out of
+ * the archive on demand, so nothing is written to the filesystem.
+ * The archive stays open until {@link #close()}; entries may be read concurrently from several threads.
+ */
+public class ZipArchiveSources implements Closeable {
+    private final ZipFile zipFile;
+    private final List<JavaSource> sources;
+
+    public ZipArchiveSources(String zipFilePath) throws IOException {
+        this.zipFile = new ZipFile(zipFilePath);
+        List<JavaSource> javaSources = new ArrayList<>();
+        try {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry zipEntry = entries.nextElement();
+                String entryName = zipEntry.getName().replace("\\", "/"); // Normalize path separators
+
+                // Same Zip Slip rule as extraction: never accept an entry that would escape the archive root
+                if (!FileUtils.isSafeEntryName(entryName)) {
+                    System.err.println("Skipping potentially malicious ZIP entry (Zip Slip): " + entryName);
+                    continue;
+                }
+                if (!zipEntry.isDirectory() && entryName.endsWith(".java")) {
+                    javaSources.add(new EntrySource(entryName, zipEntry));
+                }
+            }
+        } catch (RuntimeException e) {
+            zipFile.close();
+            throw e;
+        }
+        this.sources = Collections.unmodifiableList(javaSources);
+    }
+
+    public List<JavaSource> getSources() { return sources; }
+
+    @Override
+    public void close() throws IOException {
+        zipFile.close();
+    }
+
+    private class EntrySource implements JavaSource {
+        private final String name;
+        private final ZipEntry zipEntry;
+
+        EntrySource(String name, ZipEntry zipEntry) {
+            this.name = name;
+            this.zipEntry = zipEntry;
+        }
+
+        @Override
+        public String getName() { return name; }
+
+        @Override
+        public byte[] readContent() throws IOException {
+            try (InputStream in = zipFile.getInputStream(zipEntry)) {
+                return in.readAllBytes();
+            }
+        }
+
+        @Override
+        public long size() { return zipEntry.getSize(); } // -1 when the archive does not record it
+
+        @Override
+        public long checksum() { return zipEntry.getCrc(); } // from the central directory, like the size
+    }
+}
@@ -0,0 +1,91 @@
+package com.javainsight.analyzer.summary;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable distribution of non-negative ints in HDR-histogram style buckets: values below
+ * {@value #EXACT_LIMIT} are counted exactly, larger ones in buckets of 1/64 of their power of two,
+ * so a reported percentile is never more than 1.6% above the true value. Memory is bounded
+ * (at most a few thousand counters) however many values are added. Not thread-safe.
+ */
+class IntDistribution {
+    static final int EXACT_LIMIT = 128;
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int EXACT_BITS = 7; // EXACT_LIMIT == 1 << EXACT_BITS
+
+    private long[] counts = new long[EXACT_LIMIT];
+    private long count;
+    private long sum;
+    private int max;
+
+    void add(int value) {
+        if (value < 0) value = 0;
+        int index = bucketIndex(value);
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(index + 1, counts.length * 2));
+        }
+        counts[index]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    void merge(IntDistribution other) {
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    long getCount() { return count; }
+    long getSum() { return sum; }
+    int getMax() { return max; }
+
+    /** Number of values in {@code [from, to)}; both bounds must be below {@link #EXACT_LIMIT}, or {@code to} unbounded. */
+    long countBetween(int from, Integer to) {
+        long total = 0;
+        int end = to != null ? Math.min(to, counts.length) : counts.length;
+        for (int i = from; i < end; i++) {
+            total += counts[i];
+        }
+        return total;
+    }
+
+    /**
+     * Nearest-rank percentile, {@code 0 < percentile <= 100}: the smallest value that at least that share of
+     * the values does not exceed. Returns 0 for an empty distribution.
+     */
+    int percentile(double percentile) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), max);
+            }
+        }
+        return max;
+    }
+
+    private static int bucketIndex(int value) {
+        if (value < EXACT_LIMIT) return value;
+        int exponent = 31 - Integer.numberOfLeadingZeros(value); // >= EXACT_BITS
+        int subBucket = (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return EXACT_LIMIT + (exponent - EXACT_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    private static int highestValueIn(int index) {
+        if (index < EXACT_LIMIT) return index;
+        int exponent = (index - EXACT_LIMIT) / SUB_BUCKETS + EXACT_BITS;
+        int subBucket = (index - EXACT_LIMIT) % SUB_BUCKETS;
+        long lowest = (1L << exponent) + ((long) subBucket << (exponent - SUB_BUCKET_BITS));
+        return (int) Math.min(Integer.MAX_VALUE, lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1);
+    }
+}
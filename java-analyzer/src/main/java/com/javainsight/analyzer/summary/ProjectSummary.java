@@ -0,0 +1,239 @@
+package com.javainsight.analyzer.summary;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Project-wide totals and distributions for overview screens, so clients need not walk every class and
+ * method. LOC totals count top-level types only (a nested type's lines are part of its outer type);
+ * complexity figures are per method.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProjectSummary {
+    private int classes; // every reported type, nested ones included
+    private int interfaces;
+    private int methods;
+    private long loc;
+    private long totalComplexity;
+    private int warnings; // class and method warnings
+    private List<HistogramBucket> complexityHistogram = new ArrayList<>();
+    private Percentiles methodComplexity;
+    private Percentiles methodLoc;
+    private Percentiles classLoc;
+    private List<PackageSummary> packages = new ArrayList<>(); // by package name
+    private List<MethodHotspot> complexMethods = new ArrayList<>(); // most complex first
+    private List<ClassHotspot> largeClasses = new ArrayList<>(); // largest first
+
+    public ProjectSummary() {}
+
+    public int getClasses() { return classes; }
+    public void setClasses(int classes) { this.classes = classes; }
+
+    public int getInterfaces() { return interfaces; }
+    public void setInterfaces(int interfaces) { this.interfaces = interfaces; }
+
+    public int getMethods() { return methods; }
+    public void setMethods(int methods) { this.methods = methods; }
+
+    public long getLoc() { return loc; }
+    public void setLoc(long loc) { this.loc = loc; }
+
+    public long getTotalComplexity() { return totalComplexity; }
+    public void setTotalComplexity(long totalComplexity) { this.totalComplexity = totalComplexity; }
+
+    public int getWarnings() { return warnings; }
+    public void setWarnings(int warnings) { this.warnings = warnings; }
+
+    public List<HistogramBucket> getComplexityHistogram() { return complexityHistogram; }
+    public void setComplexityHistogram(List<HistogramBucket> complexityHistogram) { this.complexityHistogram = complexityHistogram; }
+
+    public Percentiles getMethodComplexity() { return methodComplexity; }
+    public void setMethodComplexity(Percentiles methodComplexity) { this.methodComplexity = methodComplexity; }
+
+    public Percentiles getMethodLoc() { return methodLoc; }
+    public void setMethodLoc(Percentiles methodLoc) { this.methodLoc = methodLoc; }
+
+    public Percentiles getClassLoc() { return classLoc; }
+    public void setClassLoc(Percentiles classLoc) { this.classLoc = classLoc; }
+
+    public List<PackageSummary> getPackages() { return packages; }
+    public void setPackages(List<PackageSummary> packages) { this.packages = packages; }
+
+    public List<MethodHotspot> getComplexMethods() { return complexMethods; }
+    public void setComplexMethods(List<MethodHotspot> complexMethods) { this.complexMethods = complexMethods; }
+
+    public List<ClassHotspot> getLargeClasses() { return largeClasses; }
+    public void setLargeClasses(List<ClassHotspot> largeClasses) { this.largeClasses = largeClasses; }
+
+    /** Methods whose complexity is in {@code [from, to]}; {@code to} is omitted for the open last bucket. */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class HistogramBucket {
+        private int from;
+        private Integer to;
+        private long count;
+
+        public HistogramBucket() {}
+
+        public HistogramBucket(int from, Integer to, long count) {
+            this.from = from;
+            this.to = to;
+            this.count = count;
+        }
+
+        public int getFrom() { return from; }
+        public void setFrom(int from) { this.from = from; }
+
+        public Integer getTo() { return to; }
+        public void setTo(Integer to) { this.to = to; }
+
+        public long getCount() { return count; }
+        public void setCount(long count) { this.count = count; }
+    }
+
+    /** Nearest-rank percentiles; exact below 128, within 1.6% above. */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Percentiles {
+        private double mean;
+        private int p50;
+        private int p75;
+        private int p90;
+        private int p95;
+        private int p99;
+        private int max;
+
+        public Percentiles() {}
+
+        static Percentiles of(IntDistribution distribution) {
+            Percentiles percentiles = new Percentiles();
+            long count = distribution.getCount();
+            percentiles.mean = count == 0 ? 0 : Math.round(distribution.getSum() * 100.0 / count) / 100.0;
+            percentiles.p50 = distribution.percentile(50);
+            percentiles.p75 = distribution.percentile(75);
+            percentiles.p90 = distribution.percentile(90);
+            percentiles.p95 = distribution.percentile(95);
+            percentiles.p99 = distribution.percentile(99);
+            percentiles.max = distribution.getMax();
+            return percentiles;
+        }
+
+        public double getMean() { return mean; }
+        public void setMean(double mean) { this.mean = mean; }
+
+        public int getP50() { return p50; }
+        public void setP50(int p50) { this.p50 = p50; }
+
+        public int getP75() { return p75; }
+        public void setP75(int p75) { this.p75 = p75; }
+
+        public int getP90() { return p90; }
+        public void setP90(int p90) { this.p90 = p90; }
+
+        public int getP95() { return p95; }
+        public void setP95(int p95) { this.p95 = p95; }
+
+        public int getP99() { return p99; }
+        public void setP99(int p99) { this.p99 = p99; }
+
+        public int getMax() { return max; }
+        public void setMax(int max) { this.max = max; }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class PackageSummary {
+        private String packageName;
+        private int classes;
+        private int methods;
+        private long loc;
+        private long totalComplexity;
+        private int maxComplexity;
+
+        public PackageSummary() {}
+
+        PackageSummary(String packageName) {
+            this.packageName = packageName;
+        }
+
+        void merge(PackageSummary other) {
+            classes += other.classes;
+            methods += other.methods;
+            loc += other.loc;
+            totalComplexity += other.totalComplexity;
+            maxComplexity = Math.max(maxComplexity, other.maxComplexity);
+        }
+
+        public String getPackageName() { return packageName; }
+        public void setPackageName(String packageName) { this.packageName = packageName; }
+
+        public int getClasses() { return classes; }
+        public void setClasses(int classes) { this.classes = classes; }
+
+        public int getMethods() { return methods; }
+        public void setMethods(int methods) { this.methods = methods; }
+
+        public long getLoc() { return loc; }
+        public void setLoc(long loc) { this.loc = loc; }
+
+        public long getTotalComplexity() { return totalComplexity; }
+        public void setTotalComplexity(long totalComplexity) { this.totalComplexity = totalComplexity; }
+
+        public int getMaxComplexity() { return maxComplexity; }
+        public void setMaxComplexity(int maxComplexity) { this.maxComplexity = maxComplexity; }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class MethodHotspot {
+        private String className;
+        private String methodName;
+        private int cyclomaticComplexity;
+        private int loc;
+
+        public MethodHotspot() {}
+
+        MethodHotspot(String className, String methodName, int cyclomaticComplexity, int loc) {
+            this.className = className;
+            this.methodName = methodName;
+            this.cyclomaticComplexity = cyclomaticComplexity;
+            this.loc = loc;
+        }
+
+        public String getClassName() { return className; }
+        public void setClassName(String className) { this.className = className; }
+
+        public String getMethodName() { return methodName; }
+        public void setMethodName(String methodName) { this.methodName = methodName; }
+
+        public int getCyclomaticComplexity() { return cyclomaticComplexity; }
+        public void setCyclomaticComplexity(int cyclomaticComplexity) { this.cyclomaticComplexity = cyclomaticComplexity; }
+
+        public int getLoc() { return loc; }
+        public void setLoc(int loc) { this.loc = loc; }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ClassHotspot {
+        private String className;
+        private int loc;
+        private int methods;
+
+        public ClassHotspot() {}
+
+        ClassHotspot(String className, int loc, int methods) {
+            this.className = className;
+            this.loc = loc;
+            this.methods = methods;
+        }
+
+        public String getClassName() { return className; }
+        public void setClassName(String className) { this.className = className; }
+
+        public int getLoc() { return loc; }
+        public void setLoc(int loc) { this.loc = loc; }
+
+        public int getMethods() { return methods; }
+        public void setMethods(int methods) { this.methods = methods; }
+    }
+}
@@ -0,0 +1,155 @@
+package com.javainsight.analyzer.summary;
+
+import com.javainsight.analyzer.model.ClassAnalysisResult;
+import com.javainsight.analyzer.model.MethodAnalysisResult;
+import com.javainsight.analyzer.summary.ProjectSummary.ClassHotspot;
+import com.javainsight.analyzer.summary.ProjectSummary.HistogramBucket;
+import com.javainsight.analyzer.summary.ProjectSummary.MethodHotspot;
+import com.javainsight.analyzer.summary.ProjectSummary.PackageSummary;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Folds class results into a {@link ProjectSummary} as they are produced, in memory bounded by the number
+ * of packages rather than classes. Aggregators can be {@link #merge merged}, e.g. one per shard or
+ * archive; the summary does not depend on the order classes were added or merged in. Not thread-safe.
+ */
+public class SummaryAggregator {
+    public static final int DEFAULT_HOTSPOTS = 10;
+    /** Lower bounds of the complexity histogram buckets; 8 and up are above the "High complexity" warning. */
+    private static final int[] COMPLEXITY_BUCKETS = {1, 2, 5, 8, 11, 21, 51};
+
+    private static final Comparator<MethodHotspot> MOST_COMPLEX_FIRST =
+            Comparator.comparingInt(MethodHotspot::getCyclomaticComplexity).reversed()
+                      .thenComparing(Comparator.comparingInt(MethodHotspot::getLoc).reversed())
+                      .thenComparing(MethodHotspot::getClassName)
+                      .thenComparing(MethodHotspot::getMethodName);
+    private static final Comparator<ClassHotspot> LARGEST_FIRST =
+            Comparator.comparingInt(ClassHotspot::getLoc).reversed()
+                      .thenComparing(Comparator.comparingInt(ClassHotspot::getMethods).reversed())
+                      .thenComparing(ClassHotspot::getClassName);
+
+    private final int hotspotLimit;
+    private final Map<String, PackageSummary> packages = new TreeMap<>();
+    private final IntDistribution methodComplexity = new IntDistribution();
+    private final IntDistribution methodLoc = new IntDistribution();
+    private final IntDistribution classLoc = new IntDistribution();
+    // Heads are the least notable entries, the ones to drop first
+    private final PriorityQueue<MethodHotspot> complexMethods = new PriorityQueue<>(MOST_COMPLEX_FIRST.reversed());
+    private final PriorityQueue<ClassHotspot> largeClasses = new PriorityQueue<>(LARGEST_FIRST.reversed());
+    private int classes;
+    private int interfaces;
+    private long loc;
+    private int warnings;
+
+    public SummaryAggregator() {
+        this(DEFAULT_HOTSPOTS);
+    }
+
+    public SummaryAggregator(int hotspotLimit) {
+        this.hotspotLimit = hotspotLimit;
+    }
+
+    public void add(ClassAnalysisResult classResult) {
+        String packageName = classResult.getPackageName() != null ? classResult.getPackageName() : "";
+        PackageSummary packageSummary = packages.computeIfAbsent(packageName, PackageSummary::new);
+        classes++;
+        packageSummary.setClasses(packageSummary.getClasses() + 1);
+        if (classResult.isInterface()) interfaces++;
+        warnings += sizeOf(classResult.getWarnings());
+        if (isTopLevel(classResult, packageName)) {
+            loc += classResult.getLoc();
+            packageSummary.setLoc(packageSummary.getLoc() + classResult.getLoc());
+        }
+        classLoc.add(classResult.getLoc());
+        offer(largeClasses, new ClassHotspot(classResult.getClassName(), classResult.getLoc(), classResult.getMethods().size()));
+
+        for (MethodAnalysisResult method : classResult.getMethods()) {
+            int complexity = method.getCyclomaticComplexity();
+            packageSummary.setMethods(packageSummary.getMethods() + 1);
+            packageSummary.setTotalComplexity(packageSummary.getTotalComplexity() + complexity);
+            packageSummary.setMaxComplexity(Math.max(packageSummary.getMaxComplexity(), complexity));
+            methodComplexity.add(complexity);
+            methodLoc.add(method.getLoc());
+            warnings += sizeOf(method.getWarnings());
+            offer(complexMethods, new MethodHotspot(classResult.getClassName(), method.getMethodName(), complexity, method.getLoc()));
+        }
+    }
+
+    public void merge(SummaryAggregator other) {
+        other.packages.forEach((name, summary) -> packages.computeIfAbsent(name, PackageSummary::new).merge(summary));
+        methodComplexity.merge(other.methodComplexity);
+        methodLoc.merge(other.methodLoc);
+        classLoc.merge(other.classLoc);
+        other.complexMethods.forEach(hotspot -> offer(complexMethods, hotspot));
+        other.largeClasses.forEach(hotspot -> offer(largeClasses, hotspot));
+        classes += other.classes;
+        interfaces += other.interfaces;
+        loc += other.loc;
+        warnings += other.warnings;
+    }
+
+    public ProjectSummary toSummary() {
+        ProjectSummary summary = new ProjectSummary();
+        summary.setClasses(classes);
+        summary.setInterfaces(interfaces);
+        summary.setMethods((int) methodComplexity.getCount());
+        summary.setLoc(loc);
+        summary.setTotalComplexity(methodComplexity.getSum());
+        summary.setWarnings(warnings);
+
+        List<HistogramBucket> histogram = new ArrayList<>(COMPLEXITY_BUCKETS.length);
+        for (int i = 0; i < COMPLEXITY_BUCKETS.length; i++) {
+            Integer nextFrom = i + 1 < COMPLEXITY_BUCKETS.length ? COMPLEXITY_BUCKETS[i + 1] : null;
+            int from = i == 0 ? 0 : COMPLEXITY_BUCKETS[i]; // complexity is at least 1; count anything odd in the first bucket
+            histogram.add(new HistogramBucket(COMPLEXITY_BUCKETS[i], nextFrom != null ? nextFrom - 1 : null,
+                                              methodComplexity.countBetween(from, nextFrom)));
+        }
+        summary.setComplexityHistogram(histogram);
+        summary.setMethodComplexity(ProjectSummary.Percentiles.of(methodComplexity));
+        summary.setMethodLoc(ProjectSummary.Percentiles.of(methodLoc));
+        summary.setClassLoc(ProjectSummary.Percentiles.of(classLoc));
+
+        List<PackageSummary> packageSummaries = new ArrayList<>(packages.size());
+        packages.forEach((name, packageSummary) -> {
+            PackageSummary copy = new PackageSummary(name);
+            copy.merge(packageSummary);
+            packageSummaries.add(copy);
+        });
+        summary.setPackages(packageSummaries);
+        summary.setComplexMethods(sorted(complexMethods, MOST_COMPLEX_FIRST));
+        summary.setLargeClasses(sorted(largeClasses, LARGEST_FIRST));
+        return summary;
+    }
+
+    private <T> void offer(PriorityQueue<T> hotspots, T hotspot) {
+        if (hotspots.size() < hotspotLimit) {
+            hotspots.add(hotspot);
+        } else if (hotspotLimit > 0 && hotspots.comparator().compare(hotspot, hotspots.peek()) > 0) {
+            hotspots.poll();
+            hotspots.add(hotspot);
+        }
+    }
+
+    private static <T> List<T> sorted(PriorityQueue<T> hotspots, Comparator<T> order) {
+        List<T> list = new ArrayList<>(hotspots);
+        list.sort(order);
+        return list;
+    }
+
+    /** Nested types are named after their outer type, so their name has a dot after the package prefix. */
+    private static boolean isTopLevel(ClassAnalysisResult classResult, String packageName) {
+        String className = classResult.getClassName();
+        int prefix = packageName.isEmpty() ? 0 : packageName.length() + 1;
+        return className == null || className.indexOf('.', prefix) < 0;
+    }
+
+    private static int sizeOf(List<?> list) {
+        return list != null ? list.size() : 0;
+    }
+}
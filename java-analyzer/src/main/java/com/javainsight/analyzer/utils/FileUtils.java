@@ -5,6 +5,7 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -15,6 +16,21 @@ import java.util.zip.ZipInputStream;
 
 public class FileUtils {
 
+    // Virtual root used to validate entry names when an archive is read without being extracted
+    private static final Path VIRTUAL_ARCHIVE_ROOT = Paths.get("archive-root");
+
+    /**
+     * Zip Slip check for archives that are not extracted: the entry must stay inside the archive root
+     * once normalized, exactly as {@link #extractJavaFilesFromZip} requires for the extraction directory.
+     */
+    public static boolean isSafeEntryName(String entryName) {
+        try {
+            return VIRTUAL_ARCHIVE_ROOT.resolve(entryName).normalize().startsWith(VIRTUAL_ARCHIVE_ROOT);
+        } catch (InvalidPathException e) {
+            return false;
+        }
+    }
+
     public static List<Path> extractJavaFilesFromZip(String zipFilePath, String tempExtractDir) throws IOException {
         List<Path> javaFiles = new ArrayList<>();
         Path extractDirPath = Paths.get(tempExtractDir);
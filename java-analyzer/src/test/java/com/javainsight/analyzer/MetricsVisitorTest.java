@@ -0,0 +1,123 @@
+package com.javainsight.analyzer;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParserConfiguration;
+import com.javainsight.analyzer.graph.CallGraph;
+import com.javainsight.analyzer.model.ClassAnalysisResult;
+import com.javainsight.analyzer.model.MethodAnalysisResult;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Cyclomatic and cognitive complexity and nesting depth of small methods, worked out by hand. */
+class MetricsVisitorTest {
+    private static final String SOURCE =
+            "package p;\n"
+            + "class C {\n"
+            + "    int straight(int a, int b) { return a + b; }\n"
+            + "    int nestedLoops(int[][] m) {\n"
+            + "        int n = 0;\n"
+            + "        for (int[] row : m) {\n"                  // +1
+            + "            for (int v : row) {\n"                // +2 (nesting 1)
+            + "                if (v > 0 && v < 10) n++;\n"      // +3 (nesting 2), && +1
+            + "            }\n"
+            + "        }\n"
+            + "        return n;\n"
+            + "    }\n"
+            + "    String elseIfChain(int x) {\n"
+            + "        if (x < 0) return \"negative\";\n"       // +1
+            + "        else if (x == 0) return \"zero\";\n"     // +1, not weighted by nesting
+            + "        else return \"positive\";\n"             // +1
+            + "    }\n"
+            + "    boolean operators(boolean a, boolean b, boolean c, boolean d) {\n"
+            + "        return a && b && c || d;\n"               // one per sequence of like operators: +2
+            + "    }\n"
+            + "    int switchTryLambda(int k, java.util.List<Integer> xs) {\n"
+            + "        switch (k) {\n"                           // +1
+            + "            case 1: case 2: return 0;\n"
+            + "            default: break;\n"
+            + "        }\n"
+            + "        try {\n"
+            + "            xs.forEach(x -> System.out.println(x > 0 ? x : -x));\n" // +2 (nested in the lambda)
+            + "        } catch (RuntimeException e) {\n"         // +1
+            + "            return -1;\n"
+            + "        }\n"
+            + "        return k;\n"
+            + "    }\n"
+            + "    void labeledBreak(int[][] m) {\n"
+            + "        outer:\n"
+            + "        for (int[] row : m) {\n"                  // +1
+            + "            for (int v : row) {\n"                // +2
+            + "                if (v == 0) break outer;\n"       // +3, labeled break +1
+            + "            }\n"
+            + "        }\n"
+            + "    }\n"
+            + "    Runnable anonymousClass(boolean b) {\n"
+            + "        return new Runnable() {\n"
+            + "            public void run() { if (b) System.out.println(); }\n" // +2: the method nests
+            + "        };\n"
+            + "    }\n"
+            + "    int switchExpression(int k) {\n"
+            + "        return switch (k) {\n"                    // +1
+            + "            case 1, 2 -> 0;\n"
+            + "            default -> { yield k; }\n"            // yield adds nothing
+            + "        };\n"
+            + "    }\n"
+            + "}\n";
+
+    private static Map<String, MethodAnalysisResult> methods;
+
+    @BeforeAll
+    static void analyze() {
+        JavaParser parser = new JavaParser(new ParserConfiguration().setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_17));
+        List<ClassAnalysisResult> classes = MetricsVisitor.collect(parser.parse(SOURCE).getResult().orElseThrow(), new CallGraph());
+        assertEquals(1, classes.size(), "the anonymous class counts towards its method");
+        methods = classes.get(0).getMethods().stream()
+                         .collect(Collectors.toMap(MethodAnalysisResult::getMethodName, Function.identity()));
+    }
+
+    @Test
+    void straightLineCode() {
+        assertMetrics("straight", 1, 0, 0);
+    }
+
+    @Test
+    void nestedStructuresAreWeightedByDepth() {
+        assertMetrics("nestedLoops", 5, 7, 3);
+        assertMetrics("labeledBreak", 4, 7, 3);
+    }
+
+    @Test
+    void elseIfAndElseAddOneFlat() {
+        assertMetrics("elseIfChain", 3, 3, 1);
+    }
+
+    @Test
+    void booleanOperatorsCountPerOperatorAndPerSequence() {
+        assertMetrics("operators", 4, 2, 0);
+    }
+
+    @Test
+    void casesCountPerLabelAndLambdasNest() {
+        assertMetrics("switchTryLambda", 5, 4, 2);
+        assertMetrics("switchExpression", 3, 1, 1);
+    }
+
+    @Test
+    void methodsOfAnonymousClassesNest() {
+        assertMetrics("anonymousClass", 2, 2, 2);
+    }
+
+    private static void assertMetrics(String name, int cyclomatic, int cognitive, int nesting) {
+        MethodAnalysisResult method = methods.get(name);
+        assertEquals(cyclomatic, method.getCyclomaticComplexity(), name + " cyclomatic complexity");
+        assertEquals(cognitive, method.getCognitiveComplexity(), name + " cognitive complexity");
+        assertEquals(nesting, method.getMaxNestingDepth(), name + " nesting depth");
+    }
+}
@@ -0,0 +1,62 @@
+package com.javainsight.analyzer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javainsight.analyzer.model.ClassAnalysisResult;
+import com.javainsight.analyzer.source.InMemoryJavaSource;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParserProfileTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String SWITCH_EXPRESSIONS =
+            "package p;\n"
+            + "/** Switch expressions. */\n"
+            + "public class Y {\n"
+            + "    /** Uses yield. */\n"
+            + "    int f(int i) {\n"
+            + "        return switch (i) {\n"
+            + "            case 1 -> 2;\n"
+            + "            default -> { yield 3; }\n"
+            + "        };\n"
+            + "    }\n"
+            + "    int g(String s) {\n"
+            + "        var n = s.length();\n"
+            + "        return switch (n) { case 0: yield -1; default: yield n; };\n"
+            + "    }\n"
+            + "    record Point(int x, int y) {}\n"
+            + "}\n";
+
+    @Test
+    void bothProfilesParseYield() {
+        OverallAnalysisResult full = analyze(ParserProfile.FULL, SWITCH_EXPRESSIONS);
+        OverallAnalysisResult lean = analyze(ParserProfile.LEAN, SWITCH_EXPRESSIONS);
+
+        assertEquals(List.of(), full.getProcessingErrors());
+        assertEquals(List.of(), lean.getProcessingErrors());
+        assertEquals(MAPPER.valueToTree(full.getClasses()), MAPPER.valueToTree(lean.getClasses()));
+        ClassAnalysisResult y = full.getClasses().get(0);
+        assertEquals("p.Y", y.getClassName());
+        assertEquals(2, y.getMethods().size());
+    }
+
+    @Test
+    void onlyLeanAcceptsSealedTypes() {
+        String sealed = "package p;\npublic sealed interface Shape permits Circle {}\nfinal class Circle implements Shape {}\n";
+
+        assertTrue(analyze(ParserProfile.LEAN, sealed).getProcessingErrors().isEmpty());
+        assertEquals(1, analyze(ParserProfile.FULL, sealed).getProcessingErrors().size());
+    }
+
+    private static OverallAnalysisResult analyze(ParserProfile profile, String content) {
+        try (JavaFileAnalyzer analyzer = new JavaFileAnalyzer(new AnalyzerOptions().setThreads(1).setParserProfile(profile))) {
+            return analyzer.analyzeSources(List.of(
+                    new InMemoryJavaSource("p/Y.java", content.getBytes(StandardCharsets.UTF_8))));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.javainsight.analyzer.binary;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javainsight.analyzer.AnalyzerOptions;
+import com.javainsight.analyzer.JavaFileAnalyzer;
+import com.javainsight.analyzer.model.ClassAnalysisResult;
+import com.javainsight.analyzer.output.StreamingResultWriter;
+import com.javainsight.analyzer.source.InMemoryJavaSource;
+import com.javainsight.analyzer.source.JavaSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A binary result converted back to JSON must be the document the streaming writer produces for the
+ * same analysis.
+ */
+class BinaryResultRoundTripTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final List<JavaSource> SOURCES = List.of(
+            source("com/example/shop/Cart.java",
+                    "package com.example.shop;\n"
+                    + "import java.util.ArrayList;\n"
+                    + "import java.util.List;\n"
+                    + "/** A shopping cart. */\n"
+                    + "public final class Cart extends Base implements Priced, java.io.Serializable {\n"
+                    + "    private static final long serialVersionUID = 1L;\n"
+                    + "    private final List<Item> items = new ArrayList<>();\n"
+                    + "    /** Adds an item, merging duplicates. */\n"
+                    + "    public synchronized void add(Item item, int quantity) {\n"
+                    + "        for (int i = 0; i < quantity; i++) {\n"
+                    + "            if (item != null && !items.contains(item)) items.add(item);\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "    @Override public long price() {\n"
+                    + "        long total = 0;\n"
+                    + "        for (Item item : items) total += item.price();\n"
+                    + "        return total > 0 ? total : 0;\n"
+                    + "    }\n"
+                    + "    static class Base {}\n"
+                    + "}\n"),
+            source("com/example/shop/Priced.java",
+                    "package com.example.shop;\n"
+                    + "public interface Priced {\n"
+                    + "    long price();\n"
+                    + "    default boolean isFree() { return price() == 0; }\n"
+                    + "}\n"),
+            source("com/example/shop/Item.java",
+                    "package com.example.shop;\n"
+                    + "public class Item implements Priced {\n"
+                    + "    protected String name;\n"
+                    + "    private long cents;\n"
+                    + "    public Item(String name, long cents) { this.name = name; this.cents = cents; }\n"
+                    + "    public long price() {\n"
+                    + "        switch ((int) (cents % 3)) {\n"
+                    + "            case 0: return cents;\n"
+                    + "            default: return Math.max(cents - 1, 0);\n"
+                    + "        }\n"
+                    + "    }\n"
+                    + "}\n"),
+            source("com/example/Broken.java", "package com.example;\npublic class Broken {\n"));
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writeJsonMatchesStreamedJson() throws Exception {
+        Path binaryFile = tempDir.resolve("result.bin");
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        try (JavaFileAnalyzer analyzer = new JavaFileAnalyzer(new AnalyzerOptions().setThreads(1));
+             BinaryResultWriter binaryWriter = new BinaryResultWriter(binaryFile);
+             StreamingResultWriter jsonWriter = new StreamingResultWriter(MAPPER, streamed)) {
+            analyzer.analyzeSources(SOURCES, fileResult -> {
+                binaryWriter.accept(fileResult);
+                jsonWriter.accept(fileResult);
+            });
+        }
+
+        ByteArrayOutputStream converted = new ByteArrayOutputStream();
+        try (BinaryResultReader reader = BinaryResultReader.open(binaryFile)) {
+            reader.writeJson(MAPPER, converted);
+        }
+
+        JsonNode expected = MAPPER.readTree(streamed.toByteArray());
+        assertTrue(expected.path("classes").size() >= 4, "sample sources should yield classes");
+        assertTrue(expected.path("graphEdges").size() > 0, "sample sources should yield call graph edges");
+        assertTrue(expected.path("processingErrors").size() > 0, "the broken source should be reported");
+        assertEquals(expected, MAPPER.readTree(converted.toByteArray()));
+    }
+
+    @Test
+    void findsClassesByName() throws Exception {
+        Path binaryFile = tempDir.resolve("result.bin");
+        try (JavaFileAnalyzer analyzer = new JavaFileAnalyzer(new AnalyzerOptions().setThreads(1));
+             BinaryResultWriter writer = new BinaryResultWriter(binaryFile)) {
+            analyzer.analyzeSources(SOURCES, writer);
+        }
+        try (BinaryResultReader reader = BinaryResultReader.open(binaryFile)) {
+            for (int ordinal = 0; ordinal < reader.getClassCount(); ordinal++) {
+                ClassAnalysisResult classResult = reader.readClass(ordinal);
+                ClassAnalysisResult found = reader.readClass(classResult.getClassName());
+                assertEquals(MAPPER.valueToTree(classResult), MAPPER.valueToTree(found));
+            }
+        }
+    }
+
+    private static JavaSource source(String name, String content) {
+        return new InMemoryJavaSource(name, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
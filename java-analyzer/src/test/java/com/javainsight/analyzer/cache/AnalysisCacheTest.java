@@ -0,0 +1,129 @@
+package com.javainsight.analyzer.cache;
+
+import com.javainsight.analyzer.FileAnalysisResult;
+import com.javainsight.analyzer.graph.CallGraph;
+import com.javainsight.analyzer.model.ClassAnalysisResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnalysisCacheTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void missThenHitUnderTheRequestedSourceName() throws IOException {
+        AnalysisCache cache = new AnalysisCache(directory, Long.MAX_VALUE);
+        String key = cache.keyFor(bytes("class A {}"));
+        assertNull(cache.load(key, "A.java"));
+
+        cache.store(key, result("stored/A.java", "p.A"));
+        FileAnalysisResult hit = cache.load(key, "renamed/A.java");
+
+        assertNotNull(hit);
+        assertEquals("renamed/A.java", hit.getSourceName());
+        assertEquals("p.A", hit.getClasses().get(0).getClassName());
+        assertEquals(1, hit.getCallGraph().edgeCount());
+        assertEquals(List.of(), files(".tmp"), "the temp file is renamed into place");
+    }
+
+    @Test
+    void keysDependOnContentAndVariant() throws IOException {
+        AnalysisCache cache = new AnalysisCache(directory, Long.MAX_VALUE);
+        byte[] content = bytes("class A {}");
+
+        assertEquals(cache.keyFor(content), cache.keyFor(content, null));
+        assertNotEquals(cache.keyFor(content), cache.keyFor(content, "lean"));
+        assertNotEquals(cache.keyFor(content), cache.keyFor(bytes("class B {}")));
+    }
+
+    @Test
+    void unreadableEntryIsAMissAndIsDiscarded() throws IOException {
+        AnalysisCache cache = new AnalysisCache(directory, Long.MAX_VALUE);
+        String key = cache.keyFor(bytes("class A {}"));
+        cache.store(key, result("A.java", "p.A"));
+        Path entry = files(".json").get(0);
+        Files.write(entry, bytes("{\"analyzerVersion\": tru"));
+
+        assertNull(cache.load(key, "A.java"));
+        assertFalse(Files.exists(entry));
+    }
+
+    @Test
+    void trimEvictsLeastRecentlyUsedEntries() throws IOException {
+        AnalysisCache unbounded = new AnalysisCache(directory, Long.MAX_VALUE);
+        String[] keys = new String[4];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = unbounded.keyFor(bytes("class C" + i + " {}"));
+            unbounded.store(keys[i], result("C" + i + ".java", "p.C" + i));
+        }
+        long entryBytes = Files.size(files(".json").get(0));
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < keys.length; i++) {
+            Files.setLastModifiedTime(entry(keys[i]), FileTime.fromMillis(now - (keys.length - i) * 60_000L));
+        }
+        unbounded.load(keys[0], "C0.java"); // a hit makes the oldest entry the most recently used
+
+        // Room for a little under three entries: trimming to 90% of that keeps two
+        new AnalysisCache(directory, entryBytes * 3 - 1).trim();
+
+        assertTrue(Files.exists(entry(keys[0])));
+        assertFalse(Files.exists(entry(keys[1])));
+        assertFalse(Files.exists(entry(keys[2])));
+        assertTrue(Files.exists(entry(keys[3])));
+    }
+
+    @Test
+    void trimKeepsEntriesUnderTheLimitAndRemovesStaleTempFiles() throws IOException {
+        AnalysisCache cache = new AnalysisCache(directory, Long.MAX_VALUE);
+        String key = cache.keyFor(bytes("class A {}"));
+        cache.store(key, result("A.java", "p.A"));
+        Path fresh = Files.createFile(entry(key).resolveSibling("fresh.tmp"));
+        Path stale = Files.createFile(entry(key).resolveSibling("stale.tmp"));
+        Files.setLastModifiedTime(stale, FileTime.fromMillis(System.currentTimeMillis() - 2 * 60 * 60 * 1000L));
+
+        cache.trim();
+
+        assertTrue(Files.exists(entry(key)));
+        assertTrue(Files.exists(fresh), "a temp file may still be being written");
+        assertFalse(Files.exists(stale));
+    }
+
+    private Path entry(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + ".json");
+    }
+
+    private List<Path> files(String suffix) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(suffix)).collect(Collectors.toList());
+        }
+    }
+
+    private static FileAnalysisResult result(String sourceName, String className) {
+        CallGraph callGraph = new CallGraph();
+        callGraph.addCall(className + ".run", "System.out.println");
+        FileAnalysisResult result = new FileAnalysisResult(sourceName, callGraph);
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        result.addClass(new ClassAnalysisResult("p", className, simpleName, false, List.of("public")));
+        return result;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
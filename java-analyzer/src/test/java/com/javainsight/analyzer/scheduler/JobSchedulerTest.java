@@ -0,0 +1,166 @@
+package com.javainsight.analyzer.scheduler;
+
+import com.javainsight.analyzer.AnalyzerOptions;
+import com.javainsight.analyzer.ArchiveAnalysisSummary;
+import com.javainsight.analyzer.ArchiveAnalyzer;
+import com.javainsight.analyzer.JavaFileAnalyzer;
+import com.javainsight.analyzer.OutputOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JobSchedulerTest {
+    private static final long LARGE_BYTES = 1024;
+    private static final long WAIT_SECONDS = 10;
+
+    @TempDir
+    Path directory;
+
+    private final JavaFileAnalyzer analyzer = new JavaFileAnalyzer(new AnalyzerOptions().setThreads(1));
+    private final ScriptedArchiveAnalyzer archiveAnalyzer = new ScriptedArchiveAnalyzer(analyzer);
+    private final Map<String, CountDownLatch> finished = new ConcurrentHashMap<>();
+
+    @AfterEach
+    void closeAnalyzer() {
+        analyzer.close();
+    }
+
+    @Test
+    void anErrorFailsTheJobAndReleasesItsSlot() throws Exception {
+        try (JobScheduler scheduler = scheduler(1)) {
+            scheduler.start();
+            scheduler.submit(job("oom", archive("oom", 10)));
+            scheduler.submit(job("overflow", archive("overflow", 10)));
+            scheduler.submit(job("next", archive("next", 10)));
+
+            awaitFinished("next");
+            assertEquals(JobRecord.FAILED, scheduler.status("oom").getStatus());
+            assertEquals("OutOfMemoryError: thrown by the test", scheduler.status("oom").getError());
+            assertEquals(JobRecord.FAILED, scheduler.status("overflow").getStatus());
+            assertEquals(JobRecord.COMPLETED, scheduler.status("next").getStatus());
+        }
+    }
+
+    @Test
+    void largeJobsNeverHoldEverySlot() throws Exception {
+        try (JobScheduler scheduler = scheduler(2)) {
+            scheduler.start();
+            JobRecord large1 = scheduler.submit(job("large1", archive("block-large1", LARGE_BYTES)));
+            JobRecord large2 = scheduler.submit(job("large2", archive("block-large2", LARGE_BYTES)));
+            scheduler.submit(job("small", archive("small", 10)));
+
+            assertTrue(large1.isLarge() && large2.isLarge());
+            awaitFinished("small"); // ran in the slot the large lane may not take
+            assertEquals(JobRecord.PROCESSING, scheduler.status("large1").getStatus());
+            assertEquals(JobRecord.QUEUED, scheduler.status("large2").getStatus());
+
+            archiveAnalyzer.release.countDown();
+            awaitFinished("large2");
+            assertEquals(JobRecord.COMPLETED, scheduler.status("large1").getStatus());
+            assertEquals(JobRecord.COMPLETED, scheduler.status("large2").getStatus());
+        }
+    }
+
+    @Test
+    void unfinishedJobsAreQueuedAgainByTheNextScheduler() throws Exception {
+        try (JobScheduler scheduler = scheduler(1)) { // never started: jobs stay queued
+            scheduler.submit(job("queued", archive("queued", 10)));
+            JobRecord invalid = new JobRecord();
+            invalid.setId("invalid");
+            assertEquals(JobRecord.FAILED, scheduler.submit(invalid).getStatus());
+        }
+
+        try (JobScheduler scheduler = scheduler(1)) {
+            List<JobRecord> recovered = scheduler.recover();
+            assertEquals(2, recovered.size());
+            assertEquals(JobRecord.QUEUED, scheduler.status("queued").getStatus());
+            assertEquals(JobRecord.FAILED, scheduler.status("invalid").getStatus());
+
+            scheduler.start();
+            awaitFinished("queued");
+            assertEquals(JobRecord.COMPLETED, scheduler.status("queued").getStatus());
+        }
+    }
+
+    @Test
+    void logReplayKeepsTheLatestLineAndCompacts() throws IOException {
+        Path logPath = directory.resolve("jobs.log");
+        long now = System.currentTimeMillis();
+        Files.write(logPath, List.of(
+                "{\"id\":\"a\",\"status\":\"queued\",\"submittedAt\":" + now + "}",
+                "{\"id\":\"old\",\"status\":\"completed\",\"submittedAt\":1,\"finishedAt\":2}",
+                "{\"id\":\"a\",\"status\":\"processing\",\"submittedAt\":" + now + ",\"startedAt\":" + now + "}",
+                "{\"id\":\"b\",\"status\":\"failed\",\"submittedAt\":" + now + ",\"finishedAt\":" + now + "}",
+                "{\"id\":\"torn\",\"sta"));
+
+        try (JobLog log = new JobLog(logPath, 60_000)) {
+            List<JobRecord> recovered = log.recovered();
+            assertEquals(2, recovered.size());
+            assertEquals("a", recovered.get(0).getId());
+            assertEquals(JobRecord.PROCESSING, recovered.get(0).getStatus());
+            assertEquals("b", recovered.get(1).getId());
+        }
+        assertEquals(2, Files.readAllLines(logPath).size(), "superseded, expired and torn lines are dropped");
+    }
+
+    private JobScheduler scheduler(int concurrentJobs) throws IOException {
+        return new JobScheduler(archiveAnalyzer, null, concurrentJobs, LARGE_BYTES, directory.resolve("jobs.log"), record -> {
+            if (record.isFinished()) finished.computeIfAbsent(record.getId(), id -> new CountDownLatch(1)).countDown();
+        });
+    }
+
+    private void awaitFinished(String id) throws InterruptedException {
+        CountDownLatch latch = finished.computeIfAbsent(id, key -> new CountDownLatch(1));
+        assertTrue(latch.await(WAIT_SECONDS, TimeUnit.SECONDS), "job " + id + " did not finish");
+    }
+
+    private Path archive(String name, long bytes) throws IOException {
+        return Files.write(directory.resolve(name + ".zip"), new byte[(int) bytes]);
+    }
+
+    private JobRecord job(String id, Path zip) {
+        JobRecord record = new JobRecord();
+        record.setId(id);
+        record.setZipFilePath(zip.toString());
+        record.setOutputPath(directory.resolve(id + ".json").toString());
+        return record;
+    }
+
+    /** Behaves by archive name: {@code oom} and {@code overflow} throw, {@code block-*} waits for {@link #release}. */
+    private static final class ScriptedArchiveAnalyzer extends ArchiveAnalyzer {
+        final CountDownLatch release = new CountDownLatch(1);
+
+        ScriptedArchiveAnalyzer(JavaFileAnalyzer analyzer) {
+            super(analyzer);
+        }
+
+        @Override
+        public ArchiveAnalysisSummary analyze(String zipFilePath, String outputTarget, OutputOptions outputOptions) throws IOException {
+            String name = Path.of(zipFilePath).getFileName().toString();
+            if (name.equals("oom.zip")) throw new OutOfMemoryError("thrown by the test");
+            if (name.equals("overflow.zip")) throw new StackOverflowError();
+            if (name.startsWith("block-")) {
+                try {
+                    if (!release.await(WAIT_SECONDS, TimeUnit.SECONDS)) throw new IOException("never released");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            return new ArchiveAnalysisSummary(zipFilePath, outputTarget, 0, 0, 0, Collections.emptyList(), 0);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+// web-app/analyzerConfig.js
+// server.js와 worker.js가 함께 쓰는 java-analyzer 실행 설정
+const path = require('path');
+
+// --- 중요: 사용자 환경에 맞게 수정 필요 ---
+const JAVA_ANALYZER_JAR_PATH = path.resolve(__dirname, '..', 'java-analyzer', 'target', 'java-analyzer-1.0-SNAPSHOT-standalone.jar');
+const JDK_JAVA_EXECUTABLE = "C:/java/jdk-17.0.0.1/bin/java.exe"; // <<= 사용자님의 실제 JDK 17 경로!
+// ------------------------------------
+
+// 업로드된 파일 하나(거대한 생성 코드 등)가 작업 전체를 붙잡지 않도록 파일별 크기/파싱 시간 제한
+// 크기 초과 파일은 개요(outline)만, 파싱 시간 초과 파일은 건너뛰고 processingErrors에 기록됩니다.
+const ANALYZER_LIMIT_ARGS = ['--parser-profile', 'lean', '--max-file-kb', '2048', '--on-oversized', 'degrade', '--max-parse-ms', '20000'];
+
+// analyzer 데몬에 보낸 작업 하나를 기다리는 최대 시간. 응답이 없으면 작업을 실패 처리하고 다음 작업으로 넘어갑니다.
+const ANALYZER_REQUEST_TIMEOUT_MS = 30 * 60 * 1000;
+
+// 결과 파일 이름의 확장자로 analyzer가 코덱을 고릅니다 (.json, .json.gz, .json.zst, .smile, .cbor).
+// gzip은 모든 브라우저가 Content-Encoding으로 받으므로 서버가 압축된 파일을 그대로 보낼 수 있습니다.
+// (.json.zst는 더 빠르지만 zstd를 받지 않는 브라우저에는 서버가 풀어서 보내야 하고, Node 22.15 이상이 필요합니다.)
+const ANALYZER_RESULT_FILE_NAME = 'analysis_output.json.gz';
+
+module.exports = { JAVA_ANALYZER_JAR_PATH, JDK_JAVA_EXECUTABLE, ANALYZER_LIMIT_ARGS, ANALYZER_REQUEST_TIMEOUT_MS, ANALYZER_RESULT_FILE_NAME };
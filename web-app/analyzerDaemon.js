@@ -0,0 +1,106 @@
+// web-app/analyzerDaemon.js
+// java-analyzer를 `--serve` 모드로 한 번만 띄워 두고, 줄 단위 JSON 프로토콜로 작업을 전달합니다.
+// (작업마다 JVM을 새로 띄우는 비용 - 기동, 클래스 로딩, JIT 워밍업 - 을 없애기 위함)
+const { spawn } = require('child_process');
+const readline = require('readline');
+
+class AnalyzerDaemon {
+    /**
+     * @param {string} javaExecutable - java 실행 파일 경로
+     * @param {string} jarPath - java-analyzer standalone JAR 경로
+     * @param {string[]} extraArgs - 예: ['--jobs', '2', '--threads', '0']
+     * @param {number} requestTimeoutMs - 이 시간 안에 응답이 없는 요청은 실패 처리 (0이면 제한 없음)
+     */
+    constructor(javaExecutable, jarPath, extraArgs = [], requestTimeoutMs = 0) {
+        this.javaExecutable = javaExecutable;
+        this.jarPath = jarPath;
+        this.extraArgs = extraArgs;
+        this.requestTimeoutMs = requestTimeoutMs;
+        this.process = null;
+        this.ready = null;
+        this.pending = new Map(); // request id -> { resolve, reject, timer }
+        this.nextRequestId = 1;
+    }
+
+    start() {
+        if (this.ready) return this.ready;
+
+        this.process = spawn(this.javaExecutable, ['-jar', this.jarPath, '--serve', ...this.extraArgs]);
+        this.process.stderr.on('data', (data) => console.error(`[AnalyzerDaemon] ${data.toString().trim()}`));
+
+        this.ready = new Promise((resolve, reject) => {
+            const lines = readline.createInterface({ input: this.process.stdout });
+            lines.on('line', (line) => {
+                let message;
+                try {
+                    message = JSON.parse(line);
+                } catch (e) {
+                    console.error(`[AnalyzerDaemon] Ignoring non-protocol output: ${line}`);
+                    return;
+                }
+                if (message.status === 'ready') {
+                    console.log(`[AnalyzerDaemon] Analyzer ready (version ${message.analyzerVersion}).`);
+                    resolve();
+                    return;
+                }
+                const waiter = this.pending.get(message.id);
+                if (waiter) {
+                    this.pending.delete(message.id);
+                    clearTimeout(waiter.timer);
+                    waiter.resolve(message);
+                }
+            });
+
+            this.process.on('error', (err) => {
+                console.error('[AnalyzerDaemon] Failed to start analyzer process:', err);
+                this.reset(err);
+                reject(err);
+            });
+            this.process.on('exit', (code) => {
+                console.error(`[AnalyzerDaemon] Analyzer process exited with code ${code}.`);
+                const err = new Error(`Analyzer process exited with code ${code}`);
+                this.reset(err);
+                reject(err);
+            });
+        });
+        return this.ready;
+    }
+
+    // 프로세스가 죽으면 대기 중인 요청을 모두 실패 처리하고, 다음 submit 때 다시 띄웁니다.
+    reset(err) {
+        this.process = null;
+        this.ready = null;
+        for (const waiter of this.pending.values()) {
+            clearTimeout(waiter.timer);
+            waiter.reject(err);
+        }
+        this.pending.clear();
+    }
+
+    /**
+     * 분석 작업 하나를 요청합니다.
+     * @returns {Promise<object>} { id, status: 'completed' | 'failed', summary?, error? }
+     */
+    async analyze(zipFilePath, outputPath, options = {}) {
+        await this.start();
+        const id = String(this.nextRequestId++);
+        return new Promise((resolve, reject) => {
+            // 응답이 오지 않는 요청(analyzer 쪽 장애 등) 때문에 호출한 쪽이 영원히 기다리지 않도록 합니다.
+            // 늦게 도착한 응답은 pending에 없으므로 무시됩니다.
+            const timer = this.requestTimeoutMs > 0
+                ? setTimeout(() => {
+                    this.pending.delete(id);
+                    reject(new Error(`Analyzer did not answer request ${id} within ${this.requestTimeoutMs} ms`));
+                }, this.requestTimeoutMs)
+                : null;
+            this.pending.set(id, { resolve, reject, timer });
+            this.process.stdin.write(JSON.stringify({ id, zipFilePath, outputPath, ...options }) + '\n');
+        });
+    }
+
+    stop() {
+        if (this.process) this.process.stdin.end(JSON.stringify({ op: 'shutdown' }) + '\n');
+    }
+}
+
+module.exports = { AnalyzerDaemon };
@@ -0,0 +1,96 @@
+// web-app/analyzerScheduler.js
+// java-analyzer를 `--schedule` 모드로 띄워 작업을 제출하고, 분석기가 보내 주는 상태 변경을 메모리에 보관합니다.
+// 큐/우선순위/동시 실행/작업 로그(append-only)는 Java 쪽 스케줄러가 맡으므로, 파일 큐 폴링이나 상태 파일 재작성이 없습니다.
+const { spawn } = require('child_process');
+const readline = require('readline');
+
+class AnalyzerScheduler {
+    /**
+     * @param {string} javaExecutable - java 실행 파일 경로
+     * @param {string} jarPath - java-analyzer standalone JAR 경로
+     * @param {string[]} extraArgs - 예: ['--jobs', '2', '--job-log', 'analysis_jobs.log']
+     * @param {(job: object) => void} onChange - 작업 상태가 바뀔 때마다 호출 (선택)
+     */
+    constructor(javaExecutable, jarPath, extraArgs = [], onChange = () => {}) {
+        this.javaExecutable = javaExecutable;
+        this.jarPath = jarPath;
+        this.extraArgs = extraArgs;
+        this.onChange = onChange;
+        this.process = null;
+        this.ready = null;
+        this.jobs = new Map(); // job id -> 분석기가 보낸 최신 작업 레코드
+    }
+
+    start() {
+        if (this.ready) return this.ready;
+
+        this.process = spawn(this.javaExecutable, ['-jar', this.jarPath, '--schedule', ...this.extraArgs]);
+        this.process.stderr.on('data', (data) => console.error(`[AnalyzerScheduler] ${data.toString().trim()}`));
+
+        this.ready = new Promise((resolve, reject) => {
+            const lines = readline.createInterface({ input: this.process.stdout });
+            lines.on('line', (line) => {
+                let message;
+                try {
+                    message = JSON.parse(line);
+                } catch (e) {
+                    console.error(`[AnalyzerScheduler] Ignoring non-protocol output: ${line}`);
+                    return;
+                }
+                if (message.status === 'ready') {
+                    // 이전 실행의 작업들 (끝나지 않은 작업은 분석기가 다시 큐에 넣음)
+                    for (const job of message.jobs || []) this.jobs.set(job.id, job);
+                    console.log(`[AnalyzerScheduler] Analyzer ready (version ${message.analyzerVersion}, ${this.jobs.size} known jobs).`);
+                    resolve();
+                    return;
+                }
+                if (!message.id || message.status === 'pong' || message.status === 'unknown') return;
+                if (!message.zipFilePath && this.jobs.has(message.id)) {
+                    // 잘못된 요청에 대한 오류 응답: 작업 레코드가 아니므로 기존 정보에 오류만 덧붙임
+                    message = { ...this.jobs.get(message.id), ...message };
+                }
+                this.jobs.set(message.id, message);
+                this.onChange(message);
+            });
+
+            this.process.on('error', (err) => {
+                console.error('[AnalyzerScheduler] Failed to start analyzer process:', err);
+                this.reset();
+                reject(err);
+            });
+            this.process.on('exit', (code) => {
+                console.error(`[AnalyzerScheduler] Analyzer process exited with code ${code}.`);
+                this.reset();
+                reject(new Error(`Analyzer process exited with code ${code}`));
+            });
+        });
+        return this.ready;
+    }
+
+    // 프로세스가 죽어도 작업은 작업 로그에 남아 있으므로, 다음 submit 때 다시 띄우면 이어서 처리됩니다.
+    reset() {
+        this.process = null;
+        this.ready = null;
+    }
+
+    /**
+     * 분석 작업을 제출합니다. 결과는 기다리지 않으며, 진행 상황은 getStatus/onChange로 확인합니다.
+     * @param {{ id: string, zipFilePath: string, outputPath: string, stream?: boolean, metrics?: boolean }} job
+     */
+    async submit(job) {
+        await this.start();
+        this.jobs.set(job.id, { ...job, status: 'queued', submittedAt: Date.now() });
+        this.process.stdin.write(JSON.stringify({ op: 'submit', ...job }) + '\n');
+    }
+
+    /** @returns {object|null} 분석기가 마지막으로 보낸 작업 레코드 */
+    getStatus(jobId) {
+        return this.jobs.get(jobId) || null;
+    }
+
+    stop() {
+        if (this.process) this.process.stdin.end(JSON.stringify({ op: 'shutdown' }) + '\n');
+    }
+}
+
+module.exports = { AnalyzerScheduler };
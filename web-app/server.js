@@ -3,8 +3,11 @@ const express = require('express');
 const multer = require('multer');
 const path = require('path');
 const fs = require('fs');
+const zlib = require('zlib');
 const cors = require('cors');
 const { v4: uuidv4 } = require('uuid');
+const { AnalyzerScheduler } = require('./analyzerScheduler');
+const { JAVA_ANALYZER_JAR_PATH, JDK_JAVA_EXECUTABLE, ANALYZER_LIMIT_ARGS, ANALYZER_RESULT_FILE_NAME } = require('./analyzerConfig');
 // jobStatusManager.js를 사용하는 대신, 직접 파일 기반 상태 관리를 한다고 가정하고 진행합니다.
 // 만약 jobStatusManager.js를 사용하고 있다면, 이 파일과 worker.js에서 해당 모듈을 require해야 합니다.
 
@@ -26,6 +29,49 @@ if (!fs.existsSync(JOBS_QUEUE_DIR)) fs.mkdirSync(JOBS_QUEUE_DIR, { recursive: tr
 // [수정] JOB_STATUS_FILE 상수 선언 추가
 const JOB_STATUSES_FILE = path.join(__dirname, 'job_statuses_store.json');
 
+// 기본적으로 analyzer의 작업 스케줄러(--schedule)에 작업을 바로 제출하고 상태는 메모리에서 읽습니다.
+// ANALYZER_SCHEDULER=false 이면 예전처럼 작업 파일 큐 + worker.js 폴링 방식을 사용합니다.
+const USE_ANALYZER_SCHEDULER = process.env.ANALYZER_SCHEDULER !== 'false';
+const ANALYZER_JOB_LOG = path.join(__dirname, 'analysis_jobs.log'); // 스케줄러의 append-only 작업 로그
+const jobMetadata = new Map(); // job id -> { originalFileName, createdAt } (분석기가 모르는 웹 쪽 정보)
+const analyzerScheduler = USE_ANALYZER_SCHEDULER
+    ? new AnalyzerScheduler(JDK_JAVA_EXECUTABLE, JAVA_ANALYZER_JAR_PATH,
+        ['--jobs', '2', '--job-log', ANALYZER_JOB_LOG, ...ANALYZER_LIMIT_ARGS], onSchedulerJobChange)
+    : null;
+
+// 끝난 작업의 업로드 ZIP은 지웁니다 (실패한 작업도 재시도하지 않으므로 삭제)
+function onSchedulerJobChange(job) {
+    if ((job.status === 'completed' || job.status === 'failed') && job.zipFilePath && fs.existsSync(job.zipFilePath)) {
+        fs.unlink(job.zipFilePath, (err) => {
+            if (err) console.error(`[API Server][Job ${job.id}] Error deleting uploaded zip ${job.zipFilePath}:`, err);
+        });
+    }
+}
+
+// 스케줄러의 작업 레코드를 파일 큐 방식과 같은 상태 응답 형태로 바꿉니다.
+function toJobStatus(job) {
+    if (!job) return null;
+    const toIso = (millis) => (millis ? new Date(millis).toISOString() : undefined);
+    const metadata = jobMetadata.get(job.id) || {};
+    return {
+        id: job.id,
+        status: job.status,
+        originalFileName: metadata.originalFileName,
+        createdAt: metadata.createdAt || toIso(job.submittedAt),
+        startedAt: toIso(job.startedAt),
+        finishedAt: toIso(job.finishedAt),
+        updatedAt: toIso(job.finishedAt || job.startedAt || job.submittedAt),
+        outputJsonPathForWorker: job.outputPath,
+        resultPath: job.status === 'completed' ? job.outputPath : undefined,
+        metrics: job.summary ? job.summary.metrics : undefined, // 단계별 소요 시간/할당량, 느린 파일 목록
+        error: job.error
+    };
+}
+
+function findJobStatus(jobId) {
+    return analyzerScheduler ? toJobStatus(analyzerScheduler.getStatus(jobId)) : readAllJobStatusesFromFile()[jobId];
+}
+
 const storage = multer.diskStorage({
     destination: (req, file, cb) => cb(null, uploadsDir),
     filename: (req, file, cb) => cb(null, `${path.parse(file.originalname).name}-${Date.now()}${path.extname(file.originalname)}`)
@@ -59,6 +105,42 @@ function writeAllJobStatusesToFile(statuses) {
 }
 // ---------------------------------------------------------
 
+// --- 결과 파일 전송: 압축된 결과는 풀지 않고 Content-Encoding을 붙여 그대로 보냅니다 ---
+// 클라이언트가 해당 인코딩을 받지 않으면 서버에서 풀어서 보냅니다.
+const RESULT_CONTENT_ENCODINGS = [
+    { suffix: '.gz', encoding: 'gzip', createDecoder: () => zlib.createGunzip() },
+    { suffix: '.zst', encoding: 'zstd', createDecoder: zlib.createZstdDecompress ? () => zlib.createZstdDecompress() : null }
+];
+const RESULT_BINARY_JSON_TYPES = { '.smile': 'application/x-jackson-smile', '.cbor': 'application/cbor' };
+
+function sendResultFile(req, res, jobId, resultPath) {
+    const compression = RESULT_CONTENT_ENCODINGS.find((c) => resultPath.endsWith(c.suffix));
+    const onError = (err) => {
+        console.error(`[API Server] Error sending result file for job ${jobId}:`, err);
+        if (res.headersSent) res.destroy(err);
+        else {
+            res.removeHeader('Content-Encoding');
+            res.status(500).json({ error: 'Failed to read analysis result file.' });
+        }
+    };
+    res.vary('Accept-Encoding');
+    res.type(RESULT_BINARY_JSON_TYPES[path.extname(resultPath)] || 'application/json');
+
+    const fileStream = fs.createReadStream(resultPath).on('error', onError);
+    if (!compression) {
+        fileStream.pipe(res);
+    } else if (req.acceptsEncodings(compression.encoding)) {
+        res.set('Content-Encoding', compression.encoding);
+        fileStream.pipe(res);
+    } else if (compression.createDecoder) {
+        fileStream.pipe(compression.createDecoder().on('error', onError)).pipe(res);
+    } else {
+        fileStream.destroy();
+        res.status(406).json({ error: `Result is ${compression.encoding}-compressed, which neither the client nor this server can decode.` });
+    }
+}
+// ---------------------------------------------------------
+
 app.post('/api/analyze', upload.single('zipFile'), (req, res) => {
     if (!req.file) {
         return res.status(400).json({ error: 'No file uploaded.' });
@@ -71,7 +153,28 @@ app.post('/api/analyze', upload.single('zipFile'), (req, res) => {
 
     const jobResultDir = path.join(resultsBaseDir, jobId);
     if (!fs.existsSync(jobResultDir)) fs.mkdirSync(jobResultDir, { recursive: true });
-    const outputJsonPathForWorker = path.join(jobResultDir, 'analysis_output.json');
+    const outputJsonPathForWorker = path.join(jobResultDir, ANALYZER_RESULT_FILE_NAME);
+
+    if (analyzerScheduler) {
+        const createdAt = new Date().toISOString();
+        jobMetadata.set(jobId, { originalFileName, createdAt });
+        analyzerScheduler.submit({ id: jobId, zipFilePath, outputPath: outputJsonPathForWorker, stream: true, metrics: true })
+            .then(() => {
+                console.log(`[API Server] Job ${jobId} submitted to analyzer scheduler for ${originalFileName}`);
+                res.status(202).json({
+                    message: 'Analysis request accepted. Will be processed shortly.',
+                    jobId: jobId,
+                    statusUrl: `/api/analysis-status/${jobId}`
+                });
+            })
+            .catch((err) => {
+                console.error(`[API Server] Failed to submit job ${jobId} to analyzer scheduler:`, err);
+                jobMetadata.delete(jobId);
+                if (fs.existsSync(zipFilePath)) fs.unlink(zipFilePath, () => {});
+                res.status(500).json({ error: 'Failed to queue analysis job.' });
+            });
+        return;
+    }
 
     const jobDataForFile = {
         id: jobId,
@@ -121,8 +224,7 @@ app.post('/api/analyze', upload.single('zipFile'), (req, res) => {
 
 app.get('/api/analysis-status/:jobId', (req, res) => {
     const jobId = req.params.jobId;
-    const allStatuses = readAllJobStatusesFromFile();
-    const jobInfo = allStatuses[jobId];
+    const jobInfo = findJobStatus(jobId);
 
     if (!jobInfo) {
         const jobTaskFilePath = path.join(JOBS_QUEUE_DIR, `${jobId}.json`);
@@ -137,8 +239,7 @@ app.get('/api/analysis-status/:jobId', (req, res) => {
 
 app.get('/api/results/:jobId', (req, res) => {
     const jobId = req.params.jobId;
-    const allStatuses = readAllJobStatusesFromFile();
-    const jobInfo = allStatuses[jobId];
+    const jobInfo = findJobStatus(jobId);
 
     if (!jobInfo || jobInfo.status !== 'completed') {
         return res.status(400).json({
@@ -150,18 +251,8 @@ app.get('/api/results/:jobId', (req, res) => {
 
     const resultPath = jobInfo.outputJsonPathForWorker; // 워커가 결과를 저장한 경로
     if (resultPath && fs.existsSync(resultPath)) {
-        fs.readFile(resultPath, 'utf8', (err, data) => {
-            if (err) {
-                console.error(`[API Server] Error reading result file for job ${jobId}:`, err);
-                return res.status(500).json({ error: 'Failed to read analysis result file.' });
-            }
-            try {
-                res.json(JSON.parse(data));
-            } catch (parseError) {
-                console.error(`[API Server] Error parsing result JSON for job ${jobId}:`, parseError);
-                res.status(500).json({ error: 'Failed to parse result data.' });
-            }
-        });
+        // 결과는 analyzer가 쓴 그대로 스트리밍합니다 (큰 결과를 메모리에 올려 파싱/재직렬화하지 않음)
+        sendResultFile(req, res, jobId, resultPath);
     } else {
         console.error(`[API Server] Result file path not found or invalid for completed job ${jobId}. Path from status: ${resultPath}`);
         res.status(404).json({ error: 'Analysis result file not found for completed job.' });
@@ -178,6 +269,10 @@ app.listen(PORT, () => {
     console.log(`API Server (server.js) running on http://localhost:${PORT}`);
     console.log(`Uploads directory: ${uploadsDir}`);
     console.log(`Analysis results base directory: ${resultsBaseDir}`);
+    if (analyzerScheduler) {
+        console.log(`Analyzer job log: ${ANALYZER_JOB_LOG}`);
+        analyzerScheduler.start().catch((err) => console.error('[API Server] Analyzer scheduler failed to start:', err));
+    }
     console.log(`Job queue directory (files): ${JOBS_QUEUE_DIR}`);
     // [수정] 로그 메시지에 정확한 상수명 사용
     console.log(`Job statuses file: ${JOB_STATUSES_FILE}`);
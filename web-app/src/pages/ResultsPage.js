@@ -1,6 +1,6 @@
 import React, { useState, useMemo } from 'react';
 // [수정] 사용하지 않는 ShareAltOutlined, InfoCircleOutlined 제거 또는 실제 사용
-import { Spin, Alert, Row, Col, Typography, Collapse, Empty, Input, Segmented, Tag, List as AntdList, Divider, Button } from 'antd';
+import { Spin, Alert, Row, Col, Typography, Collapse, Empty, Input, Segmented, Tag, List as AntdList, Divider, Button, Statistic } from 'antd';
 import { CodeOutlined, WarningOutlined, ApartmentOutlined, FileTextOutlined, IssuesCloseOutlined } from '@ant-design/icons'; // 사용되는 아이콘만 남김
 import ClassCard from '../components/ClassCard';
 import { useNavigate } from 'react-router-dom';
@@ -15,7 +15,7 @@ const ResultsPage = ({ analysisResult, isLoading, error }) => {
     const navigate = useNavigate();
 
     // [수정] Hook 호출을 조건문 앞으로 이동
-    const { classes, graphEdges, processingErrors } = analysisResult || { classes: [], graphEdges: [], processingErrors: [] };
+    const { classes, graphEdges, processingErrors, summary, dependencies } = analysisResult || { classes: [], graphEdges: [], processingErrors: [] };
 
     const filteredClasses = useMemo(() => {
         if (!classes) return [];
@@ -124,6 +124,28 @@ const ResultsPage = ({ analysisResult, isLoading, error }) => {
                 */}
             </Row>
 
+            {/* 분석기가 계산한 프로젝트 요약(summary)을 그대로 표시 - 클래스/메서드 전체를 순회하지 않음 */}
+            {summary && (
+                <Row gutter={[16, 16]} style={{ marginBottom: 24 }}>
+                    <Col xs={12} md={4}><Statistic title="Classes" value={summary.classes} /></Col>
+                    <Col xs={12} md={4}><Statistic title="Methods" value={summary.methods} /></Col>
+                    <Col xs={12} md={4}><Statistic title="LOC" value={summary.loc} /></Col>
+                    <Col xs={12} md={4}><Statistic title="Packages" value={summary.packages?.length || 0} /></Col>
+                    <Col xs={12} md={4}><Statistic title="CC p90 / max" value={`${summary.methodComplexity?.p90 ?? '-'} / ${summary.methodComplexity?.max ?? '-'}`} /></Col>
+                    <Col xs={12} md={4}><Statistic title="Warnings" value={summary.warnings} /></Col>
+                </Row>
+            )}
+            {/* 패키지 순환 의존성 - 분석기가 Tarjan SCC로 계산한 결과 */}
+            {dependencies && dependencies.packageCycles?.length > 0 && (
+                <Alert
+                    message={`${dependencies.packageCycles.length} package dependency cycle(s)`}
+                    description={dependencies.packageCycles.map(cycle => cycle.join(' ⇄ ')).join(' | ')}
+                    type="warning"
+                    showIcon
+                    style={{ marginBottom: 24 }}
+                />
+            )}
+
             <Search
                 placeholder="Filter by class name or package..."
                 allowClear
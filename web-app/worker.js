@@ -2,16 +2,21 @@
 const { spawn, execSync } = require('child_process');
 const fs = require('fs');
 const path = require('path');
+const { AnalyzerDaemon } = require('./analyzerDaemon');
+const { JAVA_ANALYZER_JAR_PATH, JDK_JAVA_EXECUTABLE, ANALYZER_LIMIT_ARGS, ANALYZER_REQUEST_TIMEOUT_MS } = require('./analyzerConfig');
 // const jobStatusManager = require('./jobStatusManager'); // 이전 jobStatusManager.js를 사용한다면 이 줄 사용
 
-// --- 중요: 사용자 환경에 맞게 수정 필요 ---
-const JAVA_ANALYZER_JAR_PATH = path.resolve(__dirname, '..', 'java-analyzer', 'target', 'java-analyzer-1.0-SNAPSHOT-standalone.jar');
-const JDK_JAVA_EXECUTABLE = "C:/java/jdk-17.0.0.1/bin/java.exe"; // <<= 사용자님의 실제 JDK 17 경로!
-// ------------------------------------
+// 참고: server.js가 기본값인 스케줄러 모드(ANALYZER_SCHEDULER=false 가 아닐 때)로 실행되면 작업 파일을 만들지 않으므로
+// 이 워커는 필요 없습니다. 파일 큐 방식(ANALYZER_SCHEDULER=false)에서만 실행하세요.
 
 const JOBS_QUEUE_DIR = path.join(__dirname, 'jobs_queue_files');
 const JOB_STATUSES_FILE = path.join(__dirname, 'job_statuses_store.json'); // server.js와 동일한 경로
 const POLLING_INTERVAL_MS = 3000; // 이전 5000ms에서 3000ms로 변경 (테스트용)
+// 기본적으로 analyzer를 데몬(--serve)으로 한 번만 띄워 재사용합니다. ANALYZER_DAEMON=false 이면 작업마다 JVM 실행.
+const USE_ANALYZER_DAEMON = process.env.ANALYZER_DAEMON !== 'false';
+const analyzerDaemon = USE_ANALYZER_DAEMON
+    ? new AnalyzerDaemon(JDK_JAVA_EXECUTABLE, JAVA_ANALYZER_JAR_PATH, ['--jobs', '2', ...ANALYZER_LIMIT_ARGS], ANALYZER_REQUEST_TIMEOUT_MS)
+    : null;
 
 // --- Helper function to manage job statuses (server.js와 동일한 로직이어야 함) ---
 function readAllJobStatusesFromFile() {
@@ -41,6 +46,47 @@ function writeAllJobStatusesToFile(statuses) {
 // --------------------------------------------------------------------
 
 
+// 작업마다 JVM을 띄우는 방식 (ANALYZER_DAEMON=false 일 때 사용)
+function runWithProcess(jobId, zipFilePath, outputJsonPath) {
+    return new Promise((resolve) => {
+        const javaProcess = spawn(`"${JDK_JAVA_EXECUTABLE}"`, ['-jar', JAVA_ANALYZER_JAR_PATH, '--stream', ...ANALYZER_LIMIT_ARGS, zipFilePath, outputJsonPath], { shell: true });
+        let stderrOutput = '';
+        let stdoutOutput = '';
+
+        javaProcess.stdout.on('data', (data) => { stdoutOutput += data.toString(); });
+        javaProcess.stderr.on('data', (data) => { stderrOutput += data.toString(); console.error(`[Worker][Job ${jobId}] Java stderr: ${data.toString().trim()}`); });
+
+        javaProcess.on('close', (code) => {
+            if (stdoutOutput.trim()) console.log(`[Worker][Job ${jobId}] Full Java stdout on close: ${stdoutOutput.trim()}`);
+            resolve({
+                ok: code === 0,
+                error: `Java process for job ${jobId} failed. Exit code: ${code}.`,
+                details: stderrOutput.trim() || "No stderr output from Java process."
+            });
+        });
+
+        javaProcess.on('error', (err) => {
+            console.error(`[Worker][Job ${jobId}] Failed to START Java process:`, err);
+            resolve({ ok: false, error: `Critical: Failed to start Java process - ${err.message}`, details: err.stack });
+        });
+    });
+}
+
+// 상주 중인 analyzer 데몬에 작업을 전달하는 방식 (기본값)
+async function runWithDaemon(jobId, zipFilePath, outputJsonPath) {
+    try {
+        const response = await analyzerDaemon.analyze(zipFilePath, outputJsonPath, { stream: true, metrics: true });
+        if (response.status === 'completed') {
+            const { metrics, ...summary } = response.summary || {};
+            console.log(`[Worker][Job ${jobId}] Analyzer summary: ${JSON.stringify(summary)}`);
+            return { ok: true, metrics }; // 단계별 소요 시간/할당량, 느린 파일 목록
+        }
+        return { ok: false, error: `Analysis for job ${jobId} failed.`, details: response.error || "No error detail from analyzer." };
+    } catch (err) {
+        return { ok: false, error: `Critical: Analyzer daemon failed - ${err.message}`, details: err.stack };
+    }
+}
+
 async function processActualJob(jobFilePath) {
     console.log(`[Worker] Attempting to process job file: ${jobFilePath}`);
     let jobDataFromFile;
@@ -88,67 +134,44 @@ async function processActualJob(jobFilePath) {
     writeAllJobStatusesToFile(statuses);
 
     try {
-        await new Promise((resolve, reject) => {
-            // outputJsonPath의 디렉토리가 존재하는지 확인 및 생성 (Java 프로세스 실행 전)
-            const outputDir = path.dirname(outputJsonPath);
-            if (!fs.existsSync(outputDir)) {
-                fs.mkdirSync(outputDir, { recursive: true });
-                console.log(`[Worker][Job ${jobId}] Created output directory for results: ${outputDir}`);
-            }
+        // outputJsonPath의 디렉토리가 존재하는지 확인 및 생성 (Java 프로세스 실행 전)
+        const outputDir = path.dirname(outputJsonPath);
+        if (!fs.existsSync(outputDir)) {
+            fs.mkdirSync(outputDir, { recursive: true });
+            console.log(`[Worker][Job ${jobId}] Created output directory for results: ${outputDir}`);
+        }
 
-            const javaProcess = spawn(`"${JDK_JAVA_EXECUTABLE}"`, ['-jar', JAVA_ANALYZER_JAR_PATH, zipFilePath, outputJsonPath], { shell: true });
-            let stderrOutput = '';
-            let stdoutOutput = '';
-
-            javaProcess.stdout.on('data', (data) => { stdoutOutput += data.toString(); });
-            javaProcess.stderr.on('data', (data) => { stderrOutput += data.toString(); console.error(`[Worker][Job ${jobId}] Java stderr: ${data.toString().trim()}`); });
-
-            javaProcess.on('close', (code) => {
-                if (stdoutOutput.trim()) console.log(`[Worker][Job ${jobId}] Full Java stdout on close: ${stdoutOutput.trim()}`);
-
-                if (fs.existsSync(zipFilePath)) {
-                    fs.unlink(zipFilePath, (err) => {
-                        if (err) console.error(`[Worker][Job ${jobId}] Error deleting uploaded zip ${zipFilePath}:`, err);
-                        else console.log(`[Worker][Job ${jobId}] Deleted uploaded zip: ${zipFilePath}`);
-                    });
-                }
-
-                statuses = readAllJobStatusesFromFile(); // 최신 상태 다시 읽기
-                if (!statuses[jobId]) { // 이런 경우는 거의 없어야 함
-                    console.error(`[Worker][Job ${jobId}] Status object disappeared after Java process! Re-initializing.`);
-                    statuses[jobId] = { id: jobId, originalFileName: originalFileName };
-                }
-
-                if (code === 0 && fs.existsSync(outputJsonPath)) {
-                    console.log(`[Worker][Job ${jobId}] Analysis successful. Output file created: ${outputJsonPath}`);
-                    statuses[jobId].status = 'completed';
-                    statuses[jobId].resultPath = outputJsonPath; // 실제 결과 파일 경로 저장
-                } else {
-                    const errorMsg = `Java process for job ${jobId} failed. Exit code: ${code}.`;
-                    console.error(`[Worker][Job ${jobId}] ${errorMsg}`);
-                    statuses[jobId].status = 'failed';
-                    statuses[jobId].error = errorMsg;
-                    statuses[jobId].details = stderrOutput.trim() || "No stderr output from Java process.";
-                }
-                statuses[jobId].finishedAt = new Date().toISOString();
-                statuses[jobId].updatedAt = new Date().toISOString();
-                writeAllJobStatusesToFile(statuses);
-                resolve();
-            });
+        const outcome = analyzerDaemon
+            ? await runWithDaemon(jobId, zipFilePath, outputJsonPath)
+            : await runWithProcess(jobId, zipFilePath, outputJsonPath);
 
-            javaProcess.on('error', (err) => {
-                if (fs.existsSync(zipFilePath)) fs.unlink(zipFilePath, () => {});
-                console.error(`[Worker][Job ${jobId}] Failed to START Java process:`, err);
-                statuses = readAllJobStatusesFromFile();
-                if (!statuses[jobId]) statuses[jobId] = { id: jobId, originalFileName: originalFileName };
-                statuses[jobId].status = 'failed';
-                statuses[jobId].error = `Critical: Failed to start Java process - ${err.message}`;
-                statuses[jobId].finishedAt = new Date().toISOString();
-                statuses[jobId].updatedAt = new Date().toISOString();
-                writeAllJobStatusesToFile(statuses);
-                reject(err);
+        if (fs.existsSync(zipFilePath)) {
+            fs.unlink(zipFilePath, (err) => {
+                if (err) console.error(`[Worker][Job ${jobId}] Error deleting uploaded zip ${zipFilePath}:`, err);
+                else console.log(`[Worker][Job ${jobId}] Deleted uploaded zip: ${zipFilePath}`);
             });
-        });
+        }
+
+        statuses = readAllJobStatusesFromFile(); // 최신 상태 다시 읽기
+        if (!statuses[jobId]) { // 이런 경우는 거의 없어야 함
+            console.error(`[Worker][Job ${jobId}] Status object disappeared after Java process! Re-initializing.`);
+            statuses[jobId] = { id: jobId, originalFileName: originalFileName };
+        }
+
+        if (outcome.ok && fs.existsSync(outputJsonPath)) {
+            console.log(`[Worker][Job ${jobId}] Analysis successful. Output file created: ${outputJsonPath}`);
+            statuses[jobId].status = 'completed';
+            statuses[jobId].resultPath = outputJsonPath; // 실제 결과 파일 경로 저장
+            if (outcome.metrics) statuses[jobId].metrics = outcome.metrics; // 어느 단계에서 시간이 걸렸는지
+        } else {
+            console.error(`[Worker][Job ${jobId}] ${outcome.error}`);
+            statuses[jobId].status = 'failed';
+            statuses[jobId].error = outcome.error;
+            statuses[jobId].details = outcome.details;
+        }
+        statuses[jobId].finishedAt = new Date().toISOString();
+        statuses[jobId].updatedAt = new Date().toISOString();
+        writeAllJobStatusesToFile(statuses);
 
         // 성공/실패 무관하게 처리된 작업 파일 삭제
         if (fs.existsSync(jobFilePath)) {